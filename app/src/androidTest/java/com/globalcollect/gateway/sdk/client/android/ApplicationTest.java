@@ -24,6 +24,21 @@ public class ApplicationTest extends ApplicationTestCase<Application> {
 		// Add the various tests to the TestSuite
 		suite.addTest(new MaskTest());
 		suite.addTest(new ValidationTest());
+		suite.addTest(new TransportTest());
+		suite.addTest(new RetryPolicyTest());
+		suite.addTest(new CircuitBreakerTest());
+		suite.addTest(new PriorityExecutorTest());
+		suite.addTest(new TaskGroupTest());
+		suite.addTest(new GcFutureTest());
+		suite.addTest(new GcSyncClientTest());
+		suite.addTest(new SessionConcurrencyTest());
+		suite.addTest(new WarmUpTest());
+		suite.addTest(new IinLookupPipelineTest());
+		suite.addTest(new IinResponseCacheTest());
+		suite.addTest(new BinRangeTableTest());
+		suite.addTest(new ResolvedCardTest());
+		suite.addTest(new ModelTypeAdapterTest());
+		suite.addTest(new AssetManagerTest());
 
 		// And run the TestSuite tests
 		TestResult result = new TestResult();
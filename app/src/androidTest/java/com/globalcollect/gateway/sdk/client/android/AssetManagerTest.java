@@ -0,0 +1,131 @@
+package com.globalcollect.gateway.sdk.client.android;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import android.graphics.drawable.Drawable;
+import android.test.AndroidTestCase;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.DefaultSdkExecutor;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.LoadLogosAsyncTask.OnLogoLoadedListener;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.SdkExecutor;
+import com.globalcollect.gateway.sdk.client.android.sdk.configuration.Constants;
+import com.globalcollect.gateway.sdk.client.android.sdk.manager.AssetManager;
+
+/**
+ * Junit Testclass which tests that the AssetManager calls every listener of a logo, also when the logo fails to load
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class AssetManagerTest extends AndroidTestCase {
+
+	private AssetManager assetManager;
+
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		assetManager = AssetManager.getInstance(getContext());
+	}
+
+
+	@Override
+	protected void tearDown() throws Exception {
+		assetManager.setSdkExecutor(DefaultSdkExecutor.getSharedInstance());
+		super.tearDown();
+	}
+
+
+	public void testLogoThatFailsToDecodeIsNotLeftPending() throws Exception {
+
+		// A cached logo which is no bitmap, for a paymentItem without a logo in the app
+		String paymentItemId = "corrupt" + System.nanoTime();
+		File directory = new File(getContext().getFilesDir() + Constants.DIRECTORY_LOGOS);
+		directory.mkdirs();
+		File logoFile = new File(directory, Constants.FILENAME_LOGO_PREFIX + paymentItemId);
+		FileOutputStream out = new FileOutputStream(logoFile);
+		try {
+			out.write("no bitmap".getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+
+		try {
+			LogoRecorder first = new LogoRecorder();
+			assetManager.loadLogo(paymentItemId, first);
+			assertTrue(first.loaded.await(5, TimeUnit.SECONDS));
+			assertNull(first.logo);
+
+			// The failed logo is no longer pending, so a later call loads it again instead of waiting forever
+			LogoRecorder second = new LogoRecorder();
+			assetManager.loadLogo(paymentItemId, second);
+			assertTrue(second.loaded.await(5, TimeUnit.SECONDS));
+			assertNull(second.logo);
+		} finally {
+			logoFile.delete();
+		}
+	}
+
+
+	public void testLogoThatCanNotBeQueuedIsNotLeftPending() throws Exception {
+		String paymentItemId = "rejected" + System.nanoTime();
+
+		assetManager.setSdkExecutor(new RejectingSdkExecutor());
+		LogoRecorder first = new LogoRecorder();
+		assetManager.loadLogo(paymentItemId, first);
+		assertTrue(first.loaded.await(5, TimeUnit.SECONDS));
+		assertNull(first.logo);
+
+		assetManager.setSdkExecutor(DefaultSdkExecutor.getSharedInstance());
+		LogoRecorder second = new LogoRecorder();
+		assetManager.loadLogo(paymentItemId, second);
+		assertTrue(second.loaded.await(5, TimeUnit.SECONDS));
+	}
+
+
+	private static class LogoRecorder implements OnLogoLoadedListener {
+
+		private final CountDownLatch loaded = new CountDownLatch(1);
+		private volatile Drawable logo;
+
+		@Override
+		public void onLogoLoaded(String paymentItemId, Drawable logo) {
+			this.logo = logo;
+			loaded.countDown();
+		}
+	}
+
+
+	/**
+	 * SdkExecutor whose executors refuse all work, like an executor that has been shut down
+	 */
+	private static class RejectingSdkExecutor extends SdkExecutor {
+
+		private final Executor executor = new Executor() {
+			@Override
+			public void execute(Runnable runnable) {
+				throw new RejectedExecutionException("Executor is shut down");
+			}
+		};
+
+		@Override
+		public Executor getIoExecutor(Priority priority) {
+			return executor;
+		}
+
+		@Override
+		public Executor getCpuExecutor(Priority priority) {
+			return executor;
+		}
+
+		@Override
+		public Executor getMainThreadExecutor() {
+			return executor;
+		}
+	}
+}
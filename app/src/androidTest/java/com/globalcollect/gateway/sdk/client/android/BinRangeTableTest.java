@@ -0,0 +1,131 @@
+package com.globalcollect.gateway.sdk.client.android;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import android.test.AndroidTestCase;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.manager.BinRangeTable;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinStatus;
+
+/**
+ * Junit Testclass which tests the brand recognition, the delta updates and the lookup time of the BinRangeTable
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class BinRangeTableTest extends AndroidTestCase {
+
+	private File file;
+	private BinRangeTable table;
+
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		file = new File(getContext().getFilesDir(), "binranges-test.table");
+		file.delete();
+		table = new BinRangeTable(getContext(), file);
+	}
+
+
+	@Override
+	protected void tearDown() throws Exception {
+		file.delete();
+		super.tearDown();
+	}
+
+
+	public void testBrandIsRecognisedFromTheFirstDigits() {
+
+		// Lookups on the main thread never read the ranges themselves, and are not answered before they are loaded
+		assertFalse(table.isLoaded());
+		assertFalse(table.isEmpty());
+		assertNull(table.getPaymentProductId("4"));
+
+		// The ranges are bundled in the assets of the SDK, so every app that uses the SDK has them
+		table.load();
+		assertTrue(table.isLoaded());
+		assertFalse(table.isEmpty());
+
+		assertEquals(1, table.getVersion());
+		assertEquals("1", table.getPaymentProductId("4"));
+		assertEquals("1", table.getPaymentProductId("4567350000000"));
+		assertEquals("3", table.getPaymentProductId("51"));
+		assertEquals("2", table.getPaymentProductId("37"));
+
+		// Digits that more than one brand starts with, or no brand at all, are not recognised
+		assertNull(table.getPaymentProductId("5"));
+		assertNull(table.getPaymentProductId("3"));
+		assertNull(table.getPaymentProductId("9"));
+		assertNull(table.getPaymentProductId(""));
+		assertNull(table.getPaymentProductId("4x"));
+
+		assertEquals(IinStatus.PROVISIONAL, table.getProvisionalIinDetails("4").getStatus());
+		assertNull(table.getProvisionalIinDetails("5"));
+	}
+
+
+	public void testDeltaUpdatesTheRangesAndIsStored() throws Exception {
+		table.applyDelta(createDelta(1, 2, new int[] { 450000, 459999, 500000, 509999 }, new String[] { "117", "" }));
+		assertEquals(2, table.getVersion());
+		assertEquals("117", table.getPaymentProductId("45"));
+		assertEquals("1", table.getPaymentProductId("46"));
+		assertNull(table.getPaymentProductId("4"));
+		assertNull(table.getPaymentProductId("50"));
+
+		// A new table uses the stored ranges
+		BinRangeTable reloaded = new BinRangeTable(getContext(), file);
+		assertEquals(2, reloaded.getVersion());
+		assertEquals("117", reloaded.getPaymentProductId("45"));
+
+		// A delta for another version is refused, and the ranges stay as they are
+		try {
+			reloaded.applyDelta(createDelta(1, 3, new int[] { 400000, 499999 }, new String[] { "" }));
+			fail("An IOException should have been thrown");
+		} catch (IOException e) {
+			// expected
+		}
+		assertEquals(2, reloaded.getVersion());
+		assertEquals("1", reloaded.getPaymentProductId("46"));
+	}
+
+
+	public void testLookupTakesLessThanAMicrosecond() {
+		String[] inputs = { "4", "51", "3", "6011", "456735", "37", "5", "9", "2221", "35" };
+
+		// Load the table and warm up before measuring
+		table.load();
+		for (int i = 0; i < 100000; i++) {
+			table.getPaymentProductId(inputs[i % inputs.length]);
+		}
+
+		int lookups = 1000000;
+		long start = System.nanoTime();
+		for (int i = 0; i < lookups; i++) {
+			table.getPaymentProductId(inputs[i % inputs.length]);
+		}
+		long nanosPerLookup = (System.nanoTime() - start) / lookups;
+		assertTrue("A lookup took " + nanosPerLookup + " ns", nanosPerLookup < 1000);
+	}
+
+
+	private ByteArrayInputStream createDelta(int baseVersion, int version, int[] bins, String[] paymentProductIds) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(BinRangeTable.DELTA_MAGIC);
+		out.writeInt(baseVersion);
+		out.writeInt(version);
+		out.writeInt(paymentProductIds.length);
+		for (int i = 0; i < paymentProductIds.length; i++) {
+			out.writeInt(bins[2 * i]);
+			out.writeInt(bins[2 * i + 1]);
+			out.writeUTF(paymentProductIds[i]);
+		}
+		out.close();
+		return new ByteArrayInputStream(bytes.toByteArray());
+	}
+}
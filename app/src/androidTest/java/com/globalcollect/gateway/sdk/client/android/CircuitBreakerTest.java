@@ -0,0 +1,142 @@
+package com.globalcollect.gateway.sdk.client.android;
+
+import java.io.ByteArrayInputStream;
+
+import android.test.AndroidTestCase;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCircuitBreaker;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCircuitBreaker.State;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCommunicator;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCommunicatorConfiguration;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sEndpoint;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRequest;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sResponse;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sResponseCache;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sTransport;
+import com.globalcollect.gateway.sdk.client.android.sdk.exception.CircuitOpenException;
+import com.globalcollect.gateway.sdk.client.android.sdk.exception.CommunicationException;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.Environment.EnvironmentType;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.Region;
+
+/**
+ * Junit Testclass which tests the C2sCircuitBreaker
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class CircuitBreakerTest extends AndroidTestCase {
+
+
+	public void testCircuitOpensWhenFailureRateIsReached() throws Exception {
+		C2sCircuitBreaker circuitBreaker = new C2sCircuitBreaker();
+		circuitBreaker.setWindow(10, 4);
+
+		// Three failures are not enough outcomes to open the circuit
+		for (int i = 0; i < 3; i++) {
+			circuitBreaker.acquire(C2sEndpoint.IIN_DETAILS);
+			circuitBreaker.onFailure(C2sEndpoint.IIN_DETAILS);
+		}
+		assertEquals(State.CLOSED, circuitBreaker.getState(C2sEndpoint.IIN_DETAILS));
+
+		// The fourth outcome reaches the failure rate of 0.5
+		circuitBreaker.acquire(C2sEndpoint.IIN_DETAILS);
+		circuitBreaker.onResponse(C2sEndpoint.IIN_DETAILS, 200, 10);
+		assertEquals(State.OPEN, circuitBreaker.getState(C2sEndpoint.IIN_DETAILS));
+
+		try {
+			circuitBreaker.acquire(C2sEndpoint.IIN_DETAILS);
+			fail("The open circuit should have refused the request");
+		} catch (CircuitOpenException e) {
+			// expected
+		}
+
+		// Other endpoints have their own circuit
+		circuitBreaker.acquire(C2sEndpoint.PUBLIC_KEY);
+		assertEquals(State.CLOSED, circuitBreaker.getState(C2sEndpoint.PUBLIC_KEY));
+	}
+
+
+	public void testSlowAndServerErrorResponsesCountAsFailures() throws Exception {
+		C2sCircuitBreaker circuitBreaker = new C2sCircuitBreaker();
+		circuitBreaker.setWindow(4, 4);
+		circuitBreaker.setFailureRateThreshold(1);
+		circuitBreaker.setSlowCallThreshold(100);
+
+		circuitBreaker.onResponse(C2sEndpoint.BASIC_PAYMENT_PRODUCTS, 404, 10);
+		circuitBreaker.onResponse(C2sEndpoint.BASIC_PAYMENT_PRODUCTS, 503, 10);
+		circuitBreaker.onResponse(C2sEndpoint.BASIC_PAYMENT_PRODUCTS, 200, 500);
+		circuitBreaker.onFailure(C2sEndpoint.BASIC_PAYMENT_PRODUCTS);
+		assertEquals(State.CLOSED, circuitBreaker.getState(C2sEndpoint.BASIC_PAYMENT_PRODUCTS));
+
+		// The 404 drops out of the window
+		circuitBreaker.onResponse(C2sEndpoint.BASIC_PAYMENT_PRODUCTS, 429, 10);
+		assertEquals(State.OPEN, circuitBreaker.getState(C2sEndpoint.BASIC_PAYMENT_PRODUCTS));
+	}
+
+
+	public void testHalfOpenCircuitIsProbed() throws Exception {
+		C2sCircuitBreaker circuitBreaker = new C2sCircuitBreaker();
+		circuitBreaker.setWindow(1, 1);
+		circuitBreaker.setOpenDuration(50);
+
+		circuitBreaker.onFailure(C2sEndpoint.PAYMENT_PRODUCT);
+		assertEquals(State.OPEN, circuitBreaker.getState(C2sEndpoint.PAYMENT_PRODUCT));
+		Thread.sleep(60);
+		assertEquals(State.HALF_OPEN, circuitBreaker.getState(C2sEndpoint.PAYMENT_PRODUCT));
+
+		// Only one probe is let through, and its failure opens the circuit again
+		circuitBreaker.acquire(C2sEndpoint.PAYMENT_PRODUCT);
+		try {
+			circuitBreaker.acquire(C2sEndpoint.PAYMENT_PRODUCT);
+			fail("The half-open circuit should have refused a second probe");
+		} catch (CircuitOpenException e) {
+			// expected
+		}
+		circuitBreaker.onFailure(C2sEndpoint.PAYMENT_PRODUCT);
+		assertEquals(State.OPEN, circuitBreaker.getState(C2sEndpoint.PAYMENT_PRODUCT));
+
+		// A successful probe closes the circuit
+		Thread.sleep(60);
+		circuitBreaker.acquire(C2sEndpoint.PAYMENT_PRODUCT);
+		circuitBreaker.onResponse(C2sEndpoint.PAYMENT_PRODUCT, 200, 10);
+		assertEquals(State.CLOSED, circuitBreaker.getState(C2sEndpoint.PAYMENT_PRODUCT));
+	}
+
+
+	public void testProbeThatThrowsIsCountedAsFailure() throws Exception {
+		C2sCircuitBreaker circuitBreaker = new C2sCircuitBreaker();
+		circuitBreaker.setWindow(1, 1);
+		circuitBreaker.setOpenDuration(50);
+
+		// A transport which throws an unchecked exception while it is broken, like a connection pool that is closed
+		final boolean[] broken = { true };
+		C2sCommunicatorConfiguration configuration = new C2sCommunicatorConfiguration("session", "customer", Region.EU, EnvironmentType.Sandbox);
+		configuration.setBaseUrl("https://gateway.invalid/");
+		configuration.setResponseCache(new C2sResponseCache(0));
+		configuration.setCircuitBreaker(circuitBreaker);
+		configuration.setTransport(new C2sTransport() {
+			@Override
+			public C2sResponse execute(C2sRequest request) throws CommunicationException {
+				if (broken[0]) {
+					throw new IllegalStateException("Connection pool is closed");
+				}
+				return new C2sResponse(request.getUrl(), 200, null, new ByteArrayInputStream("{\"keyId\":\"key\",\"publicKey\":\"key\"}".getBytes()));
+			}
+		});
+		C2sCommunicator communicator = C2sCommunicator.getInstance(configuration);
+
+		circuitBreaker.onFailure(C2sEndpoint.PUBLIC_KEY);
+		Thread.sleep(60);
+		assertEquals(State.HALF_OPEN, circuitBreaker.getState(C2sEndpoint.PUBLIC_KEY));
+
+		// The probe that throws gives back its slot and opens the circuit again
+		assertNull(communicator.getPublicKey(getContext()));
+		assertEquals(State.OPEN, circuitBreaker.getState(C2sEndpoint.PUBLIC_KEY));
+
+		// So the next probe is let through, and closes the circuit
+		broken[0] = false;
+		Thread.sleep(60);
+		assertNotNull(communicator.getPublicKey(getContext()));
+		assertEquals(State.CLOSED, circuitBreaker.getState(C2sEndpoint.PUBLIC_KEY));
+	}
+}
@@ -0,0 +1,88 @@
+package com.globalcollect.gateway.sdk.client.android;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+import android.test.AndroidTestCase;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.session.GcFuture;
+import com.globalcollect.gateway.sdk.client.android.sdk.session.GcFuture.AsyncFunction;
+import com.globalcollect.gateway.sdk.client.android.sdk.session.GcFuture.Function;
+
+/**
+ * Junit Testclass which tests chaining, joining and cancelling GcFutures
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class GcFutureTest extends AndroidTestCase {
+
+
+	public void testThenComposeChainsOperations() throws Exception {
+		GcFuture<String> product = new GcFuture<String>();
+		final GcFuture<String> directory = new GcFuture<String>();
+
+		GcFuture<Integer> chained = product.thenCompose(new AsyncFunction<String, String>() {
+			@Override
+			public GcFuture<String> apply(String productId) {
+				assertEquals("809", productId);
+				return directory;
+			}
+		}).then(new Function<String, Integer>() {
+			@Override
+			public Integer apply(String issuers) {
+				return issuers.split(",").length;
+			}
+		});
+
+		product.complete("809");
+		assertFalse(chained.isDone());
+		directory.complete("ABN,ING,RABO");
+		assertEquals(Integer.valueOf(3), chained.get());
+	}
+
+
+	public void testAllOfJoinsResultsAndFailures() throws Exception {
+		GcFuture<String> first = new GcFuture<String>();
+		GcFuture<Long> second = new GcFuture<Long>();
+		GcFuture<List<Object>> joined = GcFuture.allOf(first, second);
+
+		second.complete(100L);
+		first.complete("EUR");
+		assertEquals("EUR", joined.get().get(0));
+		assertEquals(100L, joined.get().get(1));
+
+		GcFuture<String> failing = new GcFuture<String>();
+		GcFuture<List<Object>> failed = GcFuture.allOf(new GcFuture<String>(), failing);
+		failing.fail(new IllegalStateException("failed"));
+		try {
+			failed.get();
+			fail("The failure of the joined future should have been thrown");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+	}
+
+
+	public void testCancelPropagatesToSourceFutures() throws Exception {
+		GcFuture<String> first = new GcFuture<String>();
+		GcFuture<String> second = new GcFuture<String>();
+		GcFuture<List<Object>> joined = GcFuture.allOf(first, second);
+
+		assertTrue(joined.cancel());
+		assertTrue(first.isCancelled());
+		assertTrue(second.isCancelled());
+		try {
+			joined.get();
+			fail("The cancellation should have been thrown");
+		} catch (CancellationException e) {
+			// expected
+		}
+
+		// A completed future is not cancelled
+		GcFuture<String> completed = GcFuture.completed("done");
+		assertFalse(completed.cancel());
+		assertEquals("done", completed.get());
+	}
+}
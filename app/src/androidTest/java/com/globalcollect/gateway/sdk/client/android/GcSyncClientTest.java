@@ -0,0 +1,119 @@
+package com.globalcollect.gateway.sdk.client.android;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.test.AndroidTestCase;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRecording;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRequest;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.ReplayTransport;
+import com.globalcollect.gateway.sdk.client.android.sdk.exception.CommunicationException;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.AmountOfMoney;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.CountryCode;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.CurrencyCode;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentContext;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentItems;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.PaymentProduct;
+import com.globalcollect.gateway.sdk.client.android.sdk.session.GcSession;
+import com.globalcollect.gateway.sdk.client.android.sdk.session.GcSyncClient;
+
+/**
+ * Junit Testclass which tests that the GcSyncClient blocks for its result and shares the caches of the session
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class GcSyncClientTest extends AndroidTestCase {
+
+	private static final String QUERY = "?countryCode=NL&amount=1000&isRecurring=false&currencyCode=EUR";
+
+	private ReplayTransport transport;
+	private GcSyncClient client;
+	private PaymentContext paymentContext = new PaymentContext(new AmountOfMoney(1000L, CurrencyCode.EUR), CountryCode.NL, false);
+
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		List<C2sRecording> recordings = new ArrayList<C2sRecording>();
+		recordings.add(new C2sRecording(C2sRequest.METHOD_GET, "/customer/products" + QUERY + "&hide=fields", 200, null, "{\"paymentProducts\":[{\"id\":\"1\"}]}".getBytes("UTF-8")));
+		recordings.add(new C2sRecording(C2sRequest.METHOD_GET, "/customer/productgroups" + QUERY + "&hide=fields", 200, null, "{\"paymentProductGroups\":[]}".getBytes("UTF-8")));
+		recordings.add(new C2sRecording(C2sRequest.METHOD_GET, "/customer/products/1" + QUERY, 200, null, "{\"id\":\"1\",\"fields\":[]}".getBytes("UTF-8")));
+		recordings.add(new C2sRecording(C2sRequest.METHOD_GET, "/customer/crypto/publickey", 200, null, "{\"keyId\":\"key\",\"publicKey\":\"key\"}".getBytes("UTF-8")));
+		transport = new ReplayTransport(recordings);
+
+		client = new GcSyncClient(GcSession.getInstance(ReplayCommunicatorFactory.create(getContext(), transport, "syncclient")));
+	}
+
+
+	public void testResultsAreServedFromTheSessionCache() throws Exception {
+		BasicPaymentItems basicPaymentItems = client.getBasicPaymentItems(getContext(), paymentContext, true);
+		assertEquals(1, basicPaymentItems.getBasicPaymentItems().size());
+		assertEquals(2, transport.getRequestCount());
+
+		client.getBasicPaymentItems(getContext(), paymentContext, true);
+		assertEquals(2, transport.getRequestCount());
+
+		PaymentProduct paymentProduct = client.getPaymentProduct(getContext(), "1", paymentContext);
+		assertEquals("1", paymentProduct.getId());
+		assertSame(paymentProduct, client.getPaymentProduct(getContext(), "1", paymentContext));
+		assertEquals(3, transport.getRequestCount());
+	}
+
+
+	public void testCallsCompleteWhileTheMainThreadIsBusy() throws Exception {
+
+		// Keep the main thread busy until the client has its results
+		final CountDownLatch mainThreadBusy = new CountDownLatch(1);
+		final CountDownLatch mainThreadReleased = new CountDownLatch(1);
+		new Handler(Looper.getMainLooper()).post(new Runnable() {
+			@Override
+			public void run() {
+				mainThreadBusy.countDown();
+				try {
+					mainThreadReleased.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		assertTrue(mainThreadBusy.await(5, TimeUnit.SECONDS));
+
+		ExecutorService worker = Executors.newSingleThreadExecutor();
+		try {
+			Future<PaymentProduct> paymentProduct = worker.submit(new Callable<PaymentProduct>() {
+				@Override
+				public PaymentProduct call() throws Exception {
+					client.getBasicPaymentItems(getContext(), paymentContext, true);
+					client.getPublicKey(getContext());
+					return client.getPaymentProduct(getContext(), "1", paymentContext);
+				}
+			});
+			assertEquals("1", paymentProduct.get(5, TimeUnit.SECONDS).getId());
+			assertEquals(4, transport.getRequestCount());
+		} finally {
+			mainThreadReleased.countDown();
+			worker.shutdown();
+		}
+	}
+
+
+	public void testMissingResultThrowsCommunicationException() throws Exception {
+		try {
+			client.getPaymentProduct(getContext(), "2", paymentContext);
+			fail("A CommunicationException should have been thrown");
+		} catch (CommunicationException e) {
+			// expected
+		}
+	}
+}
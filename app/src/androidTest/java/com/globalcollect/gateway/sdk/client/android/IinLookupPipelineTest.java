@@ -0,0 +1,194 @@
+package com.globalcollect.gateway.sdk.client.android;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.test.AndroidTestCase;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.IinLookupAsyncTask.OnIinLookupCompleteListener;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRecording;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRequest;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.ReplayTransport;
+import com.globalcollect.gateway.sdk.client.android.sdk.manager.BinRangeTable;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.AmountOfMoney;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.CountryCode;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.CurrencyCode;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentContext;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetailsResponse;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinStatus;
+import com.globalcollect.gateway.sdk.client.android.sdk.session.GcSession;
+import com.globalcollect.gateway.sdk.client.android.sdk.session.IinLookupPipeline;
+
+/**
+ * Junit Testclass which tests that the IinLookupPipeline looks up every prefix once and only reports the result for the latest input
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class IinLookupPipelineTest extends AndroidTestCase {
+
+	private ReplayTransport transport;
+	private IinLookupPipeline pipeline;
+	private List<IinDetailsResponse> results = Collections.synchronizedList(new ArrayList<IinDetailsResponse>());
+	private CountDownLatch supported = new CountDownLatch(1);
+
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		List<C2sRecording> recordings = new ArrayList<C2sRecording>();
+		recordings.add(new C2sRecording(C2sRequest.METHOD_POST, "/customer/services/getIINdetails", 200, null, "{\"paymentProductId\":\"1\",\"isAllowedInContext\":true}".getBytes("UTF-8")));
+		transport = new ReplayTransport(recordings);
+
+		GcSession session = GcSession.getInstance(ReplayCommunicatorFactory.create(getContext(), transport, "pipeline"));
+
+		// Only the IIN lookups are counted, not the PaymentProducts that are prefetched for them
+		session.setPrefetchOnIinLookup(false);
+		PaymentContext paymentContext = new PaymentContext(new AmountOfMoney(1000L, CurrencyCode.EUR), CountryCode.NL, false);
+
+		pipeline = new IinLookupPipeline(getContext(), session, new OnIinLookupCompleteListener() {
+			@Override
+			public void onIinLookupComplete(IinDetailsResponse response) {
+				results.add(response);
+				if (response.getStatus() == IinStatus.SUPPORTED) {
+					supported.countDown();
+				}
+			}
+		}, paymentContext);
+
+		// The pipeline reads the bundled BIN ranges in the background; the tests type right away
+		BinRangeTable.getInstance(getContext()).load();
+	}
+
+
+	public void testTypingLooksUpTheLatestPrefixOnce() throws Exception {
+		pipeline.setQuietPeriod(100);
+
+		// The user types faster than the quiet period
+		runOnMainThread(new Runnable() {
+			@Override
+			public void run() {
+				String[] inputs = { "4", "45", "456", "4567", "4567 3", "4567 35", "4567 350", "4567 3501" };
+				for (String input : inputs) {
+					pipeline.onInput(input);
+				}
+			}
+		});
+		assertTrue(supported.await(5, TimeUnit.SECONDS));
+		assertEquals(1, transport.getRequestCount());
+
+		// Every input is answered right away from the bundled BIN ranges, the prefix once more by the GC gateway
+		assertEquals(5 + 1 + 1, results.size());
+		for (int i = 0; i < 6; i++) {
+			assertEquals(IinStatus.PROVISIONAL, results.get(i).getStatus());
+			assertEquals("1", results.get(i).getPaymentProductId());
+		}
+
+		// More digits of the same prefix are answered with the result that is known
+		runOnMainThread(new Runnable() {
+			@Override
+			public void run() {
+				pipeline.onInput("4567 3501 2");
+			}
+		});
+		assertEquals(1, transport.getRequestCount());
+		assertEquals(IinStatus.SUPPORTED, results.get(results.size() - 1).getStatus());
+	}
+
+
+	public void testNewPrefixSupersedesLookupInFlight() throws Exception {
+		pipeline.setQuietPeriod(0);
+		transport.setLatency(300);
+
+		runOnMainThread(new Runnable() {
+			@Override
+			public void run() {
+				pipeline.onInput("456735");
+			}
+		});
+		Thread.sleep(50);
+		runOnMainThread(new Runnable() {
+			@Override
+			public void run() {
+				pipeline.onInput("512345");
+			}
+		});
+
+		// Only the lookup of the latest prefix is reported, the superseded one is cancelled
+		assertTrue(supported.await(5, TimeUnit.SECONDS));
+		Thread.sleep(400);
+		assertEquals(2 + 1, results.size());
+		assertEquals("3", results.get(1).getPaymentProductId());
+		assertEquals(IinStatus.SUPPORTED, results.get(2).getStatus());
+	}
+
+
+	public void testPrefixLookedUpBeforeIsAnsweredWithoutTheGateway() throws Exception {
+		pipeline.setQuietPeriod(0);
+
+		runOnMainThread(new Runnable() {
+			@Override
+			public void run() {
+				pipeline.onInput("512345");
+			}
+		});
+		assertTrue(supported.await(5, TimeUnit.SECONDS));
+		assertEquals(1, transport.getRequestCount());
+
+		// Shorter input gets the brand of the issuer that was looked up, instead of the brand of the BIN ranges
+		results.clear();
+		runOnMainThread(new Runnable() {
+			@Override
+			public void run() {
+				pipeline.onInput("5123");
+				pipeline.onInput("5123 4");
+				pipeline.onInput("5123 45");
+				pipeline.onInput("5123 4567");
+			}
+		});
+		assertEquals(4, results.size());
+		assertEquals(IinStatus.PROVISIONAL, results.get(0).getStatus());
+		assertEquals("1", results.get(0).getPaymentProductId());
+		assertEquals(IinStatus.PROVISIONAL, results.get(1).getStatus());
+
+		// The prefix itself is answered by the cached result, without asking the GC gateway again
+		assertEquals(IinStatus.SUPPORTED, results.get(2).getStatus());
+		assertEquals(IinStatus.SUPPORTED, results.get(3).getStatus());
+		Thread.sleep(100);
+		assertEquals(4, results.size());
+		assertEquals(1, transport.getRequestCount());
+
+		// Input that is too short and unknown gets its own response for every keystroke, so a listener that changes one does not change the next
+		results.clear();
+		runOnMainThread(new Runnable() {
+			@Override
+			public void run() {
+				pipeline.onInput("9");
+				pipeline.onInput("99");
+			}
+		});
+		assertEquals(IinStatus.NOT_ENOUGH_DIGITS, results.get(0).getStatus());
+		results.get(0).setStatus(IinStatus.UNKNOWN);
+		assertNotSame(results.get(0), results.get(1));
+		assertEquals(IinStatus.NOT_ENOUGH_DIGITS, results.get(1).getStatus());
+	}
+
+
+	private void runOnMainThread(final Runnable runnable) throws InterruptedException {
+		final CountDownLatch done = new CountDownLatch(1);
+		new Handler(Looper.getMainLooper()).post(new Runnable() {
+			@Override
+			public void run() {
+				runnable.run();
+				done.countDown();
+			}
+		});
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+	}
+}
@@ -0,0 +1,158 @@
+package com.globalcollect.gateway.sdk.client.android;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import android.test.AndroidTestCase;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.GcUtil;
+import com.globalcollect.gateway.sdk.client.android.sdk.caching.IinResponseCache;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCommunicator;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRecording;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRequest;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.ReplayTransport;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.AmountOfMoney;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.CountryCode;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.CurrencyCode;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentContext;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetailsResponse;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinStatus;
+
+/**
+ * Junit Testclass which tests that the IinResponseCache is bounded, expires its entries and survives restarts of the app
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class IinResponseCacheTest extends AndroidTestCase {
+
+	private static final long HOUR = 60 * 60 * 1000L;
+
+	private File file;
+	private PaymentContext paymentContext = new PaymentContext(new AmountOfMoney(1000L, CurrencyCode.EUR), CountryCode.NL, false);
+
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		file = new File(getContext().getFilesDir(), "iinresponse-test.log");
+		file.delete();
+	}
+
+
+	@Override
+	protected void tearDown() throws Exception {
+		file.delete();
+		super.tearDown();
+	}
+
+
+	public void testResponsesSurviveANewCache() throws Exception {
+		String key = IinResponseCache.createKey("456735", paymentContext);
+		new IinResponseCache(10, HOUR, file).put(key, new IinDetailsResponse(IinStatus.SUPPORTED), getContext());
+
+		IinResponseCache cache = new IinResponseCache(10, HOUR, file);
+		assertEquals(IinStatus.SUPPORTED, cache.get(key, getContext()).getStatus());
+		assertNull(cache.get(IinResponseCache.createKey("456735", null), getContext()));
+		assertEquals(1, cache.getHitCount());
+
+		// Every get returns a copy, so changing it does not change the cache
+		cache.get(key, getContext()).setStatus(IinStatus.UNKNOWN);
+		assertEquals(IinStatus.SUPPORTED, cache.get(key, getContext()).getStatus());
+	}
+
+
+	public void testLeastRecentlyUsedAndExpiredResponsesAreDropped() throws Exception {
+		IinResponseCache cache = new IinResponseCache(2, HOUR, file);
+		cache.put("1", new IinDetailsResponse(IinStatus.SUPPORTED), getContext());
+		cache.put("2", new IinDetailsResponse(IinStatus.SUPPORTED), getContext());
+		cache.get("1", getContext());
+		cache.put("3", new IinDetailsResponse(IinStatus.SUPPORTED), getContext());
+		assertNotNull(cache.get("1", getContext()));
+		assertNull(cache.get("2", getContext()));
+
+		// The log is compacted, and still holds only the live entries
+		for (int i = 0; i < 10; i++) {
+			cache.put("3", new IinDetailsResponse(IinStatus.SUPPORTED), getContext());
+		}
+		IinResponseCache reloaded = new IinResponseCache(2, HOUR, file);
+		assertNotNull(reloaded.get("1", getContext()));
+		assertNull(reloaded.get("2", getContext()));
+		assertNotNull(reloaded.get("3", getContext()));
+
+		IinResponseCache expiring = new IinResponseCache(2, 0, file);
+		expiring.put("4", new IinDetailsResponse(IinStatus.SUPPORTED), getContext());
+		assertNull(expiring.get("4", getContext()));
+	}
+
+
+	public void testDamagedLogIsDiscarded() throws Exception {
+		new IinResponseCache(10, HOUR, file).put("1", new IinDetailsResponse(IinStatus.SUPPORTED), getContext());
+
+		// An app that is killed while appending leaves a partial record
+		FileOutputStream out = new FileOutputStream(file, true);
+		out.write(new byte[] { 0, 1 });
+		out.close();
+
+		IinResponseCache cache = new IinResponseCache(10, HOUR, file);
+		assertNotNull(cache.get("1", getContext()));
+		cache.put("2", new IinDetailsResponse(IinStatus.SUPPORTED), getContext());
+		assertNotNull(new IinResponseCache(10, HOUR, file).get("2", getContext()));
+	}
+
+
+	public void testLongestMatchAnswersInputOfAnyLength() throws Exception {
+		IinResponseCache cache = new IinResponseCache(3, HOUR, file);
+		cache.put(IinResponseCache.createKey("456735", paymentContext), createResponse("1"), getContext());
+		cache.put(IinResponseCache.createKey("456736", paymentContext), createResponse("1"), getContext());
+		cache.put(IinResponseCache.createKey("457000", paymentContext), createResponse("3"), getContext());
+
+		// A new cache is warmed from the log
+		cache = new IinResponseCache(3, HOUR, file);
+		assertFalse(cache.isLoaded());
+		cache.load(getContext());
+		assertTrue(cache.isLoaded());
+
+		// Longer input is answered by the response of its longest cached prefix, which needs no confirmation
+		IinDetailsResponse response = cache.getLongestMatch("4567351234", paymentContext, getContext());
+		assertEquals("1", response.getPaymentProductId());
+		assertNull(response.getStatus());
+		assertNull(cache.getLongestMatch("4567371234", paymentContext, getContext()));
+		assertNull(cache.getLongestMatch("4567351234", null, getContext()));
+
+		// Shorter input is answered provisionally when the cached prefixes that start with it agree on the brand
+		assertEquals(IinStatus.PROVISIONAL, cache.getLongestMatch("4567", paymentContext, getContext()).getStatus());
+		assertEquals("1", cache.getLongestMatch("4567", paymentContext, getContext()).getPaymentProductId());
+		assertEquals("3", cache.getLongestMatch("457", paymentContext, getContext()).getPaymentProductId());
+		assertNull(cache.getLongestMatch("45", paymentContext, getContext()));
+
+		// Evicted responses no longer answer shorter input
+		cache.get(IinResponseCache.createKey("456735", paymentContext), getContext());
+		cache.get(IinResponseCache.createKey("456736", paymentContext), getContext());
+		cache.put(IinResponseCache.createKey("458000", paymentContext), createResponse("1"), getContext());
+		assertEquals("1", cache.getLongestMatch("45", paymentContext, getContext()).getPaymentProductId());
+		assertNull(cache.getLongestMatch("457", paymentContext, getContext()));
+	}
+
+
+	public void testRepeatedLookupIsServedFromTheCache() throws Exception {
+		List<C2sRecording> recordings = new ArrayList<C2sRecording>();
+		recordings.add(new C2sRecording(C2sRequest.METHOD_POST, "/customer/services/getIINdetails", 200, null, "{\"paymentProductId\":\"1\",\"isAllowedInContext\":true}".getBytes("UTF-8")));
+		ReplayTransport transport = new ReplayTransport(recordings);
+
+		C2sCommunicator communicator = ReplayCommunicatorFactory.create(transport, new IinResponseCache(10, HOUR, file));
+
+		assertNull(communicator.getCachedIinDetails("4567350000", getContext(), paymentContext));
+		assertEquals("1", communicator.getPaymentProductIdByCreditCardNumber("4567350000", getContext(), paymentContext).getPaymentProductId());
+		assertEquals("1", communicator.getPaymentProductIdByCreditCardNumber("45673511", getContext(), paymentContext).getPaymentProductId());
+		assertEquals("1", communicator.getCachedIinDetails("456735", getContext(), paymentContext).getPaymentProductId());
+		assertEquals(1, transport.getRequestCount());
+	}
+
+
+	private IinDetailsResponse createResponse(String paymentProductId) {
+		return GcUtil.getGson().fromJson("{\"paymentProductId\":\"" + paymentProductId + "\",\"isAllowedInContext\":true}", IinDetailsResponse.class);
+	}
+}
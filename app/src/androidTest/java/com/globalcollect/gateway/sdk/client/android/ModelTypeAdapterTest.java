@@ -0,0 +1,171 @@
+package com.globalcollect.gateway.sdk.client.android;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Scanner;
+
+import android.os.Debug;
+import android.test.AndroidTestCase;
+import android.util.Log;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.GcUtil;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetailsResponse;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentProducts;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.PaymentProduct;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.PaymentProductField;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.displayhints.DisplayHintsProductFields.PreferredInputType;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * Junit Testclass which tests that the ModelTypeAdapters read the same models as the reflective adapters of Gson
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class ModelTypeAdapterTest extends AndroidTestCase {
+
+	private static final String TAG = ModelTypeAdapterTest.class.getName();
+
+	private static final String PAYMENT_PRODUCT_JSON = "{\"id\":\"1\",\"paymentMethod\":\"card\",\"paymentProductGroup\":\"cards\","
+			+ "\"minAmount\":100,\"maxAmount\":\"1000000\",\"allowsRecurring\":true,\"allowsTokenization\":false,\"unknownField\":{\"a\":[1,2]},"
+			+ "\"mobileIntegrationLevel\":\"OPTIMISED_SUPPORT\",\"displayHints\":{\"displayOrder\":3,\"label\":\"VISA\",\"logo\":\"templates/visa.png\"},"
+			+ "\"accountsOnFile\":[{\"id\":22,\"paymentProductId\":1,\"displayHints\":{\"labelTemplate\":[{\"attributeKey\":\"alias\",\"mask\":null}]},"
+			+ "\"attributes\":[{\"key\":\"alias\",\"value\":\"************7977\",\"status\":\"READ_ONLY\"}]}],"
+			+ "\"fields\":[{\"id\":\"cardNumber\",\"type\":\"numericstring\",\"displayHints\":{\"alwaysShow\":false,\"displayOrder\":10,"
+			+ "\"label\":\"Card number:\",\"mask\":\"{{9999}} {{9999}} {{9999}} {{9999}}\",\"obfuscate\":false,\"placeholderLabel\":\"**** **** **** ****\","
+			+ "\"preferredInputType\":\"IntegerKeyboard\",\"tooltip\":{\"image\":\"visa.png\",\"label\":null}},"
+			+ "\"dataRestrictions\":{\"isRequired\":true,\"validators\":{\"length\":{\"minLength\":12,\"maxLength\":19},\"luhn\":{}}}}]}";
+
+
+	public void testPaymentProductIsReadAsByReflection() {
+		PaymentProduct expected = new Gson().fromJson(PAYMENT_PRODUCT_JSON, PaymentProduct.class);
+		PaymentProduct product = GcUtil.getGson().fromJson(PAYMENT_PRODUCT_JSON, PaymentProduct.class);
+
+		assertEquals(expected.getId(), product.getId());
+		assertEquals(expected.getPaymentProductGroup(), product.getPaymentProductGroup());
+		assertEquals(Long.valueOf(100), product.getMinAmount());
+		assertEquals(Long.valueOf(1000000), product.getMaxAmount());
+		assertEquals(expected.getDisplayHints().getLogoUrl(), product.getDisplayHints().getLogoUrl());
+		assertEquals("************7977", product.getAccountsOnFile().get(0).getAttributes().get(0).getValue());
+		assertEquals(expected.getAccountsOnFile().get(0).getAttributes().get(0).getStatus(), product.getAccountsOnFile().get(0).getAttributes().get(0).getStatus());
+
+		PaymentProductField field = product.getPaymentProductFields().get(0);
+		assertEquals(PaymentProductField.Type.NUMERICSTRING, field.getType());
+		assertEquals(PreferredInputType.INTEGER_KEYBOARD, field.getDisplayHints().getPreferredInputType());
+		assertEquals("visa.png", field.getDisplayHints().getTooltip().getImage());
+		assertEquals(Integer.valueOf(19), field.getDataRestrictions().getValidator().getLength().getMaxLength());
+		assertNotNull(field.getDataRestrictions().getValidator().getLuhn());
+		assertNull(field.getDataRestrictions().getValidator().getRange());
+		assertEquals(expected.getPaymentProductFields().get(0).getDataRestrictions().getValidationRules().size(), field.getDataRestrictions().getValidationRules().size());
+	}
+
+
+	public void testProductListIsReadAndWritten() {
+		String json = "{\"paymentProducts\":[" + PAYMENT_PRODUCT_JSON + "," + PAYMENT_PRODUCT_JSON.replace("\"id\":\"1\"", "\"id\":\"2\"") + "]}";
+		BasicPaymentProducts products = GcUtil.getGson().fromJson(json, BasicPaymentProducts.class);
+
+		assertEquals(2, products.getBasicPaymentProducts().size());
+		assertEquals("2", products.getBasicPaymentProducts().get(1).getId());
+		assertEquals(2, products.getAccountsOnFile().size());
+
+		// Writing is left to the reflective adapter, so what is written can be read back
+		String written = GcUtil.getGson().toJson(products);
+		BasicPaymentProducts read = GcUtil.getGson().fromJson(written, BasicPaymentProducts.class);
+		assertEquals("2", read.getBasicPaymentProducts().get(1).getId());
+		assertEquals("templates/visa.png", read.getBasicPaymentProducts().get(1).getDisplayHints().getLogoUrl());
+	}
+
+
+	public void testIinDetailsResponseIsRead() {
+		String json = "{\"paymentProductId\":\"3\",\"countryCode\":\"NL\",\"isAllowedInContext\":true,"
+				+ "\"coBrands\":[{\"paymentProductId\":\"1\",\"isAllowedInContext\":false},{\"paymentProductId\":\"3\",\"isAllowedInContext\":true}]}";
+		IinDetailsResponse response = GcUtil.getGson().fromJson(json, IinDetailsResponse.class);
+
+		assertEquals(new Gson().fromJson(json, IinDetailsResponse.class), response);
+		assertTrue(response.isAllowedInContext());
+		assertEquals(2, response.getCoBrands().size());
+		assertNull(response.getStatus());
+	}
+
+
+	/**
+	 * Compares parsing a list of 200 products with a new reflective Gson per call, as the communicator used to do,
+	 * with a shared reflective Gson and with the shared Gson of the SDK; the results are logged
+	 */
+	public void testParseBenchmark() {
+		String products = createProductsJson(200);
+
+		Gson sharedGson = new Gson();
+		String[] modes = {"new reflective Gson per call", "shared reflective Gson", "GcUtil.getGson()"};
+		Debug.startAllocCounting();
+		for (int round = 0; round < 3; round++) {
+			for (int mode = 0; mode < modes.length; mode++) {
+				int allocated = Debug.getThreadAllocSize();
+				long start = System.nanoTime();
+				for (int i = 0; i < 20; i++) {
+					Gson gson = mode == 0 ? new Gson() : mode == 1 ? sharedGson : GcUtil.getGson();
+					assertEquals(200, gson.fromJson(products, BasicPaymentProducts.class).getBasicPaymentProducts().size());
+					gson.fromJson(PAYMENT_PRODUCT_JSON, PaymentProduct.class);
+				}
+				long micros = (System.nanoTime() - start) / 1000 / 20;
+				allocated = (Debug.getThreadAllocSize() - allocated) / 20;
+
+				// Only the last round is logged, the first rounds warm up
+				if (round == 2) {
+					Log.i(TAG, modes[mode] + ": " + micros + " us and " + allocated + " bytes allocated per call");
+				}
+			}
+		}
+		Debug.stopAllocCounting();
+	}
+
+
+	/**
+	 * Compares reading a response of 200 products into a String with a Scanner first, as the communicator used to do,
+	 * with reading it straight from the stream with a JsonReader, as C2sCommunicator.readResponse() does; the results are logged
+	 */
+	public void testResponseReadingBenchmark() throws Exception {
+		byte[] body = createProductsJson(200).getBytes("UTF-8");
+
+		String[] modes = {"Scanner to String", "JsonReader on the stream"};
+		Debug.startAllocCounting();
+		for (int round = 0; round < 3; round++) {
+			for (int mode = 0; mode < modes.length; mode++) {
+				int allocated = Debug.getThreadAllocSize();
+				long start = System.nanoTime();
+				for (int i = 0; i < 20; i++) {
+					InputStream response = new ByteArrayInputStream(body);
+					BasicPaymentProducts products;
+					if (mode == 0) {
+						String responseBody = new Scanner(response, "UTF-8").useDelimiter("\\A").next();
+						products = GcUtil.getGson().fromJson(responseBody, BasicPaymentProducts.class);
+					} else {
+						JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(response, "UTF-8")));
+						products = GcUtil.getGson().fromJson(reader, BasicPaymentProducts.class);
+					}
+					assertEquals(200, products.getBasicPaymentProducts().size());
+				}
+				long micros = (System.nanoTime() - start) / 1000 / 20;
+				allocated = (Debug.getThreadAllocSize() - allocated) / 20;
+
+				// Only the last round is logged, the first rounds warm up
+				if (round == 2) {
+					Log.i(TAG, modes[mode] + ": " + micros + " us and " + allocated + " bytes allocated per call");
+				}
+			}
+		}
+		Debug.stopAllocCounting();
+	}
+
+
+	private String createProductsJson(int count) {
+		StringBuilder json = new StringBuilder("{\"paymentProducts\":[");
+		for (int i = 0; i < count; i++) {
+			json.append(i == 0 ? "" : ",").append(PAYMENT_PRODUCT_JSON.replace("\"id\":\"1\"", "\"id\":\"" + i + "\""));
+		}
+		return json.append("]}").toString();
+	}
+}
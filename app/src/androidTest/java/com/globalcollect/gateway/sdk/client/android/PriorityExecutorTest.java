@@ -0,0 +1,175 @@
+package com.globalcollect.gateway.sdk.client.android;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import android.test.AndroidTestCase;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.PriorityExecutor;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.SdkExecutor.Priority;
+
+/**
+ * Junit Testclass which tests the scheduling of the PriorityExecutor
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class PriorityExecutorTest extends AndroidTestCase {
+
+
+	public void testInteractiveWorkOvertakesQueuedBackgroundWork() throws Exception {
+		PriorityExecutor executor = new PriorityExecutor(1, "test-");
+		final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+		final CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(3);
+
+		// Occupy the only thread, so the following work is queued
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				await(release);
+			}
+		}, Priority.USER_VISIBLE);
+		executor.execute(new Recorder("logo-1", order, done), Priority.BACKGROUND);
+		executor.execute(new Recorder("logo-2", order, done), Priority.BACKGROUND);
+		executor.execute(new Recorder("iin", order, done), Priority.INTERACTIVE);
+
+		release.countDown();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals("iin", order.get(0));
+		assertEquals("logo-1", order.get(1));
+		assertEquals("logo-2", order.get(2));
+		assertEquals(2, executor.getQueueWaitStats(Priority.BACKGROUND).getCount());
+	}
+
+
+	public void testBackgroundWorkLeavesThreadForInteractiveWork() throws Exception {
+		PriorityExecutor executor = new PriorityExecutor(2, "test-");
+		final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch started = new CountDownLatch(1);
+
+		// Slow background downloads may only occupy one of the two threads
+		for (int i = 0; i < 2; i++) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					started.countDown();
+					await(release);
+				}
+			}, Priority.BACKGROUND);
+		}
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		CountDownLatch done = new CountDownLatch(1);
+		executor.execute(new Recorder("iin", order, done), Priority.INTERACTIVE);
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(1, executor.getQueuedCount(Priority.BACKGROUND));
+		release.countDown();
+	}
+
+
+	public void testWorkThatArrivesAtOnceIsNotQueuedBehindOneIdleThread() throws Exception {
+		PriorityExecutor executor = new PriorityExecutor(2, "test-");
+
+		// Leave one thread of the pool idle
+		CountDownLatch done = new CountDownLatch(1);
+		executor.execute(new Recorder("first", new ArrayList<String>(), done), Priority.INTERACTIVE);
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		Thread.sleep(100);
+
+		// Two jobs that only finish when they run at the same time, queued before the idle thread can wake up
+		final CountDownLatch bothRunning = new CountDownLatch(2);
+		final List<Long> waits = Collections.synchronizedList(new ArrayList<Long>());
+		final CountDownLatch finished = new CountDownLatch(2);
+		synchronized (executor) {
+			for (int i = 0; i < 2; i++) {
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						long start = System.nanoTime();
+						bothRunning.countDown();
+						await(bothRunning);
+						waits.add((System.nanoTime() - start) / 1000000L);
+						finished.countDown();
+					}
+				}, Priority.INTERACTIVE);
+			}
+		}
+		assertTrue(finished.await(10, TimeUnit.SECONDS));
+		assertTrue("Jobs waited " + waits, waits.get(0) < 1000 && waits.get(1) < 1000);
+	}
+
+
+	public void testRevokedWorkIsDroppedWithoutRunningOrCounting() throws Exception {
+		PriorityExecutor executor = new PriorityExecutor(1, "test-");
+		final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+		final CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(2);
+
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				await(release);
+			}
+		}, Priority.USER_VISIBLE);
+		RevocableRecorder stale = new RevocableRecorder("stale", order, done);
+		executor.execute(stale, Priority.BACKGROUND);
+		executor.execute(new Recorder("logo", order, done), Priority.BACKGROUND);
+		stale.revoked = true;
+		assertEquals(1, executor.getQueuedCount(Priority.BACKGROUND));
+
+		release.countDown();
+		assertFalse(done.await(500, TimeUnit.MILLISECONDS));
+		assertEquals(Collections.singletonList("logo"), order);
+		assertEquals(1, executor.getQueueWaitStats(Priority.BACKGROUND).getCount());
+		assertEquals(0, executor.getQueuedCount(Priority.BACKGROUND));
+	}
+
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	private static class Recorder implements Runnable {
+
+		private String name;
+		private List<String> order;
+		private CountDownLatch done;
+
+		private Recorder(String name, List<String> order, CountDownLatch done) {
+			this.name = name;
+			this.order = order;
+			this.done = done;
+		}
+
+		@Override
+		public void run() {
+			order.add(name);
+			done.countDown();
+		}
+	}
+
+
+	private static class RevocableRecorder extends Recorder implements PriorityExecutor.Revocable {
+
+		private volatile boolean revoked = false;
+
+		private RevocableRecorder(String name, List<String> order, CountDownLatch done) {
+			super(name, order, done);
+		}
+
+		@Override
+		public boolean isRevoked() {
+			return revoked;
+		}
+	}
+}
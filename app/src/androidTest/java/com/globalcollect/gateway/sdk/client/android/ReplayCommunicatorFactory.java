@@ -0,0 +1,62 @@
+package com.globalcollect.gateway.sdk.client.android;
+
+import java.io.File;
+
+import android.content.Context;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.caching.IinResponseCache;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCircuitBreaker;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCommunicator;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCommunicatorConfiguration;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sResponseCache;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.ReplayTransport;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.Environment.EnvironmentType;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.Region;
+
+/**
+ * Creates C2sCommunicators which replay recorded responses, used for testing the SDK without the GC gateway
+ *
+ * Every communicator has its own circuit breaker, no response cache, and its own IinResponseCache, whose log is emptied,
+ * so every test looks up its IINs at the ReplayTransport instead of in the responses of an earlier test or run.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class ReplayCommunicatorFactory {
+
+	private ReplayCommunicatorFactory() {
+	}
+
+
+	/**
+	 * Creates a communicator with an empty IinResponseCache
+	 *
+	 * @param context, used for the files directory of the IinResponseCache log
+	 * @param transport, the transport which replays the responses
+	 * @param name, the name of the test, which names the IinResponseCache log
+	 */
+	public static C2sCommunicator create(Context context, ReplayTransport transport, String name) {
+
+		File iinResponseLog = new File(context.getFilesDir(), "iinresponse-" + name + ".log");
+		iinResponseLog.delete();
+		return create(transport, new IinResponseCache(IinResponseCache.DEFAULT_MAX_ENTRIES, IinResponseCache.DEFAULT_TIME_TO_LIVE_MILLIS, iinResponseLog));
+	}
+
+
+	/**
+	 * Creates a communicator with the given IinResponseCache
+	 *
+	 * @param transport, the transport which replays the responses
+	 * @param iinResponseCache, the IinResponseCache of the communicator
+	 */
+	public static C2sCommunicator create(ReplayTransport transport, IinResponseCache iinResponseCache) {
+
+		C2sCommunicatorConfiguration configuration = new C2sCommunicatorConfiguration("session", "customer", Region.EU, EnvironmentType.Sandbox);
+		configuration.setBaseUrl("https://gateway.invalid/");
+		configuration.setTransport(transport);
+		configuration.setResponseCache(new C2sResponseCache(0));
+		configuration.setCircuitBreaker(new C2sCircuitBreaker());
+		configuration.setIinResponseCache(iinResponseCache);
+		return C2sCommunicator.getInstance(configuration);
+	}
+}
@@ -0,0 +1,85 @@
+package com.globalcollect.gateway.sdk.client.android;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import android.test.AndroidTestCase;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.GcUtil;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRecording;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRequest;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.ReplayTransport;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.AmountOfMoney;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.CountryCode;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.CurrencyCode;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentContext;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetailsResponse;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinStatus;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.ResolvedCard;
+import com.globalcollect.gateway.sdk.client.android.sdk.session.GcSession;
+
+/**
+ * Junit Testclass which tests that the PaymentProducts of a card and its co-brands are loaded in parallel, and prefetched by the IIN lookup
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class ResolvedCardTest extends AndroidTestCase {
+
+	private static final String QUERY = "?countryCode=NL&amount=1000&isRecurring=false&currencyCode=EUR";
+	private static final String IIN_RESPONSE = "{\"paymentProductId\":\"1\",\"isAllowedInContext\":true,\"coBrands\":["
+			+ "{\"paymentProductId\":\"1\",\"isAllowedInContext\":true},"
+			+ "{\"paymentProductId\":\"3\",\"isAllowedInContext\":true},"
+			+ "{\"paymentProductId\":\"2\",\"isAllowedInContext\":false}]}";
+
+	private ReplayTransport transport;
+	private GcSession session;
+	private PaymentContext paymentContext = new PaymentContext(new AmountOfMoney(1000L, CurrencyCode.EUR), CountryCode.NL, false);
+
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		List<C2sRecording> recordings = new ArrayList<C2sRecording>();
+		recordings.add(new C2sRecording(C2sRequest.METHOD_POST, "/customer/services/getIINdetails", 200, null, IIN_RESPONSE.getBytes("UTF-8")));
+		recordings.add(new C2sRecording(C2sRequest.METHOD_GET, "/customer/products/1" + QUERY, 200, null, "{\"id\":\"1\",\"fields\":[]}".getBytes("UTF-8")));
+		recordings.add(new C2sRecording(C2sRequest.METHOD_GET, "/customer/products/3" + QUERY, 200, null, "{\"id\":\"3\",\"fields\":[]}".getBytes("UTF-8")));
+		transport = new ReplayTransport(recordings);
+
+		session = GcSession.getInstance(ReplayCommunicatorFactory.create(getContext(), transport, "resolvedcard"));
+	}
+
+
+	public void testIinLookupPrefetchesTheResolvedCard() throws Exception {
+		IinDetailsResponse iinResponse = session.getIinDetails(getContext(), "4567350000", paymentContext).get(5, TimeUnit.SECONDS);
+		assertEquals(IinStatus.SUPPORTED, iinResponse.getStatus());
+
+		// The PaymentProducts of the card and its allowed co-brands are loaded without being asked for
+		long deadline = System.currentTimeMillis() + 5000;
+		while (transport.getRequestCount() < 1 + 2 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(1 + 2, transport.getRequestCount());
+
+		// Resolving the card uses those PaymentProducts
+		ResolvedCard resolvedCard = session.resolveCard(getContext(), iinResponse, paymentContext).get(5, TimeUnit.SECONDS);
+		assertEquals("1", resolvedCard.getPaymentProduct().getId());
+		assertEquals(2, resolvedCard.getCoBrands().size());
+		assertEquals("3", resolvedCard.getPaymentProduct("3").getId());
+		assertNull(resolvedCard.getPaymentProduct("2"));
+		assertEquals(1 + 2, transport.getRequestCount());
+	}
+
+
+	public void testCoBrandThatCannotBeLoadedIsLeftOut() throws Exception {
+		IinDetailsResponse iinResponse = GcUtil.getGson().fromJson(IIN_RESPONSE.replace("\"2\",\"isAllowedInContext\":false", "\"4\",\"isAllowedInContext\":true"), IinDetailsResponse.class);
+		iinResponse.setStatus(IinStatus.SUPPORTED);
+
+		ResolvedCard resolvedCard = session.resolveCard(getContext(), iinResponse, paymentContext).get(5, TimeUnit.SECONDS);
+		assertEquals("1", resolvedCard.getPaymentProduct().getId());
+		assertEquals(2, resolvedCard.getCoBrands().size());
+		assertNull(resolvedCard.getPaymentProduct("4"));
+	}
+}
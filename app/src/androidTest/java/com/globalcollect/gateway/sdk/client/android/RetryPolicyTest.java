@@ -0,0 +1,254 @@
+package com.globalcollect.gateway.sdk.client.android;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+import android.test.AndroidTestCase;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.caching.IinResponseCache;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCircuitBreaker;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCommunicator;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCommunicatorConfiguration;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sEndpoint;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRequest;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sResponse;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sResponseCache;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRetryPolicy;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sTimeoutPolicy;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sTransport;
+import com.globalcollect.gateway.sdk.client.android.sdk.exception.CommunicationException;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.AmountOfMoney;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.CountryCode;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.CurrencyCode;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.Environment.EnvironmentType;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentContext;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.Region;
+
+/**
+ * Junit Testclass which tests the C2sRetryPolicy, on its own and as it is applied by the C2sCommunicator
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class RetryPolicyTest extends AndroidTestCase {
+
+	private PaymentContext paymentContext = new PaymentContext(new AmountOfMoney(1000L, CurrencyCode.EUR), CountryCode.NL, false);
+
+	private ScriptedTransport transport;
+	private C2sRetryPolicy retryPolicy;
+	private C2sTimeoutPolicy timeoutPolicy;
+	private C2sCommunicator communicator;
+
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		transport = new ScriptedTransport();
+		retryPolicy = new C2sRetryPolicy();
+		retryPolicy.setBackoff(10, 20);
+		timeoutPolicy = new C2sTimeoutPolicy();
+
+		File iinResponseLog = new File(getContext().getFilesDir(), "iinresponse-retrypolicy.log");
+		iinResponseLog.delete();
+		C2sCommunicatorConfiguration configuration = new C2sCommunicatorConfiguration("session", "customer", Region.EU, EnvironmentType.Sandbox);
+		configuration.setBaseUrl("https://gateway.invalid/");
+		configuration.setTransport(transport);
+		configuration.setResponseCache(new C2sResponseCache(0));
+		configuration.setCircuitBreaker(new C2sCircuitBreaker());
+		configuration.setIinResponseCache(new IinResponseCache(IinResponseCache.DEFAULT_MAX_ENTRIES, IinResponseCache.DEFAULT_TIME_TO_LIVE_MILLIS, iinResponseLog));
+		configuration.setRetryPolicy(retryPolicy);
+		configuration.setTimeoutPolicy(timeoutPolicy);
+		communicator = C2sCommunicator.getInstance(configuration);
+	}
+
+
+	public void testIinDetailsAreNotRetriedByDefault() {
+		C2sRetryPolicy retryPolicy = new C2sRetryPolicy();
+		retryPolicy.setMaxAttempts(C2sEndpoint.IIN_DETAILS, 3);
+
+		assertEquals(1, retryPolicy.getMaxAttempts(C2sEndpoint.IIN_DETAILS));
+		assertEquals(C2sRetryPolicy.DEFAULT_MAX_ATTEMPTS, retryPolicy.getMaxAttempts(C2sEndpoint.PUBLIC_KEY));
+
+		retryPolicy.setNonIdempotentRetriesAllowed(true);
+		assertEquals(3, retryPolicy.getMaxAttempts(C2sEndpoint.IIN_DETAILS));
+	}
+
+
+	public void testMaxAttemptsPerEndpoint() {
+		C2sRetryPolicy retryPolicy = new C2sRetryPolicy();
+		retryPolicy.setMaxAttempts(2);
+		retryPolicy.setMaxAttempts(C2sEndpoint.BASIC_PAYMENT_PRODUCTS, 5);
+
+		assertEquals(5, retryPolicy.getMaxAttempts(C2sEndpoint.BASIC_PAYMENT_PRODUCTS));
+		assertEquals(2, retryPolicy.getMaxAttempts(C2sEndpoint.PAYMENT_PRODUCT));
+		assertEquals(1, C2sRetryPolicy.noRetries().getMaxAttempts(C2sEndpoint.PAYMENT_PRODUCT));
+	}
+
+
+	public void testBackoffIsJitteredAndBounded() {
+		C2sRetryPolicy retryPolicy = new C2sRetryPolicy();
+		retryPolicy.setBackoff(100, 1000);
+
+		for (int i = 0; i < 100; i++) {
+			assertTrue(retryPolicy.getBackoffMillis(1) <= 100);
+			assertTrue(retryPolicy.getBackoffMillis(3) <= 400);
+			assertTrue(retryPolicy.getBackoffMillis(10) <= 1000);
+		}
+
+		// The jitter spreads the backoff over the whole range
+		long min = Long.MAX_VALUE;
+		long max = 0;
+		for (int i = 0; i < 200; i++) {
+			long backoff = retryPolicy.getBackoffMillis(10);
+			min = Math.min(min, backoff);
+			max = Math.max(max, backoff);
+		}
+		assertTrue(min < 500);
+		assertTrue(max > 500);
+	}
+
+
+	public void testRetryableStatusCodes() {
+		C2sRetryPolicy retryPolicy = new C2sRetryPolicy();
+
+		assertTrue(retryPolicy.isRetryableStatusCode(503));
+		assertTrue(retryPolicy.isRetryableStatusCode(429));
+		assertFalse(retryPolicy.isRetryableStatusCode(400));
+		assertFalse(retryPolicy.isRetryableStatusCode(500));
+
+		retryPolicy.addRetryableStatusCode(500);
+		retryPolicy.removeRetryableStatusCode(429);
+		assertTrue(retryPolicy.isRetryableStatusCode(500));
+		assertFalse(retryPolicy.isRetryableStatusCode(429));
+	}
+
+
+	public void testGetIsRetriedOnRetryableStatusCodes() {
+		transport.script(503, 429, 200);
+		transport.setBody("{\"keyId\":\"key\",\"publicKey\":\"key\"}");
+
+		assertEquals("key", communicator.getPublicKey(getContext()).getKeyId());
+		assertEquals(3, transport.getAttempts(C2sRequest.METHOD_GET));
+	}
+
+
+	public void testGetIsRetriedOnTransportFailures() {
+		transport.script(ScriptedTransport.IO_FAILURE, 200);
+		transport.setBody("{\"convertedAmount\":1100}");
+
+		// The amount is converted with a GET, which is retried like the other reads
+		assertEquals(Long.valueOf(1100), communicator.convertAmount(1000L, "EUR", "USD", getContext()));
+		assertEquals(2, transport.getAttempts(C2sRequest.METHOD_GET));
+	}
+
+
+	public void testGetIsNotRetriedOnOtherStatusCodesOrAfterMaxAttempts() {
+		transport.script(400);
+		assertNull(communicator.getPaymentProduct("1", getContext(), paymentContext));
+		assertEquals(1, transport.getAttempts(C2sRequest.METHOD_GET));
+
+		transport.script(503);
+		assertNull(communicator.getPaymentProduct("1", getContext(), paymentContext));
+		assertEquals(1 + C2sRetryPolicy.DEFAULT_MAX_ATTEMPTS, transport.getAttempts(C2sRequest.METHOD_GET));
+	}
+
+
+	public void testPostIsNeverRetried() {
+		retryPolicy.setMaxAttempts(C2sEndpoint.IIN_DETAILS, 3);
+
+		transport.script(503);
+		assertNull(communicator.getPaymentProductIdByCreditCardNumber("456735", getContext(), paymentContext));
+		assertEquals(1, transport.getAttempts(C2sRequest.METHOD_POST));
+
+		transport.script(ScriptedTransport.IO_FAILURE);
+		assertNull(communicator.getPaymentProductIdByCreditCardNumber("456735", getContext(), paymentContext));
+		assertEquals(2, transport.getAttempts(C2sRequest.METHOD_POST));
+		assertEquals(0, transport.getAttempts(C2sRequest.METHOD_GET));
+	}
+
+
+	public void testRetriesStopAtTheDeadline() {
+		retryPolicy.setMaxAttempts(100);
+		timeoutPolicy.setDeadline(C2sEndpoint.PUBLIC_KEY, 300);
+		transport.script(503);
+		transport.setLatency(50);
+
+		long start = System.nanoTime();
+		assertNull(communicator.getPublicKey(getContext()));
+		long elapsedMillis = (System.nanoTime() - start) / 1000000L;
+
+		// Every attempt takes 50 ms and every backoff at least 5 ms, so no more than 6 attempts fit in the deadline
+		assertTrue("Took " + elapsedMillis + " ms", elapsedMillis < 1000);
+		int attempts = transport.getAttempts(C2sRequest.METHOD_GET);
+		assertTrue(attempts + " attempts", attempts > 1 && attempts <= 6);
+	}
+
+
+	/**
+	 * Transport which answers with a script of status codes and transport failures, and counts the attempts per method
+	 * The last entry of the script is repeated when the script is exhausted.
+	 */
+	private static class ScriptedTransport implements C2sTransport {
+
+		private static final long serialVersionUID = 1L;
+
+		static final int IO_FAILURE = -1;
+
+		private LinkedList<Integer> script = new LinkedList<Integer>();
+		private Map<String, Integer> attempts = new HashMap<String, Integer>();
+		private String body = "{}";
+		private long latencyMillis;
+
+		synchronized void script(Integer... outcomes) {
+			script.clear();
+			for (Integer outcome : outcomes) {
+				script.add(outcome);
+			}
+		}
+
+		synchronized void setBody(String body) {
+			this.body = body;
+		}
+
+		synchronized void setLatency(long latencyMillis) {
+			this.latencyMillis = latencyMillis;
+		}
+
+		synchronized int getAttempts(String method) {
+			Integer count = attempts.get(method);
+			return count != null ? count : 0;
+		}
+
+		@Override
+		public C2sResponse execute(C2sRequest request) throws CommunicationException {
+
+			int outcome;
+			long latency;
+			String responseBody;
+			synchronized (this) {
+				attempts.put(request.getMethod(), getAttempts(request.getMethod()) + 1);
+				outcome = script.size() > 1 ? script.removeFirst() : script.getFirst();
+				latency = latencyMillis;
+				responseBody = body;
+			}
+
+			if (latency > 0) {
+				try {
+					Thread.sleep(latency);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new CommunicationException(e);
+				}
+			}
+			if (outcome == IO_FAILURE) {
+				throw new CommunicationException(new IOException("Connection reset"));
+			}
+			return new C2sResponse(request.getUrl(), outcome, null, new ByteArrayInputStream(outcome == 200 ? responseBody.getBytes() : new byte[0]));
+		}
+	}
+}
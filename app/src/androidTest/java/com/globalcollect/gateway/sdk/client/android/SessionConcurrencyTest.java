@@ -0,0 +1,190 @@
+package com.globalcollect.gateway.sdk.client.android;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.test.AndroidTestCase;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRecording;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRequest;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.ReplayTransport;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.AmountOfMoney;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.CountryCode;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.CurrencyCode;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentContext;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.PaymentProduct;
+import com.globalcollect.gateway.sdk.client.android.sdk.session.GcFuture;
+import com.globalcollect.gateway.sdk.client.android.sdk.session.GcSession;
+import com.globalcollect.gateway.sdk.client.android.sdk.session.GcSyncClient;
+
+/**
+ * Junit Testclass which tests that the caches and the IIN lookup guard of the GcSession hold up when many threads use them at once
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class SessionConcurrencyTest extends AndroidTestCase {
+
+	private static final String QUERY = "?countryCode=NL&amount=1000&isRecurring=false&currencyCode=EUR";
+	private static final String OTHER_QUERY = "?countryCode=DE&amount=1000&isRecurring=false&currencyCode=EUR";
+	private static final int THREADS = 16;
+	private static final int PRODUCTS = 20;
+
+	private ReplayTransport transport;
+	private GcSession session;
+	private PaymentContext paymentContext = new PaymentContext(new AmountOfMoney(1000L, CurrencyCode.EUR), CountryCode.NL, false);
+
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		List<C2sRecording> recordings = new ArrayList<C2sRecording>();
+		recordings.add(new C2sRecording(C2sRequest.METHOD_GET, "/customer/products" + QUERY + "&hide=fields", 200, null, "{\"paymentProducts\":[{\"id\":\"1\"}]}".getBytes("UTF-8")));
+		recordings.add(new C2sRecording(C2sRequest.METHOD_GET, "/customer/productgroups" + QUERY + "&hide=fields", 200, null, "{\"paymentProductGroups\":[]}".getBytes("UTF-8")));
+		recordings.add(new C2sRecording(C2sRequest.METHOD_GET, "/customer/crypto/publickey", 200, null, "{\"keyId\":\"key\",\"publicKey\":\"key\"}".getBytes("UTF-8")));
+		for (int i = 1; i <= PRODUCTS; i++) {
+			recordings.add(new C2sRecording(C2sRequest.METHOD_GET, "/customer/products/" + i + QUERY, 200, null, ("{\"id\":\"" + i + "\",\"fields\":[]}").getBytes("UTF-8")));
+		}
+		recordings.add(new C2sRecording(C2sRequest.METHOD_GET, "/customer/products/1" + OTHER_QUERY, 200, null, "{\"id\":\"1\",\"paymentMethod\":\"redirect\",\"fields\":[]}".getBytes("UTF-8")));
+		transport = new ReplayTransport(recordings);
+
+		// The latency keeps the requests in flight long enough for the threads to overlap
+		transport.setLatency(20);
+
+		session = GcSession.getInstance(ReplayCommunicatorFactory.create(getContext(), transport, "concurrency"));
+
+		// Only the calls of the test are counted, not the PaymentProducts that are prefetched for the IIN lookups
+		session.setPrefetchOnIinLookup(false);
+	}
+
+
+	public void testConcurrentLoadsFetchEveryValueOnce() throws Exception {
+		final GcSyncClient client = new GcSyncClient(session);
+		final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+
+		// Every thread loads everything, each in its own order
+		runConcurrently(new Work() {
+			@Override
+			public void run(int thread) throws Exception {
+				client.getBasicPaymentItems(getContext(), paymentContext, true);
+				client.getPublicKey(getContext());
+				for (int i = 0; i < PRODUCTS; i++) {
+					String productId = String.valueOf((i + thread) % PRODUCTS + 1);
+					assertEquals(productId, client.getPaymentProduct(getContext(), productId, paymentContext).getId());
+				}
+			}
+		}, failures);
+		assertTrue(failures.toString(), failures.isEmpty());
+		assertEquals(PRODUCTS + 3, transport.getRequestCount());
+
+		// Nothing that was loaded is lost, so everything is served from the caches now
+		runConcurrently(new Work() {
+			@Override
+			public void run(int thread) throws Exception {
+				client.getBasicPaymentItems(getContext(), paymentContext, true);
+				for (int i = 1; i <= PRODUCTS; i++) {
+					client.getPaymentProduct(getContext(), String.valueOf(i), paymentContext);
+				}
+			}
+		}, failures);
+		assertTrue(failures.toString(), failures.isEmpty());
+		assertEquals(PRODUCTS + 3, transport.getRequestCount());
+	}
+
+
+	public void testBlockingAndAsynchronousCallersShareEveryCall() throws Exception {
+		final GcSyncClient client = new GcSyncClient(session);
+		final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+
+		// Half of the threads use the GcSyncClient, the other half the GcFuture operations of the session
+		runConcurrently(new Work() {
+			@Override
+			public void run(int thread) throws Exception {
+				boolean blocking = thread % 2 == 0;
+				if (blocking) {
+					client.getBasicPaymentItems(getContext(), paymentContext, true);
+					client.getPublicKey(getContext());
+				} else {
+					session.getBasicPaymentItems(getContext(), paymentContext, true).get(5, TimeUnit.SECONDS);
+					session.getPublicKey(getContext()).get(5, TimeUnit.SECONDS);
+				}
+				for (int i = 0; i < PRODUCTS; i++) {
+					String productId = String.valueOf((i + thread / 2) % PRODUCTS + 1);
+					PaymentProduct paymentProduct = blocking
+							? client.getPaymentProduct(getContext(), productId, paymentContext)
+							: session.getPaymentProduct(getContext(), productId, paymentContext).get(5, TimeUnit.SECONDS);
+					assertEquals(productId, paymentProduct.getId());
+				}
+			}
+		}, failures);
+		assertTrue(failures.toString(), failures.isEmpty());
+		assertEquals(PRODUCTS + 3, transport.getRequestCount());
+	}
+
+
+	public void testConcurrentCallsForOtherPaymentContextsAreCachedApart() throws Exception {
+		PaymentContext otherPaymentContext = new PaymentContext(new AmountOfMoney(1000L, CurrencyCode.EUR), CountryCode.DE, false);
+
+		// Both calls are in flight at once, so each completes after the other has started
+		GcFuture<PaymentProduct> paymentProduct = session.getPaymentProduct(getContext(), "1", paymentContext);
+		GcFuture<PaymentProduct> otherPaymentProduct = session.getPaymentProduct(getContext(), "1", otherPaymentContext);
+		assertNull(paymentProduct.get(5, TimeUnit.SECONDS).getPaymentMethod());
+		assertEquals("redirect", otherPaymentProduct.get(5, TimeUnit.SECONDS).getPaymentMethod());
+
+		// Each PaymentProduct is cached under the PaymentContext it was loaded for
+		assertNull(session.getPaymentProduct(getContext(), "1", paymentContext).get(5, TimeUnit.SECONDS).getPaymentMethod());
+		assertEquals("redirect", session.getPaymentProduct(getContext(), "1", otherPaymentContext).get(5, TimeUnit.SECONDS).getPaymentMethod());
+		assertEquals(2, transport.getRequestCount());
+	}
+
+
+	public void testOnlyOneConcurrentIinLookupIsStarted() throws Exception {
+		final AtomicInteger started = new AtomicInteger();
+		final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+
+		runConcurrently(new Work() {
+			@Override
+			public void run(int thread) throws Exception {
+				if (!session.getIinDetails(getContext(), "456735", paymentContext).isFailed()) {
+					started.incrementAndGet();
+				}
+			}
+		}, failures);
+		assertTrue(failures.toString(), failures.isEmpty());
+		assertEquals(1, started.get());
+	}
+
+
+	private void runConcurrently(final Work work, final List<Throwable> failures) throws InterruptedException {
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(THREADS);
+		for (int i = 0; i < THREADS; i++) {
+			final int thread = i;
+			new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						work.run(thread);
+					} catch (Throwable t) {
+						failures.add(t);
+					} finally {
+						done.countDown();
+					}
+				}
+			}).start();
+		}
+		start.countDown();
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+	}
+
+
+	private interface Work {
+		void run(int thread) throws Exception;
+	}
+}
@@ -0,0 +1,217 @@
+package com.globalcollect.gateway.sdk.client.android;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal HTTP/1.1 server with keep-alive support, used for testing the SDK transports without the GC gateway
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class StubHttpServer {
+
+	private ServerSocket serverSocket;
+	private Handler handler;
+
+	// Counters which are used to assert connection reuse
+	private AtomicInteger connectionCount = new AtomicInteger();
+	private AtomicInteger requestCount = new AtomicInteger();
+
+
+	public StubHttpServer(Handler handler) throws IOException {
+		this.handler = handler;
+		serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+
+		Thread acceptThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				acceptConnections();
+			}
+		}, "StubHttpServer");
+		acceptThread.setDaemon(true);
+		acceptThread.start();
+	}
+
+
+	public String getBaseUrl() {
+		return "http://127.0.0.1:" + serverSocket.getLocalPort() + "/";
+	}
+
+	public int getConnectionCount() {
+		return connectionCount.get();
+	}
+
+	public int getRequestCount() {
+		return requestCount.get();
+	}
+
+	public void shutdown() {
+		try {
+			serverSocket.close();
+		} catch (IOException e) {}
+	}
+
+
+	private void acceptConnections() {
+		while (!serverSocket.isClosed()) {
+			try {
+				final Socket socket = serverSocket.accept();
+				connectionCount.incrementAndGet();
+
+				Thread connectionThread = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						serveConnection(socket);
+					}
+				}, "StubHttpServer-connection");
+				connectionThread.setDaemon(true);
+				connectionThread.start();
+			} catch (IOException e) {
+				return;
+			}
+		}
+	}
+
+
+	private void serveConnection(Socket socket) {
+		try {
+			InputStream in = new BufferedInputStream(socket.getInputStream());
+			OutputStream out = socket.getOutputStream();
+
+			while (true) {
+				String requestLine = readLine(in);
+				if (requestLine == null || requestLine.isEmpty()) {
+					break;
+				}
+				requestCount.incrementAndGet();
+
+				String[] parts = requestLine.split(" ");
+				Request request = new Request(parts[0], parts[1]);
+
+				// Read the headers
+				String line;
+				while ((line = readLine(in)) != null && !line.isEmpty()) {
+					int separator = line.indexOf(':');
+					request.headers.put(line.substring(0, separator).trim().toLowerCase(Locale.US), line.substring(separator + 1).trim());
+				}
+
+				// Read the body
+				String contentLength = request.headers.get("content-length");
+				if (contentLength != null) {
+					byte[] body = new byte[Integer.parseInt(contentLength)];
+					int offset = 0;
+					while (offset < body.length) {
+						int read = in.read(body, offset, body.length - offset);
+						if (read == -1) {
+							break;
+						}
+						offset += read;
+					}
+					request.body = new String(body, "UTF-8");
+				}
+
+				Response response = handler.handle(request);
+				if (response.delayMillis > 0) {
+					Thread.sleep(response.delayMillis);
+				}
+
+				StringBuilder head = new StringBuilder();
+				head.append("HTTP/1.1 ").append(response.statusCode).append(" Stub\r\n");
+				head.append("Content-Length: ").append(response.body.length).append("\r\n");
+				for (Map.Entry<String, String> header : response.headers.entrySet()) {
+					head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+				}
+				head.append("\r\n");
+
+				out.write(head.toString().getBytes("UTF-8"));
+				out.write(response.body);
+				out.flush();
+			}
+		} catch (Exception e) {
+		} finally {
+			try {
+				socket.close();
+			} catch (IOException e) {}
+		}
+	}
+
+
+	private String readLine(InputStream in) throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		int b;
+		while ((b = in.read()) != -1) {
+			if (b == '\n') {
+				break;
+			}
+			if (b != '\r') {
+				line.write(b);
+			}
+		}
+		if (b == -1 && line.size() == 0) {
+			return null;
+		}
+		return line.toString("UTF-8");
+	}
+
+
+	/**
+	 * Request as received by the StubHttpServer; header names are lowercase
+	 */
+	public static class Request {
+
+		public String method;
+		public String path;
+		public Map<String, String> headers = new LinkedHashMap<String, String>();
+		public String body;
+
+		Request(String method, String path) {
+			this.method = method;
+			this.path = path;
+		}
+	}
+
+
+	/**
+	 * Response which is sent by the StubHttpServer
+	 */
+	public static class Response {
+
+		public int statusCode;
+		public Map<String, String> headers = new LinkedHashMap<String, String>();
+		public byte[] body;
+		public long delayMillis;
+
+		public Response(int statusCode, byte[] body) {
+			this.statusCode = statusCode;
+			this.body = body;
+		}
+
+		public Response(int statusCode, String body) {
+			this.statusCode = statusCode;
+			try {
+				this.body = body.getBytes("UTF-8");
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+
+	/**
+	 * Creates the response for a received request
+	 */
+	public interface Handler {
+		Response handle(Request request) throws Exception;
+	}
+}
@@ -0,0 +1,163 @@
+package com.globalcollect.gateway.sdk.client.android;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import android.test.AndroidTestCase;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.DefaultSdkExecutor;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.PriorityExecutor;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.SdkExecutor.Priority;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.TaskGroup;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRecording;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRequest;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.ReplayTransport;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.AmountOfMoney;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.CountryCode;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.CurrencyCode;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentContext;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentItems;
+import com.globalcollect.gateway.sdk.client.android.sdk.session.GcFuture;
+import com.globalcollect.gateway.sdk.client.android.sdk.session.GcSession;
+
+/**
+ * Junit Testclass which tests the TaskGroup, and that many concurrent BasicPaymentItems loads of a GcSession share their calls
+ * without creating threads
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class TaskGroupTest extends AndroidTestCase {
+
+	private static final int PAYMENT_CONTEXTS = 25;
+	private static final int CALLERS = 8;
+	private static final int LOADS = 1000;
+
+
+	public void testFailureCancelsOtherCalls() throws Exception {
+		TaskGroup taskGroup = new TaskGroup(new PriorityExecutor(2, "test-").withPriority(Priority.USER_VISIBLE));
+		final CountDownLatch never = new CountDownLatch(1);
+
+		Future<String> slowFuture = taskGroup.fork(new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				never.await(5, TimeUnit.SECONDS);
+				return "slow";
+			}
+		});
+		taskGroup.fork(new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				throw new IllegalStateException("failed");
+			}
+		});
+
+		long start = System.nanoTime();
+		try {
+			taskGroup.join();
+			fail("The failure of the call should have been thrown");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		assertTrue(slowFuture.isCancelled());
+		assertTrue((System.nanoTime() - start) / 1000000L < 1000);
+	}
+
+
+	public void testJoinRunsCallsWhenPoolIsBusy() throws Exception {
+		PriorityExecutor executor = new PriorityExecutor(1, "test-");
+		final CountDownLatch release = new CountDownLatch(1);
+
+		// Occupy the only thread of the pool, as a task that joins a group of its own would
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}, Priority.USER_VISIBLE);
+
+		TaskGroup taskGroup = new TaskGroup(executor.withPriority(Priority.USER_VISIBLE));
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		for (int i = 0; i < 3; i++) {
+			final int value = i;
+			futures.add(taskGroup.fork(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					return value;
+				}
+			}));
+		}
+		taskGroup.join();
+		release.countDown();
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(Integer.valueOf(i), futures.get(i).get());
+		}
+	}
+
+
+	public void testConcurrentSessionLoadsShareCallsAndKeepThreadCountFlat() throws Exception {
+		List<C2sRecording> recordings = new ArrayList<C2sRecording>();
+		for (int i = 0; i < PAYMENT_CONTEXTS; i++) {
+			String query = "?countryCode=NL&amount=" + (1000 + i) + "&isRecurring=false&currencyCode=EUR&hide=fields";
+			recordings.add(new C2sRecording(C2sRequest.METHOD_GET, "/customer/products" + query, 200, null, "{\"paymentProducts\":[]}".getBytes("UTF-8")));
+			recordings.add(new C2sRecording(C2sRequest.METHOD_GET, "/customer/productgroups" + query, 200, null, "{\"paymentProductGroups\":[]}".getBytes("UTF-8")));
+		}
+		ReplayTransport transport = new ReplayTransport(recordings);
+
+		// The latency keeps the calls in flight long enough for the later loads to join them
+		transport.setLatency(20);
+
+		final GcSession session = GcSession.getInstance(ReplayCommunicatorFactory.create(getContext(), transport, "taskgroup"));
+		session.setSdkExecutor(new DefaultSdkExecutor(4, 1));
+
+		int threadsBefore = Thread.activeCount();
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		long memoryBefore = runtime.totalMemory() - runtime.freeMemory();
+
+		// Every caller thread loads the BasicPaymentItems of every PaymentContext, many times over
+		final List<GcFuture<BasicPaymentItems>> futures = Collections.synchronizedList(new ArrayList<GcFuture<BasicPaymentItems>>());
+		List<Thread> callers = new ArrayList<Thread>();
+		for (int thread = 0; thread < CALLERS; thread++) {
+			final int offset = thread;
+			callers.add(new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = 0; i < LOADS / CALLERS; i++) {
+						PaymentContext paymentContext = new PaymentContext(new AmountOfMoney(1000L + (i + offset) % PAYMENT_CONTEXTS, CurrencyCode.EUR), CountryCode.NL, false);
+						futures.add(session.getBasicPaymentItems(getContext(), paymentContext, true));
+					}
+				}
+			}));
+		}
+		for (Thread caller : callers) {
+			caller.start();
+		}
+		for (Thread caller : callers) {
+			caller.join(10000);
+		}
+
+		assertEquals(LOADS, futures.size());
+		for (GcFuture<BasicPaymentItems> future : futures) {
+			assertNotNull(future.get(10, TimeUnit.SECONDS));
+		}
+
+		// The loads of a PaymentContext share one call for the products and one for the groups, on the threads of the pool
+		assertEquals(2 * PAYMENT_CONTEXTS, transport.getRequestCount());
+		assertTrue(Thread.activeCount() - threadsBefore <= 4);
+		futures.clear();
+		System.gc();
+		assertTrue(runtime.totalMemory() - runtime.freeMemory() - memoryBefore < 16 * 1024 * 1024);
+	}
+}
@@ -0,0 +1,427 @@
+package com.globalcollect.gateway.sdk.client.android;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import android.test.AndroidTestCase;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCommunicatorConfiguration;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRecording;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRequest;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sResponse;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sResponseCache;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.CancellationToken;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.PooledHttpTransport;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.RecordingTransport;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.ReplayTransport;
+import com.globalcollect.gateway.sdk.client.android.sdk.exception.CommunicationException;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.Environment.EnvironmentType;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.Region;
+
+/**
+ * Junit Testclass which tests the PooledHttpTransport and C2sResponseCache against a local StubHttpServer,
+ * and the RecordingTransport and ReplayTransport with recordings of it
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class TransportTest extends AndroidTestCase {
+
+	// Repetitive JSON, which compresses about as well as a payment product list
+	private static final String LARGE_BODY;
+	static {
+		StringBuilder body = new StringBuilder("{\"paymentProducts\":[");
+		for (int i = 0; i < 100; i++) {
+			body.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"paymentMethod\":\"card\",\"allowsRecurring\":true}");
+		}
+		LARGE_BODY = body.append("]}").toString();
+	}
+
+	private StubHttpServer server;
+
+
+	@Override
+	protected void setUp() throws Exception {
+		server = new StubHttpServer(new StubHttpServer.Handler() {
+			@Override
+			public StubHttpServer.Response handle(StubHttpServer.Request request) {
+				if (request.path.startsWith("/cached")) {
+
+					// Respond with a validator, and 304 when the client already has this version
+					String etag = "\"" + request.path + "\"";
+					if (etag.equals(request.headers.get("if-none-match"))) {
+						return new StubHttpServer.Response(304, "");
+					}
+					String body = "{\"path\":\"" + request.path + "\"}";
+					String acceptEncoding = request.headers.get("accept-encoding");
+					StubHttpServer.Response response;
+					if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+						response = new StubHttpServer.Response(200, compress(body, "gzip"));
+						response.headers.put("Content-Encoding", "gzip");
+					} else {
+						response = new StubHttpServer.Response(200, body);
+					}
+					response.headers.put("ETag", etag);
+					return response;
+				}
+				if (request.path.startsWith("/compressed/")) {
+
+					// Compress with the encoding from the path, when the client accepts it
+					String encoding = request.path.substring("/compressed/".length());
+					String acceptEncoding = request.headers.get("accept-encoding");
+					if (acceptEncoding == null || !acceptEncoding.contains(encoding)) {
+						return new StubHttpServer.Response(200, LARGE_BODY);
+					}
+					StubHttpServer.Response response = new StubHttpServer.Response(200, compress(LARGE_BODY, encoding));
+					response.headers.put("Content-Encoding", encoding);
+					return response;
+				}
+				if (request.path.startsWith("/error")) {
+					return new StubHttpServer.Response(500, "{\"errorId\":\"1\"}");
+				}
+				if (request.path.startsWith("/slow")) {
+					StubHttpServer.Response response = new StubHttpServer.Response(200, "{}");
+					response.delayMillis = 200;
+					return response;
+				}
+				if (request.method.equals("POST")) {
+					return new StubHttpServer.Response(200, request.body);
+				}
+				return new StubHttpServer.Response(200, "{\"paymentProducts\":[]}");
+			}
+		});
+	}
+
+
+	@Override
+	protected void tearDown() throws Exception {
+		server.shutdown();
+	}
+
+
+	public void testSequentialCallsShareOneConnection() throws Exception {
+		PooledHttpTransport transport = new PooledHttpTransport();
+
+		for (int i = 0; i < 5; i++) {
+			C2sResponse response = transport.execute(new C2sRequest(C2sRequest.METHOD_GET, server.getBaseUrl() + "products"));
+			assertEquals(200, response.getStatusCode());
+			assertEquals("{\"paymentProducts\":[]}", readBody(response));
+			response.close();
+		}
+
+		assertEquals(5, server.getRequestCount());
+		assertEquals(1, server.getConnectionCount());
+	}
+
+
+	public void testUnreadBodyIsDrainedOnClose() throws Exception {
+		PooledHttpTransport transport = new PooledHttpTransport();
+
+		for (int i = 0; i < 3; i++) {
+			transport.execute(new C2sRequest(C2sRequest.METHOD_GET, server.getBaseUrl() + "products")).close();
+		}
+
+		assertEquals(1, server.getConnectionCount());
+	}
+
+
+	public void testPostBodyIsSent() throws Exception {
+		PooledHttpTransport transport = new PooledHttpTransport();
+
+		C2sRequest request = new C2sRequest(C2sRequest.METHOD_POST, server.getBaseUrl() + "services/getIINdetails");
+		request.addHeader("Content-Type", "application/json");
+		request.setBody("{\"bin\":\"456735\"}");
+
+		C2sResponse response = transport.execute(request);
+		assertEquals("{\"bin\":\"456735\"}", readBody(response));
+		response.close();
+	}
+
+
+	public void testErrorResponseIsReturned() throws Exception {
+		PooledHttpTransport transport = new PooledHttpTransport();
+
+		C2sResponse response = transport.execute(new C2sRequest(C2sRequest.METHOD_GET, server.getBaseUrl() + "error"));
+		assertEquals(500, response.getStatusCode());
+		assertEquals("{\"errorId\":\"1\"}", readBody(response));
+		response.close();
+	}
+
+
+	public void testConnectionsPerHostAreBounded() throws Exception {
+		final PooledHttpTransport transport = new PooledHttpTransport(2);
+		final List<Throwable> errors = new ArrayList<Throwable>();
+
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 6; i++) {
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						C2sResponse response = transport.execute(new C2sRequest(C2sRequest.METHOD_GET, server.getBaseUrl() + "slow"));
+						readBody(response);
+						response.close();
+					} catch (Throwable t) {
+						synchronized (errors) {
+							errors.add(t);
+						}
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertTrue(errors.isEmpty());
+		assertEquals(6, server.getRequestCount());
+		assertTrue(server.getConnectionCount() <= 2);
+	}
+
+
+	public void testConfigurationsShareOneTransport() throws Exception {
+		C2sCommunicatorConfiguration configuration = new C2sCommunicatorConfiguration("session", "customer", Region.EU, EnvironmentType.Sandbox);
+		C2sCommunicatorConfiguration otherConfiguration = new C2sCommunicatorConfiguration("other session", "customer", Region.EU, EnvironmentType.Sandbox);
+
+		// So the connections per host are bounded for all sessions together
+		assertSame(PooledHttpTransport.getSharedInstance(), configuration.getTransport());
+		assertSame(configuration.getTransport(), otherConfiguration.getTransport());
+
+		// Also after the configuration is serialised
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(configuration);
+		out.close();
+		C2sCommunicatorConfiguration restored = (C2sCommunicatorConfiguration) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		assertSame(PooledHttpTransport.getSharedInstance(), restored.getTransport());
+	}
+
+
+	public void testReadTimeoutAbandonsSlowResponse() throws Exception {
+		PooledHttpTransport transport = new PooledHttpTransport();
+		C2sRequest request = new C2sRequest(C2sRequest.METHOD_GET, server.getBaseUrl() + "slow");
+		request.setTimeouts(1000, 50);
+
+		long start = System.nanoTime();
+		try {
+			transport.execute(request).close();
+			fail("The slow response should have timed out");
+		} catch (CommunicationException e) {
+			// expected
+		}
+		assertTrue((System.nanoTime() - start) / 1000000L < 200);
+	}
+
+
+	public void testCancelAbortsSlowResponse() throws Exception {
+		PooledHttpTransport transport = new PooledHttpTransport();
+		C2sRequest request = new C2sRequest(C2sRequest.METHOD_GET, server.getBaseUrl() + "slow");
+		request.setTimeouts(1000, 5000);
+		final CancellationToken cancellationToken = new CancellationToken();
+		request.setCancellationToken(cancellationToken);
+
+		new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(20);
+				} catch (InterruptedException e) {
+					return;
+				}
+				cancellationToken.cancel();
+			}
+		}).start();
+
+		long start = System.nanoTime();
+		try {
+			readBody(transport.execute(request));
+			fail("The cancelled request should have been aborted");
+		} catch (Exception e) {
+			// expected
+		}
+		assertTrue((System.nanoTime() - start) / 1000000L < 150);
+	}
+
+
+	public void testRecordedResponsesAreReplayed() throws Exception {
+		File directory = new File(System.getProperty("java.io.tmpdir"), "recordings-" + System.nanoTime());
+		RecordingTransport recordingTransport = new RecordingTransport(new PooledHttpTransport(), directory);
+		readBody(recordingTransport.execute(new C2sRequest(C2sRequest.METHOD_GET, server.getBaseUrl() + "compressed/gzip")));
+		readBody(recordingTransport.execute(new C2sRequest(C2sRequest.METHOD_GET, server.getBaseUrl() + "products?countryCode=NL")));
+
+		// The recordings are served for any host, and without the server
+		server.shutdown();
+		ReplayTransport replayTransport = new ReplayTransport(directory);
+		C2sResponse response = replayTransport.execute(new C2sRequest(C2sRequest.METHOD_GET, "https://gateway.invalid/compressed/gzip"));
+		assertEquals(200, response.getStatusCode());
+		assertNull(response.getHeader("Content-Encoding"));
+		assertEquals(LARGE_BODY, readBody(response));
+		assertEquals("{\"paymentProducts\":[]}", readBody(replayTransport.execute(new C2sRequest(C2sRequest.METHOD_GET, "https://gateway.invalid/products?countryCode=NL"))));
+		assertEquals(404, replayTransport.execute(new C2sRequest(C2sRequest.METHOD_GET, "https://gateway.invalid/products?countryCode=BE")).getStatusCode());
+	}
+
+
+	public void testReplaySimulatesNetworkConditions() throws Exception {
+		List<C2sRecording> recordings = new ArrayList<C2sRecording>();
+		recordings.add(new C2sRecording(C2sRequest.METHOD_GET, "/products", 200, null, LARGE_BODY.getBytes("UTF-8")));
+		ReplayTransport transport = new ReplayTransport(recordings);
+		transport.setLatency(50);
+		transport.setBandwidth(LARGE_BODY.length() * 10);
+
+		// The latency and the bandwidth each add about 100 milliseconds
+		long start = System.nanoTime();
+		assertEquals(LARGE_BODY, readBody(transport.execute(new C2sRequest(C2sRequest.METHOD_GET, "https://gateway.invalid/products"))));
+		long elapsedMillis = (System.nanoTime() - start) / 1000000L;
+		assertTrue(elapsedMillis >= 140 && elapsedMillis < 400);
+
+		// Every request fails when the failure rate is 1
+		transport.setLatency(0);
+		transport.setServerErrorRate(1);
+		assertEquals(503, transport.execute(new C2sRequest(C2sRequest.METHOD_GET, "https://gateway.invalid/products")).getStatusCode());
+		transport.setConnectionFailureRate(1);
+		try {
+			transport.execute(new C2sRequest(C2sRequest.METHOD_GET, "https://gateway.invalid/products"));
+			fail("The injected connection failure should have been thrown");
+		} catch (CommunicationException e) {
+			// expected
+		}
+	}
+
+
+	public void testNotModifiedResponseIsServedFromCache() throws Exception {
+		PooledHttpTransport transport = new PooledHttpTransport();
+		C2sResponseCache cache = new C2sResponseCache(C2sResponseCache.DEFAULT_MAX_SIZE_IN_BYTES);
+
+		for (int i = 0; i < 3; i++) {
+			C2sResponse response = cache.execute(transport, new C2sRequest(C2sRequest.METHOD_GET, server.getBaseUrl() + "cached/products"));
+			assertEquals(200, response.getStatusCode());
+			assertEquals("{\"path\":\"/cached/products\"}", readBody(response));
+			response.close();
+		}
+
+		assertEquals(3, server.getRequestCount());
+		assertEquals(2, cache.getHitCount());
+	}
+
+
+	public void testRetriedRequestIsNotRevalidatedAfterEviction() throws Exception {
+		PooledHttpTransport transport = new PooledHttpTransport();
+		C2sResponseCache cache = new C2sResponseCache(C2sResponseCache.DEFAULT_MAX_SIZE_IN_BYTES);
+
+		// The communicator executes the same request for every attempt
+		C2sRequest request = new C2sRequest(C2sRequest.METHOD_GET, server.getBaseUrl() + "cached/products");
+		C2sResponse response = cache.execute(transport, request);
+		readBody(response);
+		response.close();
+		cache.execute(transport, request).close();
+		assertEquals(1, cache.getHitCount());
+
+		// Once the entry is evicted, the request is sent without the validators of that entry
+		cache.clear();
+		response = cache.execute(transport, request);
+		assertEquals(200, response.getStatusCode());
+		assertEquals("{\"path\":\"/cached/products\"}", readBody(response));
+		response.close();
+		assertFalse(request.getHeaders().containsKey("If-None-Match"));
+	}
+
+
+	public void testCacheEvictsLeastRecentlyUsedEntries() throws Exception {
+		PooledHttpTransport transport = new PooledHttpTransport();
+
+		// Every body is 24 bytes, so only two of them fit in the cache
+		C2sResponseCache cache = new C2sResponseCache(60);
+
+		for (String path : new String[] {"cached/aaaaa", "cached/bbbbb", "cached/aaaaa", "cached/ccccc"}) {
+			C2sResponse response = cache.execute(transport, new C2sRequest(C2sRequest.METHOD_GET, server.getBaseUrl() + path));
+			readBody(response);
+			response.close();
+		}
+		assertEquals(48, cache.getSize());
+
+		// aaaaa was used more recently than bbbbb, so bbbbb was evicted
+		cache.execute(transport, new C2sRequest(C2sRequest.METHOD_GET, server.getBaseUrl() + "cached/aaaaa")).close();
+		assertEquals(2, cache.getHitCount());
+		cache.execute(transport, new C2sRequest(C2sRequest.METHOD_GET, server.getBaseUrl() + "cached/bbbbb")).close();
+		assertEquals(2, cache.getHitCount());
+	}
+
+
+	public void testGzipResponseIsDecompressed() throws Exception {
+		PooledHttpTransport transport = new PooledHttpTransport();
+
+		for (int i = 0; i < 3; i++) {
+			C2sResponse response = transport.execute(new C2sRequest(C2sRequest.METHOD_GET, server.getBaseUrl() + "compressed/gzip"));
+			assertEquals(LARGE_BODY, readBody(response));
+			response.close();
+
+			assertNull(response.getHeader("Content-Encoding"));
+			assertEquals(compress(LARGE_BODY, "gzip").length, response.getTransferredByteCount());
+			assertEquals(LARGE_BODY.length(), response.getDecodedByteCount());
+			assertTrue(response.getTransferredByteCount() * 5 < response.getDecodedByteCount());
+		}
+
+		// Decompressing does not prevent the connection from being reused
+		assertEquals(1, server.getConnectionCount());
+	}
+
+
+	public void testDeflateResponseIsDecompressed() throws Exception {
+		PooledHttpTransport transport = new PooledHttpTransport();
+
+		C2sResponse response = transport.execute(new C2sRequest(C2sRequest.METHOD_GET, server.getBaseUrl() + "compressed/deflate"));
+		assertEquals(LARGE_BODY, readBody(response));
+		response.close();
+
+		assertEquals(compress(LARGE_BODY, "deflate").length, response.getTransferredByteCount());
+		assertEquals(LARGE_BODY.length(), response.getDecodedByteCount());
+	}
+
+
+	public void testCompressedResponseIsCachedDecompressed() throws Exception {
+		PooledHttpTransport transport = new PooledHttpTransport();
+		C2sResponseCache cache = new C2sResponseCache(C2sResponseCache.DEFAULT_MAX_SIZE_IN_BYTES);
+
+		C2sResponse response = cache.execute(transport, new C2sRequest(C2sRequest.METHOD_GET, server.getBaseUrl() + "cached/products"));
+		assertEquals("{\"path\":\"/cached/products\"}", readBody(response));
+		response.close();
+
+		response = cache.execute(transport, new C2sRequest(C2sRequest.METHOD_GET, server.getBaseUrl() + "cached/products"));
+		assertEquals("{\"path\":\"/cached/products\"}", readBody(response));
+		response.close();
+
+		// Only the 304 was transferred, the cache holds the decompressed body
+		assertEquals(1, cache.getHitCount());
+		assertEquals(0, response.getTransferredByteCount());
+		assertEquals(cache.getSize(), response.getDecodedByteCount());
+	}
+
+
+	private static byte[] compress(String body, String encoding) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			OutputStream out = encoding.equals("gzip") ? new GZIPOutputStream(bytes) : new DeflaterOutputStream(bytes);
+			out.write(body.getBytes("UTF-8"));
+			out.close();
+			return bytes.toByteArray();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+
+	private String readBody(C2sResponse response) {
+		return new Scanner(response.getBody(), "UTF-8").useDelimiter("\\A").next();
+	}
+}
@@ -0,0 +1,140 @@
+package com.globalcollect.gateway.sdk.client.android;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import android.test.AndroidTestCase;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.DefaultSdkExecutor;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.SdkExecutor.Priority;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRecording;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sRequest;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.ReplayTransport;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.AmountOfMoney;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.CountryCode;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.CurrencyCode;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentContext;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentItems;
+import com.globalcollect.gateway.sdk.client.android.sdk.session.GcSession;
+
+/**
+ * Junit Testclass which tests that GcSession.warmUp fills the caches of the session, and that calls which wait for it
+ * get each result as soon as it is loaded
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class WarmUpTest extends AndroidTestCase {
+
+	private static final String QUERY = "?countryCode=NL&amount=1000&isRecurring=false&currencyCode=EUR";
+
+	private ReplayTransport transport;
+	private GcSession session;
+	private PaymentContext paymentContext = new PaymentContext(new AmountOfMoney(1000L, CurrencyCode.EUR), CountryCode.NL, false);
+
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		List<C2sRecording> recordings = new ArrayList<C2sRecording>();
+		recordings.add(new C2sRecording(C2sRequest.METHOD_GET, "/customer/products" + QUERY + "&hide=fields", 200, null, "{\"paymentProducts\":[{\"id\":\"1\"}]}".getBytes("UTF-8")));
+		recordings.add(new C2sRecording(C2sRequest.METHOD_GET, "/customer/productgroups" + QUERY + "&hide=fields", 200, null, "{\"paymentProductGroups\":[]}".getBytes("UTF-8")));
+		recordings.add(new C2sRecording(C2sRequest.METHOD_GET, "/customer/crypto/publickey", 200, null, "{\"keyId\":\"key\",\"publicKey\":\"key\"}".getBytes("UTF-8")));
+		transport = new ReplayTransport(recordings);
+
+		session = GcSession.getInstance(ReplayCommunicatorFactory.create(getContext(), transport, "warmup"));
+	}
+
+
+	public void testCallsAfterWarmUpAreServedFromTheCache() throws Exception {
+		session.warmUp(getContext(), paymentContext);
+
+		// The calls that are done during the warm up wait for it instead of starting their own
+		BasicPaymentItems basicPaymentItems = session.getBasicPaymentItems(getContext(), paymentContext, true).get(5, TimeUnit.SECONDS);
+		assertEquals(1, basicPaymentItems.getBasicPaymentItems().size());
+		assertEquals("key", session.getPublicKey(getContext()).get(5, TimeUnit.SECONDS).getKeyId());
+		assertEquals(3, transport.getRequestCount());
+
+		// Everything is cached now, so neither the calls nor another warm up go to the GC gateway
+		session.warmUp(getContext(), paymentContext);
+		assertEquals(1, session.getBasicPaymentProducts(getContext(), paymentContext).get(5, TimeUnit.SECONDS).getBasicPaymentProducts().size());
+		assertNotNull(session.getBasicPaymentProductGroups(getContext(), paymentContext).get(5, TimeUnit.SECONDS));
+		assertNotNull(session.getPublicKey(getContext()).get(5, TimeUnit.SECONDS));
+		assertEquals(3, transport.getRequestCount());
+	}
+
+
+	public void testCallDoesNotWaitBehindQueuedWarmUp() throws Exception {
+
+		// Two I/O threads, of which background work may use one, and that one is busy
+		DefaultSdkExecutor sdkExecutor = new DefaultSdkExecutor(2, 1);
+		session.setSdkExecutor(sdkExecutor);
+		final CountDownLatch backgroundRunning = new CountDownLatch(1);
+		final CountDownLatch releaseBackground = new CountDownLatch(1);
+		sdkExecutor.getIoExecutor(Priority.BACKGROUND).execute(new Runnable() {
+			@Override
+			public void run() {
+				backgroundRunning.countDown();
+				try {
+					releaseBackground.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		assertTrue(backgroundRunning.await(5, TimeUnit.SECONDS));
+
+		try {
+			// The calls of the warm up are queued behind the busy background work
+			session.warmUp(getContext(), paymentContext);
+
+			// The publickey call raises the priority of the queued call it waits for, and gets its result without
+			// waiting for the other calls of the warm up
+			assertEquals("key", session.getPublicKey(getContext()).get(5, TimeUnit.SECONDS).getKeyId());
+			assertEquals(1, transport.getRequestCount());
+		} finally {
+			releaseBackground.countDown();
+		}
+
+		// The calls for the rest of the warm up wait for it as well, instead of loading it again
+		assertNotNull(session.getBasicPaymentItems(getContext(), paymentContext, true).get(5, TimeUnit.SECONDS));
+		assertEquals(3, transport.getRequestCount());
+
+		// Every call of the warm up has been raised, and the copies that stayed behind in the background queue are dropped,
+		// so only the busy background work has taken a background turn
+		Thread.sleep(200);
+		assertEquals(1, sdkExecutor.getIoQueueWaitStats(Priority.BACKGROUND).getCount());
+	}
+
+
+	public void testDeserialisedSessionUsesTheDefaultSdkExecutor() throws Exception {
+		DefaultSdkExecutor sessionExecutor = new DefaultSdkExecutor(1, 1);
+		DefaultSdkExecutor defaultExecutor = new DefaultSdkExecutor(1, 1);
+		session.setSdkExecutor(sessionExecutor);
+
+		// The executor of the session is not serialised, like after the process of the app was killed
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(session);
+		out.close();
+
+		GcSession.setDefaultSdkExecutor(defaultExecutor);
+		try {
+			GcSession restored = (GcSession) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+			assertSame(defaultExecutor, restored.getSdkExecutor());
+
+			// So it must be set again on the restored session to use it
+			restored.setSdkExecutor(sessionExecutor);
+			assertSame(sessionExecutor, restored.getSdkExecutor());
+		} finally {
+			GcSession.setDefaultSdkExecutor(DefaultSdkExecutor.getSharedInstance());
+		}
+	}
+}
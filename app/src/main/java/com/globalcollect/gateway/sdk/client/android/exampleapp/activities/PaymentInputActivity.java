@@ -35,6 +35,7 @@ import com.globalcollect.gateway.sdk.client.android.sdk.model.PreparedPaymentReq
 import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetail;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetailsResponse;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinStatus;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.ResolvedCard;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.AccountOnFile;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.KeyValuePair;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.PaymentItem;
@@ -43,13 +44,13 @@ import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.Pay
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentItem;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.PaymentProductGroup;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.validation.ValidationErrorMessage;
+import com.globalcollect.gateway.sdk.client.android.sdk.session.GcFuture;
 import com.globalcollect.gateway.sdk.client.android.sdk.session.GcSession;
 import com.globalcollect.gateway.sdk.client.android.sdk.session.GcSessionEncryptionHelper.OnPaymentRequestPreparedListener;
 
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Activity which renders all the inputfields of the selected paymentproduct
@@ -77,6 +78,9 @@ public class PaymentInputActivity extends ShoppingCartActivity implements OnPaym
 	// TextField in which the IIN details are rendered
 	private EditText iinEditText;
 
+	// Does the IIN lookups for the input of the iinEditText
+	private IinLookupTextWatcher iinLookupTextWatcher;
+
 	private IinDetailsResponse iinDetailsResponse;
 
 	// Flag which keeps track if the IIN image is showing
@@ -410,38 +414,21 @@ public class PaymentInputActivity extends ShoppingCartActivity implements OnPaym
 	private void renderAndGetCobrands() {
 
 		// If the currently known iinDetailsResponse within this activity is not null, check whether cobrand notifications need to be shown.
-		if (iinDetailsResponse != null) {
-
-			// Retrieve the cobrands from the iinDetailsResponse
-			final List<IinDetail> coBrands = iinDetailsResponse.getCoBrands();
-
-			// Remove all cobrands that cannot be payed with
-			if (coBrands != null) {
-
-				// Create a list to store all allowed paymentProducts
-				final List<BasicPaymentItem> paymentProductsAllowedInContext = new ArrayList<>(4);
-
-				// Counter
-				final AtomicInteger count = new AtomicInteger(coBrands.size());
-				// Add the allowed paymentProducts to the list
-				for (IinDetail iinDetail : coBrands) {
-					if (iinDetail.isAllowedInContext()) {
-
-						// Load the paymentProducts that are allowed in context, so they can be rendered in the possible coBrand list
-						session.getPaymentProduct(PaymentInputActivity.this, iinDetail.getPaymentProductId(), paymentContext, new OnPaymentProductCallCompleteListener() {
-							@Override
-							public void onPaymentProductCallComplete(PaymentProduct paymentProduct) {
-								if (paymentProduct != null) {
-									paymentProductsAllowedInContext.add(paymentProduct);
-								}
-								if (count.decrementAndGet() < 1) {
-									renderCoBrands(paymentProductsAllowedInContext);
-								}
-							}
-						});
-					}
+		if (iinDetailsResponse != null && iinDetailsResponse.getCoBrands() != null) {
+
+			// Load the paymentProducts of the cobrands that are allowed in context in parallel, so they can be rendered in the possible coBrand list.
+			// The session has started loading them when the iinDetailsResponse came in, so usually they are there already
+			session.resolveCard(PaymentInputActivity.this, iinDetailsResponse, paymentContext).addCallback(new GcFuture.Callback<ResolvedCard>() {
+				@Override
+				public void onSuccess(ResolvedCard resolvedCard) {
+					renderCoBrands(new ArrayList<BasicPaymentItem>(resolvedCard.getCoBrands()));
 				}
-			}
+
+				@Override
+				public void onFailure(Throwable failure) {
+					// Only a cancelled ResolvedCard fails, there are no cobrands to render then
+				}
+			});
 		}
 	}
 
@@ -490,7 +477,8 @@ public class PaymentInputActivity extends ShoppingCartActivity implements OnPaym
 
 				// Get the edittextfield for this paymentproductfield
 				iinEditText = (EditText) renderInputFieldsLayout.findViewWithTag(field.getId());
-				iinEditText.addTextChangedListener(new IinLookupTextWatcher(PaymentInputActivity.this, session, this, paymentContext));
+				iinLookupTextWatcher = new IinLookupTextWatcher(PaymentInputActivity.this, session, this, paymentContext);
+				iinEditText.addTextChangedListener(iinLookupTextWatcher);
 
 				// Render the IIN logo
 				if (renderIinLogo) {
@@ -634,6 +622,20 @@ public class PaymentInputActivity extends ShoppingCartActivity implements OnPaym
 			return;
 		}
 
+		// The brand is recognised from the bundled BIN ranges; show its logo until the GC gateway confirms or corrects it
+		if (iinResponse.getStatus() == IinStatus.PROVISIONAL) {
+			showDrawableInEditText(iinResponse.getPaymentProductId());
+			return;
+		}
+
+		// The GC gateway is degraded and no lookup was done; keep the current brand, the card is validated when the payment is submitted
+		if (iinResponse.getStatus() == IinStatus.UNAVAILABLE) {
+
+			// Remove possible error message since the entered number can't be validated
+			validationRenderHelper.removeValidationMessage((ViewGroup) iinEditText.getParent(), CARDNUMBER_POSTFIX);
+			return;
+		}
+
 		// IinResponse returned with status == NOT_ENOUGH_DIGITS, remove coBrand notification and remove
 		if (iinResponse.getStatus() == IinStatus.NOT_ENOUGH_DIGITS) {
 
@@ -707,4 +709,13 @@ public class PaymentInputActivity extends ShoppingCartActivity implements OnPaym
 	public void onRestoreInstanceState(Bundle savedInstanceState) {
 		super.onRestoreInstanceState(savedInstanceState);
 	}
+
+	@Override
+	protected void onDestroy() {
+		// The result of a pending IIN lookup can no longer be shown
+		if (iinLookupTextWatcher != null) {
+			iinLookupTextWatcher.cancel();
+		}
+		super.onDestroy();
+	}
 }
\ No newline at end of file
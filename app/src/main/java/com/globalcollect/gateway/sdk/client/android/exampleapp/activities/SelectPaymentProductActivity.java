@@ -37,6 +37,7 @@ import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.Bas
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentItem;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.BasicPaymentItemsAsyncTask.OnBasicPaymentItemsCallCompleteListener;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.PaymentProductGroup;
+import com.globalcollect.gateway.sdk.client.android.sdk.session.CancellationScope;
 import com.globalcollect.gateway.sdk.client.android.sdk.session.GcSession;
 
 import java.security.InvalidParameterException;
@@ -87,6 +88,9 @@ public class SelectPaymentProductActivity extends ShoppingCartActivity implement
 
 	// Determines whether the paymentProducts that are loaded should be grouped in the view
 	private boolean groupPaymentProducts;
+
+	// Calls to the GC gateway of this Activity, which are cancelled when it is destroyed
+	private CancellationScope cancellationScope = new CancellationScope();
 	
 	
 	@Override
@@ -132,6 +136,10 @@ public class SelectPaymentProductActivity extends ShoppingCartActivity implement
 				// Instantiate the GcSession
 				session = C2sCommunicatorConfiguration.initWithClientSessionId(clientSessionId, customerId, region, environment);
 
+				// Start loading the paymentproducts, paymentproductgroups and publickey in parallel,
+				// so they are already available when they are needed during the checkout
+				cancellationScope.add(session.warmUp(getApplicationContext(), paymentContext));
+
 				// Show load indicator
 				showLoadIndicator();
 
@@ -139,7 +147,7 @@ public class SelectPaymentProductActivity extends ShoppingCartActivity implement
 				groupPaymentProducts = intent.getBooleanExtra(Constants.INTENT_GROUP_PAYMENTPRODUCTS, false);
 
 				// Get the paymentProductSelectables that need to be rendered on this Activity
-				session.getBasicPaymentItems(getApplicationContext(), paymentContext, this, groupPaymentProducts);
+				cancellationScope.add(session.getBasicPaymentItems(getApplicationContext(), paymentContext, this, groupPaymentProducts));
 
 				// Render the shoppingcart details
 				shoppingCartRenderer = new RenderShoppingCart(paymentContext, shoppingCart, findViewById(R.id.headerLayout), getApplicationContext());
@@ -147,6 +155,15 @@ public class SelectPaymentProductActivity extends ShoppingCartActivity implement
 		}
 	}
 
+	@Override
+	protected void onDestroy() {
+
+		// The results of the calls that are still running can no longer be shown
+		cancellationScope.cancelAll();
+		super.onDestroy();
+	}
+
+
 	private void showLoadIndicator() {
 
 		String title 	= getString(R.string.gc_page_paymentProductSelection_loading_paymentdetails_title);
@@ -270,7 +287,7 @@ public class SelectPaymentProductActivity extends ShoppingCartActivity implement
 			showPaymentProductDetailsErrorDialog();
 		} else {
 			//Load the input fields for the Payment Input Activity
-			session.getPaymentProduct(getApplicationContext(), paymentProductId, paymentContext, this);
+			cancellationScope.add(session.getPaymentProduct(getApplicationContext(), paymentProductId, paymentContext, this));
 
 			// Show load indicator
 			showLoadIndicator();
@@ -283,7 +300,7 @@ public class SelectPaymentProductActivity extends ShoppingCartActivity implement
 			showPaymentProductDetailsErrorDialog();
 		} else {
 			//Load the input fields for the Payment Input Activity
-			session.getPaymentProductGroup(getApplicationContext(), paymentProductGroupId, paymentContext, this);
+			cancellationScope.add(session.getPaymentProductGroup(getApplicationContext(), paymentProductGroupId, paymentContext, this));
 
 			// Show load indicator
 			showLoadIndicator();
@@ -4,15 +4,16 @@ import android.content.Context;
 import android.text.Editable;
 import android.text.TextWatcher;
 
-import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.IinLookupAsyncTask;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.IinLookupAsyncTask.OnIinLookupCompleteListener;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentContext;
 import com.globalcollect.gateway.sdk.client.android.sdk.session.GcSession;
+import com.globalcollect.gateway.sdk.client.android.sdk.session.IinLookupPipeline;
 
 import java.security.InvalidParameterException;
 
 /**
  * Android TextWatcher that is put on Creditcardnumber fields so an IIN lookup can be done 
+ * The input is passed to an IinLookupPipeline, which waits until the user pauses typing and only reports the result for the latest input
  * 
  * Copyright 2014 Global Collect Services B.V
  *
@@ -20,17 +21,8 @@ import java.security.InvalidParameterException;
 public class IinLookupTextWatcher implements TextWatcher {
 
 	
-	// The GcSession which can retrieve the IIN details 
-	private GcSession session;
-	
-	// The listener which will be called by the AsyncTask
-	private OnIinLookupCompleteListener listener;
-
-	// The device meta data
-	private Context context;
-
-	// Payment context information that is sent with the IIN lookup
-	private PaymentContext paymentContext;
+	// The pipeline which retrieves the IIN details for the latest input
+	private IinLookupPipeline pipeline;
 
 	// Workaround for having twice called the afterTextChanged 
 	private String previousEnteredValue = "";
@@ -57,10 +49,15 @@ public class IinLookupTextWatcher implements TextWatcher {
 			throw new InvalidParameterException("Error creating IinLookupTextWatcher, c2sContext may not be null");
 		}
 		
-		this.context = context;
-		this.session = session;
-		this.listener = listener;
-		this.paymentContext = paymentContext;
+		pipeline = new IinLookupPipeline(context, session, listener, paymentContext);
+	}
+
+
+	/**
+	 * Cancels the IIN lookup that is pending, call this when the creditcardnumber field is removed
+	 */
+	public void cancel() {
+		pipeline.cancel();
 	}
 
 	
@@ -84,8 +81,7 @@ public class IinLookupTextWatcher implements TextWatcher {
 			previousEnteredValue = s.toString();
 
 			// Do iinlookup
-			String trimmedValue = s.toString().replace(" ", "");
-			session.getIinDetails(context, trimmedValue, listener, paymentContext);
+			pipeline.onInput(s.toString());
 		}
 	}
 
@@ -3,6 +3,7 @@ package com.globalcollect.gateway.sdk.client.android.exampleapp.render.product;
 import java.security.InvalidParameterException;
 
 import android.content.Context;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -12,6 +13,8 @@ import android.widget.TextView;
 
 import com.globalcollect.gateway.sdk.client.android.exampleapp.R;
 import com.globalcollect.gateway.sdk.client.android.exampleapp.translation.Translator;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.LoadLogosAsyncTask.OnLogoLoadedListener;
+import com.globalcollect.gateway.sdk.client.android.sdk.manager.AssetManager;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentItem;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentProduct;
 
@@ -25,7 +28,6 @@ import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.Bas
 public class RenderPaymentItem implements RenderPaymentItemInterface {
 		
 	
-	@SuppressWarnings("deprecation")
 	@Override
 	public void renderPaymentItem(BasicPaymentItem product, ViewGroup parent) {
 		
@@ -45,19 +47,36 @@ public class RenderPaymentItem implements RenderPaymentItemInterface {
 		
 		// Get the TextView and ImageView which will be filled
 		TextView paymentProductNameTextView = 		(TextView) paymentProductLayout.findViewById(R.id.paymentProductName);
-		ImageView paymentProductNameLogoImageView = (ImageView)paymentProductLayout.findViewById(R.id.paymentProductLogo);
+		final ImageView paymentProductNameLogoImageView = (ImageView)paymentProductLayout.findViewById(R.id.paymentProductLogo);
 
 		// Set the translated value
 		Translator translator = new Translator(parent.getContext());
 		String translatedValue = (product instanceof BasicPaymentProduct) ? translator.getPaymentProductName(product.getId()) : translator.getPaymentProductGroupName(product.getId());
 		paymentProductNameTextView.setText(translatedValue);
 				
-		if (Build.VERSION.SDK_INT < 16) {
-			paymentProductNameLogoImageView.setBackgroundDrawable(product.getDisplayHints().getLogo());
+		// The logo may still be loading, in that case it is set when it arrives
+		if (product.getDisplayHints().getLogo() != null) {
+			setLogo(paymentProductNameLogoImageView, product.getDisplayHints().getLogo());
 		} else {
-			paymentProductNameLogoImageView.setBackground(product.getDisplayHints().getLogo());
+			AssetManager.getInstance(parent.getContext()).loadLogo(product.getId(), new OnLogoLoadedListener() {
+				
+				@Override
+				public void onLogoLoaded(String paymentItemId, Drawable logo) {
+					setLogo(paymentProductNameLogoImageView, logo);
+				}
+			});
 		}
 		
 		parent.addView(paymentProductLayout);
 	}
+	
+	
+	@SuppressWarnings("deprecation")
+	private void setLogo(ImageView logoImageView, Drawable logo) {
+		if (Build.VERSION.SDK_INT < 16) {
+			logoImageView.setBackgroundDrawable(logo);
+		} else {
+			logoImageView.setBackground(logo);
+		}
+	}
 }
\ No newline at end of file
@@ -11,8 +11,10 @@ import android.view.WindowManager;
 import com.globalcollect.gateway.sdk.client.android.sdk.configuration.Constants;
 import com.globalcollect.gateway.sdk.client.android.sdk.encryption.EncryptUtil;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.Environment.EnvironmentType;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapterFactory;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.Region;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 
 /**
  * Contains util methods for getting device metadata
@@ -25,6 +27,9 @@ public class GcUtil {
 	
 	private static EncryptUtil encryptUtil = new EncryptUtil();
 	
+	// Gson is thread safe and caches the adapters it creates, so one instance is shared by the whole SDK
+	private static final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new ModelTypeAdapterFactory()).create();
+	
 	
 	// Metadata map keys
 	private final static String METADATA_OS 			 = "platformIdentifier";
@@ -36,6 +41,17 @@ public class GcUtil {
 	private final static String METADATA_DEVICE_TYPE	 = "deviceType";
 	private final static String METADATA_IP_ADDRESS		 = "ipAddress";
 	
+	/**
+	 * Returns the Gson instance which is used for all JSON the SDK reads and writes
+	 * The models that are read from the GC gateway are read by their ModelTypeAdapter instead of by reflection
+	 * 
+	 * @return the shared Gson instance
+	 */
+	public static Gson getGson() {
+		return gson;
+	}
+	
+	
 	/**
 	 * Returns map of metadata of the device this SDK is running on
 	 * The map contains the SDK version, OS, OS version and screensize
@@ -82,7 +98,6 @@ public class GcUtil {
 	 */
 	public static String getBase64EncodedMetadata(Context context) {
 		
-		Gson gson = new Gson();
 		String jsonMetadata = gson.toJson(getMetadata(context));
 		String encodedData = new String(encryptUtil.base64UrlEncode(jsonMetadata.getBytes()));
 		
@@ -99,7 +114,6 @@ public class GcUtil {
 	 */
 	public static String getBase64EncodedMetadata(Map<String, String> metadata) {
 		
-		Gson gson = new Gson();
 		String jsonMetadata = gson.toJson(metadata);
 		String encodedData = new String(encryptUtil.base64UrlEncode(jsonMetadata.getBytes()));
 		
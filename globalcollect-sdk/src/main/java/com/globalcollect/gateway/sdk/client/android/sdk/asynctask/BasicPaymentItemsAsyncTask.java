@@ -6,7 +6,9 @@ import android.util.Log;
 
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.BasicPaymentProductGroupsAsyncTask.OnBasicPaymentProductGroupsCallCompleteListener;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.BasicPaymentProductsAsyncTask.OnBasicPaymentProductsCallCompleteListener;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.SdkExecutor.Priority;
 import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCommunicator;
+import com.globalcollect.gateway.sdk.client.android.sdk.manager.AssetManager;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentContext;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.AccountOnFile;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentItem;
@@ -21,9 +23,8 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 /**
@@ -31,10 +32,11 @@ import java.util.concurrent.Future;
  * does two calls to the GC gateway. One that retrieves the BasicPaymentProducts and the other retrieves
  * the BasicPaymentProductGroups. After both calls have been finished both responses are combined to create
  * a single BasicPaymentItems object.
+ * The two calls are forked in a TaskGroup on the I/O executor of the SdkExecutor, so loading the paymentItems creates no threads.
  *
  * Copyright 2014 Global Collect Services B.V
  */
-public class BasicPaymentItemsAsyncTask extends AsyncTask<String, Void, BasicPaymentItems> {
+public class BasicPaymentItemsAsyncTask extends AsyncTask<String, Void, BasicPaymentItems> implements Callable<BasicPaymentItems> {
 
     private static final String TAG = BasicPaymentItemsAsyncTask.class.getName();
 
@@ -53,8 +55,16 @@ public class BasicPaymentItemsAsyncTask extends AsyncTask<String, Void, BasicPay
     // Defines whether the selectables that will be returned should contain paymentProductGroups
     private boolean groupPaymentItems;
 
+    // Executes the calls for the paymentProducts and the paymentProductGroups
+    private SdkExecutor sdkExecutor;
+
 
     public BasicPaymentItemsAsyncTask(Context context, PaymentContext paymentContext, C2sCommunicator communicator, List<OnBasicPaymentItemsCallCompleteListener> listeners, boolean groupPaymentItems) {
+        this(context, paymentContext, communicator, listeners, groupPaymentItems, DefaultSdkExecutor.getSharedInstance());
+    }
+
+
+    public BasicPaymentItemsAsyncTask(Context context, PaymentContext paymentContext, C2sCommunicator communicator, List<OnBasicPaymentItemsCallCompleteListener> listeners, boolean groupPaymentItems, SdkExecutor sdkExecutor) {
 
         if (context == null ) {
             throw new InvalidParameterException("Error creating BasicPaymentItemsAsyncTask, context may not be null");
@@ -68,46 +78,63 @@ public class BasicPaymentItemsAsyncTask extends AsyncTask<String, Void, BasicPay
         if (listeners == null) {
             throw new InvalidParameterException("Error creating BasicPaymentItemsAsyncTask, listeners may not be null");
         }
+        if (sdkExecutor == null) {
+            throw new InvalidParameterException("Error creating BasicPaymentItemsAsyncTask, sdkExecutor may not be null");
+        }
 
         this.context = context;
         this.paymentContext = paymentContext;
         this.communicator = communicator;
         this.listeners = listeners;
         this.groupPaymentItems = groupPaymentItems;
+        this.sdkExecutor = sdkExecutor;
     }
 
 
     @Override
     protected BasicPaymentItems doInBackground(String... params) {
 
+        return getBasicPaymentItemsInBackground();
+    }
+
+
+    @Override
+    public BasicPaymentItems call() throws Exception {
+
+        // Load the BasicPaymentItems from the GC gateway
+        return getBasicPaymentItemsInBackground();
+    }
+
+
+    private BasicPaymentItems getBasicPaymentItemsInBackground() {
+
         // Check whether the paymentProducts will be shown in groups
         if (groupPaymentItems) {
 
-            // Create a threadpool that will execute the tasks of getting the paymentproducts and the paymentproductgroups
-            ExecutorService executorService = Executors.newFixedThreadPool(2);
-
             // Create the callables that will be executed
             Callable<BasicPaymentProducts> paymentProductsCallable = new BasicPaymentProductsAsyncTask(context, paymentContext, communicator, new LinkedList<OnBasicPaymentProductsCallCompleteListener>());
             Callable<BasicPaymentProductGroups> paymentProductGroupsCallable = new BasicPaymentProductGroupsAsyncTask(context, paymentContext, communicator, new LinkedList<OnBasicPaymentProductGroupsCallCompleteListener>());
 
-            // Retrieve the futures from the callable tasks
-            Future<BasicPaymentProducts> paymentProductsFuture = executorService.submit(paymentProductsCallable);
-            Future<BasicPaymentProductGroups> paymentProductGroupsFuture = executorService.submit(paymentProductGroupsCallable);
+            // Fork both calls on the shared pool, they are cancelled together with this task and with each other when one fails
+            TaskGroup taskGroup = new TaskGroup(sdkExecutor.getIoExecutor(Priority.USER_VISIBLE));
+            Future<BasicPaymentProducts> paymentProductsFuture = taskGroup.fork(paymentProductsCallable);
+            Future<BasicPaymentProductGroups> paymentProductGroupsFuture = taskGroup.fork(paymentProductGroupsCallable);
 
             try {
-                // Retrieve the basicPaymentProducts and basicPaymentProductGroups from the futures
-                BasicPaymentProducts basicPaymentProducts = paymentProductsFuture.get();
-                BasicPaymentProductGroups basicPaymentProductGroups = paymentProductGroupsFuture.get();
+                // Wait for both calls, after which the futures have their results
+                taskGroup.join();
 
                 // Return a list of the basicPaymentProducts and basicPaymentProductGroups combined
-                return createBasicPaymentItems(basicPaymentProducts, basicPaymentProductGroups);
+                return createBasicPaymentItems(paymentProductsFuture.get(), paymentProductGroupsFuture.get());
 
             } catch (InterruptedException e) {
                 Log.i(TAG, "Error while getting paymentItems: " + e.getMessage());
-                e.printStackTrace();
+                Thread.currentThread().interrupt();
             } catch (ExecutionException e) {
                 Log.i(TAG, "Error while getting paymentItems: " + e.getMessage());
                 e.printStackTrace();
+            } catch (CancellationException e) {
+                Log.i(TAG, "Error while getting paymentItems: " + e.getMessage());
             }
         } else {
 
@@ -129,7 +156,16 @@ public class BasicPaymentItemsAsyncTask extends AsyncTask<String, Void, BasicPay
         return null;
     }
 
-    private BasicPaymentItems createBasicPaymentItems(BasicPaymentProducts basicPaymentProducts, BasicPaymentProductGroups basicPaymentProductGroups) {
+    /**
+     * Combines the BasicPaymentProducts and BasicPaymentProductGroups into BasicPaymentItems; paymentProducts that belong to a group are replaced by that group
+     * Also used by the GcSession for combining BasicPaymentProducts and BasicPaymentProductGroups that it has already loaded
+     *
+     * @param basicPaymentProducts, the loaded BasicPaymentProducts, may be null
+     * @param basicPaymentProductGroups, the loaded BasicPaymentProductGroups, null when the paymentItems are not grouped
+     *
+     * @return the combined BasicPaymentItems, or null when both are null
+     */
+    public static BasicPaymentItems createBasicPaymentItems(BasicPaymentProducts basicPaymentProducts, BasicPaymentProductGroups basicPaymentProductGroups) {
 
         // Validate the results of the calls
         if (basicPaymentProducts == null && basicPaymentProductGroups == null) {
@@ -203,6 +239,11 @@ public class BasicPaymentItemsAsyncTask extends AsyncTask<String, Void, BasicPay
     @Override
     protected void onPostExecute(BasicPaymentItems basicPaymentItems) {
 
+        // Bind the logos in the background, so the listeners get the paymentItems without waiting for their logos
+        if (basicPaymentItems != null) {
+            AssetManager.getInstance(context).bindLogos(basicPaymentItems.getBasicPaymentItems());
+        }
+
         // Call listener callbacks
         for (OnBasicPaymentItemsCallCompleteListener listener: listeners) {
             listener.onBasicPaymentItemsCallComplete(basicPaymentItems);
@@ -4,6 +4,7 @@ import android.content.Context;
 import android.os.AsyncTask;
 
 import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCommunicator;
+import com.globalcollect.gateway.sdk.client.android.sdk.manager.AssetManager;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentContext;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentProductGroups;
 
@@ -76,6 +77,12 @@ public class BasicPaymentProductGroupsAsyncTask extends AsyncTask<String, Void,
 
     @Override
     protected void onPostExecute(BasicPaymentProductGroups basicPaymentProductGroups) {
+
+        // Bind the logos in the background, so the listeners get the groups without waiting for their logos
+        if (basicPaymentProductGroups != null) {
+            AssetManager.getInstance(context).bindLogos(basicPaymentProductGroups.getBasicPaymentProductGroups());
+        }
+
         // Call listener callbacks
         for (OnBasicPaymentProductGroupsCallCompleteListener listener : listeners) {
             listener.onBasicPaymentProductGroupsCallComplete(basicPaymentProductGroups);
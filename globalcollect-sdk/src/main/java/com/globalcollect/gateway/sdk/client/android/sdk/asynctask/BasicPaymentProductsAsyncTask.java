@@ -8,6 +8,7 @@ import android.content.Context;
 import android.os.AsyncTask;
 
 import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCommunicator;
+import com.globalcollect.gateway.sdk.client.android.sdk.manager.AssetManager;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentContext;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentProducts;
 
@@ -70,6 +71,12 @@ public class BasicPaymentProductsAsyncTask extends AsyncTask<String, Void, Basic
     
     @Override
     protected void onPostExecute(BasicPaymentProducts basicPaymentProducts) {
+
+    	// Bind the logos in the background, so the listeners get the products without waiting for their logos
+    	if (basicPaymentProducts != null) {
+    		AssetManager.getInstance(context).bindLogos(basicPaymentProducts.getBasicPaymentProducts());
+    	}
+
     	if (listeners != null) {
 			// Call listener callbacks
 			for (OnBasicPaymentProductsCallCompleteListener listener : listeners) {
@@ -0,0 +1,118 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.asynctask;
+
+import java.security.InvalidParameterException;
+import java.util.concurrent.Executor;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * Default SdkExecutor, with a bounded pool of worker threads for I/O and another one for CPU work
+ *
+ * The I/O pool has DEFAULT_IO_THREADS threads, so the calls to the GC gateway run concurrently without opening more
+ * connections than the transport keeps alive. The CPU pool has a thread per core, leaving one core for the main thread.
+ * Both pools are PriorityExecutors: work that arrives while all threads are busy waits in the queue of its priority,
+ * and background work never occupies all threads. Idle threads stop after a while, so the SDK holds no threads when
+ * it is not used. The queue wait times per priority are available with getIoQueueWaitStats() and getCpuQueueWaitStats().
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class DefaultSdkExecutor extends SdkExecutor {
+
+	// Default number of threads for work that waits on the network or the disk
+	public static final int DEFAULT_IO_THREADS = 4;
+
+	// Default number of threads for work that keeps the CPU busy
+	public static final int DEFAULT_CPU_THREADS = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1, 4));
+
+	// Process wide executor, which is used by default
+	private static DefaultSdkExecutor SHARED_INSTANCE;
+
+	private PriorityExecutor ioExecutor;
+	private PriorityExecutor cpuExecutor;
+	private Executor mainThreadExecutor;
+
+
+	public DefaultSdkExecutor() {
+		this(DEFAULT_IO_THREADS, DEFAULT_CPU_THREADS);
+	}
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param ioThreads, maximum number of threads for work that waits on the network or the disk
+	 * @param cpuThreads, maximum number of threads for work that keeps the CPU busy
+	 */
+	public DefaultSdkExecutor(int ioThreads, int cpuThreads) {
+
+		if (ioThreads < 1) {
+			throw new InvalidParameterException("Error creating DefaultSdkExecutor, ioThreads must be at least 1");
+		}
+		if (cpuThreads < 1) {
+			throw new InvalidParameterException("Error creating DefaultSdkExecutor, cpuThreads must be at least 1");
+		}
+
+		ioExecutor = new PriorityExecutor(ioThreads, "gc-sdk-io-");
+		cpuExecutor = new PriorityExecutor(cpuThreads, "gc-sdk-cpu-");
+		mainThreadExecutor = new Executor() {
+
+			private Handler handler = new Handler(Looper.getMainLooper());
+
+			@Override
+			public void execute(Runnable runnable) {
+				handler.post(runnable);
+			}
+		};
+	}
+
+
+	/**
+	 * Gets the process wide DefaultSdkExecutor, which is used by default
+	 *
+	 * @return shared DefaultSdkExecutor instance
+	 */
+	public static synchronized DefaultSdkExecutor getSharedInstance() {
+		if (SHARED_INSTANCE == null) {
+			SHARED_INSTANCE = new DefaultSdkExecutor();
+		}
+		return SHARED_INSTANCE;
+	}
+
+
+	@Override
+	public Executor getIoExecutor(Priority priority) {
+		return ioExecutor.withPriority(priority);
+	}
+
+	@Override
+	public Executor getCpuExecutor(Priority priority) {
+		return cpuExecutor.withPriority(priority);
+	}
+
+	@Override
+	public Executor getMainThreadExecutor() {
+		return mainThreadExecutor;
+	}
+
+
+	/**
+	 * Returns the time that I/O work of the given priority has waited before it started
+	 *
+	 * @param priority, the priority of the work
+	 */
+	public QueueWaitStats getIoQueueWaitStats(Priority priority) {
+		return ioExecutor.getQueueWaitStats(priority);
+	}
+
+
+	/**
+	 * Returns the time that CPU work of the given priority has waited before it started
+	 *
+	 * @param priority, the priority of the work
+	 */
+	public QueueWaitStats getCpuQueueWaitStats(Priority priority) {
+		return cpuExecutor.getQueueWaitStats(priority);
+	}
+}
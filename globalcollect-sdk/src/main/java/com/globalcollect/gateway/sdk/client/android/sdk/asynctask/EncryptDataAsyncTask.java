@@ -4,6 +4,7 @@ import java.security.InvalidParameterException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 
 import android.os.AsyncTask;
 
@@ -20,9 +21,9 @@ import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.Pay
  * Copyright 2014 Global Collect Services B.V
  *
  */
-public class EncryptDataAsyncTask extends AsyncTask<String, Void, String>{
+public class EncryptDataAsyncTask extends AsyncTask<String, Void, String> implements Callable<String> {
 	
-	// The listener which will be called by the AsyncTask when the paymentproductfields are encrypted
+	// The listener which will be called by the AsyncTask when the paymentproductfields are encrypted, null when the task is used as Callable
 	private OnEncryptDataCompleteListener listener;
 	
 	// Variables needed for the Encryptor for encryption
@@ -42,9 +43,6 @@ public class EncryptDataAsyncTask extends AsyncTask<String, Void, String>{
     	if (clientSessionId == null) {
 			throw new InvalidParameterException("Error creating EncryptDataAsyncTask, clientSessionId may not be null");
 		}
-    	if (listener == null) {
-			throw new InvalidParameterException("Error creating EncryptDataAsyncTask, listener may not be null");
-		}
 
     	this.clientSessionId = clientSessionId;
         this.listener = listener;
@@ -55,6 +53,20 @@ public class EncryptDataAsyncTask extends AsyncTask<String, Void, String>{
 
     @Override
     protected String doInBackground(String... params) {
+
+    	return encryptDataInBackground();
+    }
+
+
+	@Override
+	public String call() throws Exception {
+
+		// Encrypt the paymentproductfields on the calling thread
+		return encryptDataInBackground();
+	}
+
+
+    private String encryptDataInBackground() {
     	
     	EncryptData encryptData = new EncryptData();
     	
@@ -104,7 +116,9 @@ public class EncryptDataAsyncTask extends AsyncTask<String, Void, String>{
     protected void onPostExecute(String encryptedData) {
     	
     	// Call listener callback
-    	listener.onEncryptDataComplete(encryptedData);
+    	if (listener != null) {
+    		listener.onEncryptDataComplete(encryptedData);
+    	}
     }
     
     
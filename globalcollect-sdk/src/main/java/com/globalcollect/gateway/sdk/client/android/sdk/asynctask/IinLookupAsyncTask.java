@@ -4,12 +4,14 @@ import android.content.Context;
 import android.os.AsyncTask;
 
 import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCommunicator;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sEndpoint;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentContext;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetailsResponse;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinStatus;
 
 import java.security.InvalidParameterException;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 /**
  * AsyncTask which executes an IIN lookup call to the GC gateway 
@@ -17,7 +19,7 @@ import java.util.List;
  * Copyright 2014 Global Collect Services B.V
  *
  */
-public class IinLookupAsyncTask extends AsyncTask<String, Void, IinDetailsResponse> {
+public class IinLookupAsyncTask extends AsyncTask<String, Void, IinDetailsResponse> implements Callable<IinDetailsResponse> {
 	
 	// Max nr of chars before doing a iin lookup 
 	private final Integer IIN_LOOKUP_NR_OF_CHARS = 6;
@@ -72,13 +74,54 @@ public class IinLookupAsyncTask extends AsyncTask<String, Void, IinDetailsRespon
 	@Override
     protected IinDetailsResponse doInBackground(String... params) {
 
+    	return getIinDetailsInBackground();
+    }
+
+
+	@Override
+	public IinDetailsResponse call() throws Exception {
+
+		// Do the IIN lookup on the calling thread
+		return getIinDetailsInBackground();
+	}
+
+
+    private IinDetailsResponse getIinDetailsInBackground() {
+
     	// Check if partialCreditCardNumber >= IIN_LOOKUP_NR_OF_CHARS
     	// If not return IinStatus.NOT_ENOUGH_DIGITS
     	if (partialCreditCardNumber.length() < IIN_LOOKUP_NR_OF_CHARS) {
     		return new IinDetailsResponse(IinStatus.NOT_ENOUGH_DIGITS);
     	}
 
-		IinDetailsResponse iinResponse = communicator.getPaymentProductIdByCreditCardNumber(partialCreditCardNumber, context, paymentContext);
+		// Don't wait for a lookup that will fail while the GC gateway is degraded, so the caller can fall back right away
+		// A prefix that has been looked up before is still answered from the IinResponseCache
+		IinDetailsResponse iinResponse;
+		if (communicator.isCircuitOpen(C2sEndpoint.IIN_DETAILS)) {
+			iinResponse = communicator.getCachedIinDetails(partialCreditCardNumber, context, paymentContext);
+			if (iinResponse == null) {
+				return new IinDetailsResponse(IinStatus.UNAVAILABLE);
+			}
+		} else {
+			iinResponse = communicator.getPaymentProductIdByCreditCardNumber(partialCreditCardNumber, context, paymentContext);
+		}
+
+		// The lookup failed and opened the circuit, or was refused by it
+		if (iinResponse == null && communicator.isCircuitOpen(C2sEndpoint.IIN_DETAILS)) {
+			return new IinDetailsResponse(IinStatus.UNAVAILABLE);
+		}
+		return getLookupResult(iinResponse);
+	}
+
+
+	/**
+	 * Determines the result of an IIN lookup from the response of the GC gateway
+	 *
+	 * @param iinResponse, the response of the GC gateway, or null when an error has occured
+	 *
+	 * @return the response with status SUPPORTED, or a new IinDetailsResponse with status UNKNOWN or EXISTING_BUT_NOT_ALLOWED
+	 */
+	public static IinDetailsResponse getLookupResult(IinDetailsResponse iinResponse) {
 
 		// Determine the result of the lookup
 		if (iinResponse == null || iinResponse.getPaymentProductId() == null) {
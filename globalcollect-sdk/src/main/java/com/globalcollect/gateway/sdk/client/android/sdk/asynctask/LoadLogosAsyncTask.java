@@ -0,0 +1,112 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.asynctask;
+
+import java.security.InvalidParameterException;
+import java.util.List;
+
+import android.graphics.drawable.Drawable;
+import android.os.AsyncTask;
+import android.util.Log;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.manager.AssetManager;
+
+/**
+ * AsyncTask which reads and decodes the logos of the given paymentItems from the internal storage or the app resources
+ * Every logo is delivered to the listener as soon as it is decoded, so the first logos can be shown while the others are still loading
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class LoadLogosAsyncTask extends AsyncTask<String, LoadLogosAsyncTask.Logo, Void> {
+
+	// Tag for logging
+	private static final String TAG = LoadLogosAsyncTask.class.getName();
+
+	// The listener which will be called for every logo that is loaded
+	private OnLogoLoadedListener listener;
+
+	// Ids of the paymentItems whose logos are loaded
+	private List<String> paymentItemIds;
+
+	// AssetManager which reads the logos
+	private AssetManager assetManager;
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param paymentItemIds, ids of the paymentItems whose logos are loaded
+	 * @param assetManager, AssetManager which reads the logos
+	 * @param listener, listener which will be called for every logo that is loaded
+	 */
+	public LoadLogosAsyncTask(List<String> paymentItemIds, AssetManager assetManager, OnLogoLoadedListener listener) {
+
+		if (paymentItemIds == null) {
+			throw new InvalidParameterException("Error creating LoadLogosAsyncTask, paymentItemIds may not be null");
+		}
+		if (assetManager == null) {
+			throw new InvalidParameterException("Error creating LoadLogosAsyncTask, assetManager may not be null");
+		}
+		if (listener == null) {
+			throw new InvalidParameterException("Error creating LoadLogosAsyncTask, listener may not be null");
+		}
+
+		this.paymentItemIds = paymentItemIds;
+		this.assetManager = assetManager;
+		this.listener = listener;
+	}
+
+
+	@Override
+	protected Void doInBackground(String... params) {
+
+		for (String paymentItemId : paymentItemIds) {
+
+			// A logo that fails to decode is delivered as no logo, so the listeners waiting for it are still called
+			Drawable logo = null;
+			try {
+				logo = assetManager.getLogo(paymentItemId);
+			} catch (RuntimeException e) {
+				Log.i(TAG, "Error while loading logo of paymentItem " + paymentItemId + ": " + e.getMessage());
+			} catch (OutOfMemoryError e) {
+				Log.i(TAG, "Error while loading logo of paymentItem " + paymentItemId + ": " + e.getMessage());
+			}
+			publishProgress(new Logo(paymentItemId, logo));
+		}
+		return null;
+	}
+
+
+	@Override
+	protected void onProgressUpdate(Logo... logos) {
+		for (Logo logo : logos) {
+			listener.onLogoLoaded(logo.paymentItemId, logo.drawable);
+		}
+	}
+
+
+	/**
+	 * Logo which has been loaded for a paymentItem
+	 */
+	static class Logo {
+
+		private String paymentItemId;
+		private Drawable drawable;
+
+		private Logo(String paymentItemId, Drawable drawable) {
+			this.paymentItemId = paymentItemId;
+			this.drawable = drawable;
+		}
+	}
+
+
+	/**
+	 * Interface for OnLogoLoaded listener
+	 * Is called on the UI thread for every logo that is loaded, the logo is null when there is no logo for the paymentItem
+	 *
+	 * Copyright 2014 Global Collect Services B.V
+	 *
+	 */
+	public interface OnLogoLoadedListener {
+		public void onLogoLoaded(String paymentItemId, Drawable logo);
+	}
+}
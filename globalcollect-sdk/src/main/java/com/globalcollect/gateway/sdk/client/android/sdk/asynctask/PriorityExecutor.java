@@ -0,0 +1,357 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.asynctask;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import android.os.Process;
+import android.util.Log;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.SdkExecutor.Priority;
+
+/**
+ * Bounded pool of worker threads which runs the queued work with the highest priority first
+ *
+ * Every priority has its own queue, which is run in order. A free thread always takes work from the queue of the
+ * highest priority that has work, so interactive work that is queued starts before all user-visible and background
+ * work that was queued earlier. Background work never occupies all threads: at least one thread is kept free for
+ * interactive and user-visible work, so it never has to wait for a slow download to finish.
+ *
+ * Interactive work runs with the default thread priority, all other work with background thread priority.
+ * Threads are started when work arrives and stop when they have been idle for a while.
+ * The time that work waits in the queue is kept per priority, see getQueueWaitStats(). Revocable work that has been revoked
+ * while it was queued is dropped without running, and is not counted.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class PriorityExecutor {
+
+	// Tag for logging
+	private static final String TAG = PriorityExecutor.class.getName();
+
+	// Time after which idle threads stop
+	private static final long KEEP_ALIVE_MILLIS = 30000L;
+
+	// Number of recent queue wait times per priority from which the percentile is computed
+	private static final int WAIT_SAMPLES = 256;
+
+	private String namePrefix;
+	private int maxThreads;
+	private int maxBackgroundThreads;
+
+	// Queued work per priority, and the state of the threads; guarded by this
+	// Idle threads that have been notified, but have not woken up yet, are not idle for new work
+	private List<ArrayDeque<Job>> queues;
+	private int threadCount = 0;
+	private int idleThreadCount = 0;
+	private int pendingWakeUpCount = 0;
+	private int runningBackgroundCount = 0;
+
+	private WaitStats[] waitStats;
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxThreads, maximum number of threads
+	 * @param namePrefix, prefix of the names of the threads
+	 */
+	public PriorityExecutor(int maxThreads, String namePrefix) {
+
+		if (maxThreads < 1) {
+			throw new InvalidParameterException("Error creating PriorityExecutor, maxThreads must be at least 1");
+		}
+		if (namePrefix == null) {
+			throw new InvalidParameterException("Error creating PriorityExecutor, namePrefix may not be null");
+		}
+
+		this.maxThreads = maxThreads;
+		this.maxBackgroundThreads = Math.max(1, maxThreads - 1);
+		this.namePrefix = namePrefix;
+
+		Priority[] priorities = Priority.values();
+		queues = new ArrayList<ArrayDeque<Job>>(priorities.length);
+		waitStats = new WaitStats[priorities.length];
+		for (Priority priority : priorities) {
+			queues.add(new ArrayDeque<Job>());
+			waitStats[priority.ordinal()] = new WaitStats();
+		}
+	}
+
+
+	/**
+	 * Returns an Executor which queues its work with the given priority on this PriorityExecutor
+	 *
+	 * @param priority, the priority of the work
+	 */
+	public Executor withPriority(final Priority priority) {
+
+		if (priority == null) {
+			throw new InvalidParameterException("Error getting executor, priority may not be null");
+		}
+		return new Executor() {
+			@Override
+			public void execute(Runnable runnable) {
+				PriorityExecutor.this.execute(runnable, priority);
+			}
+		};
+	}
+
+
+	/**
+	 * Queues the runnable with the given priority
+	 *
+	 * @param runnable, the work which is run
+	 * @param priority, the priority of the work
+	 */
+	public void execute(Runnable runnable, Priority priority) {
+
+		if (runnable == null) {
+			throw new InvalidParameterException("Error executing runnable, runnable may not be null");
+		}
+		if (priority == null) {
+			throw new InvalidParameterException("Error executing runnable, priority may not be null");
+		}
+
+		synchronized (this) {
+			queues.get(priority.ordinal()).add(new Job(runnable, priority));
+
+			// Wake up an idle thread, or start a new one
+			if (!wakeUpIdleThread() && threadCount < maxThreads) {
+				startThread();
+			}
+		}
+	}
+
+
+	/**
+	 * Returns the time that work of the given priority has waited in the queue before it started
+	 *
+	 * @param priority, the priority of the work
+	 */
+	public QueueWaitStats getQueueWaitStats(Priority priority) {
+		return waitStats[priority.ordinal()].snapshot();
+	}
+
+
+	/**
+	 * Returns the number of pieces of work that are queued with the given priority, without the work that was revoked
+	 *
+	 * @param priority, the priority of the work
+	 */
+	public synchronized int getQueuedCount(Priority priority) {
+		int count = 0;
+		for (Job job : queues.get(priority.ordinal())) {
+			if (!job.isRevoked()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+
+	/**
+	 * Wakes up an idle thread that has not been woken up already, must be called while holding the lock
+	 *
+	 * @return false when there is no such thread
+	 */
+	private boolean wakeUpIdleThread() {
+		if (idleThreadCount > pendingWakeUpCount) {
+			pendingWakeUpCount++;
+			notify();
+			return true;
+		}
+		return false;
+	}
+
+
+	/**
+	 * Starts a new thread, must be called while holding the lock
+	 */
+	private void startThread() {
+		threadCount++;
+		Thread thread = new Thread(new Worker(), namePrefix + threadCount);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+
+	/**
+	 * Returns whether any work is queued, must be called while holding the lock
+	 */
+	private boolean hasQueuedJob() {
+		for (ArrayDeque<Job> queue : queues) {
+			if (!queue.isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Takes the next job that may run, must be called while holding the lock
+	 * Background jobs are left in the queue while they already occupy all threads they may use
+	 */
+	private Job takeJob() {
+		for (ArrayDeque<Job> queue : queues) {
+
+			// Revoked work is dropped before it takes a turn of a thread or is counted in the wait stats
+			while (queue.peek() != null && queue.peek().isRevoked()) {
+				queue.poll();
+			}
+			Job job = queue.peek();
+			if (job != null && (job.priority != Priority.BACKGROUND || runningBackgroundCount < maxBackgroundThreads)) {
+				return queue.poll();
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * Work which is queued, with the time it was queued
+	 */
+	private static class Job {
+
+		private Runnable runnable;
+		private Priority priority;
+		private long queuedAt = System.nanoTime();
+
+		private Job(Runnable runnable, Priority priority) {
+			this.runnable = runnable;
+			this.priority = priority;
+		}
+
+		private boolean isRevoked() {
+			return runnable instanceof Revocable && ((Revocable) runnable).isRevoked();
+		}
+	}
+
+
+	/**
+	 * Work which may become obsolete while it is queued, for instance because it has been queued again with a higher priority
+	 */
+	public interface Revocable extends Runnable {
+
+		/**
+		 * Returns whether the work no longer needs to run
+		 */
+		boolean isRevoked();
+	}
+
+
+	/**
+	 * Runs jobs until it has been idle for KEEP_ALIVE_MILLIS
+	 */
+	private class Worker implements Runnable {
+
+		@Override
+		public void run() {
+
+			boolean idle = false;
+			try {
+				idle = runJobs();
+			} finally {
+				synchronized (PriorityExecutor.this) {
+					threadCount--;
+
+					// A thread that is killed by an Error of its job leaves the queued work to another thread
+					if (!idle && hasQueuedJob() && !wakeUpIdleThread() && threadCount < maxThreads) {
+						startThread();
+					}
+				}
+			}
+		}
+
+		/**
+		 * Runs jobs, and returns true when there has been no work for KEEP_ALIVE_MILLIS
+		 */
+		private boolean runJobs() {
+			while (true) {
+
+				Job job;
+				synchronized (PriorityExecutor.this) {
+					long idleSince = System.nanoTime();
+					while ((job = takeJob()) == null) {
+						long remainingMillis = KEEP_ALIVE_MILLIS - (System.nanoTime() - idleSince) / 1000000L;
+						if (remainingMillis <= 0) {
+							return true;
+						}
+						idleThreadCount++;
+						try {
+							PriorityExecutor.this.wait(remainingMillis);
+						} catch (InterruptedException e) {
+							// Keep serving the queue, the threads of the pool are never interrupted on purpose
+						} finally {
+
+							// Whichever thread wakes up uses a pending wake up, so no more threads are woken up than there are idle
+							idleThreadCount--;
+							if (pendingWakeUpCount > 0) {
+								pendingWakeUpCount--;
+							}
+						}
+					}
+					if (job.priority == Priority.BACKGROUND) {
+						runningBackgroundCount++;
+					}
+				}
+
+				// An interrupt that was meant for the previous job, for instance when it was cancelled, is not passed on
+				Thread.interrupted();
+
+				waitStats[job.priority.ordinal()].add((System.nanoTime() - job.queuedAt) / 1000000L);
+				Process.setThreadPriority(job.priority == Priority.INTERACTIVE ? Process.THREAD_PRIORITY_DEFAULT : Process.THREAD_PRIORITY_BACKGROUND);
+				try {
+					job.runnable.run();
+				} catch (RuntimeException e) {
+					Log.e(TAG, "Error while running job: " + e.getMessage());
+				} finally {
+					synchronized (PriorityExecutor.this) {
+						if (job.priority == Priority.BACKGROUND) {
+							runningBackgroundCount--;
+
+							// A background job that was held back may run now
+							wakeUpIdleThread();
+						}
+					}
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Queue wait times of one priority
+	 */
+	private static class WaitStats {
+
+		private long count = 0;
+		private long totalMillis = 0;
+		private long maxMillis = 0;
+		private long[] samples = new long[WAIT_SAMPLES];
+
+
+		private synchronized void add(long waitMillis) {
+			samples[(int) (count % WAIT_SAMPLES)] = waitMillis;
+			count++;
+			totalMillis += waitMillis;
+			maxMillis = Math.max(maxMillis, waitMillis);
+		}
+
+
+		private synchronized QueueWaitStats snapshot() {
+			if (count == 0) {
+				return new QueueWaitStats(0, 0, 0, 0);
+			}
+			long[] recent = Arrays.copyOf(samples, (int) Math.min(count, WAIT_SAMPLES));
+			Arrays.sort(recent);
+			long p95 = recent[(int) Math.ceil(recent.length * 0.95) - 1];
+			return new QueueWaitStats(count, totalMillis / count, p95, maxMillis);
+		}
+	}
+}
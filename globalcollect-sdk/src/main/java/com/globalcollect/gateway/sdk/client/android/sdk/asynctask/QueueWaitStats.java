@@ -0,0 +1,53 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.asynctask;
+
+/**
+ * Snapshot of the time that work of one priority has waited in the queue of a PriorityExecutor before it started
+ * The mean and the maximum cover all work since the executor was created, the percentile covers the most recent work
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class QueueWaitStats {
+
+	private long count;
+	private long meanMillis;
+	private long p95Millis;
+	private long maxMillis;
+
+
+	QueueWaitStats(long count, long meanMillis, long p95Millis, long maxMillis) {
+		this.count = count;
+		this.meanMillis = meanMillis;
+		this.p95Millis = p95Millis;
+		this.maxMillis = maxMillis;
+	}
+
+
+	/**
+	 * Returns the number of pieces of work that have started
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	public long getMeanMillis() {
+		return meanMillis;
+	}
+
+	/**
+	 * Returns the 95th percentile of the queue wait time of the most recent work
+	 */
+	public long getP95Millis() {
+		return p95Millis;
+	}
+
+	public long getMaxMillis() {
+		return maxMillis;
+	}
+
+
+	@Override
+	public String toString() {
+		return "count=" + count + ", mean=" + meanMillis + "ms, p95=" + p95Millis + "ms, max=" + maxMillis + "ms";
+	}
+}
@@ -0,0 +1,99 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.asynctask;
+
+import java.util.concurrent.Executor;
+
+import android.os.AsyncTask;
+import android.os.Build;
+
+/**
+ * Executes the AsyncTasks of the SDK
+ *
+ * Tasks are not executed with AsyncTask.execute(), which on API 11 and higher runs all AsyncTasks of the app one at a time
+ * on a single process wide queue. Instead they are executed on the executors of the SdkExecutor: work that waits on
+ * the network or the disk on the I/O executor, and work that keeps the CPU busy, like encrypting or decoding, on the
+ * CPU executor. The results of the tasks are still delivered on the main thread by the AsyncTasks themselves;
+ * other work can post its results with the main thread executor.
+ *
+ * All work is executed with a Priority, so work the user is waiting for is not queued behind work the user does not see.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public abstract class SdkExecutor {
+
+
+	/**
+	 * Priorities of the work of the SDK, from high to low
+	 */
+	public enum Priority {
+
+		// Work the user is waiting for while interacting, like an IIN lookup while typing or preparing a payment on Pay
+		INTERACTIVE,
+
+		// Work whose result is shown on the screen, like payment products and logos that are displayed
+		USER_VISIBLE,
+
+		// Work whose result the user does not wait for, like warming up and refreshing logos
+		BACKGROUND
+	}
+
+
+	/**
+	 * Returns the executor for work with the given priority that waits on the network or the disk
+	 *
+	 * @param priority, the priority of the work
+	 */
+	public abstract Executor getIoExecutor(Priority priority);
+
+
+	/**
+	 * Returns the executor for work with the given priority that keeps the CPU busy
+	 *
+	 * @param priority, the priority of the work
+	 */
+	public abstract Executor getCpuExecutor(Priority priority);
+
+
+	/**
+	 * Returns the executor which runs its tasks on the main thread
+	 */
+	public abstract Executor getMainThreadExecutor();
+
+
+	/**
+	 * Executes the task on the I/O executor
+	 *
+	 * @param task, the task which is executed
+	 * @param priority, the priority of the task
+	 */
+	public void executeIo(AsyncTask<String, ?, ?> task, Priority priority) {
+		execute(task, getIoExecutor(priority));
+	}
+
+
+	/**
+	 * Executes the task on the CPU executor
+	 *
+	 * @param task, the task which is executed
+	 * @param priority, the priority of the task
+	 */
+	public void executeCpu(AsyncTask<String, ?, ?> task, Priority priority) {
+		execute(task, getCpuExecutor(priority));
+	}
+
+
+	/**
+	 * Executes the task on the given executor
+	 * Before Honeycomb tasks can not be given an executor, but there AsyncTask.execute() already runs tasks concurrently
+	 *
+	 * @param task, the task which is executed
+	 * @param executor, the executor which executes the task
+	 */
+	public static void execute(AsyncTask<String, ?, ?> task, Executor executor) {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+			task.executeOnExecutor(executor);
+		} else {
+			task.execute();
+		}
+	}
+}
@@ -0,0 +1,268 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.asynctask;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.CancellationToken;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.CancellationToken.OnCancelListener;
+
+/**
+ * Group of calls which are executed in parallel on a shared executor by a task that waits for all of them
+ *
+ * The calls are forked on the executor, for instance the I/O executor of the SdkExecutor, so no threads are created
+ * for them. When the task joins the group it runs the calls which have not been started yet itself; the group therefore
+ * always finishes, even when all threads of the executor are busy with tasks that are joining groups themselves.
+ *
+ * join() returns when all calls are done. When one of the calls fails, the other calls are cancelled and join() throws
+ * the failure right away, also when the joining thread is running one of the other calls itself.
+ * awaitAll() waits for all calls and leaves the failures to the futures of the calls.
+ * The calls are cancelled together with the CancellationToken of the task that creates the group.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class TaskGroup {
+
+	private Executor executor;
+
+	// Token which is bound to the threads that execute the calls of this group
+	private CancellationToken cancellationToken = new CancellationToken();
+
+	// Token of the task that created this group, which cancels this group when it is cancelled
+	private CancellationToken parentToken;
+	private OnCancelListener parentListener;
+
+	// State of the calls; guarded by this
+	private List<Call<?>> calls = new ArrayList<Call<?>>();
+	private int remaining = 0;
+	private Throwable failure;
+	private boolean cancelled = false;
+	private boolean failFast = false;
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param executor, the executor on which the calls are executed
+	 */
+	public TaskGroup(Executor executor) {
+
+		if (executor == null) {
+			throw new InvalidParameterException("Error creating TaskGroup, executor may not be null");
+		}
+		this.executor = executor;
+
+		parentToken = CancellationToken.getCurrent();
+		if (parentToken != null) {
+			parentListener = new OnCancelListener() {
+				@Override
+				public void onCancel() {
+					cancel();
+				}
+			};
+			if (!parentToken.addOnCancelListener(parentListener)) {
+				cancel();
+			}
+		}
+	}
+
+
+	/**
+	 * Starts the callable on the executor
+	 *
+	 * @param callable, the call which is executed
+	 *
+	 * @return Future with the result of the call
+	 */
+	public <T> Future<T> fork(Callable<T> callable) {
+
+		if (callable == null) {
+			throw new InvalidParameterException("Error forking call, callable may not be null");
+		}
+
+		Call<T> call = new Call<T>(callable);
+		synchronized (this) {
+			calls.add(call);
+			remaining++;
+			if (cancelled) {
+				call.cancel(false);
+				return call;
+			}
+		}
+
+		try {
+			executor.execute(call);
+		} catch (RejectedExecutionException e) {
+			// The call is run when the group is joined
+		}
+		return call;
+	}
+
+
+	/**
+	 * Waits until all calls are done
+	 * When a call fails the other calls are cancelled and its failure is thrown without waiting for them
+	 *
+	 * @throws ExecutionException, with the exception of the call that failed as its cause
+	 * @throws CancellationException, when the group is cancelled
+	 * @throws InterruptedException, when the thread is interrupted while waiting; the calls are cancelled
+	 */
+	public void join() throws InterruptedException, ExecutionException {
+
+		synchronized (this) {
+			failFast = true;
+		}
+		await(true);
+
+		Throwable callFailure;
+		synchronized (this) {
+			callFailure = failure;
+		}
+		if (callFailure != null) {
+			cancel();
+			throw new ExecutionException(callFailure);
+		}
+		if (isCancelled()) {
+			throw new CancellationException("The calls of the group have been cancelled");
+		}
+	}
+
+
+	/**
+	 * Waits until all calls are done, whether they have failed or not
+	 * The results and failures of the calls are available from their futures
+	 *
+	 * @throws InterruptedException, when the thread is interrupted while waiting; the calls are cancelled
+	 */
+	public void awaitAll() throws InterruptedException {
+		await(false);
+	}
+
+
+	/**
+	 * Cancels all calls of the group
+	 */
+	public void cancel() {
+
+		List<Call<?>> callsToCancel;
+		synchronized (this) {
+			cancelled = true;
+			callsToCancel = new ArrayList<Call<?>>(calls);
+		}
+
+		// The token aborts the requests of the calls, the interrupt stops the calls that are waiting
+		cancellationToken.cancel();
+		for (Call<?> call : callsToCancel) {
+			call.cancel(true);
+		}
+	}
+
+
+	public synchronized boolean isCancelled() {
+		return cancelled;
+	}
+
+
+	private void await(boolean failFast) throws InterruptedException {
+
+		try {
+			// Run the calls that have not been started by the executor on this thread
+			List<Call<?>> callsToRun;
+			synchronized (this) {
+				callsToRun = new ArrayList<Call<?>>(calls);
+			}
+			for (Call<?> call : callsToRun) {
+				if (failFast && hasFailed()) {
+					break;
+				}
+				call.run();
+			}
+
+			// Wait for the calls that are running on the executor
+			synchronized (this) {
+				while (remaining > 0 && !(failFast && failure != null)) {
+					wait();
+				}
+			}
+
+		} catch (InterruptedException e) {
+			cancel();
+			throw e;
+		} finally {
+			if (parentToken != null) {
+				parentToken.removeOnCancelListener(parentListener);
+			}
+		}
+	}
+
+
+	private synchronized boolean hasFailed() {
+		return failure != null;
+	}
+
+
+	private void onCallDone(Call<?> call) {
+
+		boolean cancelOtherCalls = false;
+		synchronized (this) {
+			remaining--;
+			if (failure == null && !call.isCancelled()) {
+				try {
+					call.get();
+				} catch (ExecutionException e) {
+					failure = e.getCause();
+					cancelOtherCalls = failFast;
+				} catch (InterruptedException e) {
+					// Not possible, the call is done
+				}
+			}
+			notifyAll();
+		}
+
+		// While the group is joined the other calls are cancelled right away, which also stops a call that the joining thread is running
+		if (cancelOtherCalls) {
+			cancel();
+		}
+	}
+
+
+	/**
+	 * Call of the group, which runs with the CancellationToken of the group and reports to the group when it is done
+	 */
+	private class Call<T> extends FutureTask<T> {
+
+		private Call(final Callable<T> callable) {
+			super(new Callable<T>() {
+				@Override
+				public T call() throws Exception {
+
+					// The call may run on the thread that joins the group, which keeps its own token afterwards
+					CancellationToken previousToken = CancellationToken.getCurrent();
+					cancellationToken.bind();
+					try {
+						return callable.call();
+					} finally {
+						if (previousToken != null) {
+							previousToken.bind();
+						} else {
+							CancellationToken.unbind();
+						}
+					}
+				}
+			});
+		}
+
+		@Override
+		protected void done() {
+			onCallDone(this);
+		}
+	}
+}
@@ -22,6 +22,9 @@ public class CacheHandler {
 	// Classes for reading and writing files of the internal storage
 	private ReadInternalStorage fileReader;
 	private WriteInternalStorage fileWriter;
+
+	// Context used for reading the IinResponseCache
+	private Context context;
 	
 	
 	/**
@@ -35,6 +38,7 @@ public class CacheHandler {
 			throw new InvalidParameterException("Error creating CacheHandler, context may not be null");
 		}
 		
+		this.context = context;
 		fileReader  = new ReadInternalStorage(context);
 		fileWriter = new WriteInternalStorage(context);
 	}
@@ -42,11 +46,16 @@ public class CacheHandler {
 	
 	/**
 	 * Gets all cached IinDetailsResponsess
+	 * The responses are read from the shared IinResponseCache, which reads its log file on the first use; don't call this on the main thread
+	 * 
+	 * @return Map<String, IinDetailsResponse> all cached iinresponses, keyed by IinResponseCache.createKey()
 	 * 
-	 * @return Map<String, IinDetailsResponse> all cached iinresponses
+	 * @deprecated the IIN lookups cache their responses in the IinResponseCache of the C2sCommunicatorConfiguration,
+	 * which answers lookups itself; use IinResponseCache.get() of the configured cache instead
 	 */
+	@Deprecated
 	public Map<String, IinDetailsResponse> getIinResponsesFromCache() {
-		return fileReader.getIinResponsesFromCache();
+		return IinResponseCache.getSharedInstance().getAll(context);
 	}
 	
 
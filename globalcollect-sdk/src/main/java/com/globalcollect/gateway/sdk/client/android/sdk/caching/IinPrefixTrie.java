@@ -0,0 +1,217 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.caching;
+
+/**
+ * Trie of the IIN prefixes that the GC gateway has answered, which finds the answer for any input by longest match
+ *
+ * Every node is a prefix, and has a child for each digit that follows it. A node whose prefix was answered holds that
+ * answer and is confirmed: the answer holds for every number that starts with the prefix. Every node also knows the
+ * paymentProductId that all answers at or below it agree on, so input that is shorter than the prefixes that were answered
+ * gets an unconfirmed answer, which still needs to be confirmed by the GC gateway. Lookups walk the digits of the input and
+ * allocate nothing.
+ *
+ * This class is not threadsafe; it is guarded by the IinResponseCache that uses it.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+class IinPrefixTrie<V> {
+
+	private Node<V> root = new Node<V>();
+
+
+	/**
+	 * Stores the answer for the given prefix, and replaces the answer it had
+	 *
+	 * @param iinPrefix, the digits that were answered
+	 * @param paymentProductId, the paymentProductId of the answer; may be null
+	 * @param value, the answer
+	 *
+	 * @return false when the prefix contains other characters than digits, and is not stored
+	 */
+	boolean put(String iinPrefix, String paymentProductId, V value) {
+
+		Node<V>[] path = getPath(iinPrefix, true);
+		if (path == null) {
+			return false;
+		}
+		Node<V> node = path[path.length - 1];
+		node.value = value;
+		node.valuePaymentProductId = paymentProductId;
+		update(path);
+		return true;
+	}
+
+
+	/**
+	 * Removes the answer for the given prefix, and the nodes that are no longer needed
+	 *
+	 * @param iinPrefix, the digits that were answered
+	 */
+	void remove(String iinPrefix) {
+
+		Node<V>[] path = getPath(iinPrefix, false);
+		if (path == null) {
+			return;
+		}
+		Node<V> node = path[path.length - 1];
+		node.value = null;
+		node.valuePaymentProductId = null;
+		update(path);
+	}
+
+
+	/**
+	 * Finds the answer for the given input
+	 *
+	 * @param digits, the entered partial creditcardnumber
+	 *
+	 * @return the confirmed node of the longest prefix of the input that was answered; when there is none, the unconfirmed
+	 * node of the input if all answers for longer prefixes agree on the paymentProductId; otherwise null
+	 */
+	Node<V> getLongestMatch(String digits) {
+
+		Node<V> node = root;
+		Node<V> longestMatch = null;
+		int length = 0;
+		while (length < digits.length()) {
+			int digit = digits.charAt(length) - '0';
+			if (digit < 0 || digit > 9 || node.children == null || node.children[digit] == null) {
+				break;
+			}
+			node = node.children[digit];
+			length++;
+			if (node.isConfirmed()) {
+				longestMatch = node;
+			}
+		}
+
+		if (longestMatch != null) {
+			return longestMatch;
+		}
+		if (length > 0 && length == digits.length() && node.paymentProductId != null) {
+			return node;
+		}
+		return null;
+	}
+
+
+	/**
+	 * Removes all answers
+	 */
+	void clear() {
+		root = new Node<V>();
+	}
+
+
+	private Node<V>[] getPath(String iinPrefix, boolean create) {
+
+		if (iinPrefix.length() == 0) {
+			return null;
+		}
+		Node<V>[] path = newNodes(iinPrefix.length() + 1);
+		path[0] = root;
+		for (int i = 0; i < iinPrefix.length(); i++) {
+			int digit = iinPrefix.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return null;
+			}
+			Node<V> node = path[i];
+			if (node.children == null || node.children[digit] == null) {
+				if (!create) {
+					return null;
+				}
+				if (node.children == null) {
+					node.children = newNodes(10);
+				}
+				node.children[digit] = new Node<V>();
+			}
+			path[i + 1] = node.children[digit];
+		}
+		return path;
+	}
+
+
+	// Generic arrays can not be created, so the wildcard array is cast; it only ever holds nodes of this trie
+	@SuppressWarnings("unchecked")
+	private static <V> Node<V>[] newNodes(int length) {
+		return (Node<V>[]) new Node<?>[length];
+	}
+
+
+	private void update(Node<V>[] path) {
+
+		// Recount the answers below every node of the path, bottom up, and drop the nodes without any
+		for (int i = path.length - 1; i >= 0; i--) {
+			Node<V> node = path[i];
+			node.update();
+			if (i > 0 && node.answerCount == 0) {
+				Node<V>[] siblings = path[i - 1].children;
+				for (int digit = 0; digit < siblings.length; digit++) {
+					if (siblings[digit] == node) {
+						siblings[digit] = null;
+					}
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Node of the trie, for a single prefix
+	 */
+	static class Node<V> {
+
+		// The answer for exactly this prefix, or null when it was not answered
+		private V value;
+		private String valuePaymentProductId;
+
+		// The number of answers at or below this node, and the paymentProductId they agree on, or null when they differ
+		private int answerCount;
+		private String paymentProductId;
+
+		private Node<V>[] children;
+
+		/**
+		 * Returns whether the GC gateway answered this prefix, so no confirmation is needed
+		 */
+		boolean isConfirmed() {
+			return value != null;
+		}
+
+		/**
+		 * Returns the answer for this prefix, or null when it is not confirmed
+		 */
+		V getValue() {
+			return value;
+		}
+
+		/**
+		 * Returns the paymentProductId that all answers at or below this node agree on, or null when they differ
+		 */
+		String getPaymentProductId() {
+			return paymentProductId;
+		}
+
+		private void update() {
+
+			answerCount = value != null ? 1 : 0;
+			paymentProductId = valuePaymentProductId;
+			boolean agree = value == null || valuePaymentProductId != null;
+			if (children != null) {
+				for (Node<V> child : children) {
+					if (child == null || child.answerCount == 0) {
+						continue;
+					}
+					if (answerCount == 0) {
+						paymentProductId = child.paymentProductId;
+					}
+					agree = agree && child.paymentProductId != null && child.paymentProductId.equals(paymentProductId);
+					answerCount += child.answerCount;
+				}
+			}
+			if (!agree) {
+				paymentProductId = null;
+			}
+		}
+	}
+}
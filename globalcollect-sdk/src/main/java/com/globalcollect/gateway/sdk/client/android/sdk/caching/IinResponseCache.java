@@ -0,0 +1,623 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.caching;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.GcUtil;
+import com.globalcollect.gateway.sdk.client.android.sdk.configuration.Constants;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentContext;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetailsResponse;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinStatus;
+
+/**
+ * Size bounded cache of the IinDetailsResponses of the GC gateway, which survives restarts of the app
+ *
+ * The responses are kept in memory, where the least recently used ones are evicted once there are more than maxEntries,
+ * and in a log file on internal storage, to which every new response is appended as a single record. The log is read once,
+ * when the cache is first used, and is rewritten with only the live entries when it has grown to twice maxEntries records
+ * or when its last record is damaged. Every entry expires timeToLiveMillis after it was stored.
+ *
+ * Entries are keyed by the IIN prefix that is sent to the GC gateway and the fields of the PaymentContext that the response
+ * depends on, see createKey(). Every get() returns a new IinDetailsResponse, so callers may change the response they get.
+ *
+ * The prefixes are indexed as well, in an IinPrefixTrie for every PaymentContext, which is filled when the log is read.
+ * getLongestMatch() uses it to answer input of any length: longer input by the response of its longest cached prefix,
+ * and shorter input by a PROVISIONAL response when all cached responses of the prefixes it starts with agree on the brand.
+ *
+ * The entries and the tries are guarded by the lock of the cache, which is only held for work in memory, so getLongestMatch()
+ * on the main thread never waits for storage. The log file has a lock of its own: put() and clear() queue the records to
+ * write under the lock of the cache, and then write the queued records, in order, under the lock of the log on their own
+ * thread. load() reads the log under the lock of the log as well, before it takes the lock of the cache to fill the entries.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class IinResponseCache implements Serializable {
+
+	private static final long serialVersionUID = -3319250367416187720L;
+
+	// Tag for logging
+	private static final String TAG = IinResponseCache.class.getName();
+
+	// Default maximum number of cached responses
+	public static final int DEFAULT_MAX_ENTRIES = 256;
+
+	// Default time a response is cached; the IIN ranges of the card brands rarely change
+	public static final long DEFAULT_TIME_TO_LIVE_MILLIS = 24L * 60 * 60 * 1000;
+
+	// Written at the start of the log, so a log in another format is discarded instead of misread
+	private static final int LOG_FORMAT_VERSION = 1;
+
+	// Process wide cache, which survives serialisation of the configuration that uses it
+	private static IinResponseCache SHARED_INSTANCE;
+
+	private int maxEntries;
+	private long timeToLiveMillis;
+	private boolean shared;
+
+	// The log file, or null when it is the default file in the files directory of the app
+	private File file;
+
+	// The cached entries, in access order, and the number of records in the log, including the queued ones; not serialised
+	private transient LinkedHashMap<String, Entry> entries;
+	private transient HashMap<String, IinPrefixTrie<Entry>> tries;
+	private transient volatile boolean loaded;
+	private transient int logRecordCount;
+	private transient int hitCount;
+
+	// The records that are not written to the log yet, in order, after the live entries that the log is first rewritten with
+	private transient List<Entry> pendingRecords;
+	private transient List<Entry> pendingRewrite;
+
+	// Guards the log file, which is only read and written under this lock, never under the lock of the cache
+	private transient Object logLock = new Object();
+	private transient File logFile;
+
+
+	/**
+	 * Constructor, for a cache which logs to the default file in the files directory of the app
+	 *
+	 * @param maxEntries, maximum number of cached responses
+	 * @param timeToLiveMillis, time a response is cached
+	 */
+	public IinResponseCache(int maxEntries, long timeToLiveMillis) {
+		this(maxEntries, timeToLiveMillis, null);
+	}
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxEntries, maximum number of cached responses
+	 * @param timeToLiveMillis, time a response is cached
+	 * @param file, the log file; null for the default file in the files directory of the app
+	 */
+	public IinResponseCache(int maxEntries, long timeToLiveMillis, File file) {
+
+		if (maxEntries < 1) {
+			throw new InvalidParameterException("Error creating IinResponseCache, maxEntries must be at least 1");
+		}
+		if (timeToLiveMillis < 0) {
+			throw new InvalidParameterException("Error creating IinResponseCache, timeToLiveMillis may not be negative");
+		}
+		this.maxEntries = maxEntries;
+		this.timeToLiveMillis = timeToLiveMillis;
+		this.file = file;
+	}
+
+
+	/**
+	 * Gets the process wide IinResponseCache, which is used by default
+	 *
+	 * @return shared IinResponseCache instance
+	 */
+	public static synchronized IinResponseCache getSharedInstance() {
+
+		if (SHARED_INSTANCE == null) {
+			SHARED_INSTANCE = new IinResponseCache(DEFAULT_MAX_ENTRIES, DEFAULT_TIME_TO_LIVE_MILLIS);
+			SHARED_INSTANCE.shared = true;
+		}
+		return SHARED_INSTANCE;
+	}
+
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		logLock = new Object();
+	}
+
+
+	private Object readResolve() {
+
+		// Deserialised copies of the shared cache keep using the process wide entries
+		if (shared) {
+			return getSharedInstance();
+		}
+		return this;
+	}
+
+
+	/**
+	 * Creates the key of the response for the given IIN prefix
+	 *
+	 * @param iinPrefix, the digits of the creditcardnumber that are sent to the GC gateway
+	 * @param paymentContext, the paymentContext that is sent along; may be null
+	 */
+	public static String createKey(String iinPrefix, PaymentContext paymentContext) {
+
+		if (iinPrefix == null) {
+			throw new InvalidParameterException("Error creating key, iinPrefix may not be null");
+		}
+
+		return iinPrefix + createContextKey(paymentContext);
+	}
+
+
+	private static String createContextKey(PaymentContext paymentContext) {
+
+		// Whether the product is allowed depends on the paymentContext
+		StringBuilder key = new StringBuilder();
+		if (paymentContext != null) {
+			key.append('|').append(paymentContext.getCountryCode());
+			key.append('|').append(paymentContext.isRecurring());
+			if (paymentContext.getAmountOfMoney() != null) {
+				key.append('|').append(paymentContext.getAmountOfMoney().getCurrencyCode());
+				key.append('|').append(paymentContext.getAmountOfMoney().getAmount());
+			}
+		}
+		return key.toString();
+	}
+
+
+	/**
+	 * Gets the cached response for the given key
+	 *
+	 * @param key, the key of the response, see createKey()
+	 * @param context, used for reading the log file when the cache is first used
+	 *
+	 * @return a copy of the cached response, or null when there is none or it has expired
+	 */
+	public IinDetailsResponse get(String key, Context context) {
+
+		if (key == null) {
+			throw new InvalidParameterException("Error getting response from cache, key may not be null");
+		}
+		load(context);
+
+		Entry entry;
+		synchronized (this) {
+			entry = entries.get(key);
+			if (entry == null) {
+				return null;
+			}
+			if (entry.isExpired(System.currentTimeMillis())) {
+				removeEntry(entry);
+				return null;
+			}
+			hitCount++;
+		}
+		return GcUtil.getGson().fromJson(entry.json, IinDetailsResponse.class);
+	}
+
+
+	/**
+	 * Gets the cached response for the longest cached prefix of the given input
+	 *
+	 * @param partialCreditCardNumber, the entered partial creditcardnumber
+	 * @param paymentContext, the paymentContext that is sent along; may be null
+	 * @param context, used for reading the log file when the cache is first used
+	 *
+	 * @return a copy of the cached response for the longest prefix of the input; when there is none, a PROVISIONAL response
+	 * with the paymentProductId that the cached responses of all prefixes that start with the input agree on, which still
+	 * needs to be confirmed by the GC gateway; otherwise null
+	 */
+	public IinDetailsResponse getLongestMatch(String partialCreditCardNumber, PaymentContext paymentContext, Context context) {
+
+		if (partialCreditCardNumber == null) {
+			throw new InvalidParameterException("Error getting response from cache, partialCreditCardNumber may not be null");
+		}
+		load(context);
+
+		Entry entry;
+		synchronized (this) {
+			IinPrefixTrie<Entry> trie = tries.get(createContextKey(paymentContext));
+			if (trie == null) {
+				return null;
+			}
+			long now = System.currentTimeMillis();
+			while (true) {
+				IinPrefixTrie.Node<Entry> node = trie.getLongestMatch(partialCreditCardNumber);
+				if (node == null) {
+					return null;
+				}
+				if (!node.isConfirmed()) {
+					return new IinDetailsResponse(node.getPaymentProductId(), IinStatus.PROVISIONAL);
+				}
+
+				// An expired response is dropped, after which a shorter prefix may still match
+				entry = node.getValue();
+				if (!entry.isExpired(now)) {
+					break;
+				}
+				removeEntry(entry);
+			}
+			entries.get(entry.key);
+			hitCount++;
+		}
+		return GcUtil.getGson().fromJson(entry.json, IinDetailsResponse.class);
+	}
+
+
+	/**
+	 * Stores the response for the given key, in memory and in the log file
+	 *
+	 * @param key, the key of the response, see createKey()
+	 * @param response, the response of the GC gateway
+	 * @param context, used for writing the log file
+	 */
+	public void put(String key, IinDetailsResponse response, Context context) {
+
+		if (key == null) {
+			throw new InvalidParameterException("Error storing response in cache, key may not be null");
+		}
+		if (response == null) {
+			throw new InvalidParameterException("Error storing response in cache, response may not be null");
+		}
+		load(context);
+
+		Entry entry = new Entry(key, GcUtil.getGson().toJson(response), System.currentTimeMillis() + timeToLiveMillis, response.getPaymentProductId());
+		synchronized (this) {
+			putEntry(entry);
+			evict();
+
+			if (logRecordCount >= 2 * maxEntries) {
+				queueRewrite();
+			} else {
+				pendingRecords.add(entry);
+				logRecordCount++;
+			}
+		}
+		writePendingRecords();
+	}
+
+
+	/**
+	 * Removes all cached responses, in memory and on disk
+	 *
+	 * @param context, used for removing the log file
+	 */
+	public void clear(Context context) {
+		load(context);
+		synchronized (this) {
+			entries.clear();
+			tries.clear();
+			queueRewrite();
+		}
+		writePendingRecords();
+	}
+
+
+	/**
+	 * Reads the log file, unless that has been done already
+	 * Call this on a background thread before getLongestMatch() is used on the main thread
+	 *
+	 * @param context, used for reading the log file
+	 */
+	public void load(Context context) {
+
+		if (loaded) {
+			return;
+		}
+		synchronized (logLock) {
+			if (loaded) {
+				return;
+			}
+			loadLog(context);
+		}
+		writePendingRecords();
+	}
+
+
+	/**
+	 * Gets a copy of every response in the cache, without counting them as used
+	 *
+	 * @param context, used for reading the log file
+	 *
+	 * @return Map<String, IinDetailsResponse> the responses that have not expired, by key
+	 */
+	Map<String, IinDetailsResponse> getAll(Context context) {
+
+		load(context);
+		List<Entry> liveEntries = new ArrayList<Entry>();
+		synchronized (this) {
+			long now = System.currentTimeMillis();
+			for (Entry entry : entries.values()) {
+				if (!entry.isExpired(now)) {
+					liveEntries.add(entry);
+				}
+			}
+		}
+
+		Map<String, IinDetailsResponse> responses = new HashMap<String, IinDetailsResponse>();
+		for (Entry entry : liveEntries) {
+			responses.put(entry.key, GcUtil.getGson().fromJson(entry.json, IinDetailsResponse.class));
+		}
+		return responses;
+	}
+
+
+	/**
+	 * Returns whether the log file has been read, so using the cache does not read storage
+	 */
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+
+	/**
+	 * Returns the number of responses that were served from this cache
+	 */
+	public synchronized int getHitCount() {
+		return hitCount;
+	}
+
+
+	private void loadLog(Context context) {
+
+		File logFile;
+		if (file != null) {
+			logFile = file;
+		} else {
+			if (context == null) {
+				throw new InvalidParameterException("Error loading IinResponseCache, context may not be null");
+			}
+			logFile = new File(context.getFilesDir() + Constants.DIRECTORY_IINRESPONSES, Constants.FILENAME_IINRESPONSE_LOG);
+
+			// The cache of older versions of the SDK was never used, and is replaced by the log
+			new File(context.getFilesDir() + Constants.DIRECTORY_IINRESPONSES, Constants.FILENAME_IINRESPONSE_CACHE).delete();
+		}
+
+		// Replay the log without holding the lock of the cache; a later record for the same key replaces the earlier one
+		List<Entry> records = new ArrayList<Entry>();
+		boolean damaged = false;
+		if (logFile.exists()) {
+			DataInputStream in = null;
+			try {
+				in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)));
+				if (in.readInt() != LOG_FORMAT_VERSION) {
+					damaged = true;
+				} else {
+					while (true) {
+
+						// The log ends cleanly only between records; a partial record throws an EOFException below
+						in.mark(1);
+						if (in.read() < 0) {
+							break;
+						}
+						in.reset();
+
+						String key = in.readUTF();
+						String json = in.readUTF();
+						long expiresAt = in.readLong();
+						records.add(new Entry(key, json, expiresAt, GcUtil.getGson().fromJson(json, IinDetailsResponse.class).getPaymentProductId()));
+					}
+				}
+			} catch (Exception e) {
+
+				// An app that is killed while appending leaves a partial record at the end
+				Log.i(TAG, "Error reading IIN response log, the damaged part is discarded: " + e.getMessage());
+				damaged = true;
+			} finally {
+				close(in);
+			}
+		}
+
+		synchronized (this) {
+			entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+			tries = new HashMap<String, IinPrefixTrie<Entry>>();
+			pendingRecords = new ArrayList<Entry>();
+			logRecordCount = records.size();
+			long now = System.currentTimeMillis();
+			for (Entry entry : records) {
+				if (!entry.isExpired(now)) {
+					putEntry(entry);
+				}
+			}
+			evict();
+			if (damaged || logRecordCount >= 2 * maxEntries) {
+				queueRewrite();
+			}
+			this.logFile = logFile;
+			loaded = true;
+		}
+	}
+
+
+	private void putEntry(Entry entry) {
+
+		Entry replaced = entries.put(entry.key, entry);
+		if (replaced != null) {
+			removeFromTrie(replaced);
+		}
+
+		// Only keys that start with the IIN prefix are indexed; the context key that follows it starts with a separator
+		int separator = entry.key.indexOf('|');
+		String iinPrefix = separator < 0 ? entry.key : entry.key.substring(0, separator);
+		String contextKey = separator < 0 ? "" : entry.key.substring(separator);
+		IinPrefixTrie<Entry> trie = tries.get(contextKey);
+		if (trie == null) {
+			trie = new IinPrefixTrie<Entry>();
+		}
+		if (trie.put(iinPrefix, entry.paymentProductId, entry)) {
+			tries.put(contextKey, trie);
+		}
+	}
+
+
+	private void removeEntry(Entry entry) {
+		entries.remove(entry.key);
+		removeFromTrie(entry);
+	}
+
+
+	private void removeFromTrie(Entry entry) {
+		int separator = entry.key.indexOf('|');
+		IinPrefixTrie<Entry> trie = tries.get(separator < 0 ? "" : entry.key.substring(separator));
+		if (trie != null) {
+			trie.remove(separator < 0 ? entry.key : entry.key.substring(0, separator));
+		}
+	}
+
+
+	private void evict() {
+		Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+		while (entries.size() > maxEntries && iterator.hasNext()) {
+			Entry entry = iterator.next().getValue();
+			iterator.remove();
+			removeFromTrie(entry);
+		}
+	}
+
+
+	private void queueRewrite() {
+
+		// The rewrite holds every live entry, so the records that were queued before it are no longer needed
+		pendingRewrite = new ArrayList<Entry>(entries.values());
+		pendingRecords.clear();
+		logRecordCount = pendingRewrite.size();
+	}
+
+
+	private void writePendingRecords() {
+
+		// Takes the queued records under the lock of the cache, and writes them under the lock of the log only
+		synchronized (logLock) {
+			List<Entry> rewrite;
+			List<Entry> records;
+			synchronized (this) {
+				rewrite = pendingRewrite;
+				records = pendingRecords;
+				pendingRewrite = null;
+				pendingRecords = new ArrayList<Entry>();
+			}
+			if (rewrite != null) {
+				writeLog(rewrite);
+			}
+			if (!records.isEmpty()) {
+				appendToLog(records);
+			}
+		}
+	}
+
+
+	private void appendToLog(List<Entry> records) {
+
+		boolean newLog = !logFile.exists();
+		DataOutputStream out = null;
+		try {
+			logFile.getParentFile().mkdirs();
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile, true)));
+			if (newLog) {
+				out.writeInt(LOG_FORMAT_VERSION);
+			}
+			for (Entry entry : records) {
+				writeRecord(out, entry);
+			}
+			out.flush();
+		} catch (IOException e) {
+			Log.i(TAG, "Error appending to IIN response log: " + e.getMessage());
+		} finally {
+			close(out);
+		}
+	}
+
+
+	private void writeLog(List<Entry> liveEntries) {
+
+		// Write the live entries to a new file, which replaces the log at once
+		File newLogFile = new File(logFile.getPath() + ".new");
+		DataOutputStream out = null;
+		try {
+			logFile.getParentFile().mkdirs();
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(newLogFile)));
+			out.writeInt(LOG_FORMAT_VERSION);
+			long now = System.currentTimeMillis();
+			for (Entry entry : liveEntries) {
+				if (!entry.isExpired(now)) {
+					writeRecord(out, entry);
+				}
+			}
+			out.close();
+			out = null;
+			if (!newLogFile.renameTo(logFile)) {
+				throw new IOException("Could not replace " + logFile);
+			}
+		} catch (IOException e) {
+			Log.i(TAG, "Error writing IIN response log: " + e.getMessage());
+			newLogFile.delete();
+		} finally {
+			close(out);
+		}
+	}
+
+
+	private void writeRecord(DataOutputStream out, Entry entry) throws IOException {
+		out.writeUTF(entry.key);
+		out.writeUTF(entry.json);
+		out.writeLong(entry.expiresAt);
+	}
+
+
+	private void close(Closeable closeable) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			} catch (IOException e) {}
+		}
+	}
+
+
+	/**
+	 * Cached response, as the JSON from which a copy is created for every get()
+	 * Entries never change, so they are written to the log after the lock of the cache is released.
+	 */
+	private static class Entry {
+
+		private final String key;
+		private final String json;
+		private final long expiresAt;
+
+		// The paymentProductId of the response, by which it is indexed; not written to the log
+		private final String paymentProductId;
+
+		private Entry(String key, String json, long expiresAt, String paymentProductId) {
+			this.key = key;
+			this.json = json;
+			this.expiresAt = expiresAt;
+			this.paymentProductId = paymentProductId;
+		}
+
+		private boolean isExpired(long now) {
+			return now >= expiresAt;
+		}
+	}
+}
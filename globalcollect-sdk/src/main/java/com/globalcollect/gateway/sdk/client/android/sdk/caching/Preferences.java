@@ -6,8 +6,8 @@ import java.util.Map;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.GcUtil;
 import com.globalcollect.gateway.sdk.client.android.sdk.configuration.Constants;
-import com.google.gson.Gson;
 
 /**
  * Handles all SharedPreferences related functionality
@@ -30,8 +30,7 @@ public class Preferences {
 		SharedPreferences.Editor editor = sharedPref.edit();
 		
 		// Serialise the value to jsonstring so it can be stored 
-		Gson gson = new Gson();
-		editor.putString(key, gson.toJson(value));
+		editor.putString(key, GcUtil.getGson().toJson(value));
 		
 		// Commit to SharedPreferences
 		editor.commit();
@@ -48,8 +47,7 @@ public class Preferences {
 	public <T> Object getValueFromSharedPreferences(String key, Context context, Class<T> type) {
 		SharedPreferences sharedPref = context.getSharedPreferences(Constants.PREFERENCES_NAME, Context.MODE_PRIVATE);
 		
-		Gson gson = new Gson();
-	    return gson.fromJson(sharedPref.getString(key, null), type);
+	    return GcUtil.getGson().fromJson(sharedPref.getString(key, null), type);
 	}
 	
 	/**
@@ -63,8 +61,7 @@ public class Preferences {
 	
 		SharedPreferences sharedPref = context.getSharedPreferences(Constants.PREFERENCES_NAME, Context.MODE_PRIVATE);
 		
-		Gson gson = new Gson();
-	    return gson.fromJson(sharedPref.getString(key, null), listType);
+	    return GcUtil.getGson().fromJson(sharedPref.getString(key, null), listType);
 	}
 	
 	
@@ -3,21 +3,17 @@ package com.globalcollect.gateway.sdk.client.android.sdk.caching;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.StreamCorruptedException;
 import java.security.InvalidParameterException;
-import java.util.HashMap;
-import java.util.Map;
 
 import android.content.Context;
 import android.content.res.Resources;
+import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.util.Log;
 
 import com.globalcollect.gateway.sdk.client.android.sdk.configuration.Constants;
-import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetailsResponse;
 
 /**
  * This class is responsible for reading files on disk who act as cache for certain data
@@ -38,51 +34,6 @@ class ReadInternalStorage {
 	}
 		
 	
-	/**
-	 * Reads all iinResponses from the cache on disk
-	 * @param context, used for reading files
-	 */
-	@SuppressWarnings("unchecked")
-	public Map<String, IinDetailsResponse> getIinResponsesFromCache() {
-		
-		if (context == null) {
-			throw new InvalidParameterException("Error getting response in cache, context may not be null");
-		}
-		
-		// Create new map which contains all the iinResponses
-		Map<String, IinDetailsResponse> iinResponses = new HashMap<String, IinDetailsResponse>();
-				
-		// Check if the cachefile exists
-		String directory = context.getFilesDir() + Constants.DIRECTORY_IINRESPONSES;
-		File file = new File(directory, Constants.FILENAME_IINRESPONSE_CACHE);
-		if (file.exists()) {
-		
-			// read the content and parse it to Map<String, IinDetailsResponse>
-			FileInputStream fileInputStream = null;
-			ObjectInputStream objectInputStream = null;
-			try {
-				fileInputStream = new FileInputStream(file);
-				objectInputStream = new ObjectInputStream(fileInputStream);
-				iinResponses = (Map<String, IinDetailsResponse>)objectInputStream.readObject();
-			} catch (StreamCorruptedException e) {
-				Log.e(TAG, "Error getting List<PaymentProduct> from internal file ", e);
-			} catch (IOException e) {
-				Log.e(TAG, "Error getting List<PaymentProduct> from internal file ", e);
-			} catch (ClassNotFoundException e) {
-				Log.e(TAG, "Error getting List<PaymentProduct> from internal file ", e);
-			} finally {
-				try {
-					objectInputStream.close();
-					fileInputStream.close();
-				} catch (IOException e) {}
-			}
-		}
-		
-		return iinResponses;
-	}
-	
-	
-	
 	public Drawable getLogoFromInternalStorage(String paymentProductId, Resources resources) {
 		
 		if (paymentProductId == null) {
@@ -101,7 +52,14 @@ class ReadInternalStorage {
 			try {
 				
 				fileInputStream = new FileInputStream(file);
-				imageFromFile = new BitmapDrawable(resources, BitmapFactory.decodeStream(fileInputStream));
+				Bitmap bitmap = BitmapFactory.decodeStream(fileInputStream);
+
+				// A file that can not be decoded is no logo, so the logo of the app is used instead
+				if (bitmap != null) {
+					imageFromFile = new BitmapDrawable(resources, bitmap);
+				} else {
+					Log.i(TAG, "Error decoding drawable from file " + file.getName());
+				}
 				
 			} catch (IOException e) {
 				Log.e(TAG, "Error getting drawable from file ", e);
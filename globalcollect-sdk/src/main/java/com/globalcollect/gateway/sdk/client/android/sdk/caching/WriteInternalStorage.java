@@ -4,10 +4,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.io.StreamCorruptedException;
 import java.security.InvalidParameterException;
-import java.util.Map;
 
 import android.content.Context;
 import android.graphics.Bitmap;
@@ -17,7 +15,6 @@ import android.graphics.drawable.Drawable;
 import android.util.Log;
 
 import com.globalcollect.gateway.sdk.client.android.sdk.configuration.Constants;
-import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetailsResponse;
 
 
 /**
@@ -35,66 +32,12 @@ class WriteInternalStorage {
 	private Context context;
 	
 	
-	// Used for reading the current cached data to merge cached items
-	private ReadInternalStorage storage;
-		
-	
 	public WriteInternalStorage(Context context) {
 		this.context = context;
-		storage = new ReadInternalStorage(context);
 	}
 	
 	
 	
-	/**
-	 * Stores the given iinResponses in the cache on disk
-	 * 
-	 * @param context, used for writing files
-	 * @param partialCreditCardNumber, entered partial creditcardnumber
-	 * @param IinDetailsResponse, the IinDetailsResponse which is added to the current cache
-	 */
-	public void storeIinResponseInCache(String partialCreditCardNumber, IinDetailsResponse iinResponse) {
-		
-		if (partialCreditCardNumber == null) {
-			throw new InvalidParameterException("Error storing response in partialCreditCardNumber, context may not be null");
-		}
-		if (iinResponse == null) {
-			throw new InvalidParameterException("Error storing response in iinResponse, iinResponse may not be null");
-		}		
-		
-		// Retrieve the currenct cached items and add the new one to it
-		Map<String, IinDetailsResponse> currentCachedIinResponses = storage.getIinResponsesFromCache();
-		
-		// Overwrite old value if it exists
-		if (currentCachedIinResponses.containsKey(partialCreditCardNumber)) {
-			currentCachedIinResponses.remove(partialCreditCardNumber);
-		}
-		currentCachedIinResponses.put(partialCreditCardNumber, iinResponse);
-		
-		// Then write the currentCachedIinResponses to disk
-		String directory = context.getFilesDir() + Constants.DIRECTORY_IINRESPONSES;
-		File file = new File(directory, Constants.FILENAME_IINRESPONSE_CACHE);
-		file.getParentFile().mkdirs();
-		
-		FileOutputStream fileOutputStream = null;
-		ObjectOutputStream objectOutputStream = null;
-		
-		try {
-			fileOutputStream = new FileOutputStream(file);
-			objectOutputStream = new ObjectOutputStream(fileOutputStream);
-			objectOutputStream.writeObject(currentCachedIinResponses);
-        } catch (StreamCorruptedException e) {
-			Log.e(TAG, "Error storing BasicPaymentProducts on internal device storage", e);
-		} catch (IOException e) {
-			Log.e(TAG, "Error storing BasicPaymentProducts on internal device storage", e);
-		} finally {
-			try {
-				objectOutputStream.close();
-				fileOutputStream.close();
-			} catch (IOException e) {}
-		}
-	}
-	
 	/**
 	 * Stores the given image on disk
 	 * 
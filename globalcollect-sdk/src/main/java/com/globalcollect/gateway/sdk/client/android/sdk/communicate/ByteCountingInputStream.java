@@ -0,0 +1,62 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.communicate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Stream which counts the number of bytes that are read from it
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class ByteCountingInputStream extends FilterInputStream {
+
+	private volatile long byteCount = 0;
+
+
+	public ByteCountingInputStream(InputStream in) {
+		super(in);
+	}
+
+
+	/**
+	 * Returns the number of bytes that have been read so far
+	 */
+	public long getByteCount() {
+		return byteCount;
+	}
+
+
+	@Override
+	public int read() throws IOException {
+		int read = in.read();
+		if (read != -1) {
+			byteCount++;
+		}
+		return read;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) throws IOException {
+		int read = in.read(buffer, offset, length);
+		if (read > 0) {
+			byteCount += read;
+		}
+		return read;
+	}
+
+	@Override
+	public long skip(long byteCount) throws IOException {
+		long skipped = in.skip(byteCount);
+		if (skipped > 0) {
+			this.byteCount += skipped;
+		}
+		return skipped;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+}
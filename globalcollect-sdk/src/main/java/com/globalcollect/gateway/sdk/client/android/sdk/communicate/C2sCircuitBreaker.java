@@ -0,0 +1,365 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.communicate;
+
+import java.io.Serializable;
+import java.security.InvalidParameterException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.exception.CircuitOpenException;
+
+/**
+ * Stops sending requests to an endpoint of the GC gateway while most of the recent requests to it have failed
+ *
+ * Every endpoint has its own circuit, which keeps the outcomes of the last windowSize requests. A request fails when
+ * the transport fails, when it gets a 408, 429 or 5xx response, or when it takes longer than the slow call threshold.
+ * Once at least minimumCalls outcomes are known and the fraction of failures reaches the failure rate threshold, the
+ * circuit opens: requests fail right away with a CircuitOpenException, without waiting for the network. After the
+ * open duration the circuit is half-open and lets a few probe requests through. When they all succeed the circuit
+ * closes again, when one of them fails it opens for another open duration.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class C2sCircuitBreaker implements Serializable {
+
+	private static final long serialVersionUID = -2291536488105367742L;
+
+	// Default number of recent requests whose outcomes are kept per endpoint
+	public static final int DEFAULT_WINDOW_SIZE = 20;
+
+	// Default minimum number of outcomes before a circuit can open
+	public static final int DEFAULT_MINIMUM_CALLS = 5;
+
+	// Default fraction of failed requests at which a circuit opens
+	public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+
+	// Default duration a circuit stays open before probe requests are let through
+	public static final long DEFAULT_OPEN_DURATION_MILLIS = 10000L;
+
+	// Default number of probe requests that must succeed before a half-open circuit closes
+	public static final int DEFAULT_HALF_OPEN_PROBES = 1;
+
+	// Default duration after which a successful request still counts as failed
+	public static final long DEFAULT_SLOW_CALL_THRESHOLD_MILLIS = 5000L;
+
+	// Process wide circuit breaker, which survives serialisation of the session that uses it
+	private static C2sCircuitBreaker SHARED_INSTANCE;
+
+
+	/**
+	 * The states of the circuit of an endpoint
+	 */
+	public enum State {
+
+		// Requests are sent, and their outcomes are kept
+		CLOSED,
+
+		// Requests fail right away
+		OPEN,
+
+		// A limited number of probe requests is sent to find out whether the endpoint has recovered
+		HALF_OPEN
+	}
+
+
+	private int windowSize = DEFAULT_WINDOW_SIZE;
+	private int minimumCalls = DEFAULT_MINIMUM_CALLS;
+	private double failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+	private long openDurationMillis = DEFAULT_OPEN_DURATION_MILLIS;
+	private int halfOpenProbes = DEFAULT_HALF_OPEN_PROBES;
+	private long slowCallThresholdMillis = DEFAULT_SLOW_CALL_THRESHOLD_MILLIS;
+	private boolean shared;
+
+	// The circuits per endpoint; not serialised so deserialised copies start closed
+	private transient Map<C2sEndpoint, Circuit> circuits;
+
+
+	/**
+	 * Gets the process wide C2sCircuitBreaker, which is used by default
+	 *
+	 * @return shared C2sCircuitBreaker instance
+	 */
+	public static synchronized C2sCircuitBreaker getSharedInstance() {
+
+		if (SHARED_INSTANCE == null) {
+			SHARED_INSTANCE = new C2sCircuitBreaker();
+			SHARED_INSTANCE.shared = true;
+		}
+		return SHARED_INSTANCE;
+	}
+
+
+	private Object readResolve() {
+
+		// Deserialised copies of the shared circuit breaker keep using the process wide circuits
+		if (shared) {
+			return getSharedInstance();
+		}
+		return this;
+	}
+
+
+	/**
+	 * Sets the number of recent requests whose outcomes are kept per endpoint, and the minimum number of outcomes before a circuit can open
+	 *
+	 * @param windowSize, number of outcomes that are kept
+	 * @param minimumCalls, minimum number of outcomes, at most windowSize
+	 */
+	public synchronized void setWindow(int windowSize, int minimumCalls) {
+
+		if (minimumCalls < 1) {
+			throw new InvalidParameterException("Error setting window, minimumCalls must be at least 1");
+		}
+		if (windowSize < minimumCalls) {
+			throw new InvalidParameterException("Error setting window, windowSize may not be smaller than minimumCalls");
+		}
+		this.windowSize = windowSize;
+		this.minimumCalls = minimumCalls;
+		circuits = null;
+	}
+
+
+	/**
+	 * Sets the fraction of failed requests at which a circuit opens
+	 *
+	 * @param failureRateThreshold, fraction larger than 0 and at most 1
+	 */
+	public synchronized void setFailureRateThreshold(double failureRateThreshold) {
+
+		if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+			throw new InvalidParameterException("Error setting failureRateThreshold, failureRateThreshold must be larger than 0 and at most 1");
+		}
+		this.failureRateThreshold = failureRateThreshold;
+	}
+
+
+	/**
+	 * Sets how long a circuit stays open before probe requests are let through
+	 *
+	 * @param openDurationMillis, the open duration in milliseconds
+	 */
+	public synchronized void setOpenDuration(long openDurationMillis) {
+
+		if (openDurationMillis < 0) {
+			throw new InvalidParameterException("Error setting openDuration, openDurationMillis may not be negative");
+		}
+		this.openDurationMillis = openDurationMillis;
+	}
+
+
+	/**
+	 * Sets the number of probe requests that must succeed before a half-open circuit closes
+	 *
+	 * @param halfOpenProbes, the number of probe requests
+	 */
+	public synchronized void setHalfOpenProbes(int halfOpenProbes) {
+
+		if (halfOpenProbes < 1) {
+			throw new InvalidParameterException("Error setting halfOpenProbes, halfOpenProbes must be at least 1");
+		}
+		this.halfOpenProbes = halfOpenProbes;
+	}
+
+
+	/**
+	 * Sets the duration after which a successful request still counts as failed
+	 *
+	 * @param slowCallThresholdMillis, the threshold in milliseconds
+	 */
+	public synchronized void setSlowCallThreshold(long slowCallThresholdMillis) {
+
+		if (slowCallThresholdMillis < 1) {
+			throw new InvalidParameterException("Error setting slowCallThreshold, slowCallThresholdMillis must be at least 1");
+		}
+		this.slowCallThresholdMillis = slowCallThresholdMillis;
+	}
+
+
+	/**
+	 * Returns the state of the circuit of the given endpoint
+	 *
+	 * @param endpoint, the endpoint of the GC gateway
+	 */
+	public synchronized State getState(C2sEndpoint endpoint) {
+		return getCircuit(endpoint).getState();
+	}
+
+
+	/**
+	 * Returns whether requests to the given endpoint currently fail right away
+	 *
+	 * @param endpoint, the endpoint of the GC gateway
+	 */
+	public boolean isOpen(C2sEndpoint endpoint) {
+		return getState(endpoint) == State.OPEN;
+	}
+
+
+	/**
+	 * Reserves a request to the given endpoint, whose outcome must be passed to onSuccess(), onFailure() or onIgnored()
+	 *
+	 * @param endpoint, the endpoint of the GC gateway
+	 *
+	 * @throws CircuitOpenException, when the circuit is open, or is half-open and all its probe requests are already sent
+	 */
+	public synchronized void acquire(C2sEndpoint endpoint) throws CircuitOpenException {
+
+		Circuit circuit = getCircuit(endpoint);
+		State state = circuit.getState();
+		if (state == State.OPEN || (state == State.HALF_OPEN && circuit.probesInFlight >= halfOpenProbes)) {
+			throw new CircuitOpenException("Circuit of " + endpoint + " is open, request is not sent");
+		}
+		if (state == State.HALF_OPEN) {
+			circuit.probesInFlight++;
+		}
+	}
+
+
+	/**
+	 * Records a request that got a response
+	 *
+	 * @param endpoint, the endpoint of the GC gateway
+	 * @param statusCode, the statuscode of the response
+	 * @param durationMillis, the time the request took
+	 */
+	public synchronized void onResponse(C2sEndpoint endpoint, int statusCode, long durationMillis) {
+		getCircuit(endpoint).record(isFailureStatusCode(statusCode) || durationMillis > slowCallThresholdMillis);
+	}
+
+
+	/**
+	 * Records a request for which the transport failed
+	 *
+	 * @param endpoint, the endpoint of the GC gateway
+	 */
+	public synchronized void onFailure(C2sEndpoint endpoint) {
+		getCircuit(endpoint).record(true);
+	}
+
+
+	/**
+	 * Releases a request whose outcome says nothing about the endpoint, for instance because it was cancelled
+	 *
+	 * @param endpoint, the endpoint of the GC gateway
+	 */
+	public synchronized void onIgnored(C2sEndpoint endpoint) {
+		Circuit circuit = getCircuit(endpoint);
+		if (circuit.state == State.HALF_OPEN && circuit.probesInFlight > 0) {
+			circuit.probesInFlight--;
+		}
+	}
+
+
+	private boolean isFailureStatusCode(int statusCode) {
+		return statusCode == 408 || statusCode == 429 || statusCode >= 500;
+	}
+
+
+	private Circuit getCircuit(C2sEndpoint endpoint) {
+
+		if (endpoint == null) {
+			throw new InvalidParameterException("Error getting circuit, endpoint may not be null");
+		}
+		if (circuits == null) {
+			circuits = new EnumMap<>(C2sEndpoint.class);
+		}
+		Circuit circuit = circuits.get(endpoint);
+		if (circuit == null) {
+			circuit = new Circuit();
+			circuits.put(endpoint, circuit);
+		}
+		return circuit;
+	}
+
+
+	// Monotonic clock for the open duration, which is not affected by changes of the wall clock
+	private static long currentTimeMillis() {
+		return System.nanoTime() / 1000000L;
+	}
+
+
+	/**
+	 * The circuit of a single endpoint, which is only used while holding the lock of the C2sCircuitBreaker
+	 */
+	private class Circuit {
+
+		private State state = State.CLOSED;
+
+		// Ring buffer with the outcomes of the last requests, true for a failure
+		private boolean[] outcomes = new boolean[windowSize];
+		private int outcomeCount = 0;
+		private int nextOutcome = 0;
+		private int failureCount = 0;
+
+		private long openedAt;
+		private int probesInFlight;
+		private int probeSuccesses;
+
+
+		private State getState() {
+
+			// An open circuit becomes half-open once the open duration has passed
+			if (state == State.OPEN && currentTimeMillis() - openedAt >= openDurationMillis) {
+				state = State.HALF_OPEN;
+				probesInFlight = 0;
+				probeSuccesses = 0;
+			}
+			return state;
+		}
+
+
+		private void record(boolean failed) {
+
+			switch (getState()) {
+				case CLOSED:
+					addOutcome(failed);
+					if (outcomeCount >= minimumCalls && failureCount >= failureRateThreshold * outcomeCount) {
+						open();
+					}
+					break;
+				case HALF_OPEN:
+					if (failed) {
+						open();
+					} else if (++probeSuccesses >= halfOpenProbes) {
+						close();
+					}
+					break;
+				default:
+					// Requests that were sent before the circuit opened don't change it
+					break;
+			}
+		}
+
+
+		private void addOutcome(boolean failed) {
+
+			if (outcomeCount == outcomes.length) {
+				if (outcomes[nextOutcome]) {
+					failureCount--;
+				}
+			} else {
+				outcomeCount++;
+			}
+			outcomes[nextOutcome] = failed;
+			if (failed) {
+				failureCount++;
+			}
+			nextOutcome = (nextOutcome + 1) % outcomes.length;
+		}
+
+
+		private void open() {
+			state = State.OPEN;
+			openedAt = currentTimeMillis();
+		}
+
+
+		private void close() {
+			state = State.CLOSED;
+			outcomes = new boolean[windowSize];
+			outcomeCount = 0;
+			nextOutcome = 0;
+			failureCount = 0;
+		}
+	}
+}
@@ -1,13 +1,12 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.communicate;
 
 import android.content.Context;
-import android.graphics.drawable.Drawable;
 import android.util.Log;
 
 import com.globalcollect.gateway.sdk.client.android.sdk.GcUtil;
+import com.globalcollect.gateway.sdk.client.android.sdk.caching.IinResponseCache;
 import com.globalcollect.gateway.sdk.client.android.sdk.configuration.Constants;
 import com.globalcollect.gateway.sdk.client.android.sdk.exception.CommunicationException;
-import com.globalcollect.gateway.sdk.client.android.sdk.manager.AssetManager;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.ConvertedAmountResponse;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.CountryCode;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.CurrencyCode;
@@ -17,25 +16,21 @@ import com.globalcollect.gateway.sdk.client.android.sdk.model.PublicKeyResponse;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.Region;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetailsRequest;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetailsResponse;
-import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentProduct;
-import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentProductGroup;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinStatus;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentProductGroups;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentProducts;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.PaymentProduct;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.PaymentProductGroup;
-import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
 
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.InputStreamReader;
 import java.io.Serializable;
-import java.net.HttpURLConnection;
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.lang.reflect.Type;
 import java.security.InvalidParameterException;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
 
 /**
  * Handles all communication with the Global Collect Gateway
@@ -56,11 +51,14 @@ public class C2sCommunicator implements Serializable {
 	private final String HTTP_HEADER_METADATA 	= "X-GCS-ClientMetaInfo";
 	
 	// Maximum amount of chars which is used for getting PaymentProductId by CreditCardNumber
-	private final Integer MAX_CHARS_PAYMENT_PRODUCT_ID_LOOKUP 	= 6;
+	public static final int MAX_CHARS_PAYMENT_PRODUCT_ID_LOOKUP = 6;
 	
 	// Configuration needed for communicating with the GC gateway
 	private C2sCommunicatorConfiguration configuration;
 
+	// Value of the X-GCS-ClientMetaInfo header, which is computed once instead of for every request
+	private transient volatile EncodedMetadata encodedMetadata;
+
 	
 	/**
 	 * Creates the Communicator object which handles the communication with the Global Collect Gateway
@@ -98,7 +96,7 @@ public class C2sCommunicator implements Serializable {
 			throw new InvalidParameterException("Error getting BasicPaymentProducts, request may not be null");
 		}
 
-		HttpURLConnection connection = null;
+		C2sResponse response = null;
 		
 		try {
 			
@@ -114,31 +112,15 @@ public class C2sCommunicator implements Serializable {
 			queryString.append("&isRecurring=").append(paymentContext.isRecurring());
 			queryString.append("&currencyCode=").append(paymentContext.getAmountOfMoney().getCurrencyCode());
 			queryString.append("&hide=fields");
-			queryString.append("&").append(createCacheBusterParameter());
 
 			// Add query string to complete path
 			completePath += queryString.toString();
 			
 			// Do the call and deserialise the result to BasicPaymentProducts
-			connection = doHTTPGetRequest(completePath, configuration.getClientSessionId(), configuration.getMetadata(context));
-			String responseBody = new Scanner(connection.getInputStream(),"UTF-8").useDelimiter("\\A").next();
-
-			// Log the response
-			if (Constants.ENABLE_REQUEST_LOGGING) {
-				logResponse(connection, responseBody);
-			}
-
-	        Gson gson = new Gson();
-			BasicPaymentProducts basicPaymentProducts = gson.fromJson(responseBody, BasicPaymentProducts.class);
+			response = doHTTPGetRequest(C2sEndpoint.BASIC_PAYMENT_PRODUCTS, completePath, configuration.getClientSessionId(), getBase64EncodedMetadata(context));
+			BasicPaymentProducts basicPaymentProducts = readResponse(response, BasicPaymentProducts.class);
 
-			// Set the logos for all paymentproducts
-			for(BasicPaymentProduct paymentProduct : basicPaymentProducts.getBasicPaymentProducts()) {
-				
-				AssetManager manager = AssetManager.getInstance(context);
-				Drawable logo = manager.getLogo(paymentProduct.getId());
-				paymentProduct.getDisplayHints().setLogo(logo);
-			}
-			
+			// The logos are not set here, they are bound in the background by the AssetManager
 			return basicPaymentProducts;
 
 		} catch (CommunicationException e) {
@@ -148,12 +130,9 @@ public class C2sCommunicator implements Serializable {
 			Log.i(TAG, "Error while getting paymentproducts:" + e.getMessage());
 			return null;
 		} finally {
-			try {
-				if (connection != null) {
-					connection.getInputStream().close();
-					connection.disconnect();
-				}
-			} catch (IOException e) {}
+			if (response != null) {
+				response.close();
+			}
 		}
 	}
 
@@ -173,7 +152,7 @@ public class C2sCommunicator implements Serializable {
 			throw new InvalidParameterException("Error getting PaymentProduct, productId may not be null");
 		}
 
-		HttpURLConnection connection = null;
+		C2sResponse response = null;
 
 		try {
 			
@@ -188,21 +167,12 @@ public class C2sCommunicator implements Serializable {
 			queryString.append("&amount=").append(paymentContext.getAmountOfMoney().getAmount());
 			queryString.append("&isRecurring=").append(paymentContext.isRecurring());
 			queryString.append("&currencyCode=").append(paymentContext.getAmountOfMoney().getCurrencyCode());
-			queryString.append("&").append(createCacheBusterParameter());
 			completePath += queryString.toString();
 			
 			// Do the call and deserialise the result to PaymentProduct
-			connection = doHTTPGetRequest(completePath, configuration.getClientSessionId(), configuration.getMetadata(context));
-
-			String responseBody = new Scanner(connection.getInputStream(),"UTF-8").useDelimiter("\\A").next();
+			response = doHTTPGetRequest(C2sEndpoint.PAYMENT_PRODUCT, completePath, configuration.getClientSessionId(), getBase64EncodedMetadata(context));
 
-			// Log the response
-			if (Constants.ENABLE_REQUEST_LOGGING) {
-				logResponse(connection, responseBody);
-			}
-
-			Gson gson = new Gson();
-			return gson.fromJson(responseBody, PaymentProduct.class);
+			return readResponse(response, PaymentProduct.class);
 
 		} catch (CommunicationException e) {
 			Log.i(TAG, "Error while getting paymentproduct:" + e.getMessage());
@@ -211,12 +181,9 @@ public class C2sCommunicator implements Serializable {
 			Log.i(TAG, "Error while getting paymentproduct:" + e.getMessage());
 			return null;
 		} finally {
-			try {
-				if (connection != null) {
-					connection.getInputStream().close();
-					connection.disconnect();
-				}
-			} catch (IOException e) {}
+			if (response != null) {
+				response.close();
+			}
 		}
 	}
 
@@ -235,7 +202,7 @@ public class C2sCommunicator implements Serializable {
 			throw new InvalidParameterException("Error getting BasicPaymentProductGroups, request may not be null");
 		}
 
-		HttpURLConnection connection = null;
+		C2sResponse response = null;
 
 		try {
 
@@ -251,31 +218,15 @@ public class C2sCommunicator implements Serializable {
 			queryString.append("&isRecurring=").append(paymentContext.isRecurring());
 			queryString.append("&currencyCode=").append(paymentContext.getAmountOfMoney().getCurrencyCode());
 			queryString.append("&hide=fields");
-			queryString.append("&").append(createCacheBusterParameter());
 
 			// Add query string to complete path
 			completePath += queryString.toString();
 
 			// Do the call and deserialise the result to BasicPaymentProducts
-			connection = doHTTPGetRequest(completePath, configuration.getClientSessionId(), configuration.getMetadata(context));
-			String responseBody = new Scanner(connection.getInputStream(),"UTF-8").useDelimiter("\\A").next();
-
-			// Log the response
-			if (Constants.ENABLE_REQUEST_LOGGING) {
-				logResponse(connection, responseBody);
-			}
-
-			Gson gson = new Gson();
-			BasicPaymentProductGroups basicPaymentProductGroups = gson.fromJson(responseBody, BasicPaymentProductGroups.class);
-
-			// Set the logos for all BasicPaymentProductGroups
-			for(BasicPaymentProductGroup paymentProductGroup : basicPaymentProductGroups.getBasicPaymentProductGroups()) {
-
-				AssetManager manager = AssetManager.getInstance(context);
-				Drawable logo = manager.getLogo(paymentProductGroup.getId());
-				paymentProductGroup.getDisplayHints().setLogo(logo);
-			}
+			response = doHTTPGetRequest(C2sEndpoint.BASIC_PAYMENT_PRODUCT_GROUPS, completePath, configuration.getClientSessionId(), getBase64EncodedMetadata(context));
+			BasicPaymentProductGroups basicPaymentProductGroups = readResponse(response, BasicPaymentProductGroups.class);
 
+			// The logos are not set here, they are bound in the background by the AssetManager
 			return basicPaymentProductGroups;
 
 		} catch (CommunicationException e) {
@@ -285,12 +236,9 @@ public class C2sCommunicator implements Serializable {
 			Log.i(TAG, "Error while getting paymentProductGroups:" + e.getMessage());
 			return null;
 		} finally {
-			try {
-				if (connection != null) {
-					connection.getInputStream().close();
-					connection.disconnect();
-				}
-			} catch (IOException e) {}
+			if (response != null) {
+				response.close();
+			}
 		}
 	}
 
@@ -309,7 +257,7 @@ public class C2sCommunicator implements Serializable {
 			throw new InvalidParameterException("Error getting paymentProductGroup, groupId may not be null");
 		}
 
-		HttpURLConnection connection = null;
+		C2sResponse response = null;
 
 		try {
 
@@ -324,20 +272,11 @@ public class C2sCommunicator implements Serializable {
 			queryString.append("&amount=").append(paymentContext.getAmountOfMoney().getAmount());
 			queryString.append("&isRecurring=").append(paymentContext.isRecurring());
 			queryString.append("&currencyCode=").append(paymentContext.getAmountOfMoney().getCurrencyCode());
-			queryString.append("&").append(createCacheBusterParameter());
 			completePath += queryString.toString();
 
 			// Do the call and deserialise the result to PaymentProduct
-			connection = doHTTPGetRequest(completePath, configuration.getClientSessionId(), configuration.getMetadata(context));
-			String responseBody = new Scanner(connection.getInputStream(),"UTF-8").useDelimiter("\\A").next();
-
-			// Log the response
-			if (Constants.ENABLE_REQUEST_LOGGING) {
-				logResponse(connection, responseBody);
-			}
-
-			Gson gson = new Gson();
-			return gson.fromJson(responseBody, PaymentProductGroup.class);
+			response = doHTTPGetRequest(C2sEndpoint.PAYMENT_PRODUCT_GROUP, completePath, configuration.getClientSessionId(), getBase64EncodedMetadata(context));
+			return readResponse(response, PaymentProductGroup.class);
 
 		} catch (CommunicationException e) {
 			Log.i(TAG, "Error while getting paymentProductGroup:" + e.getMessage());
@@ -346,12 +285,9 @@ public class C2sCommunicator implements Serializable {
 			Log.i(TAG, "Error while getting paymentProductGroup:" + e.getMessage());
 			return null;
 		} finally {
-			try {
-				if (connection != null) {
-					connection.getInputStream().close();
-					connection.disconnect();
-				}
-			} catch (IOException e) {}
+			if (response != null) {
+				response.close();
+			}
 		}
 	}
 
@@ -381,7 +317,7 @@ public class C2sCommunicator implements Serializable {
 			throw new InvalidParameterException("Error getting PaymentProduct directory, context may not be null");
 		}
 
-		HttpURLConnection connection = null;
+		C2sResponse response = null;
 		
 		try {
 			
@@ -394,20 +330,11 @@ public class C2sCommunicator implements Serializable {
 			StringBuilder queryString = new StringBuilder();
 			queryString.append("?currencyCode=").append(currencyCode.name());
 			queryString.append("&countryCode=").append(countryCode.name());
-			queryString.append("&").append(createCacheBusterParameter());
 			completePath += queryString.toString();
 			
 			// Do the call and deserialise the result to PaymentProductDirectoryResponse
-			connection = doHTTPGetRequest(completePath, configuration.getClientSessionId(), configuration.getMetadata(context));
-			String responseBody = new Scanner(connection.getInputStream(),"UTF-8").useDelimiter("\\A").next();
-
-			// Log the response
-			if (Constants.ENABLE_REQUEST_LOGGING) {
-				logResponse(connection, responseBody);
-			}
-
-			Gson gson = new Gson();
-			return gson.fromJson(responseBody, PaymentProductDirectoryResponse.class);
+			response = doHTTPGetRequest(C2sEndpoint.PAYMENT_PRODUCT_DIRECTORY, completePath, configuration.getClientSessionId(), getBase64EncodedMetadata(context));
+			return readResponse(response, PaymentProductDirectoryResponse.class);
 
 		} catch (CommunicationException e) {
 			Log.i(TAG, "Error while getting paymentproduct directory:" + e.getMessage());
@@ -416,18 +343,80 @@ public class C2sCommunicator implements Serializable {
 			Log.i(TAG, "Error while getting paymentproduct directory:" + e.getMessage());
 			return null;
 		} finally {
-			try {
-				if (connection != null) {
-					connection.getInputStream().close();
-					connection.disconnect();
-				}
-			} catch (IOException e) {}
+			if (response != null) {
+				response.close();
+			}
 		}
 	}	
 	
 
+	/**
+	 * Gets the IIN details for the entered partial creditcardnumber from the IinResponseCache, without calling the GC gateway
+	 * The response of the longest prefix of the creditcardnumber that was looked up before is used
+	 *
+	 * @param context, used for reading the cache on internal storage
+	 * @param partialCreditCardNumber, entered partial creditcardnumber
+	 * @param paymentContext, meta data for the payment that is used to get contextual information from the GC gateway
+	 *
+	 * @return IinDetailsResponse which contains the cached result of the IIN lookup, or null when it is not cached
+	 */
+	public IinDetailsResponse getCachedIinDetails(String partialCreditCardNumber, Context context, PaymentContext paymentContext) {
+
+		IinDetailsResponse iinResponse = getLocalIinDetails(partialCreditCardNumber, context, paymentContext);
+		if (iinResponse == null || iinResponse.getStatus() == IinStatus.PROVISIONAL) {
+			return null;
+		}
+		return iinResponse;
+	}
+
+
+	/**
+	 * Gets the IIN details for the entered partial creditcardnumber from the IinResponseCache, without calling the GC gateway
+	 * Unlike getCachedIinDetails(), input that is shorter than the prefixes that were looked up before gets a PROVISIONAL
+	 * response when the responses of all those prefixes agree on the paymentProductId
+	 *
+	 * @param context, used for reading the cache on internal storage
+	 * @param partialCreditCardNumber, entered partial creditcardnumber
+	 * @param paymentContext, meta data for the payment that is used to get contextual information from the GC gateway
+	 *
+	 * @return IinDetailsResponse which contains the cached result of the IIN lookup, a PROVISIONAL IinDetailsResponse,
+	 * or null when nothing is known about the input
+	 */
+	public IinDetailsResponse getLocalIinDetails(String partialCreditCardNumber, Context context, PaymentContext paymentContext) {
+
+		if (partialCreditCardNumber == null ) {
+			throw new InvalidParameterException("Error getting IinDetails, partialCreditCardNumber may not be null");
+		}
+
+		// Trim partialCreditCardNumber to MAX_CHARS_PAYMENT_PRODUCT_ID_LOOKUP digits, the most digits a response is cached for
+		if (partialCreditCardNumber.length() > MAX_CHARS_PAYMENT_PRODUCT_ID_LOOKUP) {
+			partialCreditCardNumber = partialCreditCardNumber.substring(0, MAX_CHARS_PAYMENT_PRODUCT_ID_LOOKUP);
+		}
+		return configuration.getIinResponseCache().getLongestMatch(partialCreditCardNumber, paymentContext, context);
+	}
+
+
+	/**
+	 * Returns whether the IinResponseCache has been read from internal storage, see loadIinResponseCache()
+	 */
+	public boolean isIinResponseCacheLoaded() {
+		return configuration.getIinResponseCache().isLoaded();
+	}
+
+
+	/**
+	 * Reads the IinResponseCache from internal storage, so using it later does not block the calling thread
+	 *
+	 * @param context, used for reading the cache on internal storage
+	 */
+	public void loadIinResponseCache(Context context) {
+		configuration.getIinResponseCache().load(context);
+	}
+
+
 	/**
 	 * Get the IIN details for the entered partial creditcardnumber
+	 * The IinResponseCache is checked first, and the response of the GC gateway is stored in it
 	 *
 	 * @param context, used for reading device metada which is send to the GC gateway
 	 * @param partialCreditCardNumber, entered partial creditcardnumber
@@ -446,7 +435,13 @@ public class C2sCommunicator implements Serializable {
 			partialCreditCardNumber = partialCreditCardNumber.substring(0, MAX_CHARS_PAYMENT_PRODUCT_ID_LOOKUP);
 		}
 
-		HttpURLConnection connection = null;
+		// A card whose prefix has been looked up before needs no round trip
+		IinDetailsResponse cachedIinResponse = getCachedIinDetails(partialCreditCardNumber, context, paymentContext);
+		if (cachedIinResponse != null) {
+			return cachedIinResponse;
+		}
+
+		C2sResponse response = null;
 
 		try {
 
@@ -455,34 +450,25 @@ public class C2sCommunicator implements Serializable {
 			String url = configuration.getBaseUrl() + paymentProductPath;
 
 			// Serialise the IinDetailsRequest to json, so it can be added to the postbody
-			Gson gson = new Gson();
 			IinDetailsRequest iinRequest = new IinDetailsRequest(partialCreditCardNumber, paymentContext);
-			String iinRequestJson = gson.toJson(iinRequest);
+			String iinRequestJson = GcUtil.getGson().toJson(iinRequest);
 
 			// Do the call and deserialise the result to IinDetailsResponse
-			connection = doHTTPPostRequest(url, configuration.getClientSessionId(), configuration.getMetadata(context), iinRequestJson);
-			String responseBody = new Scanner(connection.getInputStream(),"UTF-8").useDelimiter("\\A").next();
+			response = doHTTPPostRequest(C2sEndpoint.IIN_DETAILS, url, configuration.getClientSessionId(), getBase64EncodedMetadata(context), iinRequestJson);
+			IinDetailsResponse iinResponse = readResponse(response, IinDetailsResponse.class);
 
-			// Log the response
-			if (Constants.ENABLE_REQUEST_LOGGING) {
-				logResponse(connection, responseBody);
+			if (iinResponse != null) {
+				configuration.getIinResponseCache().put(IinResponseCache.createKey(partialCreditCardNumber, paymentContext), iinResponse, context);
 			}
-
-			//IinDetailsResponse iinResponse = gson.fromJson(new InputStreamReader(connection.getInputStream()), IinDetailsResponse.class);
-			IinDetailsResponse iinResponse = gson.fromJson(responseBody, IinDetailsResponse.class);
-
 			return iinResponse;
 
 		} catch (Exception e) {
 			Log.i(TAG, "Error getting PaymentProductIdByCreditCardNumber response:" + e.getMessage());
 			return null;
 		} finally {
-			try {
-				if (connection != null) {
-					connection.getInputStream().close();
-					connection.disconnect();
-				}
-			} catch (IOException e) {}
+			if (response != null) {
+				response.close();
+			}
 		}
 	}
 
@@ -496,7 +482,7 @@ public class C2sCommunicator implements Serializable {
 	 */
 	public PublicKeyResponse getPublicKey(Context context) {
 
-		HttpURLConnection connection = null;
+		C2sResponse response = null;
 
 		try {
 			
@@ -505,16 +491,8 @@ public class C2sCommunicator implements Serializable {
 			String url = configuration.getBaseUrl() + paymentProductPath;
 			
 			// Do the call and deserialise the result to PublicKeyResponse
-			connection = doHTTPGetRequest(url, configuration.getClientSessionId(), configuration.getMetadata(context));
-			String responseBody = new Scanner(connection.getInputStream(),"UTF-8").useDelimiter("\\A").next();
-
-			// Log the response
-			if (Constants.ENABLE_REQUEST_LOGGING) {
-				logResponse(connection, responseBody);
-			}
-
-			Gson gson = new Gson();
-			return gson.fromJson(responseBody, PublicKeyResponse.class);
+			response = doHTTPGetRequest(C2sEndpoint.PUBLIC_KEY, url, configuration.getClientSessionId(), getBase64EncodedMetadata(context));
+			return readResponse(response, PublicKeyResponse.class);
 			
 		} catch (CommunicationException e) {
 			Log.i(TAG, "Error getting Public key response:" + e.getMessage());
@@ -523,12 +501,9 @@ public class C2sCommunicator implements Serializable {
 			Log.i(TAG, "Error getting Public key response:" + e.getMessage());
 			return null;
 		} finally {
-			try {
-				if (connection != null) {
-					connection.getInputStream().close();
-					connection.disconnect();
-				}
-			} catch (IOException e) {}
+			if (response != null) {
+				response.close();
+			}
 		}
 	}
 	
@@ -555,7 +530,7 @@ public class C2sCommunicator implements Serializable {
 			throw new InvalidParameterException("Error converting amount, target may not be null");
 		}
 
-		HttpURLConnection connection = null;
+		C2sResponse response = null;
 
 		try {
 			
@@ -568,20 +543,11 @@ public class C2sCommunicator implements Serializable {
 			queryString.append("?amount=").append(amount);
 			queryString.append("&source=").append(source);			
 			queryString.append("&target=").append(target);
-			queryString.append("&").append(createCacheBusterParameter());
 			url += queryString.toString();
 			
 			// Do the call and deserialise the result to PublicKeyResponse
-			connection = doHTTPGetRequest(url, configuration.getClientSessionId(), configuration.getMetadata(context));
-			String responseBody = new Scanner(connection.getInputStream(),"UTF-8").useDelimiter("\\A").next();
-
-			// Log the response
-			if (Constants.ENABLE_REQUEST_LOGGING) {
-				logResponse(connection, responseBody);
-			}
-
-			Gson gson = new Gson();
-			ConvertedAmountResponse convertedAmountResponse = gson.fromJson(responseBody, ConvertedAmountResponse.class);
+			response = doHTTPGetRequest(C2sEndpoint.CONVERT_AMOUNT, url, configuration.getClientSessionId(), getBase64EncodedMetadata(context));
+			ConvertedAmountResponse convertedAmountResponse = readResponse(response, ConvertedAmountResponse.class);
 
 			return convertedAmountResponse.getConvertedAmount();
 			
@@ -592,12 +558,9 @@ public class C2sCommunicator implements Serializable {
 			Log.i(TAG, "Error converting amount:" + e.getMessage());
 			return null;
 		} finally {
-			try {
-				if (connection != null) {
-					connection.getInputStream().close();
-					connection.disconnect();
-				}
-			} catch (IOException e) {}
+			if (response != null) {
+				response.close();
+			}
 		}
 	}
 
@@ -613,8 +576,50 @@ public class C2sCommunicator implements Serializable {
 	public Map<String, String> getMetadata(Context context) {
 		return configuration.getMetadata(context);
 	}
+
+
+	/**
+	 * Returns the base64 encoded metadata of the device this SDK is running on, as it is sent in the X-GCS-ClientMetaInfo header
+	 * The value is computed once, and is computed again after the orientation of the device has changed or invalidateMetadata() is called
+	 *
+	 * @param context, used for reading device metada which is send to the GC gateway
+	 *
+	 * @return String containing base64 url of json representation of the metadata
+	 */
+	public String getBase64EncodedMetadata(Context context) {
+
+		// The screensize in the metadata is height x width, so it changes when the device is rotated
+		int orientation = context.getResources().getConfiguration().orientation;
+
+		EncodedMetadata metadata = encodedMetadata;
+		if (metadata == null || metadata.orientation != orientation) {
+			metadata = new EncodedMetadata(orientation, GcUtil.getBase64EncodedMetadata(configuration.getMetadata(context)));
+			encodedMetadata = metadata;
+		}
+		return metadata.value;
+	}
+
+
+	/**
+	 * Discards the computed metadata, so it is computed again for the next request
+	 * Should be called when the configuration of the device has changed in a way that affects the metadata
+	 */
+	public void invalidateMetadata() {
+		encodedMetadata = null;
+	}
 	
 	
+	/**
+	 * Returns whether requests to the given endpoint currently fail right away, because the endpoint keeps failing
+	 * Callers can use this to fall back to data they already have, instead of waiting for a call that will fail
+	 *
+	 * @param endpoint, the endpoint of the GC gateway
+	 */
+	public boolean isCircuitOpen(C2sEndpoint endpoint) {
+		return configuration.getCircuitBreaker().isOpen(endpoint);
+	}
+
+
 	/**
 	 * Returns the region set in the configuration
 	 * @return
@@ -625,156 +630,230 @@ public class C2sCommunicator implements Serializable {
 
 	
 	/**
-	 * Does a GET request with HttpURLConnection
+	 * Does a GET request with the configured C2sTransport
 	 *
+	 * @param endpoint, the endpoint of the GC gateway which is called
 	 * @param location, url where the request is sent to
 	 * @param clientSessionId, used for session identification on the GC gateway
-	 * @param metadata, map filled with metadata, which is added to the request
+	 * @param metadata, base64 encoded metadata, which is added to the request
 	 *
-	 * @return HttpURLConnection, which contains the response of the request
+	 * @return C2sResponse, which contains the response of the request
 	 *
 	 * @throws CommunicationException
 	 */
-	private HttpURLConnection doHTTPGetRequest(String location, String clientSessionId, Map<String, String> metadata) throws CommunicationException {
-		
-		// Initialize the connection
-		try {
-			URL url = new URL(location);
-			HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+	private C2sResponse doHTTPGetRequest(C2sEndpoint endpoint, String location, String clientSessionId, String metadata) throws CommunicationException {
 
-			// Add sessionId header
-			if (clientSessionId != null) {
-				connection.addRequestProperty(HTTP_HEADER_SESSION_ID, "GCS v1Client:" + clientSessionId);
-			}
+		C2sRequest request = new C2sRequest(C2sRequest.METHOD_GET, location);
+		addDefaultHeaders(request, clientSessionId, metadata);
 
-			// Add metadata entries header
-			if (metadata != null) {
-				connection.addRequestProperty(HTTP_HEADER_METADATA, GcUtil.getBase64EncodedMetadata(metadata));
-			}
+		// Make sure intermediate caches never serve a stale response; revalidation is done by the C2sResponseCache
+		request.addHeader("Cache-Control", "no-cache");
 
-			// Log the request
-			if (Constants.ENABLE_REQUEST_LOGGING) {
-				logRequest(connection, null);
-			}
-
-			// Check if the response code is HTTP_OK
-			if (connection.getResponseCode() != 200) {
-				throw new CommunicationException("No status 200 received, status is :" + connection.getResponseCode());
-			}
-
-			return connection;
-
-		} catch (MalformedURLException e) {
-
-			Log.e(TAG, "doHTTPGetRequest, Unable to parse url " + location);
-			throw new CommunicationException("Unable to parse url " + location);
-		}  catch (IOException e) {
-
-			Log.e(TAG, "doHTTPGetRequest, IOException while opening connection " + e.getMessage());
-			throw new CommunicationException("IOException while opening connection " + e.getMessage(), e);
-		}
+		return executeRequest(endpoint, request);
 	}
 	
 	
 	/**
-	 * Does a POST request with HttpClient
+	 * Does a POST request with the configured C2sTransport
 	 * 
+	 * @param endpoint, the endpoint of the GC gateway which is called
 	 * @param location, url where the request is sent to
 	 * @param clientSessionId, used for identification on the GC gateway
-	 * @param metadata, map filled with metadata, which is added to the request
+	 * @param metadata, base64 encoded metadata, which is added to the request
 	 * @param postBody, the content of the postbody
 	 * 
-	 * @return HttpURLConnection, which contains the response of the request
+	 * @return C2sResponse, which contains the response of the request
 	 *
 	 * @throws CommunicationException
 	 */
-	private HttpURLConnection doHTTPPostRequest(String location, String clientSessionId, Map<String, String> metadata, String postBody) throws CommunicationException {
+	private C2sResponse doHTTPPostRequest(C2sEndpoint endpoint, String location, String clientSessionId, String metadata, String postBody) throws CommunicationException {
 
+		C2sRequest request = new C2sRequest(C2sRequest.METHOD_POST, location);
 
-		// Initialize the connection
-		OutputStreamWriter writer = null;
-		try {
-			URL url = new URL(location);
-			HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+		// Add json header
+		request.addHeader("Content-Type", "application/json");
+		addDefaultHeaders(request, clientSessionId, metadata);
 
-			// Set request method to POST
-			connection.setRequestMethod("POST");
+		// Add post body
+		request.setBody(postBody);
 
-			// Add json header
-			connection.addRequestProperty("Content-Type", "application/json");
+		return executeRequest(endpoint, request);
+	}
 
-			// Add sessionId header
-			if (clientSessionId != null) {
-				connection.addRequestProperty(HTTP_HEADER_SESSION_ID, "GCS v1Client:" + clientSessionId);
-			}
 
-			// Add metadata header
-			if (metadata != null) {
-				connection.addRequestProperty(HTTP_HEADER_METADATA, GcUtil.getBase64EncodedMetadata(metadata));
+	private void addDefaultHeaders(C2sRequest request, String clientSessionId, String metadata) {
+
+		// Add sessionId header
+		if (clientSessionId != null) {
+			request.addHeader(HTTP_HEADER_SESSION_ID, "GCS v1Client:" + clientSessionId);
+		}
+
+		// Add metadata header
+		if (metadata != null) {
+			request.addHeader(HTTP_HEADER_METADATA, metadata);
+		}
+	}
+
+
+	/**
+	 * Executes the request on the transport through the response cache and checks that the response code is HTTP_OK
+	 * Failed attempts are retried as determined by the configured C2sRetryPolicy, within the deadline of the configured C2sTimeoutPolicy
+	 * The returned response must be closed by the caller
+	 */
+	private C2sResponse executeRequest(C2sEndpoint endpoint, C2sRequest request) throws CommunicationException {
+
+		// Log the request
+		if (Constants.ENABLE_REQUEST_LOGGING) {
+			logRequest(request);
+		}
+
+		C2sRetryPolicy retryPolicy = configuration.getRetryPolicy();
+		int maxAttempts = retryPolicy.getMaxAttempts(endpoint);
+		C2sCircuitBreaker circuitBreaker = configuration.getCircuitBreaker();
+
+		// Requests of an operation that is cancelled are aborted by the transport
+		CancellationToken cancellationToken = CancellationToken.getCurrent();
+		request.setCancellationToken(cancellationToken);
+
+		// The deadline covers all attempts and the backoffs between them
+		C2sTimeoutPolicy timeoutPolicy = configuration.getTimeoutPolicy();
+		long deadlineMillis = timeoutPolicy.getDeadlineMillis(endpoint);
+		long deadline = currentTimeMillis() + deadlineMillis;
+
+		for (int attempt = 1; ; attempt++) {
+
+			if (cancellationToken != null && cancellationToken.isCancelled()) {
+				throw new CommunicationException("Request to " + request.getUrl() + " is cancelled");
 			}
 
-			// Log the request
-			if (Constants.ENABLE_REQUEST_LOGGING) {
-				logRequest(connection, postBody);
+			// Give this attempt no more time than what is left of the deadline
+			long remainingMillis = deadline - currentTimeMillis();
+			if (remainingMillis <= 0) {
+				throw new CommunicationException("Deadline of " + deadlineMillis + " ms exceeded for " + request.getUrl());
 			}
+			request.setTimeouts((int) Math.min(timeoutPolicy.getConnectTimeoutMillis(), remainingMillis), (int) Math.min(timeoutPolicy.getReadTimeoutMillis(), remainingMillis));
+
+			// Fail right away, also between retries, while the endpoint keeps failing
+			circuitBreaker.acquire(endpoint);
+			long attemptStart = currentTimeMillis();
+
+			C2sResponse response;
+			try {
+				response = configuration.getResponseCache().execute(configuration.getTransport(), request);
+			} catch (CommunicationException e) {
 
-			// Add post body
-			connection.setDoOutput(true);
-			writer = new OutputStreamWriter(connection.getOutputStream(), "UTF-8");
-			writer.write(postBody);
-			writer.flush();
+				// A cancelled request says nothing about the health of the endpoint
+				boolean cancelled = Thread.currentThread().isInterrupted() || (cancellationToken != null && cancellationToken.isCancelled());
+				if (cancelled) {
+					circuitBreaker.onIgnored(endpoint);
+				} else {
+					circuitBreaker.onFailure(endpoint);
+				}
+
+				// The transport failed, which is retryable unless this thread was interrupted
+				if (attempt >= maxAttempts || Thread.currentThread().isInterrupted()) {
+					throw e;
+				}
+				Log.i(TAG, "Attempt " + attempt + " of " + request.getUrl() + " failed: " + e.getMessage());
+				waitBeforeRetry(retryPolicy, attempt, deadline);
+				continue;
+			} catch (RuntimeException e) {
+
+				// Not retryable, but the outcome must still be recorded, or a half-open circuit would keep the probe forever
+				circuitBreaker.onFailure(endpoint);
+				throw e;
+			}
+			circuitBreaker.onResponse(endpoint, response.getStatusCode(), currentTimeMillis() - attemptStart);
 
 			// Check if the response code is HTTP_OK
-			if (connection.getResponseCode() != 200) {
-				throw new CommunicationException("No status 200 received, status is :" + connection.getResponseCode());
+			if (response.getStatusCode() == 200) {
+				return response;
 			}
+			response.close();
 
-			return connection;
-
-		} catch (MalformedURLException e) {
-			Log.e(TAG, "doHTTPPostRequest, Unable to parse url " + location);
-			throw new CommunicationException("Unable to parse url " + location);
-		} catch (IOException e) {
-			Log.e(TAG, "doHTTPPostRequest, IOException while opening connection " + e.getMessage());
-			throw new CommunicationException("IOException while opening connection " + e.getMessage(), e);
-		}  finally {
-			if (writer != null) {
-				try {
-					writer.close();
-				} catch (IOException e) {}
+			if (attempt >= maxAttempts || !retryPolicy.isRetryableStatusCode(response.getStatusCode())) {
+				throw new CommunicationException("No status 200 received, status is :" + response.getStatusCode());
 			}
+			Log.i(TAG, "Attempt " + attempt + " of " + request.getUrl() + " failed with status " + response.getStatusCode());
+			waitBeforeRetry(retryPolicy, attempt, deadline);
+		}
+	}
+
+
+	private void waitBeforeRetry(C2sRetryPolicy retryPolicy, int attempt, long deadline) throws CommunicationException {
+
+		// Don't retry when the deadline has passed by the time the retry would start
+		long backoffMillis = retryPolicy.getBackoffMillis(attempt);
+		if (currentTimeMillis() + backoffMillis >= deadline) {
+			throw new CommunicationException("Not retrying, the deadline is exceeded before the next attempt");
+		}
+
+		try {
+			Thread.sleep(backoffMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CommunicationException("Interrupted while waiting to retry", e);
 		}
 	}
 
 
-	private String createCacheBusterParameter() {
-		String cacheBuster = "cacheBuster=" + new Date().getTime();
-		return cacheBuster;
+	// Monotonic clock for the deadlines, which is not affected by changes of the wall clock
+	private static long currentTimeMillis() {
+		return System.nanoTime() / 1000000L;
 	}
 
 
 	/**
-	 * Logs all request headers, url and body
+	 * Deserialises the response body to the given type
+	 * The body is decoded straight from the response stream, the complete body is only
+	 * buffered into a String when request logging is enabled
+	 *
+	 * @param response, the response whose body is deserialised
+	 * @param type, the type the body is deserialised to
 	 *
-	 * @param connection
-	 * @param postBody
+	 * @return the deserialised body
 	 *
 	 * @throws IOException
 	 */
-	private void logRequest(HttpURLConnection connection, String postBody) {
+	private <T> T readResponse(C2sResponse response, Type type) throws IOException {
 
-		String requestLog = "Request URL : " + connection.getURL() + "\n";
-		requestLog += "Request Method : " + connection.getRequestMethod() + "\n";
-		requestLog += "Request Headers : " + "\n";
+		if (Constants.ENABLE_REQUEST_LOGGING) {
 
-		for (Map.Entry<String, List<String>> header : connection.getRequestProperties().entrySet()) {
-			for (String value : header.getValue()) {
-				requestLog += "\t\t" + header.getKey() + ":" + value + "\n";
+			// Capture the complete body so it can be logged
+			StringBuilder responseBody = new StringBuilder();
+			BufferedReader reader = new BufferedReader(new InputStreamReader(response.getBody(), "UTF-8"));
+			char[] buffer = new char[4096];
+			int read;
+			while ((read = reader.read(buffer)) != -1) {
+				responseBody.append(buffer, 0, read);
 			}
+
+			logResponse(response, responseBody.toString());
+			return GcUtil.getGson().fromJson(responseBody.toString(), type);
 		}
 
-		if(connection.getRequestMethod().equalsIgnoreCase("post")) {
-			requestLog += "Body : " + postBody + "\n";
+		JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(response.getBody(), "UTF-8")));
+		return GcUtil.getGson().fromJson(reader, type);
+	}
+
+
+	/**
+	 * Logs all request headers, url and body
+	 *
+	 * @param request
+	 */
+	private void logRequest(C2sRequest request) {
+
+		String requestLog = "Request URL : " + request.getUrl() + "\n";
+		requestLog += "Request Method : " + request.getMethod() + "\n";
+		requestLog += "Request Headers : " + "\n";
+
+		for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+			requestLog += "\t\t" + header.getKey() + ":" + header.getValue() + "\n";
+		}
+
+		if(request.getMethod().equalsIgnoreCase("post")) {
+			requestLog += "Body : " + request.getBody() + "\n";
 		}
 		Log.i(TAG, requestLog);
 	}
@@ -782,35 +861,45 @@ public class C2sCommunicator implements Serializable {
 	/**
 	 * Logs all response headers, statuscode and body
 	 *
-	 * @param connection
+	 * @param response
 	 * @param responseBody
-	 *
-	 * @throws IOException
      */
-	private void logResponse(HttpURLConnection connection, String responseBody) throws IOException {
+	private void logResponse(C2sResponse response, String responseBody) {
 
-		String responseLog = "Response URL : " + connection.getURL() + "\n";
-		responseLog += "Response Code : " + connection.getResponseCode() + "\n";
+		String responseLog = "Response URL : " + response.getUrl() + "\n";
+		responseLog += "Response Code : " + response.getStatusCode() + "\n";
 
 		responseLog += "Response Headers : " + "\n";
-		for (Map.Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+		for (Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
 			for (String value : header.getValue()) {
-				if (header.getKey() == null) {
-					responseLog += "\t\t" + value + "\n";
-				} else {
-					responseLog += "\t\t" + header.getKey() + ":" + value + "\n";
-				}
+				responseLog += "\t\t" + header.getKey() + ":" + value + "\n";
 			}
 		}
 
 		responseLog += "Response Body : " + responseBody  + "\n";
+		responseLog += "Response Size : " + response.getTransferredByteCount() + " bytes transferred, " + response.getDecodedByteCount() + " bytes decoded\n";
 		Log.i(TAG, responseLog);
 
 		// Calculate duration and log it
-		if (connection.getHeaderField("X-Android-Sent-Millis") != null && connection.getHeaderField("X-Android-Received-Millis") != null) {
-			long messageSentMillis 	   = Long.parseLong(connection.getHeaderField("X-Android-Sent-Millis"));
-			long messageReceivedMillis = Long.parseLong(connection.getHeaderField("X-Android-Received-Millis"));
+		if (response.getHeader("X-Android-Sent-Millis") != null && response.getHeader("X-Android-Received-Millis") != null) {
+			long messageSentMillis 	   = Long.parseLong(response.getHeader("X-Android-Sent-Millis"));
+			long messageReceivedMillis = Long.parseLong(response.getHeader("X-Android-Received-Millis"));
 			Log.i(TAG, "Request Duration : " + (messageReceivedMillis - messageSentMillis) + " millisecs \n");
 		}
 	}
+
+
+	/**
+	 * Encoded metadata together with the orientation of the device it was computed for
+	 */
+	private static class EncodedMetadata {
+
+		private int orientation;
+		private String value;
+
+		EncodedMetadata(int orientation, String value) {
+			this.orientation = orientation;
+			this.value = value;
+		}
+	}
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import java.util.Map;
 import android.content.Context;
 
 import com.globalcollect.gateway.sdk.client.android.sdk.GcUtil;
+import com.globalcollect.gateway.sdk.client.android.sdk.caching.IinResponseCache;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.Environment.EnvironmentType;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.Region;
 import com.globalcollect.gateway.sdk.client.android.sdk.session.GcSession;
@@ -27,7 +28,28 @@ public class C2sCommunicatorConfiguration implements Serializable {
 	private String customerId;
 	private Region region;
 	private EnvironmentType environment;
-	
+
+	// Baseurl which overrides the baseurl of the region, null when the baseurl of the region is used
+	private String baseUrl;
+
+	// Transport which executes the HTTP requests to the GC gateway; shared, so the connections per host are bounded for the whole process
+	private C2sTransport transport = PooledHttpTransport.getSharedInstance();
+
+	// Cache which revalidates GET responses with their ETag/Last-Modified validators
+	private C2sResponseCache responseCache = C2sResponseCache.getSharedInstance();
+
+	// Policy which determines which failed requests are retried
+	private C2sRetryPolicy retryPolicy = new C2sRetryPolicy();
+
+	// Policy which determines how long requests may take
+	private C2sTimeoutPolicy timeoutPolicy = new C2sTimeoutPolicy();
+
+	// Circuit breaker which stops sending requests to endpoints that keep failing
+	private C2sCircuitBreaker circuitBreaker = C2sCircuitBreaker.getSharedInstance();
+
+	// Cache of the IIN lookups, which is kept on internal storage
+	private IinResponseCache iinResponseCache = IinResponseCache.getSharedInstance();
+
 	/**
 	 * Constructor, creates the C2SCommunicatorConfiguration object
 	 * 
@@ -104,7 +126,121 @@ public class C2sCommunicatorConfiguration implements Serializable {
 	public Region getRegion() {
 		return region;
 	}
-	
+
+	public C2sTransport getTransport() {
+		return transport;
+	}
+
+
+	/**
+	 * Sets the transport which executes the HTTP requests to the GC gateway
+	 * By default a PooledHttpTransport is used
+	 *
+	 * @param transport, the C2sTransport which will be used for all requests
+	 */
+	public void setTransport(C2sTransport transport) {
+
+		if (transport == null) {
+			throw new InvalidParameterException("Error setting transport, transport may not be null");
+		}
+		this.transport = transport;
+	}
+
+	public C2sResponseCache getResponseCache() {
+		return responseCache;
+	}
+
+
+	/**
+	 * Sets the cache which is used for revalidating GET responses
+	 * By default the process wide C2sResponseCache.getSharedInstance() is used, a cache with size 0 disables caching
+	 *
+	 * @param responseCache, the C2sResponseCache which will be used for all GET requests
+	 */
+	public void setResponseCache(C2sResponseCache responseCache) {
+
+		if (responseCache == null) {
+			throw new InvalidParameterException("Error setting responseCache, responseCache may not be null");
+		}
+		this.responseCache = responseCache;
+	}
+
+	public IinResponseCache getIinResponseCache() {
+		return iinResponseCache;
+	}
+
+
+	/**
+	 * Sets the cache which is used for the IIN lookups
+	 * By default the process wide IinResponseCache.getSharedInstance() is used
+	 *
+	 * @param iinResponseCache, the IinResponseCache which will be used for all IIN lookups
+	 */
+	public void setIinResponseCache(IinResponseCache iinResponseCache) {
+
+		if (iinResponseCache == null) {
+			throw new InvalidParameterException("Error setting iinResponseCache, iinResponseCache may not be null");
+		}
+		this.iinResponseCache = iinResponseCache;
+	}
+
+	public C2sRetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+
+	/**
+	 * Sets the policy which determines which failed requests are retried
+	 * By default idempotent requests are attempted C2sRetryPolicy.DEFAULT_MAX_ATTEMPTS times, use C2sRetryPolicy.noRetries() to disable retrying
+	 *
+	 * @param retryPolicy, the C2sRetryPolicy which will be used for all requests
+	 */
+	public void setRetryPolicy(C2sRetryPolicy retryPolicy) {
+
+		if (retryPolicy == null) {
+			throw new InvalidParameterException("Error setting retryPolicy, retryPolicy may not be null");
+		}
+		this.retryPolicy = retryPolicy;
+	}
+
+	public C2sTimeoutPolicy getTimeoutPolicy() {
+		return timeoutPolicy;
+	}
+
+
+	/**
+	 * Sets the policy which determines the connect and read timeouts, and the deadline of every call including its retries
+	 * By default calls have a deadline of C2sTimeoutPolicy.DEFAULT_DEADLINE_MILLIS, and IIN lookups of C2sTimeoutPolicy.DEFAULT_IIN_DETAILS_DEADLINE_MILLIS
+	 *
+	 * @param timeoutPolicy, the C2sTimeoutPolicy which will be used for all requests
+	 */
+	public void setTimeoutPolicy(C2sTimeoutPolicy timeoutPolicy) {
+
+		if (timeoutPolicy == null) {
+			throw new InvalidParameterException("Error setting timeoutPolicy, timeoutPolicy may not be null");
+		}
+		this.timeoutPolicy = timeoutPolicy;
+	}
+
+	public C2sCircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+
+	/**
+	 * Sets the circuit breaker which stops sending requests to endpoints that keep failing
+	 * By default the process wide C2sCircuitBreaker.getSharedInstance() is used
+	 *
+	 * @param circuitBreaker, the C2sCircuitBreaker which will be used for all requests
+	 */
+	public void setCircuitBreaker(C2sCircuitBreaker circuitBreaker) {
+
+		if (circuitBreaker == null) {
+			throw new InvalidParameterException("Error setting circuitBreaker, circuitBreaker may not be null");
+		}
+		this.circuitBreaker = circuitBreaker;
+	}
+
 	
 	
 	/**
@@ -113,8 +249,25 @@ public class C2sCommunicatorConfiguration implements Serializable {
 	 * @return baseUrl for communicating
 	 */
 	public String getBaseUrl() {
+		if (baseUrl != null) {
+			return baseUrl;
+		}
 		return GcUtil.getC2SBaseUrlByRegion(region, environment);
 	}	
+
+
+	/**
+	 * Overrides the baseUrl of the region, for instance to communicate with a local stub of the GC gateway
+	 *
+	 * @param baseUrl, the baseurl ending with a slash, or null to use the baseurl of the region again
+	 */
+	public void setBaseUrl(String baseUrl) {
+
+		if (baseUrl != null && !baseUrl.endsWith("/")) {
+			throw new InvalidParameterException("Error setting baseUrl, baseUrl must end with a slash");
+		}
+		this.baseUrl = baseUrl;
+	}
 	
 	
 	/**
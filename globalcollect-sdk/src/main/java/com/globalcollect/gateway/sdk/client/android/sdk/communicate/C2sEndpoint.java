@@ -0,0 +1,32 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.communicate;
+
+/**
+ * This enum contains the endpoints of the GC gateway which are called by the C2sCommunicator
+ * It's used to configure the communication per endpoint
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public enum C2sEndpoint {
+
+	BASIC_PAYMENT_PRODUCTS(true),
+	PAYMENT_PRODUCT(true),
+	BASIC_PAYMENT_PRODUCT_GROUPS(true),
+	PAYMENT_PRODUCT_GROUP(true),
+	PAYMENT_PRODUCT_DIRECTORY(true),
+	IIN_DETAILS(false),
+	PUBLIC_KEY(true),
+	CONVERT_AMOUNT(true);
+
+
+	// Whether executing a request to this endpoint more than once has the same effect as executing it once
+	private boolean idempotent;
+
+	private C2sEndpoint(boolean idempotent) {
+		this.idempotent = idempotent;
+	}
+
+	public boolean isIdempotent() {
+		return idempotent;
+	}
+}
@@ -0,0 +1,304 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.communicate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A request to the GC gateway together with the response it got, as written by the RecordingTransport and served by the ReplayTransport
+ *
+ * A recording is stored as a file that looks like an HTTP exchange: the method and the path of the request on the first line,
+ * the statuscode on the second line, then the response headers, an empty line, and the decoded response body.
+ * Recordings are matched on method, path and query only, so they can be replayed against any host.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class C2sRecording implements Serializable {
+
+	private static final long serialVersionUID = -3186422519375180648L;
+
+	// Extension of the files that contain a recording
+	public static final String FILE_EXTENSION = ".http";
+
+	// Maximum length of the readable part of a filename
+	private static final int MAX_FILENAME_LENGTH = 100;
+
+	private static final String CHARSET = "UTF-8";
+
+	private String method;
+	private String path;
+	private int statusCode;
+	private Map<String, List<String>> headers = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+	private byte[] body;
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param method, the method of the request
+	 * @param path, the path and query of the request
+	 * @param statusCode, the HTTP statuscode of the response
+	 * @param headers, the response headers; entries without a name are ignored
+	 * @param body, the decoded response body
+	 */
+	public C2sRecording(String method, String path, int statusCode, Map<String, List<String>> headers, byte[] body) {
+
+		if (method == null) {
+			throw new InvalidParameterException("Error creating C2sRecording, method may not be null");
+		}
+		if (path == null) {
+			throw new InvalidParameterException("Error creating C2sRecording, path may not be null");
+		}
+		if (body == null) {
+			throw new InvalidParameterException("Error creating C2sRecording, body may not be null");
+		}
+
+		this.method = method;
+		this.path = path;
+		this.statusCode = statusCode;
+		this.body = body;
+
+		if (headers != null) {
+			for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+				if (header.getKey() != null) {
+					this.headers.put(header.getKey(), new ArrayList<String>(header.getValue()));
+				}
+			}
+		}
+	}
+
+
+	public String getMethod() {
+		return method;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+	public Map<String, List<String>> getHeaders() {
+		return headers;
+	}
+
+	public byte[] getBody() {
+		return body;
+	}
+
+
+	/**
+	 * Returns the key on which this recording is matched
+	 */
+	public String getKey() {
+		return method + " " + path;
+	}
+
+
+	/**
+	 * Returns the key on which recordings for the given request are matched
+	 *
+	 * @param request, the request which is matched
+	 *
+	 * @throws MalformedURLException, when the url of the request can not be parsed
+	 */
+	public static String getKey(C2sRequest request) throws MalformedURLException {
+		return request.getMethod() + " " + getPath(request);
+	}
+
+
+	/**
+	 * Returns the path and query of the url of the given request
+	 *
+	 * @throws MalformedURLException, when the url of the request can not be parsed
+	 */
+	public static String getPath(C2sRequest request) throws MalformedURLException {
+		return new URL(request.getUrl()).getFile();
+	}
+
+
+	/**
+	 * Creates a response to the given request from this recording
+	 *
+	 * @param request, the request which is answered
+	 * @param body, stream containing the response body, which may be a throttled stream of the recorded body
+	 */
+	public C2sResponse toResponse(C2sRequest request, InputStream body) {
+		return new C2sResponse(request.getUrl(), statusCode, headers, body);
+	}
+
+
+	/**
+	 * Returns the name of the file in which this recording is stored
+	 * The name contains the readable part of the key, and a hash of the whole key to keep long keys apart
+	 */
+	public String getFileName() {
+
+		String key = getKey();
+		String readableKey = key.replaceAll("[^A-Za-z0-9._-]", "_");
+		if (readableKey.length() > MAX_FILENAME_LENGTH) {
+			readableKey = readableKey.substring(0, MAX_FILENAME_LENGTH);
+		}
+		return readableKey + "-" + Integer.toHexString(key.hashCode()) + FILE_EXTENSION;
+	}
+
+
+	/**
+	 * Writes this recording to a file in the given directory, an earlier recording of the same request is overwritten
+	 *
+	 * @param directory, the directory in which the recording is stored
+	 *
+	 * @throws IOException, when the recording could not be written
+	 */
+	public void writeTo(File directory) throws IOException {
+
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Unable to create directory " + directory);
+		}
+
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(new File(directory, getFileName())));
+		try {
+			writeLine(out, getKey());
+			writeLine(out, Integer.toString(statusCode));
+			for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+				for (String value : header.getValue()) {
+					writeLine(out, header.getKey() + ": " + value);
+				}
+			}
+			writeLine(out, "");
+			out.write(body);
+		} finally {
+			out.close();
+		}
+	}
+
+
+	/**
+	 * Reads a recording from the given file
+	 *
+	 * @param file, the file which was written by writeTo()
+	 *
+	 * @return the recording
+	 *
+	 * @throws IOException, when the file could not be read or does not contain a recording
+	 */
+	public static C2sRecording readFrom(File file) throws IOException {
+
+		InputStream in = new BufferedInputStream(new FileInputStream(file));
+		try {
+			String key = readLine(in);
+			int separator = key != null ? key.indexOf(' ') : -1;
+			if (separator < 0) {
+				throw new IOException("Invalid recording " + file + ", first line must contain the method and path");
+			}
+
+			int statusCode;
+			try {
+				statusCode = Integer.parseInt(readLine(in));
+			} catch (NumberFormatException e) {
+				throw new IOException("Invalid recording " + file + ", second line must contain the statuscode");
+			}
+
+			Map<String, List<String>> headers = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+			String line;
+			while ((line = readLine(in)) != null && !line.isEmpty()) {
+				int colon = line.indexOf(':');
+				if (colon < 0) {
+					throw new IOException("Invalid recording " + file + ", invalid header " + line);
+				}
+				String name = line.substring(0, colon).trim();
+				List<String> values = headers.get(name);
+				if (values == null) {
+					values = new ArrayList<String>();
+					headers.put(name, values);
+				}
+				values.add(line.substring(colon + 1).trim());
+			}
+
+			ByteArrayOutputStream body = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				body.write(buffer, 0, read);
+			}
+
+			return new C2sRecording(key.substring(0, separator), key.substring(separator + 1), statusCode, headers, body.toByteArray());
+		} finally {
+			in.close();
+		}
+	}
+
+
+	/**
+	 * Reads the whole body of the given response, and closes it
+	 *
+	 * @param response, the response whose body is read
+	 *
+	 * @return the decoded body
+	 *
+	 * @throws IOException, when the body could not be read
+	 */
+	static byte[] readBody(C2sResponse response) throws IOException {
+
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		try {
+			InputStream in = response.getBody();
+			if (in != null) {
+				byte[] buffer = new byte[4096];
+				int read;
+				while ((read = in.read(buffer)) != -1) {
+					body.write(buffer, 0, read);
+				}
+			}
+		} finally {
+			response.close();
+		}
+		return body.toByteArray();
+	}
+
+
+	/**
+	 * Returns a stream that reads the recorded body
+	 */
+	InputStream openBody() {
+		return new ByteArrayInputStream(body);
+	}
+
+
+	private static void writeLine(OutputStream out, String line) throws IOException {
+		out.write(line.getBytes(CHARSET));
+		out.write('\n');
+	}
+
+
+	private static String readLine(InputStream in) throws IOException {
+
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		int read;
+		while ((read = in.read()) != -1 && read != '\n') {
+			line.write(read);
+		}
+		if (read == -1 && line.size() == 0) {
+			return null;
+		}
+		return line.toString(CHARSET);
+	}
+}
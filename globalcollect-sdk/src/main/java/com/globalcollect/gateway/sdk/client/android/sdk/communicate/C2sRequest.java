@@ -0,0 +1,108 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.communicate;
+
+import java.security.InvalidParameterException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pojo which holds all data of a single request to the GC gateway
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class C2sRequest {
+
+	// Supported request methods
+	public static final String METHOD_GET  = "GET";
+	public static final String METHOD_POST = "POST";
+
+	private String method;
+	private String url;
+	private Map<String, String> headers = new LinkedHashMap<String, String>();
+	private String body;
+
+	// Timeouts of the next attempt of this request, 0 means no timeout
+	private int connectTimeoutMillis;
+	private int readTimeoutMillis;
+
+	// Token which aborts this request when it is cancelled, may be null
+	private CancellationToken cancellationToken;
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param method, the request method, either METHOD_GET or METHOD_POST
+	 * @param url, url where the request is sent to
+	 */
+	public C2sRequest(String method, String url) {
+
+		if (method == null) {
+			throw new InvalidParameterException("Error creating C2sRequest, method may not be null");
+		}
+		if (url == null) {
+			throw new InvalidParameterException("Error creating C2sRequest, url may not be null");
+		}
+
+		this.method = method;
+		this.url = url;
+	}
+
+
+	public String getMethod() {
+		return method;
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	public Map<String, String> getHeaders() {
+		return Collections.unmodifiableMap(headers);
+	}
+
+	public void addHeader(String name, String value) {
+		headers.put(name, value);
+	}
+
+	public String getBody() {
+		return body;
+	}
+
+	public void setBody(String body) {
+		this.body = body;
+	}
+
+	public int getConnectTimeoutMillis() {
+		return connectTimeoutMillis;
+	}
+
+	public int getReadTimeoutMillis() {
+		return readTimeoutMillis;
+	}
+
+
+	/**
+	 * Sets the timeouts which the transport uses for executing this request
+	 *
+	 * @param connectTimeoutMillis, maximum time for waiting on a connection and opening it, 0 for no timeout
+	 * @param readTimeoutMillis, maximum time a single read from the connection may block, 0 for no timeout
+	 */
+	public void setTimeouts(int connectTimeoutMillis, int readTimeoutMillis) {
+
+		if (connectTimeoutMillis < 0 || readTimeoutMillis < 0) {
+			throw new InvalidParameterException("Error setting timeouts, timeouts may not be negative");
+		}
+		this.connectTimeoutMillis = connectTimeoutMillis;
+		this.readTimeoutMillis = readTimeoutMillis;
+	}
+
+	public CancellationToken getCancellationToken() {
+		return cancellationToken;
+	}
+
+	public void setCancellationToken(CancellationToken cancellationToken) {
+		this.cancellationToken = cancellationToken;
+	}
+}
@@ -0,0 +1,136 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.communicate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Pojo which holds the response of a single request to the GC gateway
+ * The body must be closed after it has been read, so the transport can reuse the connection
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class C2sResponse {
+
+	private String url;
+	private int statusCode;
+	private Map<String, List<String>> headers = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+	private InputStream body;
+
+	// Counters of the bytes that were received from the network and of the bytes after decompression, null when not counted
+	ByteCountingInputStream transferredByteCounter;
+	ByteCountingInputStream decodedByteCounter;
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param url, url of the request this is the response to
+	 * @param statusCode, the HTTP statuscode of the response
+	 * @param headers, the response headers; entries without a name are ignored
+	 * @param body, stream containing the response body
+	 */
+	public C2sResponse(String url, int statusCode, Map<String, List<String>> headers, InputStream body) {
+
+		this.url = url;
+		this.statusCode = statusCode;
+		this.body = body;
+
+		if (headers != null) {
+			for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+				if (header.getKey() != null) {
+					this.headers.put(header.getKey(), header.getValue());
+				}
+			}
+		}
+	}
+
+
+	public String getUrl() {
+		return url;
+	}
+
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+	public Map<String, List<String>> getHeaders() {
+		return Collections.unmodifiableMap(headers);
+	}
+
+	public InputStream getBody() {
+		return body;
+	}
+
+
+	/**
+	 * Returns the number of body bytes that have been received from the network so far
+	 * For compressed responses this is the compressed size; responses served from a cache transfer no body bytes
+	 *
+	 * @return number of received body bytes, or -1 when the transport does not count them
+	 */
+	public long getTransferredByteCount() {
+		return transferredByteCounter != null ? transferredByteCounter.getByteCount() : -1;
+	}
+
+
+	/**
+	 * Returns the number of decompressed body bytes that have been read so far
+	 *
+	 * @return number of decompressed body bytes, or -1 when the transport does not count them
+	 */
+	public long getDecodedByteCount() {
+		return decodedByteCounter != null ? decodedByteCounter.getByteCount() : -1;
+	}
+
+
+	/**
+	 * Sets the counters of the transferred and of the decompressed body bytes
+	 */
+	void setByteCounters(ByteCountingInputStream transferredByteCounter, ByteCountingInputStream decodedByteCounter) {
+		this.transferredByteCounter = transferredByteCounter;
+		this.decodedByteCounter = decodedByteCounter;
+	}
+
+
+	/**
+	 * Creates a copy of this response with a different body, which keeps counting the bytes of this response
+	 *
+	 * @param body, stream which reads from the body of this response
+	 */
+	C2sResponse withBody(InputStream body) {
+		C2sResponse response = new C2sResponse(url, statusCode, headers, body);
+		response.setByteCounters(transferredByteCounter, decodedByteCounter);
+		return response;
+	}
+
+
+	/**
+	 * Returns the first value of the given header, or null when the header is not present
+	 *
+	 * @param name, case insensitive name of the header
+	 */
+	public String getHeader(String name) {
+		List<String> values = headers.get(name);
+		if (values == null || values.isEmpty()) {
+			return null;
+		}
+		return values.get(0);
+	}
+
+
+	/**
+	 * Closes the body of this response
+	 */
+	public void close() {
+		try {
+			if (body != null) {
+				body.close();
+			}
+		} catch (IOException e) {}
+	}
+}
@@ -0,0 +1,383 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.communicate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.security.InvalidParameterException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.exception.CommunicationException;
+
+/**
+ * Size bounded HTTP response cache for GET requests to the GC gateway
+ *
+ * Responses which carry an ETag or Last-Modified validator are stored. The next request for the same url
+ * is sent with If-None-Match/If-Modified-Since, and when the GC gateway answers 304 Not Modified the stored
+ * body is served instead of transferring it again. The least recently used entries are evicted once the
+ * total size of the stored bodies exceeds maxSizeInBytes.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class C2sResponseCache implements Serializable {
+
+	private static final long serialVersionUID = 2941783620913458272L;
+
+	// Default maximum size of all cached bodies together
+	public static final int DEFAULT_MAX_SIZE_IN_BYTES = 1024 * 1024;
+
+	private static final int HTTP_NOT_MODIFIED = 304;
+
+	// Process wide cache, which survives serialisation of the session that uses it
+	private static C2sResponseCache SHARED_INSTANCE;
+
+	private int maxSizeInBytes;
+	private boolean shared;
+
+	// The cached entries, in access order; not serialised so the cache is never sent along in Intents
+	private transient LinkedHashMap<String, Entry> entries;
+	private transient int size;
+	private transient int hitCount;
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxSizeInBytes, maximum size of all cached bodies together
+	 */
+	public C2sResponseCache(int maxSizeInBytes) {
+
+		if (maxSizeInBytes < 0) {
+			throw new InvalidParameterException("Error creating C2sResponseCache, maxSizeInBytes may not be negative");
+		}
+		this.maxSizeInBytes = maxSizeInBytes;
+	}
+
+
+	/**
+	 * Gets the process wide C2sResponseCache, which is used by default
+	 *
+	 * @return shared C2sResponseCache instance
+	 */
+	public static synchronized C2sResponseCache getSharedInstance() {
+
+		if (SHARED_INSTANCE == null) {
+			SHARED_INSTANCE = new C2sResponseCache(DEFAULT_MAX_SIZE_IN_BYTES);
+			SHARED_INSTANCE.shared = true;
+		}
+		return SHARED_INSTANCE;
+	}
+
+
+	private Object readResolve() {
+
+		// Deserialised copies of the shared cache keep using the process wide entries
+		if (shared) {
+			return getSharedInstance();
+		}
+		return this;
+	}
+
+
+	/**
+	 * Executes the GET request on the given transport, revalidating a cached response when there is one
+	 * The returned response must be closed by the caller
+	 *
+	 * @param transport, the transport which executes the request
+	 * @param request, the GET request which is executed
+	 *
+	 * @return the response from the GC gateway, or the cached response when the GC gateway answered 304
+	 *
+	 * @throws CommunicationException
+	 */
+	public C2sResponse execute(C2sTransport transport, C2sRequest request) throws CommunicationException {
+
+		if (!C2sRequest.METHOD_GET.equals(request.getMethod())) {
+			return transport.execute(request);
+		}
+
+		// Add the validators of the cached response, so the GC gateway can answer 304
+		// They are added to a copy, since the communicator retries with the same request, by when the entry may be evicted
+		Entry cachedEntry = get(request);
+		C2sRequest conditionalRequest = copyWithoutValidators(request);
+		if (cachedEntry != null) {
+			if (cachedEntry.etag != null) {
+				conditionalRequest.addHeader("If-None-Match", cachedEntry.etag);
+			}
+			if (cachedEntry.lastModified != null) {
+				conditionalRequest.addHeader("If-Modified-Since", cachedEntry.lastModified);
+			}
+		}
+
+		C2sResponse response = transport.execute(conditionalRequest);
+
+		// A 304 without a cached body to serve is useless to the caller, ask for the full response instead
+		if (response.getStatusCode() == HTTP_NOT_MODIFIED && cachedEntry == null) {
+			response.close();
+			response = transport.execute(copyWithoutValidators(request));
+		}
+
+		if (response.getStatusCode() == HTTP_NOT_MODIFIED && cachedEntry != null) {
+			response.close();
+			synchronized (this) {
+				hitCount++;
+			}
+
+			// Only the 304 was transferred, the body is read from memory
+			ByteCountingInputStream cachedBody = new ByteCountingInputStream(new ByteArrayInputStream(cachedEntry.body));
+			C2sResponse cachedResponse = new C2sResponse(request.getUrl(), 200, cachedEntry.headers, cachedBody);
+			cachedResponse.setByteCounters(response.transferredByteCounter, cachedBody);
+			return cachedResponse;
+		}
+
+		if (response.getStatusCode() == 200 && isCacheable(response)) {
+
+			// Store the body while it is read by the caller
+			Entry entry = new Entry(request, response);
+			return response.withBody(new CachingInputStream(response.getBody(), entry));
+		}
+
+		return response;
+	}
+
+
+	/**
+	 * Removes all entries from this cache
+	 */
+	public synchronized void clear() {
+		getEntries().clear();
+		size = 0;
+	}
+
+
+	/**
+	 * Returns the total size of all cached bodies in bytes
+	 */
+	public synchronized int getSize() {
+		return size;
+	}
+
+
+	/**
+	 * Returns the number of requests that were served from this cache after a 304 response
+	 */
+	public synchronized int getHitCount() {
+		return hitCount;
+	}
+
+
+	public int getMaxSizeInBytes() {
+		return maxSizeInBytes;
+	}
+
+
+	private synchronized Entry get(C2sRequest request) {
+
+		Entry entry = getEntries().get(request.getUrl());
+		if (entry != null && entry.matchesVary(request)) {
+			return entry;
+		}
+		return null;
+	}
+
+
+	private synchronized void put(Entry entry) {
+
+		if (entry.body.length > maxSizeInBytes) {
+			return;
+		}
+
+		Entry previous = getEntries().put(entry.url, entry);
+		if (previous != null) {
+			size -= previous.body.length;
+		}
+		size += entry.body.length;
+
+		// Evict the least recently used entries
+		Iterator<Entry> iterator = getEntries().values().iterator();
+		while (size > maxSizeInBytes && iterator.hasNext()) {
+			Entry eldest = iterator.next();
+			size -= eldest.body.length;
+			iterator.remove();
+		}
+	}
+
+
+	private C2sRequest copyWithoutValidators(C2sRequest request) {
+
+		C2sRequest copy = new C2sRequest(request.getMethod(), request.getUrl());
+		for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+			if (!header.getKey().equalsIgnoreCase("If-None-Match") && !header.getKey().equalsIgnoreCase("If-Modified-Since")) {
+				copy.addHeader(header.getKey(), header.getValue());
+			}
+		}
+		copy.setBody(request.getBody());
+		copy.setTimeouts(request.getConnectTimeoutMillis(), request.getReadTimeoutMillis());
+		copy.setCancellationToken(request.getCancellationToken());
+		return copy;
+	}
+
+
+	private LinkedHashMap<String, Entry> getEntries() {
+		if (entries == null) {
+			entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+		}
+		return entries;
+	}
+
+
+	private boolean isCacheable(C2sResponse response) {
+
+		if (response.getHeader("ETag") == null && response.getHeader("Last-Modified") == null) {
+			return false;
+		}
+
+		String cacheControl = response.getHeader("Cache-Control");
+		if (cacheControl != null && cacheControl.toLowerCase(Locale.US).contains("no-store")) {
+			return false;
+		}
+
+		String vary = response.getHeader("Vary");
+		return vary == null || !vary.trim().equals("*");
+	}
+
+
+	/**
+	 * A cached response with its validators
+	 */
+	private static class Entry {
+
+		private String url;
+		private String etag;
+		private String lastModified;
+		private Map<String, List<String>> headers;
+		private byte[] body;
+
+		// Values of the request headers which are named in the Vary header of the response
+		private Map<String, String> varyHeaders = new HashMap<String, String>();
+
+		Entry(C2sRequest request, C2sResponse response) {
+
+			url = request.getUrl();
+			etag = response.getHeader("ETag");
+			lastModified = response.getHeader("Last-Modified");
+			headers = response.getHeaders();
+
+			String vary = response.getHeader("Vary");
+			if (vary != null) {
+				for (String name : vary.split(",")) {
+					name = name.trim();
+					varyHeaders.put(name.toLowerCase(Locale.US), getRequestHeader(request, name));
+				}
+			}
+		}
+
+		boolean matchesVary(C2sRequest request) {
+			for (Map.Entry<String, String> varyHeader : varyHeaders.entrySet()) {
+				String value = getRequestHeader(request, varyHeader.getKey());
+				if (value == null ? varyHeader.getValue() != null : !value.equals(varyHeader.getValue())) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static String getRequestHeader(C2sRequest request, String name) {
+			for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+				if (header.getKey().equalsIgnoreCase(name)) {
+					return header.getValue();
+				}
+			}
+			return null;
+		}
+	}
+
+
+	/**
+	 * Stream which copies everything that is read, and stores the entry once the body is read completely
+	 */
+	private class CachingInputStream extends FilterInputStream {
+
+		private Entry entry;
+		private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+		private boolean complete = false;
+
+		CachingInputStream(InputStream in, Entry entry) {
+			super(in);
+			this.entry = entry;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int read = in.read();
+			if (read == -1) {
+				onEndOfStream();
+			} else if (copy != null) {
+				copy.write(read);
+				checkCopySize();
+			}
+			return read;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			int read = in.read(buffer, offset, length);
+			if (read == -1) {
+				onEndOfStream();
+			} else if (copy != null) {
+				copy.write(buffer, offset, read);
+				checkCopySize();
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long byteCount) throws IOException {
+
+			// Skipped bytes are not copied, so the body can no longer be stored
+			copy = null;
+			return in.skip(byteCount);
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+
+				// The JSON parser may stop before the end of the stream, read the remainder so the body can be stored
+				if (copy != null && !complete) {
+					byte[] buffer = new byte[4096];
+					while (copy != null && read(buffer, 0, buffer.length) != -1) {}
+				}
+			} finally {
+				in.close();
+			}
+		}
+
+		private void checkCopySize() {
+			if (copy.size() > maxSizeInBytes) {
+				copy = null;
+			}
+		}
+
+		private void onEndOfStream() {
+			if (!complete && copy != null) {
+				complete = true;
+				entry.body = copy.toByteArray();
+				put(entry);
+			}
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.communicate;
+
+import java.io.Serializable;
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Determines which failed requests to the GC gateway are retried, and how long is waited before each retry
+ *
+ * Requests that fail with an IOException, or with one of the retryable statuscodes, are retried until the maximum
+ * number of attempts for their endpoint is reached. Before every retry a random time between zero and the exponential
+ * backoff is waited, so clients that failed at the same time don't retry at the same time.
+ * Requests to endpoints which are not idempotent, like the IIN details POST, are only retried when that is explicitly allowed.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class C2sRetryPolicy implements Serializable {
+
+	private static final long serialVersionUID = 5304766281749302561L;
+
+	// Default maximum number of attempts per request, including the first attempt
+	public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+	// Default backoff before the first retry, which is doubled for every next retry
+	public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 250L;
+
+	// Default upper limit of the backoff
+	public static final long DEFAULT_MAX_BACKOFF_MILLIS = 4000L;
+
+	private int defaultMaxAttempts = DEFAULT_MAX_ATTEMPTS;
+	private Map<C2sEndpoint, Integer> maxAttemptsPerEndpoint = new EnumMap<>(C2sEndpoint.class);
+
+	private long initialBackoffMillis = DEFAULT_INITIAL_BACKOFF_MILLIS;
+	private long maxBackoffMillis = DEFAULT_MAX_BACKOFF_MILLIS;
+
+	// Request timeout, too many requests, bad gateway, service unavailable and gateway timeout
+	private Set<Integer> retryableStatusCodes = new HashSet<>(Arrays.asList(408, 429, 502, 503, 504));
+
+	// Whether requests to endpoints that are not idempotent may be retried
+	private boolean nonIdempotentRetriesAllowed = false;
+
+
+	/**
+	 * Creates a C2sRetryPolicy which never retries
+	 *
+	 * @return C2sRetryPolicy with a maximum of one attempt per request
+	 */
+	public static C2sRetryPolicy noRetries() {
+		C2sRetryPolicy retryPolicy = new C2sRetryPolicy();
+		retryPolicy.setMaxAttempts(1);
+		return retryPolicy;
+	}
+
+
+	/**
+	 * Sets the maximum number of attempts, including the first attempt, for endpoints without their own maximum
+	 *
+	 * @param maxAttempts, the maximum number of attempts
+	 */
+	public void setMaxAttempts(int maxAttempts) {
+
+		if (maxAttempts < 1) {
+			throw new InvalidParameterException("Error setting maxAttempts, maxAttempts must be at least 1");
+		}
+		defaultMaxAttempts = maxAttempts;
+	}
+
+
+	/**
+	 * Sets the maximum number of attempts, including the first attempt, for the given endpoint
+	 *
+	 * @param endpoint, the endpoint for which the maximum is set
+	 * @param maxAttempts, the maximum number of attempts
+	 */
+	public void setMaxAttempts(C2sEndpoint endpoint, int maxAttempts) {
+
+		if (endpoint == null) {
+			throw new InvalidParameterException("Error setting maxAttempts, endpoint may not be null");
+		}
+		if (maxAttempts < 1) {
+			throw new InvalidParameterException("Error setting maxAttempts, maxAttempts must be at least 1");
+		}
+		maxAttemptsPerEndpoint.put(endpoint, maxAttempts);
+	}
+
+
+	/**
+	 * Returns the maximum number of attempts, including the first attempt, for requests to the given endpoint
+	 * This is always 1 for endpoints that are not idempotent, unless retrying those is allowed
+	 *
+	 * @param endpoint, the endpoint of the request
+	 */
+	public int getMaxAttempts(C2sEndpoint endpoint) {
+
+		if (!endpoint.isIdempotent() && !nonIdempotentRetriesAllowed) {
+			return 1;
+		}
+
+		Integer maxAttempts = maxAttemptsPerEndpoint.get(endpoint);
+		return maxAttempts != null ? maxAttempts : defaultMaxAttempts;
+	}
+
+
+	/**
+	 * Sets the backoff before the first retry, and the upper limit of the backoff
+	 *
+	 * @param initialBackoffMillis, backoff before the first retry, which is doubled for every next retry
+	 * @param maxBackoffMillis, upper limit of the backoff
+	 */
+	public void setBackoff(long initialBackoffMillis, long maxBackoffMillis) {
+
+		if (initialBackoffMillis < 0) {
+			throw new InvalidParameterException("Error setting backoff, initialBackoffMillis may not be negative");
+		}
+		if (maxBackoffMillis < initialBackoffMillis) {
+			throw new InvalidParameterException("Error setting backoff, maxBackoffMillis may not be smaller than initialBackoffMillis");
+		}
+		this.initialBackoffMillis = initialBackoffMillis;
+		this.maxBackoffMillis = maxBackoffMillis;
+	}
+
+
+	/**
+	 * Returns the time to wait before the given retry
+	 * This is a random time between zero and initialBackoffMillis * 2^(retry - 1), limited to maxBackoffMillis
+	 *
+	 * @param retry, the number of the retry, starting at 1
+	 */
+	public long getBackoffMillis(int retry) {
+
+		long backoff = initialBackoffMillis;
+		for (int i = 1; i < retry && backoff < maxBackoffMillis; i++) {
+			backoff *= 2;
+		}
+		backoff = Math.min(backoff, maxBackoffMillis);
+
+		return (long) (Math.random() * (backoff + 1));
+	}
+
+
+	/**
+	 * Adds a statuscode for which requests are retried
+	 *
+	 * @param statusCode, the HTTP statuscode
+	 */
+	public void addRetryableStatusCode(int statusCode) {
+		retryableStatusCodes.add(statusCode);
+	}
+
+
+	/**
+	 * Removes a statuscode for which requests are retried
+	 *
+	 * @param statusCode, the HTTP statuscode
+	 */
+	public void removeRetryableStatusCode(int statusCode) {
+		retryableStatusCodes.remove(statusCode);
+	}
+
+
+	/**
+	 * Returns whether requests which failed with the given statuscode are retried
+	 *
+	 * @param statusCode, the HTTP statuscode of the failed request
+	 */
+	public boolean isRetryableStatusCode(int statusCode) {
+		return retryableStatusCodes.contains(statusCode);
+	}
+
+
+	/**
+	 * Sets whether requests to endpoints that are not idempotent may be retried
+	 * Retrying those can cause the request to be executed twice by the GC gateway, so by default they are not retried
+	 *
+	 * @param nonIdempotentRetriesAllowed, true when requests to these endpoints may be retried
+	 */
+	public void setNonIdempotentRetriesAllowed(boolean nonIdempotentRetriesAllowed) {
+		this.nonIdempotentRetriesAllowed = nonIdempotentRetriesAllowed;
+	}
+
+	public boolean isNonIdempotentRetriesAllowed() {
+		return nonIdempotentRetriesAllowed;
+	}
+}
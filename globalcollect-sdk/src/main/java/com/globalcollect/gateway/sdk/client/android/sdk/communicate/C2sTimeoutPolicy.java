@@ -0,0 +1,124 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.communicate;
+
+import java.io.Serializable;
+import java.security.InvalidParameterException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Determines how long requests to the GC gateway may take
+ *
+ * Every attempt of a request is bounded by the connect timeout, for waiting on a connection and opening it,
+ * and by the read timeout, for every read from the connection. On top of that every call has a deadline,
+ * which includes all its retries and the backoffs between them. An attempt never gets more time than what
+ * is left of the deadline, and no retry is started that could not finish before it.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class C2sTimeoutPolicy implements Serializable {
+
+	private static final long serialVersionUID = -1650324470837165928L;
+
+	// Default maximum time for waiting on a connection and opening it
+	public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10000;
+
+	// Default maximum time a single read from the connection may block
+	public static final int DEFAULT_READ_TIMEOUT_MILLIS = 15000;
+
+	// Default deadline of a call, including its retries
+	public static final long DEFAULT_DEADLINE_MILLIS = 30000L;
+
+	// Default deadline of the IIN details call, which is done while the customer is typing and is useless when it arrives late
+	public static final long DEFAULT_IIN_DETAILS_DEADLINE_MILLIS = 800L;
+
+	private int connectTimeoutMillis = DEFAULT_CONNECT_TIMEOUT_MILLIS;
+	private int readTimeoutMillis = DEFAULT_READ_TIMEOUT_MILLIS;
+
+	private long defaultDeadlineMillis = DEFAULT_DEADLINE_MILLIS;
+	private Map<C2sEndpoint, Long> deadlinePerEndpoint = new EnumMap<>(C2sEndpoint.class);
+
+
+	public C2sTimeoutPolicy() {
+		deadlinePerEndpoint.put(C2sEndpoint.IIN_DETAILS, DEFAULT_IIN_DETAILS_DEADLINE_MILLIS);
+	}
+
+
+	/**
+	 * Sets the maximum time for waiting on a connection and opening it
+	 *
+	 * @param connectTimeoutMillis, the connect timeout in milliseconds
+	 */
+	public void setConnectTimeout(int connectTimeoutMillis) {
+
+		if (connectTimeoutMillis < 1) {
+			throw new InvalidParameterException("Error setting connectTimeout, connectTimeoutMillis must be at least 1");
+		}
+		this.connectTimeoutMillis = connectTimeoutMillis;
+	}
+
+	public int getConnectTimeoutMillis() {
+		return connectTimeoutMillis;
+	}
+
+
+	/**
+	 * Sets the maximum time a single read from the connection may block
+	 *
+	 * @param readTimeoutMillis, the read timeout in milliseconds
+	 */
+	public void setReadTimeout(int readTimeoutMillis) {
+
+		if (readTimeoutMillis < 1) {
+			throw new InvalidParameterException("Error setting readTimeout, readTimeoutMillis must be at least 1");
+		}
+		this.readTimeoutMillis = readTimeoutMillis;
+	}
+
+	public int getReadTimeoutMillis() {
+		return readTimeoutMillis;
+	}
+
+
+	/**
+	 * Sets the deadline, including all retries, for calls to endpoints without their own deadline
+	 *
+	 * @param deadlineMillis, the deadline in milliseconds
+	 */
+	public void setDeadline(long deadlineMillis) {
+
+		if (deadlineMillis < 1) {
+			throw new InvalidParameterException("Error setting deadline, deadlineMillis must be at least 1");
+		}
+		defaultDeadlineMillis = deadlineMillis;
+	}
+
+
+	/**
+	 * Sets the deadline, including all retries, for calls to the given endpoint
+	 *
+	 * @param endpoint, the endpoint for which the deadline is set
+	 * @param deadlineMillis, the deadline in milliseconds
+	 */
+	public void setDeadline(C2sEndpoint endpoint, long deadlineMillis) {
+
+		if (endpoint == null) {
+			throw new InvalidParameterException("Error setting deadline, endpoint may not be null");
+		}
+		if (deadlineMillis < 1) {
+			throw new InvalidParameterException("Error setting deadline, deadlineMillis must be at least 1");
+		}
+		deadlinePerEndpoint.put(endpoint, deadlineMillis);
+	}
+
+
+	/**
+	 * Returns the deadline, including all retries, for calls to the given endpoint
+	 *
+	 * @param endpoint, the endpoint of the call
+	 */
+	public long getDeadlineMillis(C2sEndpoint endpoint) {
+		Long deadlineMillis = deadlinePerEndpoint.get(endpoint);
+		return deadlineMillis != null ? deadlineMillis : defaultDeadlineMillis;
+	}
+}
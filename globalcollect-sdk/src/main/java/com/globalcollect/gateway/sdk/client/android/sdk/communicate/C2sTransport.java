@@ -0,0 +1,28 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.communicate;
+
+import java.io.Serializable;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.exception.CommunicationException;
+
+/**
+ * Interface for the HTTP transport which is used by the C2sCommunicator to execute its requests
+ * Implementations must be safe for use from multiple threads at the same time, and must apply the timeouts of the request
+ * When the request has a CancellationToken, cancelling it must abort the request, including the reading of its response
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public interface C2sTransport extends Serializable {
+
+	/**
+	 * Executes the given request
+	 * The caller must always close the returned C2sResponse, so the underlying connection can be reused
+	 *
+	 * @param request, the request which is sent to the GC gateway
+	 *
+	 * @return C2sResponse, which contains the statuscode, headers and body of the response
+	 *
+	 * @throws CommunicationException, when the request could not be executed
+	 */
+	public C2sResponse execute(C2sRequest request) throws CommunicationException;
+}
@@ -0,0 +1,155 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.communicate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Signals that the calls to the GC gateway of an operation are no longer needed
+ *
+ * A token is bound to the threads which execute the operation. The C2sCommunicator attaches the token of the current thread
+ * to its requests, and the C2sTransport registers a listener on it which aborts the connection of the request.
+ * Cancelling the token therefore unblocks a thread that is waiting on the GC gateway right away, and no new requests are started.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class CancellationToken {
+
+	// The token of the operation that is executed by the current thread
+	private static final ThreadLocal<CancellationToken> CURRENT = new ThreadLocal<CancellationToken>();
+
+	private boolean cancelled = false;
+	private List<OnCancelListener> listeners = new ArrayList<OnCancelListener>();
+
+
+	/**
+	 * Cancels this token and calls its listeners
+	 * Calling this more than once has no effect
+	 */
+	public void cancel() {
+
+		List<OnCancelListener> listenersToCall;
+		synchronized (this) {
+			if (cancelled) {
+				return;
+			}
+			cancelled = true;
+			listenersToCall = listeners;
+			listeners = new ArrayList<OnCancelListener>();
+		}
+
+		// The listeners are called outside the lock, since aborting a connection may block
+		for (OnCancelListener listener : listenersToCall) {
+			listener.onCancel();
+		}
+	}
+
+	public synchronized boolean isCancelled() {
+		return cancelled;
+	}
+
+
+	/**
+	 * Adds a listener which is called when this token is cancelled
+	 *
+	 * @param listener, the listener which is called from the thread that cancels the token
+	 *
+	 * @return false when the token is already cancelled, in which case the listener is not added
+	 */
+	public synchronized boolean addOnCancelListener(OnCancelListener listener) {
+		if (cancelled) {
+			return false;
+		}
+		listeners.add(listener);
+		return true;
+	}
+
+	public synchronized void removeOnCancelListener(OnCancelListener listener) {
+		listeners.remove(listener);
+	}
+
+
+	/**
+	 * Gets the token which is bound to the current thread
+	 *
+	 * @return the CancellationToken of the current thread, or null when the current thread has none
+	 */
+	public static CancellationToken getCurrent() {
+		return CURRENT.get();
+	}
+
+
+	/**
+	 * Binds this token to the current thread, until unbind() is called
+	 */
+	public void bind() {
+		CURRENT.set(this);
+	}
+
+	public static void unbind() {
+		CURRENT.remove();
+	}
+
+
+	/**
+	 * Wraps the callable so the given token is bound to the thread that executes it
+	 * Used for passing the token on to the threads of an ExecutorService
+	 *
+	 * @param token, the token which is bound, may be null
+	 * @param callable, the callable which is wrapped
+	 *
+	 * @return the wrapped callable, or the callable itself when token is null
+	 */
+	public static <T> Callable<T> bind(final CancellationToken token, final Callable<T> callable) {
+
+		if (token == null) {
+			return callable;
+		}
+		return new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				token.bind();
+				try {
+					return callable.call();
+				} finally {
+					unbind();
+				}
+			}
+		};
+	}
+
+
+	/**
+	 * Wraps the runnable so this token is bound to the thread that executes it
+	 *
+	 * @param runnable, the runnable which is wrapped
+	 *
+	 * @return the wrapped runnable
+	 */
+	public Runnable bind(final Runnable runnable) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				bind();
+				try {
+					runnable.run();
+				} finally {
+					unbind();
+				}
+			}
+		};
+	}
+
+
+	/**
+	 * Interface for OnCancel listener
+	 * Is called when the token is cancelled
+	 *
+	 * Copyright 2014 Global Collect Services B.V
+	 *
+	 */
+	public interface OnCancelListener {
+		public void onCancel();
+	}
+}
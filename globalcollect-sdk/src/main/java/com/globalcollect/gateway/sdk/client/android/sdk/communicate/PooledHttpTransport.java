@@ -0,0 +1,367 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.communicate;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.security.InvalidParameterException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import android.util.Log;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.CancellationToken.OnCancelListener;
+import com.globalcollect.gateway.sdk.client.android.sdk.exception.CommunicationException;
+
+/**
+ * Default C2sTransport, which executes requests with HttpURLConnection and keeps the connections alive
+ *
+ * Connections are never disconnected after a successful call. Instead the response body is drained and closed,
+ * which hands the socket back to the keep-alive pool of the platform so the next call to the same host
+ * skips the TCP and TLS handshake. The number of simultaneously open connections is bounded per base url,
+ * so the pool can never grow beyond maxConnectionsPerHost sockets per host. The bound holds per transport, so the
+ * configurations use the process wide getSharedInstance() by default.
+ *
+ * When the CancellationToken of the request is cancelled, the connection is disconnected, which aborts a connect or read that is blocking.
+ *
+ * The connect and read timeouts of the request are applied to the connection. The connect timeout also bounds
+ * the time that is waited for one of the connections of the host to become available.
+ *
+ * Responses are requested with gzip or deflate encoding and are decompressed while they are read.
+ * Every response counts its transferred (compressed) and decoded (decompressed) body bytes.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class PooledHttpTransport implements C2sTransport {
+
+	private static final long serialVersionUID = -2178349021736459823L;
+
+	// Tag for logging
+	private static final String TAG = PooledHttpTransport.class.getName();
+
+	// Default maximum number of simultaneously open connections per base url
+	public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 4;
+
+	// Maximum number of unread bytes that is drained from a response before it is closed,
+	// responses with more unread bytes are disconnected because draining them is more expensive than a new handshake
+	private static final int MAX_DRAIN_BYTES = 64 * 1024;
+
+	// Content encodings which are advertised to, and decompressed from, the GC gateway
+	private static final String ACCEPT_ENCODING = "gzip, deflate";
+
+	// Process wide transport, which survives serialisation of the configuration that uses it
+	private static PooledHttpTransport SHARED_INSTANCE;
+
+	private int maxConnectionsPerHost;
+	private boolean shared;
+
+	// Permits per base url, created lazily so they are recreated after deserialisation
+	private transient ConcurrentMap<String, Semaphore> hostPermits;
+
+
+	public PooledHttpTransport() {
+		this(DEFAULT_MAX_CONNECTIONS_PER_HOST);
+	}
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxConnectionsPerHost, maximum number of simultaneously open connections per base url
+	 */
+	public PooledHttpTransport(int maxConnectionsPerHost) {
+
+		if (maxConnectionsPerHost < 1) {
+			throw new InvalidParameterException("Error creating PooledHttpTransport, maxConnectionsPerHost must be at least 1");
+		}
+		this.maxConnectionsPerHost = maxConnectionsPerHost;
+	}
+
+
+	/**
+	 * Gets the process wide PooledHttpTransport, which is used by default
+	 *
+	 * @return shared PooledHttpTransport instance
+	 */
+	public static synchronized PooledHttpTransport getSharedInstance() {
+
+		if (SHARED_INSTANCE == null) {
+			SHARED_INSTANCE = new PooledHttpTransport();
+			SHARED_INSTANCE.shared = true;
+		}
+		return SHARED_INSTANCE;
+	}
+
+
+	private Object readResolve() {
+
+		// Deserialised copies of the shared transport keep using the process wide permits
+		if (shared) {
+			return getSharedInstance();
+		}
+		return this;
+	}
+
+
+	public int getMaxConnectionsPerHost() {
+		return maxConnectionsPerHost;
+	}
+
+
+	@Override
+	public C2sResponse execute(C2sRequest request) throws CommunicationException {
+
+		URL url;
+		try {
+			url = new URL(request.getUrl());
+		} catch (MalformedURLException e) {
+			Log.e(TAG, "execute, Unable to parse url " + request.getUrl());
+			throw new CommunicationException("Unable to parse url " + request.getUrl());
+		}
+
+		// Wait until a connection to this host is available, but no longer than the connect timeout
+		Semaphore permits = getPermits(url);
+		try {
+			if (request.getConnectTimeoutMillis() > 0) {
+				if (!permits.tryAcquire(request.getConnectTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+					throw new CommunicationException("Timeout while waiting for a connection to " + url.getHost());
+				}
+			} else {
+				permits.acquire();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CommunicationException("Interrupted while waiting for a connection to " + url.getHost(), e);
+		}
+
+		HttpURLConnection connection = null;
+		OnCancelListener onCancelListener = null;
+		try {
+			connection = (HttpURLConnection) url.openConnection();
+
+			// Disconnect when the request is cancelled, which makes a blocking connect or read fail immediately
+			CancellationToken cancellationToken = request.getCancellationToken();
+			if (cancellationToken != null) {
+				onCancelListener = new DisconnectOnCancelListener(connection);
+				if (!cancellationToken.addOnCancelListener(onCancelListener)) {
+					throw new IOException("Request is cancelled");
+				}
+			}
+			connection.setRequestMethod(request.getMethod());
+			connection.setConnectTimeout(request.getConnectTimeoutMillis());
+			connection.setReadTimeout(request.getReadTimeoutMillis());
+
+			boolean acceptEncodingSet = false;
+			for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+				connection.addRequestProperty(header.getKey(), header.getValue());
+				acceptEncodingSet |= header.getKey().equalsIgnoreCase("Accept-Encoding");
+			}
+
+			// Setting Accept-Encoding explicitly also disables the transparent gzip handling of the platform,
+			// so the compressed bytes can be counted before they are decompressed below
+			if (!acceptEncodingSet) {
+				connection.setRequestProperty("Accept-Encoding", ACCEPT_ENCODING);
+			}
+
+			// Add post body
+			if (request.getBody() != null) {
+				connection.setDoOutput(true);
+				OutputStreamWriter writer = new OutputStreamWriter(connection.getOutputStream(), "UTF-8");
+				try {
+					writer.write(request.getBody());
+					writer.flush();
+				} finally {
+					writer.close();
+				}
+			}
+
+			int statusCode = connection.getResponseCode();
+
+			// Error responses are read from the errorstream; reading that one also keeps the connection reusable
+			InputStream body = statusCode >= HttpURLConnection.HTTP_BAD_REQUEST ? connection.getErrorStream() : connection.getInputStream();
+			if (body == null) {
+				body = new ByteArrayInputStream(new byte[0]);
+			}
+
+			ByteCountingInputStream transferredBody = new ByteCountingInputStream(body);
+			Map<String, List<String>> headers = connection.getHeaderFields();
+
+			// Decompress the body while it is read; the decoded body no longer matches the Content-Encoding and Content-Length headers
+			InputStream decodedBody = transferredBody;
+			String contentEncoding = connection.getContentEncoding();
+			if (contentEncoding != null && hasBody(request, statusCode)) {
+				contentEncoding = contentEncoding.trim().toLowerCase(Locale.US);
+				if (contentEncoding.equals("gzip")) {
+					decodedBody = new GZIPInputStream(transferredBody);
+					headers = removeEncodingHeaders(headers);
+				} else if (contentEncoding.equals("deflate")) {
+					decodedBody = new InflaterInputStream(transferredBody);
+					headers = removeEncodingHeaders(headers);
+				}
+			}
+			ByteCountingInputStream decodedByteCounter = new ByteCountingInputStream(decodedBody);
+
+			C2sResponse response = new C2sResponse(request.getUrl(), statusCode, headers, new PooledInputStream(decodedByteCounter, transferredBody, connection, permits, cancellationToken, onCancelListener));
+			response.setByteCounters(transferredBody, decodedByteCounter);
+			return response;
+
+		} catch (IOException e) {
+
+			// A connection that failed halfway can not be reused
+			if (connection != null) {
+				connection.disconnect();
+			}
+			removeOnCancelListener(request, onCancelListener);
+			permits.release();
+
+			Log.e(TAG, "execute, IOException while opening connection " + e.getMessage());
+			throw new CommunicationException("IOException while opening connection " + e.getMessage(), e);
+		} catch (RuntimeException e) {
+			if (connection != null) {
+				connection.disconnect();
+			}
+			removeOnCancelListener(request, onCancelListener);
+			permits.release();
+			throw e;
+		}
+	}
+
+
+	private void removeOnCancelListener(C2sRequest request, OnCancelListener onCancelListener) {
+		if (onCancelListener != null) {
+			request.getCancellationToken().removeOnCancelListener(onCancelListener);
+		}
+	}
+
+
+	private boolean hasBody(C2sRequest request, int statusCode) {
+		return !request.getMethod().equals("HEAD") && statusCode != HttpURLConnection.HTTP_NO_CONTENT && statusCode != HttpURLConnection.HTTP_NOT_MODIFIED;
+	}
+
+
+	private Map<String, List<String>> removeEncodingHeaders(Map<String, List<String>> headers) {
+		Map<String, List<String>> decodedHeaders = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+		for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+			if (header.getKey() != null) {
+				decodedHeaders.put(header.getKey(), header.getValue());
+			}
+		}
+		decodedHeaders.remove("Content-Encoding");
+		decodedHeaders.remove("Content-Length");
+		return decodedHeaders;
+	}
+
+
+	private Semaphore getPermits(URL url) {
+
+		synchronized (this) {
+			if (hostPermits == null) {
+				hostPermits = new ConcurrentHashMap<String, Semaphore>();
+			}
+		}
+
+		String baseUrl = url.getProtocol() + "://" + url.getHost() + ":" + (url.getPort() != -1 ? url.getPort() : url.getDefaultPort());
+		Semaphore permits = hostPermits.get(baseUrl);
+		if (permits == null) {
+			Semaphore newPermits = new Semaphore(maxConnectionsPerHost, true);
+			permits = hostPermits.putIfAbsent(baseUrl, newPermits);
+			if (permits == null) {
+				permits = newPermits;
+			}
+		}
+		return permits;
+	}
+
+
+	/**
+	 * Stream which hands its connection back to the keep-alive pool when it is closed
+	 */
+	private static class PooledInputStream extends FilterInputStream {
+
+		// The body as it is received from the network, which is drained on close
+		private InputStream transferredBody;
+		private HttpURLConnection connection;
+		private Semaphore permits;
+		private CancellationToken cancellationToken;
+		private OnCancelListener onCancelListener;
+		private boolean closed = false;
+
+		PooledInputStream(InputStream in, InputStream transferredBody, HttpURLConnection connection, Semaphore permits, CancellationToken cancellationToken, OnCancelListener onCancelListener) {
+			super(in);
+			this.transferredBody = transferredBody;
+			this.connection = connection;
+			this.permits = permits;
+			this.cancellationToken = cancellationToken;
+			this.onCancelListener = onCancelListener;
+		}
+
+		@Override
+		public void close() throws IOException {
+
+			synchronized (this) {
+				if (closed) {
+					return;
+				}
+				closed = true;
+			}
+
+			try {
+
+				// Drain the remainder of the body without decompressing it, so the socket can be reused for the next request
+				byte[] buffer = new byte[4096];
+				int drained = 0;
+				int read;
+				while (drained <= MAX_DRAIN_BYTES && (read = transferredBody.read(buffer)) != -1) {
+					drained += read;
+				}
+
+				// Closing the decompressing stream also releases its native inflater
+				in.close();
+
+				if (drained > MAX_DRAIN_BYTES) {
+					connection.disconnect();
+				}
+			} catch (IOException e) {
+				connection.disconnect();
+			} finally {
+
+				// The connection is back in the pool, so it must no longer be disconnected when the request is cancelled
+				if (onCancelListener != null) {
+					cancellationToken.removeOnCancelListener(onCancelListener);
+				}
+				permits.release();
+			}
+		}
+	}
+
+
+	/**
+	 * Disconnects the connection of a request that is cancelled
+	 */
+	private static class DisconnectOnCancelListener implements OnCancelListener {
+
+		private HttpURLConnection connection;
+
+		DisconnectOnCancelListener(HttpURLConnection connection) {
+			this.connection = connection;
+		}
+
+		@Override
+		public void onCancel() {
+			connection.disconnect();
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.communicate;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.security.InvalidParameterException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import android.util.Log;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.exception.CommunicationException;
+
+/**
+ * C2sTransport which executes the requests on another transport, and writes every request and response to a directory
+ *
+ * The recordings can be served again by a ReplayTransport, so the SDK can be exercised and benchmarked without the GC gateway.
+ * The body of every response is read completely before it is returned, and is stored decoded.
+ * Responses with statuscode 304 are not recorded, since they only have a meaning for the cache that revalidated them.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class RecordingTransport implements C2sTransport {
+
+	private static final long serialVersionUID = 4406317520872361937L;
+
+	// Tag for logging
+	private static final String TAG = RecordingTransport.class.getName();
+
+	// Transport which executes the requests
+	private C2sTransport transport;
+
+	// Directory in which the recordings are written
+	private File directory;
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param transport, the transport which executes the requests, for instance a PooledHttpTransport
+	 * @param directory, the directory in which the recordings are written
+	 */
+	public RecordingTransport(C2sTransport transport, File directory) {
+
+		if (transport == null) {
+			throw new InvalidParameterException("Error creating RecordingTransport, transport may not be null");
+		}
+		if (directory == null) {
+			throw new InvalidParameterException("Error creating RecordingTransport, directory may not be null");
+		}
+		this.transport = transport;
+		this.directory = directory;
+	}
+
+
+	public File getDirectory() {
+		return directory;
+	}
+
+
+	@Override
+	public C2sResponse execute(C2sRequest request) throws CommunicationException {
+
+		C2sResponse response = transport.execute(request);
+		if (response.getStatusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+			return response;
+		}
+
+		try {
+			byte[] body = C2sRecording.readBody(response);
+			C2sRecording recording = new C2sRecording(request.getMethod(), C2sRecording.getPath(request), response.getStatusCode(), removeEncodingHeaders(response.getHeaders()), body);
+			recording.writeTo(directory);
+
+			return recording.toResponse(request, new ByteArrayInputStream(body));
+
+		} catch (IOException e) {
+			Log.e(TAG, "execute, IOException while recording " + request.getUrl() + " " + e.getMessage());
+			throw new CommunicationException("Error while recording " + request.getUrl(), e);
+		}
+	}
+
+
+	/**
+	 * The recording contains the decoded body, so it no longer matches the Content-Encoding and Content-Length headers
+	 */
+	private Map<String, List<String>> removeEncodingHeaders(Map<String, List<String>> headers) {
+
+		Map<String, List<String>> recordedHeaders = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+		recordedHeaders.putAll(headers);
+		recordedHeaders.remove("Content-Encoding");
+		recordedHeaders.remove("Content-Length");
+		recordedHeaders.remove("Transfer-Encoding");
+		return recordedHeaders;
+	}
+}
@@ -0,0 +1,335 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.communicate;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.security.InvalidParameterException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.util.Log;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.CancellationToken.OnCancelListener;
+import com.globalcollect.gateway.sdk.client.android.sdk.exception.CommunicationException;
+
+/**
+ * C2sTransport which serves recorded responses instead of communicating with the GC gateway
+ *
+ * The recordings are made by a RecordingTransport, and are matched on the method, path and query of the request.
+ * Requests without a recording get a 404 response. Network conditions can be simulated: every request waits for the
+ * latency before its response is returned, the body is read no faster than the bandwidth, and a fraction of the requests
+ * fails with a connection failure or with a 503 response. The failures are drawn from a Random with a settable seed,
+ * so a benchmark run can be repeated exactly.
+ *
+ * Like the PooledHttpTransport it applies the read timeout of the request and aborts when its CancellationToken is cancelled.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class ReplayTransport implements C2sTransport {
+
+	private static final long serialVersionUID = 8092471593346781105L;
+
+	// Tag for logging
+	private static final String TAG = ReplayTransport.class.getName();
+
+	// Number of chunks per second in which a throttled body is read
+	private static final int THROTTLE_CHUNKS_PER_SECOND = 10;
+
+	// Recordings by the key on which they are matched
+	private Map<String, C2sRecording> recordings = new HashMap<String, C2sRecording>();
+
+	// Simulated network conditions
+	private long latencyMillis = 0;
+	private long bytesPerSecond = 0;
+	private double connectionFailureRate = 0;
+	private double serverErrorRate = 0;
+	private Random random = new Random();
+
+	private AtomicInteger requestCount = new AtomicInteger();
+
+
+	/**
+	 * Constructor, reads all recordings from the given directory
+	 *
+	 * @param directory, the directory in which a RecordingTransport has written its recordings
+	 *
+	 * @throws IOException, when the recordings could not be read
+	 */
+	public ReplayTransport(File directory) throws IOException {
+
+		if (directory == null) {
+			throw new InvalidParameterException("Error creating ReplayTransport, directory may not be null");
+		}
+
+		File[] files = directory.listFiles();
+		if (files == null) {
+			throw new IOException("Unable to list recordings in " + directory);
+		}
+		for (File file : files) {
+			if (file.getName().endsWith(C2sRecording.FILE_EXTENSION)) {
+				addRecording(C2sRecording.readFrom(file));
+			}
+		}
+	}
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param recordings, the recordings which are served
+	 */
+	public ReplayTransport(Collection<C2sRecording> recordings) {
+
+		if (recordings == null) {
+			throw new InvalidParameterException("Error creating ReplayTransport, recordings may not be null");
+		}
+		for (C2sRecording recording : recordings) {
+			addRecording(recording);
+		}
+	}
+
+
+	/**
+	 * Adds a recording, which replaces an earlier recording of the same request
+	 *
+	 * @param recording, the recording which is served
+	 */
+	public synchronized void addRecording(C2sRecording recording) {
+
+		if (recording == null) {
+			throw new InvalidParameterException("Error adding recording, recording may not be null");
+		}
+		recordings.put(recording.getKey(), recording);
+	}
+
+
+	/**
+	 * Sets the time every request waits before its response is returned
+	 *
+	 * @param latencyMillis, the latency in milliseconds, 0 for none
+	 */
+	public void setLatency(long latencyMillis) {
+
+		if (latencyMillis < 0) {
+			throw new InvalidParameterException("Error setting latency, latencyMillis may not be negative");
+		}
+		this.latencyMillis = latencyMillis;
+	}
+
+
+	/**
+	 * Sets the speed at which response bodies can be read
+	 *
+	 * @param bytesPerSecond, the bandwidth in bytes per second, 0 for unlimited
+	 */
+	public void setBandwidth(long bytesPerSecond) {
+
+		if (bytesPerSecond < 0) {
+			throw new InvalidParameterException("Error setting bandwidth, bytesPerSecond may not be negative");
+		}
+		this.bytesPerSecond = bytesPerSecond;
+	}
+
+
+	/**
+	 * Sets the fraction of the requests that fail as if the connection could not be made
+	 *
+	 * @param connectionFailureRate, fraction between 0 and 1
+	 */
+	public void setConnectionFailureRate(double connectionFailureRate) {
+
+		if (connectionFailureRate < 0 || connectionFailureRate > 1) {
+			throw new InvalidParameterException("Error setting connectionFailureRate, connectionFailureRate must be between 0 and 1");
+		}
+		this.connectionFailureRate = connectionFailureRate;
+	}
+
+
+	/**
+	 * Sets the fraction of the requests that get a 503 response
+	 *
+	 * @param serverErrorRate, fraction between 0 and 1
+	 */
+	public void setServerErrorRate(double serverErrorRate) {
+
+		if (serverErrorRate < 0 || serverErrorRate > 1) {
+			throw new InvalidParameterException("Error setting serverErrorRate, serverErrorRate must be between 0 and 1");
+		}
+		this.serverErrorRate = serverErrorRate;
+	}
+
+
+	/**
+	 * Sets the seed from which the injected failures are drawn, so a run can be repeated
+	 *
+	 * @param seed, the seed of the Random which decides which requests fail
+	 */
+	public void setRandomSeed(long seed) {
+		random = new Random(seed);
+	}
+
+
+	/**
+	 * Returns the number of requests that have been executed
+	 */
+	public int getRequestCount() {
+		return requestCount.get();
+	}
+
+
+	@Override
+	public C2sResponse execute(C2sRequest request) throws CommunicationException {
+
+		String key;
+		try {
+			key = C2sRecording.getKey(request);
+		} catch (MalformedURLException e) {
+			Log.e(TAG, "execute, Unable to parse url " + request.getUrl());
+			throw new CommunicationException("Unable to parse url " + request.getUrl());
+		}
+		requestCount.incrementAndGet();
+
+		// Simulate the round trip to the GC gateway
+		waitForResponse(request);
+
+		if (random.nextDouble() < connectionFailureRate) {
+			throw new CommunicationException("Injected connection failure for " + request.getUrl());
+		}
+		if (random.nextDouble() < serverErrorRate) {
+			return new C2sResponse(request.getUrl(), HttpURLConnection.HTTP_UNAVAILABLE, null, new ByteArrayInputStream(new byte[0]));
+		}
+
+		C2sRecording recording;
+		synchronized (this) {
+			recording = recordings.get(key);
+		}
+		if (recording == null) {
+			Log.i(TAG, "execute, No recording for " + key);
+			return new C2sResponse(request.getUrl(), HttpURLConnection.HTTP_NOT_FOUND, null, new ByteArrayInputStream(new byte[0]));
+		}
+
+		InputStream body = recording.openBody();
+		if (bytesPerSecond > 0) {
+			body = new ThrottledInputStream(body, bytesPerSecond, request.getCancellationToken());
+		}
+		return recording.toResponse(request, body);
+	}
+
+
+	/**
+	 * Waits for the latency, but no longer than the read timeout of the request, and aborts when the request is cancelled
+	 */
+	private void waitForResponse(C2sRequest request) throws CommunicationException {
+
+		final CountDownLatch cancelled = new CountDownLatch(1);
+		CancellationToken cancellationToken = request.getCancellationToken();
+		OnCancelListener onCancelListener = new OnCancelListener() {
+			@Override
+			public void onCancel() {
+				cancelled.countDown();
+			}
+		};
+		if (cancellationToken != null && !cancellationToken.addOnCancelListener(onCancelListener)) {
+			throw new CommunicationException("Request to " + request.getUrl() + " is cancelled");
+		}
+
+		try {
+			boolean timedOut = request.getReadTimeoutMillis() > 0 && latencyMillis > request.getReadTimeoutMillis();
+			long waitMillis = timedOut ? request.getReadTimeoutMillis() : latencyMillis;
+			if (waitMillis > 0 && cancelled.await(waitMillis, TimeUnit.MILLISECONDS)) {
+				throw new CommunicationException("Request to " + request.getUrl() + " is cancelled");
+			}
+			if (timedOut) {
+				throw new CommunicationException("Read timed out for " + request.getUrl());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CommunicationException("Interrupted while waiting for " + request.getUrl(), e);
+		} finally {
+			if (cancellationToken != null) {
+				cancellationToken.removeOnCancelListener(onCancelListener);
+			}
+		}
+	}
+
+
+	/**
+	 * Stream which is read no faster than the given number of bytes per second
+	 */
+	private static class ThrottledInputStream extends FilterInputStream {
+
+		private long bytesPerSecond;
+		private CancellationToken cancellationToken;
+
+		private long startNanos = -1;
+		private long bytesRead = 0;
+
+
+		ThrottledInputStream(InputStream in, long bytesPerSecond, CancellationToken cancellationToken) {
+			super(in);
+			this.bytesPerSecond = bytesPerSecond;
+			this.cancellationToken = cancellationToken;
+		}
+
+
+		@Override
+		public int read() throws IOException {
+			byte[] buffer = new byte[1];
+			int read = read(buffer, 0, 1);
+			return read == -1 ? -1 : buffer[0] & 0xff;
+		}
+
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+
+			if (length == 0) {
+				return 0;
+			}
+			if (startNanos == -1) {
+				startNanos = System.nanoTime();
+			}
+
+			int chunk = (int) Math.max(1, Math.min(length, bytesPerSecond / THROTTLE_CHUNKS_PER_SECOND));
+			int read = in.read(buffer, offset, chunk);
+			if (read <= 0) {
+				return read;
+			}
+			bytesRead += read;
+
+			// Wait until the bytes that have been read could have been transferred
+			long waitMillis = bytesRead * 1000L / bytesPerSecond - (System.nanoTime() - startNanos) / 1000000L;
+			if (waitMillis > 0) {
+				try {
+					Thread.sleep(waitMillis);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while reading the response");
+				}
+			}
+			if (cancellationToken != null && cancellationToken.isCancelled()) {
+				throw new IOException("Request is cancelled");
+			}
+			return read;
+		}
+
+
+		@Override
+		public long skip(long byteCount) throws IOException {
+			byte[] buffer = new byte[(int) Math.min(byteCount, 4096)];
+			int read = read(buffer, 0, buffer.length);
+			return read == -1 ? 0 : read;
+		}
+	}
+}
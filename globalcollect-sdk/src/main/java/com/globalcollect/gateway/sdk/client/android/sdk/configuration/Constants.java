@@ -27,8 +27,11 @@ public class Constants {
 	/** File location settings **/
 	public final static String DIRECTORY_IINRESPONSES = "/files/";
 	public final static String FILENAME_IINRESPONSE_CACHE = "iinresponse.cache";
+	public final static String FILENAME_IINRESPONSE_LOG = "iinresponse.log";
 	public final static String DIRECTORY_LOGOS = "/files//";
 	public final static String FILENAME_LOGO_PREFIX = "logo_logos";
+	public final static String DIRECTORY_BINRANGES = "/files/";
+	public final static String FILENAME_BINRANGE_TABLE = "binranges.table";
 
 	/** Disable/Enable logging of all requests and responses made to the Global Collect Gateway **/
 	public final static Boolean ENABLE_REQUEST_LOGGING = false;
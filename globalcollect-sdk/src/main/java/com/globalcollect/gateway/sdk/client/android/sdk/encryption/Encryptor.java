@@ -36,6 +36,9 @@ public class Encryptor {
 	// Protected Header settings
 	private final String PROTECTED_HEADER_ALG = "RSA-OAEP";
 	private final String PROTECTED_HEADER_ENC = "A256CBC-HS512";	
+	
+	// Gson which serialises EncryptData, shared by all Encryptors since Gson is thread safe
+	private static final Gson gson = new GsonBuilder().registerTypeAdapter(EncryptData.class, new EncryptDataJsonSerializer()).create();
 
     // PublicKeyResponse which holds the GC Gateway public key
  	private PublicKeyResponse publicKeyResponse;
@@ -64,9 +67,6 @@ public class Encryptor {
 	public String encrypt(EncryptData encryptData) {
 		
 		// Convert EncryptData to JSON format
-		GsonBuilder gsonBuilder = new GsonBuilder();
-		gsonBuilder.registerTypeAdapter(EncryptData.class, new EncryptDataJsonSerializer());
-		Gson gson = gsonBuilder.create();
 		String payload = gson.toJson(encryptData);
 		
 		try {
@@ -0,0 +1,16 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.exception;
+
+/**
+ * Thrown when a request is not sent because the circuit of its endpoint is open
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class CircuitOpenException extends CommunicationException {
+
+	private static final long serialVersionUID = -5523781692047311458L;
+
+	public CircuitOpenException(String message) {
+		super(message);
+	}
+}
@@ -4,7 +4,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Type;
 import java.security.InvalidParameterException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -14,8 +16,13 @@ import android.content.Context;
 import android.graphics.drawable.Drawable;
 
 import com.globalcollect.gateway.sdk.client.android.sdk.GcUtil;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.DefaultSdkExecutor;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.LoadImageAsyncTask;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.LoadImageAsyncTask.OnImageLoadedListener;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.LoadLogosAsyncTask;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.LoadLogosAsyncTask.OnLogoLoadedListener;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.SdkExecutor;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.SdkExecutor.Priority;
 import com.globalcollect.gateway.sdk.client.android.sdk.caching.CacheHandler;
 import com.globalcollect.gateway.sdk.client.android.sdk.caching.Preferences;
 import com.globalcollect.gateway.sdk.client.android.sdk.configuration.Constants;
@@ -40,6 +47,9 @@ public class AssetManager implements OnImageLoadedListener {
 	// Prefix for logo images
 	private final String LOGO_PREFIX = "pp_logo_";
 	
+	// Maximum number of decoded logos that are kept in memory
+	private static final int MAX_LOADED_LOGOS = 64;
+	
 	// Singleton instance
 	private static AssetManager INSTANCE;
 	
@@ -49,6 +59,24 @@ public class AssetManager implements OnImageLoadedListener {
 	// Classes used for storing cache of paymentproducts and their logos 
 	private Preferences preferences = new Preferences();
 	private CacheHandler cacheHandler;
+	
+	// Logos which have been read and decoded, so a logo is only decoded again after it was evicted as least recently used
+	// The ConstantState is kept instead of the Drawable, so every view gets its own Drawable, which shares the decoded bitmap
+	private Map<String, Drawable.ConstantState> loadedLogos = new LinkedHashMap<String, Drawable.ConstantState>(16, 0.75f, true) {
+		
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Drawable.ConstantState> eldest) {
+			return size() > MAX_LOADED_LOGOS;
+		}
+	};
+	
+	// Listeners that are waiting for a logo which is being loaded by a LoadLogosAsyncTask
+	private Map<String, List<OnLogoLoadedListener>> pendingLogos = new HashMap<String, List<OnLogoLoadedListener>>();
+
+	// Executes the downloading and decoding of the logos
+	private SdkExecutor sdkExecutor = DefaultSdkExecutor.getSharedInstance();
 		
 	
 	
@@ -63,6 +91,21 @@ public class AssetManager implements OnImageLoadedListener {
 	}
 	
 	
+	/**
+	 * Sets the SdkExecutor which downloads and decodes the logos
+	 * By default the process wide DefaultSdkExecutor.getSharedInstance() is used
+	 *
+	 * @param sdkExecutor, the SdkExecutor which will be used for all logos
+	 */
+	public void setSdkExecutor(SdkExecutor sdkExecutor) {
+
+		if (sdkExecutor == null) {
+			throw new InvalidParameterException("Error setting sdkExecutor, sdkExecutor may not be null");
+		}
+		this.sdkExecutor = sdkExecutor;
+	}
+
+
 	/**
 	 * Gets Singleton instance of this AssetManager
 	 * 
@@ -85,8 +128,10 @@ public class AssetManager implements OnImageLoadedListener {
 	
 	/**
 	 * Retrieves a logo for the given paymentProductId
-	 * First the diskcache is checked for this logo
+	 * Logos that have been loaded before are returned from memory, as a new Drawable for every call
+	 * Else the diskcache is checked for this logo
 	 * If it doesn't exist there, the version in the app is returned
+	 * This reads and decodes the logo on the calling thread, use loadLogo or bindLogos on the UI thread
 	 * 
 	 * @param paymentProductId, the paymentProductId for which the logo is returned
 	 * 
@@ -94,23 +139,194 @@ public class AssetManager implements OnImageLoadedListener {
 	 */
 	public Drawable getLogo(String paymentProductId) {
 
+		Drawable.ConstantState loadedLogo;
+		synchronized (loadedLogos) {
+			loadedLogo = loadedLogos.get(paymentProductId);
+		}
+		if (loadedLogo != null) {
+			return loadedLogo.newDrawable(context.getResources());
+		}
+
 		// Check if the logo for this paymentProduct is in the cache and return it
 		Drawable logo = cacheHandler.getImageFromInternalStorage(paymentProductId, context.getResources());
-		if (logo != null) {
-			return logo;
-		} else {
+		if (logo == null) {
 			
 			// Else return the original logo for this paymentProduct 
 			Integer logoId = context.getResources().getIdentifier(LOGO_PREFIX + paymentProductId, "drawable", context.getPackageName());
 			if (logoId != 0) {
-				return context.getResources().getDrawable(logoId);
+				logo = context.getResources().getDrawable(logoId);
 			}
 		}
 		
-		return null;
+		if (logo != null) {
+			putLoadedLogo(paymentProductId, logo);
+		}
+		return logo;
+	}
+	
+	
+	/**
+	 * Loads the logo for the given paymentItemId in the background
+	 * When the logo is already in memory the listener is called immediately
+	 * When the logo is already being loaded, the listener is called when that load is done
+	 * 
+	 * @param paymentItemId, the id of the paymentItem whose logo is loaded
+	 * @param listener, called on the UI thread with the logo, or null when there is no logo for this paymentItem
+	 */
+	public void loadLogo(String paymentItemId, OnLogoLoadedListener listener) {
+		
+		if (paymentItemId == null) {
+			throw new InvalidParameterException("Error loading logo, paymentItemId may not be null");
+		}
+		if (listener == null) {
+			throw new InvalidParameterException("Error loading logo, listener may not be null");
+		}
+		
+		List<String> paymentItemIds = new ArrayList<String>();
+		paymentItemIds.add(paymentItemId);
+		loadLogos(paymentItemIds, listener);
 	}
 	
 	
+	/**
+	 * Sets the logos of the given paymentItems on their DisplayHints in the background
+	 * The paymentItems can be shown right away, their logos are set as soon as they are decoded
+	 * 
+	 * @param basicPaymentItems, the paymentItems whose logos are set
+	 */
+	public void bindLogos(List<? extends BasicPaymentItem> basicPaymentItems) {
+		bindLogos(basicPaymentItems, null);
+	}
+	
+	
+	/**
+	 * Sets the logos of the given paymentItems on their DisplayHints in the background
+	 * The paymentItems can be shown right away, the listener is called for every logo that is set
+	 * 
+	 * @param basicPaymentItems, the paymentItems whose logos are set
+	 * @param listener, called on the UI thread after the logo of a paymentItem is set, may be null
+	 */
+	public void bindLogos(List<? extends BasicPaymentItem> basicPaymentItems, final OnLogoLoadedListener listener) {
+		
+		if (basicPaymentItems == null) {
+			throw new InvalidParameterException("Error binding logos, basicPaymentItems may not be null");
+		}
+		
+		List<String> paymentItemIds = new ArrayList<String>();
+		final Map<String, List<BasicPaymentItem>> itemsById = new HashMap<String, List<BasicPaymentItem>>();
+		for (BasicPaymentItem basicPaymentItem : basicPaymentItems) {
+			
+			if (basicPaymentItem.getDisplayHints() == null || basicPaymentItem.getDisplayHints().getLogo() != null) {
+				continue;
+			}
+			
+			List<BasicPaymentItem> items = itemsById.get(basicPaymentItem.getId());
+			if (items == null) {
+				items = new ArrayList<BasicPaymentItem>();
+				itemsById.put(basicPaymentItem.getId(), items);
+				paymentItemIds.add(basicPaymentItem.getId());
+			}
+			items.add(basicPaymentItem);
+		}
+		
+		loadLogos(paymentItemIds, new OnLogoLoadedListener() {
+			
+			@Override
+			public void onLogoLoaded(String paymentItemId, Drawable logo) {
+				List<BasicPaymentItem> items = itemsById.get(paymentItemId);
+				for (int i = 0; i < items.size(); i++) {
+					items.get(i).getDisplayHints().setLogo(i == 0 ? logo : copyLogo(logo));
+				}
+				if (listener != null) {
+					listener.onLogoLoaded(paymentItemId, logo);
+				}
+			}
+		});
+	}
+	
+	
+	/**
+	 * Calls the listener for every logo, the logos that are not in memory are loaded by one LoadLogosAsyncTask
+	 */
+	private void loadLogos(List<String> paymentItemIds, OnLogoLoadedListener listener) {
+		
+		List<String> logosToLoad = new ArrayList<String>();
+		for (String paymentItemId : paymentItemIds) {
+			
+			Drawable.ConstantState loadedLogo;
+			synchronized (loadedLogos) {
+				loadedLogo = loadedLogos.get(paymentItemId);
+			}
+			if (loadedLogo != null) {
+				listener.onLogoLoaded(paymentItemId, loadedLogo.newDrawable(context.getResources()));
+				continue;
+			}
+			
+			// Wait for the logo when it is already being loaded, else load it
+			synchronized (pendingLogos) {
+				List<OnLogoLoadedListener> listeners = pendingLogos.get(paymentItemId);
+				if (listeners == null) {
+					listeners = new ArrayList<OnLogoLoadedListener>();
+					pendingLogos.put(paymentItemId, listeners);
+					logosToLoad.add(paymentItemId);
+				}
+				listeners.add(listener);
+			}
+		}
+		
+		if (!logosToLoad.isEmpty()) {
+
+			// Every logo that is loaded, or fails to load, is no longer pending and goes to all listeners that wait for it
+			OnLogoLoadedListener pendingListener = new OnLogoLoadedListener() {
+				
+				@Override
+				public void onLogoLoaded(String paymentItemId, Drawable logo) {
+					List<OnLogoLoadedListener> listeners;
+					synchronized (pendingLogos) {
+						listeners = pendingLogos.remove(paymentItemId);
+					}
+					for (int i = 0; i < listeners.size(); i++) {
+						listeners.get(i).onLogoLoaded(paymentItemId, i == 0 ? logo : copyLogo(logo));
+					}
+				}
+			};
+
+			// Decoding the logos is CPU work, the logos are shown when they are loaded
+			try {
+				sdkExecutor.executeCpu(new LoadLogosAsyncTask(logosToLoad, this, pendingListener), Priority.USER_VISIBLE);
+			} catch (RuntimeException e) {
+
+				// The executor refused the task, so there are no logos for the listeners
+				for (String paymentItemId : logosToLoad) {
+					pendingListener.onLogoLoaded(paymentItemId, null);
+				}
+			}
+		}
+	}
+	
+	
+	
+	private void putLoadedLogo(String paymentItemId, Drawable logo) {
+		
+		// A Drawable without a ConstantState can't be shared, and is decoded again next time
+		Drawable.ConstantState loadedLogo = logo.getConstantState();
+		if (loadedLogo != null) {
+			synchronized (loadedLogos) {
+				loadedLogos.put(paymentItemId, loadedLogo);
+			}
+		}
+	}
+	
+	
+	private Drawable copyLogo(Drawable logo) {
+		
+		// Every view gets its own Drawable, so the bounds and the state that one view sets don't change the logo in another
+		if (logo == null || logo.getConstantState() == null) {
+			return logo;
+		}
+		return logo.getConstantState().newDrawable(context.getResources());
+	}
+	
 	
 	/**
 	 * Update the logos for the given paymentProducts if there is a new version
@@ -199,9 +415,9 @@ public class AssetManager implements OnImageLoadedListener {
 			completeUrl += "?size=" + size.getWidth() + "x" + size.getHeight();
 		}
 			
-		// And load images on asynctask
+		// And load images on asynctask, refreshing logos is background work which gives way to the calls the user waits for
 		LoadImageAsyncTask task = new LoadImageAsyncTask(completeUrl, product.getId(), context, logoMapping, logoUrl, this);
-		task.execute();
+		sdkExecutor.executeIo(task, Priority.BACKGROUND);
 	}
 	
 	
@@ -213,6 +429,9 @@ public class AssetManager implements OnImageLoadedListener {
 			// Save/Update the image on the Internal Storage
 			cacheHandler.saveImageOnInternalStorage(productId, image);
 			
+			// Logos that are loaded from now on get the updated image
+			putLoadedLogo(productId, image);
+			
 			// Update the logo mapping in preferences
 			logoMapping.put(productId, url);
 			
@@ -0,0 +1,472 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.manager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.configuration.Constants;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetailsResponse;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinStatus;
+
+/**
+ * Offline table of the BIN ranges of the card brands, which recognises the brand of a creditcardnumber from its first digits
+ *
+ * The table is a sorted list of non-overlapping ranges of 6 digit BINs, each with the paymentProductId of its brand. A partial
+ * creditcardnumber covers the BINs that start with its digits; when all ranges in there belong to the same brand, that brand
+ * is the provisional answer, so a logo can be shown before the GC gateway is asked. The GC gateway stays authoritative:
+ * its IinDetailsResponse confirms or corrects the provisional answer.
+ *
+ * The ranges are bundled in the assets of the SDK, which are merged into the app, and read by load(), which must be called
+ * on a background thread; lookups are not answered before that, so they never read storage on the main thread. Updates are
+ * applied with applyDelta() and stored on internal storage, where they are used instead of the bundled ranges until the
+ * SDK bundles a newer version. A table without any ranges is loaded but empty, and never recognises a brand.
+ *
+ * The table file starts with TABLE_MAGIC, the version and the number of ranges, followed by every range as the int lowest
+ * and highest BIN and the UTF paymentProductId. A delta file starts with DELTA_MAGIC, the version it applies to, the version
+ * it results in and the number of ranges, followed by the ranges; a range with an empty paymentProductId is removed.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class BinRangeTable {
+
+	// Tag for logging
+	private static final String TAG = BinRangeTable.class.getName();
+
+	// Name of the bundled table in the assets of the SDK
+	private static final String BIN_RANGES_FILENAME = "initial_bin_ranges.bin";
+
+	// First int of a table file, "BINR", and of a delta file, "BIND"
+	public static final int TABLE_MAGIC = 0x42494E52;
+	public static final int DELTA_MAGIC = 0x42494E44;
+
+	// Number of digits of a BIN
+	private static final int BIN_LENGTH = 6;
+	private static final int[] POWERS_OF_TEN = { 1, 10, 100, 1000, 10000, 100000, 1000000 };
+
+	// Singleton instance
+	private static BinRangeTable INSTANCE;
+
+	// Context used for reading the bundled table and the stored table
+	private Context context;
+
+	// The stored table, or null when it is the default file in the files directory of the app
+	private File file;
+
+	// The ranges in use; replaced as a whole, so lookups never lock
+	private volatile Ranges ranges;
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param context, used for reading the bundled table from the assets of the SDK
+	 * @param file, the file in which updates are stored; null for the default file in the files directory of the app
+	 */
+	public BinRangeTable(Context context, File file) {
+
+		if (context == null) {
+			throw new InvalidParameterException("Error creating BinRangeTable, context may not be null");
+		}
+		this.context = context;
+		this.file = file;
+	}
+
+
+	/**
+	 * Gets Singleton instance of this BinRangeTable
+	 *
+	 * @param context, needed for reading files
+	 *
+	 * @return BinRangeTable singleton instance
+	 */
+	public static synchronized BinRangeTable getInstance(Context context) {
+
+		if (context == null) {
+			throw new InvalidParameterException("Error creating BinRangeTable, context may not be null");
+		}
+
+		if (INSTANCE == null) {
+			INSTANCE = new BinRangeTable(context.getApplicationContext(), null);
+		}
+		return INSTANCE;
+	}
+
+
+	/**
+	 * Gets the provisional paymentProductId for the given partial creditcardnumber
+	 * This does not allocate, and takes well under a microsecond
+	 *
+	 * @param partialCreditCardNumber, the entered digits; only the first 6 are used
+	 *
+	 * @return the paymentProductId of the only brand whose ranges start with the given digits, or null when there is none or
+	 * more than one, or when the table has not been loaded yet
+	 */
+	public String getPaymentProductId(String partialCreditCardNumber) {
+
+		if (partialCreditCardNumber == null) {
+			throw new InvalidParameterException("Error getting paymentProductId, partialCreditCardNumber may not be null");
+		}
+
+		// The BINs which start with the given digits
+		int digits = Math.min(partialCreditCardNumber.length(), BIN_LENGTH);
+		if (digits == 0) {
+			return null;
+		}
+		int prefix = 0;
+		for (int i = 0; i < digits; i++) {
+			char c = partialCreditCardNumber.charAt(i);
+			if (c < '0' || c > '9') {
+				return null;
+			}
+			prefix = prefix * 10 + (c - '0');
+		}
+		int lowestBin = prefix * POWERS_OF_TEN[BIN_LENGTH - digits];
+		int highestBin = lowestBin + POWERS_OF_TEN[BIN_LENGTH - digits] - 1;
+
+		// Binary search for the first range that ends at or after the lowest BIN
+		Ranges current = ranges;
+		if (current == null) {
+			return null;
+		}
+		int low = 0;
+		int high = current.highestBins.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (current.highestBins[middle] < lowestBin) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		// Every range that overlaps the BINs must be of the same brand
+		String paymentProductId = null;
+		for (int i = low; i < current.lowestBins.length && current.lowestBins[i] <= highestBin; i++) {
+			if (paymentProductId == null) {
+				paymentProductId = current.paymentProductIds[i];
+			} else if (!paymentProductId.equals(current.paymentProductIds[i])) {
+				return null;
+			}
+		}
+		return paymentProductId;
+	}
+
+
+	/**
+	 * Gets the provisional IinDetailsResponse for the given partial creditcardnumber
+	 *
+	 * @param partialCreditCardNumber, the entered digits; only the first 6 are used
+	 *
+	 * @return IinDetailsResponse with status PROVISIONAL and the paymentProductId of the brand, or null when the brand is not known
+	 */
+	public IinDetailsResponse getProvisionalIinDetails(String partialCreditCardNumber) {
+
+		String paymentProductId = getPaymentProductId(partialCreditCardNumber);
+		if (paymentProductId == null) {
+			return null;
+		}
+		return new IinDetailsResponse(paymentProductId, IinStatus.PROVISIONAL);
+	}
+
+
+	/**
+	 * Returns the version of the ranges in use, 0 when there are none
+	 */
+	public int getVersion() {
+		return getRanges().version;
+	}
+
+
+	/**
+	 * Applies a downloaded delta to the ranges, and stores the result for later runs of the app
+	 * Lookups keep using the current ranges until the new ones are complete
+	 *
+	 * @param delta, the delta file; it is not closed
+	 *
+	 * @throws IOException, when the delta can not be read, is meant for another version or can not be stored
+	 */
+	public synchronized void applyDelta(InputStream delta) throws IOException {
+
+		if (delta == null) {
+			throw new InvalidParameterException("Error applying delta, delta may not be null");
+		}
+
+		Ranges current = getRanges();
+		DataInputStream in = new DataInputStream(new BufferedInputStream(delta));
+		if (in.readInt() != DELTA_MAGIC) {
+			throw new IOException("Error applying delta, it is not a BIN range delta");
+		}
+		int baseVersion = in.readInt();
+		int version = in.readInt();
+		if (baseVersion != current.version) {
+			throw new IOException("Error applying delta, it applies to version " + baseVersion + " instead of " + current.version);
+		}
+
+		List<Range> rangeList = current.toList();
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			Range update = readRange(in);
+
+			// Cut the updated BINs out of the current ranges, then add the update unless it is a removal
+			List<Range> updatedList = new ArrayList<Range>();
+			for (Range range : rangeList) {
+				if (range.highestBin < update.lowestBin || range.lowestBin > update.highestBin) {
+					updatedList.add(range);
+					continue;
+				}
+				if (range.lowestBin < update.lowestBin) {
+					updatedList.add(new Range(range.lowestBin, update.lowestBin - 1, range.paymentProductId));
+				}
+				if (range.highestBin > update.highestBin) {
+					updatedList.add(new Range(update.highestBin + 1, range.highestBin, range.paymentProductId));
+				}
+			}
+			if (update.paymentProductId.length() > 0) {
+				updatedList.add(update);
+			}
+			rangeList = updatedList;
+		}
+
+		Ranges updated = new Ranges(version, rangeList);
+		writeTable(getFile(), updated);
+		ranges = updated;
+	}
+
+
+	/**
+	 * Reads the ranges, unless that has been done already
+	 * Call this on a background thread before the table is used for lookups
+	 */
+	public synchronized void load() {
+
+		if (ranges != null) {
+			return;
+		}
+
+		// The bundled ranges, unless updates for at least the same version have been stored
+		Ranges bundled = null;
+		InputStream asset = null;
+		try {
+			asset = context.getAssets().open(BIN_RANGES_FILENAME);
+			bundled = readTable(asset);
+		} catch (FileNotFoundException e) {
+			Log.i(TAG, "The assets do not contain " + BIN_RANGES_FILENAME + ", brands are only recognised by stored updates and the GC gateway");
+		} catch (IOException e) {
+			Log.i(TAG, "Error reading bundled BIN ranges: " + e.getMessage());
+		} finally {
+			close(asset);
+		}
+
+		Ranges stored = null;
+		File storedFile = getFile();
+		if (storedFile.exists()) {
+			InputStream in = null;
+			try {
+				in = new FileInputStream(storedFile);
+				stored = readTable(in);
+			} catch (IOException e) {
+				Log.i(TAG, "Error reading stored BIN ranges, the bundled ranges are used: " + e.getMessage());
+			} finally {
+				close(in);
+			}
+		}
+
+		if (stored != null && (bundled == null || stored.version >= bundled.version)) {
+			ranges = stored;
+		} else if (bundled != null) {
+			ranges = bundled;
+		} else {
+			Log.i(TAG, "No BIN ranges are available, the table is empty");
+			ranges = new Ranges();
+		}
+	}
+
+
+	/**
+	 * Returns whether the ranges have been read, so lookups are answered
+	 */
+	public boolean isLoaded() {
+		return ranges != null;
+	}
+
+
+	/**
+	 * Returns whether the ranges have been read and there are none, because neither the bundled nor the stored table could be read
+	 */
+	public boolean isEmpty() {
+		Ranges current = ranges;
+		return current != null && current.lowestBins.length == 0;
+	}
+
+
+	private Ranges getRanges() {
+
+		Ranges current = ranges;
+		if (current == null) {
+			load();
+			current = ranges;
+		}
+		return current;
+	}
+
+
+	private File getFile() {
+		if (file != null) {
+			return file;
+		}
+		return new File(context.getFilesDir() + Constants.DIRECTORY_BINRANGES, Constants.FILENAME_BINRANGE_TABLE);
+	}
+
+
+	private Ranges readTable(InputStream inputStream) throws IOException {
+
+		DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+		if (in.readInt() != TABLE_MAGIC) {
+			throw new IOException("Not a BIN range table");
+		}
+		int version = in.readInt();
+		int count = in.readInt();
+		List<Range> rangeList = new ArrayList<Range>(count);
+		for (int i = 0; i < count; i++) {
+			rangeList.add(readRange(in));
+		}
+		return new Ranges(version, rangeList);
+	}
+
+
+	private Range readRange(DataInputStream in) throws IOException {
+
+		int lowestBin = in.readInt();
+		int highestBin = in.readInt();
+		String paymentProductId = in.readUTF();
+		if (lowestBin < 0 || highestBin < lowestBin || highestBin >= POWERS_OF_TEN[BIN_LENGTH]) {
+			throw new IOException("Invalid BIN range " + lowestBin + "-" + highestBin);
+		}
+		return new Range(lowestBin, highestBin, paymentProductId);
+	}
+
+
+	private void writeTable(File tableFile, Ranges table) throws IOException {
+
+		// Write the table to a new file, which replaces the stored table at once
+		File newTableFile = new File(tableFile.getPath() + ".new");
+		DataOutputStream out = null;
+		try {
+			tableFile.getParentFile().mkdirs();
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(newTableFile)));
+			out.writeInt(TABLE_MAGIC);
+			out.writeInt(table.version);
+			out.writeInt(table.lowestBins.length);
+			for (int i = 0; i < table.lowestBins.length; i++) {
+				out.writeInt(table.lowestBins[i]);
+				out.writeInt(table.highestBins[i]);
+				out.writeUTF(table.paymentProductIds[i]);
+			}
+			out.close();
+			out = null;
+			if (!newTableFile.renameTo(tableFile)) {
+				throw new IOException("Could not replace " + tableFile);
+			}
+		} catch (IOException e) {
+			newTableFile.delete();
+			throw e;
+		} finally {
+			close(out);
+		}
+	}
+
+
+	private void close(Closeable closeable) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			} catch (IOException e) {}
+		}
+	}
+
+
+	/**
+	 * BIN range of a single brand
+	 */
+	private static class Range {
+
+		private int lowestBin;
+		private int highestBin;
+		private String paymentProductId;
+
+		private Range(int lowestBin, int highestBin, String paymentProductId) {
+			this.lowestBin = lowestBin;
+			this.highestBin = highestBin;
+			this.paymentProductId = paymentProductId;
+		}
+	}
+
+
+	/**
+	 * Sorted ranges of a version of the table, in parallel arrays so a lookup only reads primitives
+	 */
+	private static class Ranges {
+
+		private final int version;
+		private final int[] lowestBins;
+		private final int[] highestBins;
+		private final String[] paymentProductIds;
+
+		private Ranges() {
+			version = 0;
+			lowestBins = new int[0];
+			highestBins = new int[0];
+			paymentProductIds = new String[0];
+		}
+
+		private Ranges(int version, List<Range> rangeList) throws IOException {
+
+			List<Range> sorted = new ArrayList<Range>(rangeList);
+			Collections.sort(sorted, new Comparator<Range>() {
+				@Override
+				public int compare(Range first, Range second) {
+					return first.lowestBin < second.lowestBin ? -1 : (first.lowestBin == second.lowestBin ? 0 : 1);
+				}
+			});
+
+			this.version = version;
+			lowestBins = new int[sorted.size()];
+			highestBins = new int[sorted.size()];
+			paymentProductIds = new String[sorted.size()];
+			for (int i = 0; i < sorted.size(); i++) {
+				Range range = sorted.get(i);
+				if (i > 0 && range.lowestBin <= highestBins[i - 1]) {
+					throw new IOException("Overlapping BIN ranges at " + range.lowestBin);
+				}
+				lowestBins[i] = range.lowestBin;
+				highestBins[i] = range.highestBin;
+				paymentProductIds[i] = range.paymentProductId;
+			}
+		}
+
+		private List<Range> toList() {
+			List<Range> rangeList = new ArrayList<Range>(lowestBins.length);
+			for (int i = 0; i < lowestBins.length; i++) {
+				rangeList.add(new Range(lowestBins[i], highestBins[i], paymentProductIds[i]));
+			}
+			return rangeList;
+		}
+	}
+}
@@ -1,7 +1,11 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
 /**
  * Pojo that contains the response for IIN lookup
  * 
@@ -21,5 +25,31 @@ public class ConvertedAmountResponse implements Serializable {
 	public Long getConvertedAmount() {
 		return convertedAmount;
 	}
-	
-}
\ No newline at end of file
+
+
+	/**
+	 * Reads a ConvertedAmountResponse from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<ConvertedAmountResponse> {
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+		}
+
+		@Override
+		protected ConvertedAmountResponse create() {
+			return new ConvertedAmountResponse(null);
+		}
+
+		@Override
+		protected boolean readField(ConvertedAmountResponse value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "convertedAmount":
+					value.convertedAmount = readLong(in);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
+}
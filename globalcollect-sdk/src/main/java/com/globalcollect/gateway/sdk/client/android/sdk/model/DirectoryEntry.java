@@ -1,7 +1,11 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
 
 /**
  * Pojo that contains the DirectoryEntries for the response from PaymentProductDirectory lookup
@@ -41,5 +45,40 @@ public class DirectoryEntry {
 	public String getIssuerName() {
 		return issuerName;
 	}
-	
+
+
+	/**
+	 * Reads a DirectoryEntry from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<DirectoryEntry> {
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+		}
+
+		@Override
+		protected DirectoryEntry create() {
+			return new DirectoryEntry(null, null, null, null);
+		}
+
+		@Override
+		protected boolean readField(DirectoryEntry value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "countryNames":
+					value.countryNames = readStringList(in);
+					return true;
+				case "issuerId":
+					value.issuerId = readString(in);
+					return true;
+				case "issuerList":
+					value.issuerList = readString(in);
+					return true;
+				case "issuerName":
+					value.issuerName = readString(in);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
 }
@@ -0,0 +1,193 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Base class for the hand-written Gson TypeAdapters of the model classes
+ *
+ * The adapters read the JSON of the GC gateway straight into the model objects, without the reflection Gson uses by default.
+ * Subclasses create the object and read its fields by name; unknown fields are skipped.
+ * Writing is delegated to the reflective adapter of Gson, which is only created when a model is actually written.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public abstract class ModelTypeAdapter<T> extends TypeAdapter<T> {
+
+	protected Gson gson;
+
+	// Used for creating the reflective adapter that writes the model
+	private TypeAdapterFactory skipPast;
+	private TypeToken<T> type;
+	private TypeAdapter<T> delegate;
+
+
+	protected ModelTypeAdapter(Gson gson) {
+		this.gson = gson;
+	}
+
+
+	/**
+	 * Sets the factory and type for which the reflective adapter is created when the model is written
+	 */
+	void setDelegate(TypeAdapterFactory skipPast, TypeToken<T> type) {
+		this.skipPast = skipPast;
+		this.type = type;
+	}
+
+
+	/**
+	 * Creates the empty model object that is filled by readField
+	 */
+	protected abstract T create();
+
+
+	/**
+	 * Reads the value of the field with the given name into the model object
+	 *
+	 * @param value, the model object which is read
+	 * @param name, the name of the field in the JSON
+	 * @param in, the reader, positioned at the value of the field
+	 *
+	 * @return true when the field was read, false when it is unknown and must be skipped
+	 */
+	protected abstract boolean readField(T value, String name, JsonReader in) throws IOException;
+
+
+	@Override
+	public T read(JsonReader in) throws IOException {
+
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+
+		T value = create();
+		in.beginObject();
+		while (in.hasNext()) {
+			if (!readField(value, in.nextName(), in)) {
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		return value;
+	}
+
+
+	@Override
+	public void write(JsonWriter out, T value) throws IOException {
+		synchronized (this) {
+			if (delegate == null) {
+				delegate = gson.getDelegateAdapter(skipPast, type);
+			}
+		}
+		delegate.write(out, value);
+	}
+
+
+	/**
+	 * Reads a String, a number or boolean is read as its String representation
+	 */
+	protected static String readString(JsonReader in) throws IOException {
+		JsonToken token = in.peek();
+		if (token == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		if (token == JsonToken.BOOLEAN) {
+			return Boolean.toString(in.nextBoolean());
+		}
+		return in.nextString();
+	}
+
+
+	/**
+	 * Reads an Integer, which may also be written as a String
+	 */
+	protected static Integer readInteger(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		return in.nextInt();
+	}
+
+
+	/**
+	 * Reads a Long, which may also be written as a String
+	 */
+	protected static Long readLong(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		return in.nextLong();
+	}
+
+
+	/**
+	 * Reads a Boolean, which may also be written as a String
+	 */
+	protected static Boolean readBoolean(JsonReader in) throws IOException {
+		JsonToken token = in.peek();
+		if (token == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		if (token == JsonToken.STRING) {
+			return Boolean.parseBoolean(in.nextString());
+		}
+		return in.nextBoolean();
+	}
+
+
+	/**
+	 * Reads an array with the given adapter for its elements
+	 *
+	 * @return the elements of the array, or null when the array is null
+	 */
+	protected static <E> ArrayList<E> readList(JsonReader in, TypeAdapter<E> elementAdapter) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+
+		ArrayList<E> list = new ArrayList<E>();
+		in.beginArray();
+		while (in.hasNext()) {
+			list.add(elementAdapter.read(in));
+		}
+		in.endArray();
+		return list;
+	}
+
+
+	/**
+	 * Reads an array of Strings
+	 *
+	 * @return the Strings in the array, or null when the array is null
+	 */
+	protected static ArrayList<String> readStringList(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+
+		ArrayList<String> list = new ArrayList<String>();
+		in.beginArray();
+		while (in.hasNext()) {
+			list.add(readString(in));
+		}
+		in.endArray();
+		return list;
+	}
+}
@@ -0,0 +1,124 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.model;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetail;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetailsResponse;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.AccountOnFile;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.AccountOnFileDisplay;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentProduct;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentProductGroup;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentProductGroups;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentProducts;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.DataRestrictions;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.FormElement;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.KeyValuePair;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.PaymentProduct;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.PaymentProductField;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.PaymentProductGroup;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.Tooltip;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.ValueMap;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.displayhints.DisplayHintsAccountOnFile;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.displayhints.DisplayHintsPaymentItem;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.displayhints.DisplayHintsProductFields;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.validation.EmailAddress;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.validation.ExpirationDate;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.validation.FixedList;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.validation.Length;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.validation.Luhn;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.validation.Range;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.validation.RegularExpression;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.validation.Validator;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Gson TypeAdapterFactory which provides the ModelTypeAdapters of all models that are read from the GC gateway
+ * Other types, such as the requests that are sent to the GC gateway, are left to the reflective adapters of Gson
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class ModelTypeAdapterFactory implements TypeAdapterFactory {
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+
+		// Only the exact model classes are handled, subclasses of the models are left to Gson
+		ModelTypeAdapter<T> adapter = (ModelTypeAdapter<T>) createAdapter(gson, type.getRawType());
+		if (adapter != null) {
+			adapter.setDelegate(this, type);
+		}
+		return adapter;
+	}
+
+
+	private ModelTypeAdapter<?> createAdapter(Gson gson, Class<?> model) {
+
+		if (model == BasicPaymentProducts.class) {
+			return new BasicPaymentProducts.JsonTypeAdapter(gson);
+		} else if (model == BasicPaymentProduct.class) {
+			return new BasicPaymentProduct.JsonTypeAdapter(gson);
+		} else if (model == PaymentProduct.class) {
+			return new PaymentProduct.JsonTypeAdapter(gson);
+		} else if (model == BasicPaymentProductGroups.class) {
+			return new BasicPaymentProductGroups.JsonTypeAdapter(gson);
+		} else if (model == BasicPaymentProductGroup.class) {
+			return new BasicPaymentProductGroup.JsonTypeAdapter(gson);
+		} else if (model == PaymentProductGroup.class) {
+			return new PaymentProductGroup.JsonTypeAdapter(gson);
+		} else if (model == AccountOnFile.class) {
+			return new AccountOnFile.JsonTypeAdapter(gson);
+		} else if (model == AccountOnFileDisplay.class) {
+			return new AccountOnFileDisplay.JsonTypeAdapter(gson);
+		} else if (model == KeyValuePair.class) {
+			return new KeyValuePair.JsonTypeAdapter(gson);
+		} else if (model == DisplayHintsPaymentItem.class) {
+			return new DisplayHintsPaymentItem.JsonTypeAdapter(gson);
+		} else if (model == DisplayHintsAccountOnFile.class) {
+			return new DisplayHintsAccountOnFile.JsonTypeAdapter(gson);
+		} else if (model == DisplayHintsProductFields.class) {
+			return new DisplayHintsProductFields.JsonTypeAdapter(gson);
+		} else if (model == PaymentProductField.class) {
+			return new PaymentProductField.JsonTypeAdapter(gson);
+		} else if (model == DataRestrictions.class) {
+			return new DataRestrictions.JsonTypeAdapter(gson);
+		} else if (model == FormElement.class) {
+			return new FormElement.JsonTypeAdapter(gson);
+		} else if (model == ValueMap.class) {
+			return new ValueMap.JsonTypeAdapter(gson);
+		} else if (model == Tooltip.class) {
+			return new Tooltip.JsonTypeAdapter(gson);
+		} else if (model == Validator.class) {
+			return new Validator.JsonTypeAdapter(gson);
+		} else if (model == ExpirationDate.class) {
+			return new ExpirationDate.JsonTypeAdapter(gson);
+		} else if (model == EmailAddress.class) {
+			return new EmailAddress.JsonTypeAdapter(gson);
+		} else if (model == FixedList.class) {
+			return new FixedList.JsonTypeAdapter(gson);
+		} else if (model == Length.class) {
+			return new Length.JsonTypeAdapter(gson);
+		} else if (model == Luhn.class) {
+			return new Luhn.JsonTypeAdapter(gson);
+		} else if (model == Range.class) {
+			return new Range.JsonTypeAdapter(gson);
+		} else if (model == RegularExpression.class) {
+			return new RegularExpression.JsonTypeAdapter(gson);
+		} else if (model == IinDetailsResponse.class) {
+			return new IinDetailsResponse.JsonTypeAdapter(gson);
+		} else if (model == IinDetail.class) {
+			return new IinDetail.JsonTypeAdapter(gson);
+		} else if (model == PublicKeyResponse.class) {
+			return new PublicKeyResponse.JsonTypeAdapter(gson);
+		} else if (model == ConvertedAmountResponse.class) {
+			return new ConvertedAmountResponse.JsonTypeAdapter(gson);
+		} else if (model == PaymentProductDirectoryResponse.class) {
+			return new PaymentProductDirectoryResponse.JsonTypeAdapter(gson);
+		} else if (model == DirectoryEntry.class) {
+			return new DirectoryEntry.JsonTypeAdapter(gson);
+		}
+		return null;
+	}
+}
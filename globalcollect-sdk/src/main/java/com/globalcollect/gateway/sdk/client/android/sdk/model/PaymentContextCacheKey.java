@@ -0,0 +1,85 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.model;
+
+import java.io.Serializable;
+import java.security.InvalidParameterException;
+
+/**
+ * Pojo which holds the PaymentContextCachekey data
+ * It's used to identify calls to the GlobalCollect platform which retrieve a list of payment items for a PaymentContext
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class PaymentContextCacheKey implements Serializable {
+
+	private static final long serialVersionUID = -3209634827410675315L;
+
+	Long amount;
+	CountryCode countryCode;
+	CurrencyCode currencyCode;
+	boolean isRecurring;
+
+
+	public PaymentContextCacheKey(Long amount, CountryCode countryCode, CurrencyCode currencyCode, boolean isRecurring) {
+
+		if (amount == null) {
+			throw new InvalidParameterException("Error creating PaymentContextCacheKey, amount may not be null");
+		}
+		if (countryCode == null) {
+			throw new InvalidParameterException("Error creating PaymentContextCacheKey, countryCode may not be null");
+		}
+		if (currencyCode == null) {
+			throw new InvalidParameterException("Error creating PaymentContextCacheKey, currencyCode may not be null");
+		}
+
+		this.amount = amount;
+		this.countryCode = countryCode;
+		this.currencyCode = currencyCode;
+		this.isRecurring = isRecurring;
+	}
+
+
+	public Long getAmount() {
+		return amount;
+	}
+
+	public CountryCode getCountryCode() {
+		return countryCode;
+	}
+
+	public CurrencyCode getCurrencyCode() {
+		return currencyCode;
+	}
+
+	public boolean getIsRecurring() {
+		return isRecurring;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+
+		if (this == o) {
+			return true;
+		}
+
+		if (o == null || o.getClass() != getClass()) {
+			return false;
+		}
+
+		PaymentContextCacheKey otherKey = (PaymentContextCacheKey)o;
+		return otherKey.getAmount().equals(amount) &&
+			   otherKey.getCountryCode().equals(countryCode) &&
+			   otherKey.getCurrencyCode().equals(currencyCode) &&
+			   otherKey.getIsRecurring() == isRecurring;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 17;
+		hash = 31 * hash + amount.hashCode();
+		hash = 31 * hash + countryCode.hashCode();
+		hash = 31 * hash + currencyCode.hashCode();
+		hash = 31 * hash + Boolean.valueOf(isRecurring).hashCode();
+		return hash;
+	}
+}
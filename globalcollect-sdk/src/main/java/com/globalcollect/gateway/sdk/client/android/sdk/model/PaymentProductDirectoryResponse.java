@@ -1,7 +1,12 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
 /**
  * Pojo that contains the response for PaymentProductDirectory lookup
  * 
@@ -21,4 +26,33 @@ public class PaymentProductDirectoryResponse {
 		return entries;
 	}
 
-}
\ No newline at end of file
+
+	/**
+	 * Reads a PaymentProductDirectoryResponse from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<PaymentProductDirectoryResponse> {
+
+		private TypeAdapter<DirectoryEntry> directoryEntryAdapter;
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+			directoryEntryAdapter = gson.getAdapter(DirectoryEntry.class);
+		}
+
+		@Override
+		protected PaymentProductDirectoryResponse create() {
+			return new PaymentProductDirectoryResponse(null);
+		}
+
+		@Override
+		protected boolean readField(PaymentProductDirectoryResponse value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "entries":
+					value.entries = readList(in, directoryEntryAdapter);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model;
 
+import java.io.IOException;
+import java.io.Serializable;
 import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
@@ -10,6 +12,8 @@ import android.util.Base64;
 import android.util.Log;
 
 import com.globalcollect.gateway.sdk.client.android.sdk.encryption.Encryptor;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
 
 
 /**
@@ -18,8 +22,10 @@ import com.globalcollect.gateway.sdk.client.android.sdk.encryption.Encryptor;
  * Copyright 2014 Global Collect Services B.V
  *
  */
-public class PublicKeyResponse {
+public class PublicKeyResponse implements Serializable {
 	
+	private static final long serialVersionUID = 5128937467401862945L;
+
 	// Tag used for logging
 	private static final String TAG = Encryptor.class.getName();
 	
@@ -28,7 +34,9 @@ public class PublicKeyResponse {
 	
 	private String keyId;
 	private String publicKey;
-	private PublicKey parsedPublicKey;
+
+	// Parsed again after deserialisation
+	private transient PublicKey parsedPublicKey;
 	
 	
 	public PublicKeyResponse(String keyId, String publicKey) {
@@ -83,5 +91,34 @@ public class PublicKeyResponse {
 		
 		return null;
 	}
-	
-}
\ No newline at end of file
+
+
+	/**
+	 * Reads a PublicKeyResponse from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<PublicKeyResponse> {
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+		}
+
+		@Override
+		protected PublicKeyResponse create() {
+			return new PublicKeyResponse(null, null);
+		}
+
+		@Override
+		protected boolean readField(PublicKeyResponse value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "keyId":
+					value.keyId = readString(in);
+					return true;
+				case "publicKey":
+					value.publicKey = readString(in);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
+}
@@ -1,7 +1,11 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.iin;
 
 import com.globalcollect.gateway.sdk.client.android.sdk.model.CountryCode;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
 
+import java.io.IOException;
 import java.io.Serializable;
 
 /**
@@ -48,4 +52,37 @@ public class IinDetail implements Serializable {
         hash = 31 * hash + Boolean.valueOf(isAllowedInContext).hashCode();
         return hash;
     }
+
+
+    /**
+     * Reads an IinDetail from the JSON of the GC gateway, see ModelTypeAdapter
+     */
+    public static class JsonTypeAdapter extends ModelTypeAdapter<IinDetail> {
+
+        public JsonTypeAdapter(Gson gson) {
+            super(gson);
+        }
+
+        @Override
+        protected IinDetail create() {
+            return new IinDetail();
+        }
+
+        @Override
+        protected boolean readField(IinDetail value, String name, JsonReader in) throws IOException {
+            switch (name) {
+                case "paymentProductId":
+                    value.paymentProductId = readString(in);
+                    return true;
+                case "isAllowedInContext":
+                    Boolean isAllowedInContext = readBoolean(in);
+                    if (isAllowedInContext != null) {
+                        value.isAllowedInContext = isAllowedInContext;
+                    }
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
 }
@@ -1,7 +1,12 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.iin;
 
 import com.globalcollect.gateway.sdk.client.android.sdk.model.CountryCode;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.security.InvalidParameterException;
 import java.util.List;
@@ -30,6 +35,11 @@ public class IinDetailsResponse implements Serializable {
 		this.status = status;
 	}
 
+	public IinDetailsResponse(String paymentProductId, IinStatus status) {
+		this(status);
+		this.paymentProductId = paymentProductId;
+	}
+
 	public String getPaymentProductId() {
 		return paymentProductId;
 	}
@@ -103,4 +113,53 @@ public class IinDetailsResponse implements Serializable {
 		hash = 31 * hash + Boolean.valueOf(isAllowedInContext).hashCode();
 		return hash;
 	}
-}
\ No newline at end of file
+
+
+	/**
+	 * Reads an IinDetailsResponse from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<IinDetailsResponse> {
+
+		private TypeAdapter<CountryCode> countryCodeAdapter;
+		private TypeAdapter<IinDetail> iinDetailAdapter;
+		private TypeAdapter<IinStatus> statusAdapter;
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+			countryCodeAdapter = gson.getAdapter(CountryCode.class);
+			iinDetailAdapter = gson.getAdapter(IinDetail.class);
+			statusAdapter = gson.getAdapter(IinStatus.class);
+		}
+
+		@Override
+		protected IinDetailsResponse create() {
+			return new IinDetailsResponse(null);
+		}
+
+		@Override
+		protected boolean readField(IinDetailsResponse value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "paymentProductId":
+					value.paymentProductId = readString(in);
+					return true;
+				case "countryCode":
+					value.countryCode = countryCodeAdapter.read(in);
+					return true;
+				case "isAllowedInContext":
+					Boolean isAllowedInContext = readBoolean(in);
+					if (isAllowedInContext != null) {
+						value.isAllowedInContext = isAllowedInContext;
+					}
+					return true;
+				case "coBrands":
+					value.coBrands = readList(in, iinDetailAdapter);
+					return true;
+				case "status":
+					value.status = statusAdapter.read(in);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
+}
@@ -4,5 +4,11 @@ public enum IinStatus {
 	SUPPORTED,
 	UNKNOWN,
 	NOT_ENOUGH_DIGITS,
-	EXISTING_BUT_NOT_ALLOWED
+	EXISTING_BUT_NOT_ALLOWED,
+
+	// The IIN details endpoint keeps failing, so no lookup was done
+	UNAVAILABLE,
+
+	// The brand was recognised by the BinRangeTable, the GC gateway has not confirmed it yet
+	PROVISIONAL
 }
\ No newline at end of file
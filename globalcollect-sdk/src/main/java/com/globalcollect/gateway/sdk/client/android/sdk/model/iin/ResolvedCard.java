@@ -0,0 +1,66 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.model.iin;
+
+import java.util.List;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.PaymentProduct;
+
+/**
+ * Pojo that contains everything that is needed to render the form for a creditcardnumber whose IinDetails are known:
+ * the IinDetailsResponse, the PaymentProduct of its brand and the PaymentProducts of its co-brands, with their logos set
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class ResolvedCard {
+
+	private IinDetailsResponse iinDetailsResponse;
+	private PaymentProduct paymentProduct;
+	private List<PaymentProduct> coBrands;
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param iinDetailsResponse, the response of the IIN lookup
+	 * @param paymentProduct, the PaymentProduct of the brand, or null when it could not be loaded
+	 * @param coBrands, the PaymentProducts of the co-brands that are allowed in context and could be loaded
+	 */
+	public ResolvedCard(IinDetailsResponse iinDetailsResponse, PaymentProduct paymentProduct, List<PaymentProduct> coBrands) {
+		this.iinDetailsResponse = iinDetailsResponse;
+		this.paymentProduct = paymentProduct;
+		this.coBrands = coBrands;
+	}
+
+	public IinDetailsResponse getIinDetailsResponse() {
+		return iinDetailsResponse;
+	}
+
+	public PaymentProduct getPaymentProduct() {
+		return paymentProduct;
+	}
+
+	public List<PaymentProduct> getCoBrands() {
+		return coBrands;
+	}
+
+
+	/**
+	 * Gets the PaymentProduct with the given id, from the brand and the co-brands
+	 *
+	 * @param paymentProductId, the id of the PaymentProduct
+	 *
+	 * @return the PaymentProduct, or null when it is not part of this card
+	 */
+	public PaymentProduct getPaymentProduct(String paymentProductId) {
+
+		if (paymentProduct != null && paymentProduct.getId().equals(paymentProductId)) {
+			return paymentProduct;
+		}
+		for (PaymentProduct coBrand : coBrands) {
+			if (coBrand.getId().equals(paymentProductId)) {
+				return coBrand;
+			}
+		}
+		return null;
+	}
+}
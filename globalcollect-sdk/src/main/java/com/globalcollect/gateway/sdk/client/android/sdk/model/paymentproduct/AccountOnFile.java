@@ -1,10 +1,15 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.displayhints.DisplayHintsAccountOnFile;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
 
 
 /**
@@ -63,4 +68,45 @@ public class AccountOnFile implements Serializable {
 			
 		return label;
 	}
-}
\ No newline at end of file
+
+
+	/**
+	 * Reads an AccountOnFile from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<AccountOnFile> {
+
+		private TypeAdapter<DisplayHintsAccountOnFile> displayHintsAdapter;
+		private TypeAdapter<KeyValuePair> keyValuePairAdapter;
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+			displayHintsAdapter = gson.getAdapter(DisplayHintsAccountOnFile.class);
+			keyValuePairAdapter = gson.getAdapter(KeyValuePair.class);
+		}
+
+		@Override
+		protected AccountOnFile create() {
+			return new AccountOnFile();
+		}
+
+		@Override
+		protected boolean readField(AccountOnFile value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "id":
+					value.id = readInteger(in);
+					return true;
+				case "paymentProductId":
+					value.paymentProductId = readInteger(in);
+					return true;
+				case "displayHints":
+					value.displayHints = displayHintsAdapter.read(in);
+					return true;
+				case "attributes":
+					value.attributes = readList(in, keyValuePairAdapter);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
+}
@@ -1,7 +1,12 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
 
 /**
  * POJO that represents an AccountOnFile object
@@ -29,5 +34,34 @@ public class AccountOnFileDisplay implements Serializable {
 	public String getMask() {
 		return mask;
 	}
-	
-}
\ No newline at end of file
+
+
+	/**
+	 * Reads an AccountOnFileDisplay from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<AccountOnFileDisplay> {
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+		}
+
+		@Override
+		protected AccountOnFileDisplay create() {
+			return new AccountOnFileDisplay(null, null);
+		}
+
+		@Override
+		protected boolean readField(AccountOnFileDisplay value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "attributeKey":
+					value.attributeKey = readString(in);
+					return true;
+				case "mask":
+					value.mask = readString(in);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
+}
@@ -1,7 +1,12 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.displayhints.DisplayHintsPaymentItem;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
@@ -97,4 +102,83 @@ public class BasicPaymentProduct implements BasicPaymentItem, Serializable {
 		return displayHints;
 	}
 
-}
\ No newline at end of file
+
+	/**
+	 * Reads the fields of a BasicPaymentProduct from the JSON of the GC gateway, see ModelTypeAdapter
+	 * Also used for reading PaymentProduct, which adds its fields to these
+	 */
+	static abstract class AbstractJsonTypeAdapter<T extends BasicPaymentProduct> extends ModelTypeAdapter<T> {
+
+		private TypeAdapter<MobileIntegrationLevel> mobileIntegrationLevelAdapter;
+		private TypeAdapter<DisplayHintsPaymentItem> displayHintsAdapter;
+		private TypeAdapter<AccountOnFile> accountOnFileAdapter;
+
+		AbstractJsonTypeAdapter(Gson gson) {
+			super(gson);
+			mobileIntegrationLevelAdapter = gson.getAdapter(MobileIntegrationLevel.class);
+			displayHintsAdapter = gson.getAdapter(DisplayHintsPaymentItem.class);
+			accountOnFileAdapter = gson.getAdapter(AccountOnFile.class);
+		}
+
+		@Override
+		protected boolean readField(T value, String name, JsonReader in) throws IOException {
+			BasicPaymentProduct product = value;
+			switch (name) {
+				case "id":
+					product.id = readString(in);
+					return true;
+				case "paymentMethod":
+					product.paymentMethod = readString(in);
+					return true;
+				case "paymentProductGroup":
+					product.paymentProductGroup = readString(in);
+					return true;
+				case "minAmount":
+					product.minAmount = readLong(in);
+					return true;
+				case "maxAmount":
+					product.maxAmount = readLong(in);
+					return true;
+				case "allowsRecurring":
+					product.allowsRecurring = readBoolean(in);
+					return true;
+				case "allowsTokenization":
+					product.allowsTokenization = readBoolean(in);
+					return true;
+				case "autoTokenized":
+					product.autoTokenized = readBoolean(in);
+					return true;
+				case "usesRedirectionTo3rdParty":
+					product.usesRedirectionTo3rdParty = readBoolean(in);
+					return true;
+				case "mobileIntegrationLevel":
+					product.mobileIntegrationLevel = mobileIntegrationLevelAdapter.read(in);
+					return true;
+				case "displayHints":
+					product.displayHints = displayHintsAdapter.read(in);
+					return true;
+				case "accountsOnFile":
+					product.accountsOnFile = readList(in, accountOnFileAdapter);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
+
+
+	/**
+	 * Reads a BasicPaymentProduct from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends AbstractJsonTypeAdapter<BasicPaymentProduct> {
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+		}
+
+		@Override
+		protected BasicPaymentProduct create() {
+			return new BasicPaymentProduct();
+		}
+	}
+}
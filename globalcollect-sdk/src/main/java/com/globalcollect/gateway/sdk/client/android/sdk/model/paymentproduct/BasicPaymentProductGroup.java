@@ -1,7 +1,12 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.displayhints.DisplayHintsPaymentItem;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
@@ -52,4 +57,55 @@ public class BasicPaymentProductGroup implements BasicPaymentItem, Serializable
     public DisplayHintsPaymentItem getDisplayHints(){
         return displayHints;
     }
+
+
+    /**
+     * Reads the fields of a BasicPaymentProductGroup from the JSON of the GC gateway, see ModelTypeAdapter
+     * Also used for reading PaymentProductGroup, which adds its fields to these
+     */
+    static abstract class AbstractJsonTypeAdapter<T extends BasicPaymentProductGroup> extends ModelTypeAdapter<T> {
+
+        private TypeAdapter<DisplayHintsPaymentItem> displayHintsAdapter;
+        private TypeAdapter<AccountOnFile> accountOnFileAdapter;
+
+        AbstractJsonTypeAdapter(Gson gson) {
+            super(gson);
+            displayHintsAdapter = gson.getAdapter(DisplayHintsPaymentItem.class);
+            accountOnFileAdapter = gson.getAdapter(AccountOnFile.class);
+        }
+
+        @Override
+        protected boolean readField(T value, String name, JsonReader in) throws IOException {
+            BasicPaymentProductGroup group = value;
+            switch (name) {
+                case "id":
+                    group.id = readString(in);
+                    return true;
+                case "displayHints":
+                    group.displayHints = displayHintsAdapter.read(in);
+                    return true;
+                case "accountsOnFile":
+                    group.accountsOnFile = readList(in, accountOnFileAdapter);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+
+    /**
+     * Reads a BasicPaymentProductGroup from the JSON of the GC gateway, see ModelTypeAdapter
+     */
+    public static class JsonTypeAdapter extends AbstractJsonTypeAdapter<BasicPaymentProductGroup> {
+
+        public JsonTypeAdapter(Gson gson) {
+            super(gson);
+        }
+
+        @Override
+        protected BasicPaymentProductGroup create() {
+            return new BasicPaymentProductGroup();
+        }
+    }
 }
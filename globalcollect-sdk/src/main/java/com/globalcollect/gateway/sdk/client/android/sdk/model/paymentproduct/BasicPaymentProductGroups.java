@@ -1,7 +1,12 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
@@ -110,4 +115,39 @@ public class BasicPaymentProductGroups implements Serializable {
         }
         return basicPaymentItems;
     }
+
+
+    /**
+     * Reads BasicPaymentProductGroups from the JSON of the GC gateway, see ModelTypeAdapter
+     */
+    public static class JsonTypeAdapter extends ModelTypeAdapter<BasicPaymentProductGroups> {
+
+        private TypeAdapter<BasicPaymentProductGroup> paymentProductGroupAdapter;
+        private TypeAdapter<AccountOnFile> accountOnFileAdapter;
+
+        public JsonTypeAdapter(Gson gson) {
+            super(gson);
+            paymentProductGroupAdapter = gson.getAdapter(BasicPaymentProductGroup.class);
+            accountOnFileAdapter = gson.getAdapter(AccountOnFile.class);
+        }
+
+        @Override
+        protected BasicPaymentProductGroups create() {
+            return new BasicPaymentProductGroups();
+        }
+
+        @Override
+        protected boolean readField(BasicPaymentProductGroups value, String name, JsonReader in) throws IOException {
+            switch (name) {
+                case "paymentProductGroups":
+                    value.basicPaymentProductGroups = readList(in, paymentProductGroupAdapter);
+                    return true;
+                case "accountsOnFile":
+                    value.accountsOnFile = readList(in, accountOnFileAdapter);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
 }
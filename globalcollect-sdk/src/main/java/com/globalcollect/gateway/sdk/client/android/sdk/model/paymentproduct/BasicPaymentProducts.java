@@ -1,7 +1,12 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
@@ -133,4 +138,39 @@ public class BasicPaymentProducts implements Serializable {
 		}
 		return basicPaymentItems;
 	}
-}
\ No newline at end of file
+
+
+	/**
+	 * Reads BasicPaymentProducts from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<BasicPaymentProducts> {
+
+		private TypeAdapter<BasicPaymentProduct> paymentProductAdapter;
+		private TypeAdapter<AccountOnFile> accountOnFileAdapter;
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+			paymentProductAdapter = gson.getAdapter(BasicPaymentProduct.class);
+			accountOnFileAdapter = gson.getAdapter(AccountOnFile.class);
+		}
+
+		@Override
+		protected BasicPaymentProducts create() {
+			return new BasicPaymentProducts();
+		}
+
+		@Override
+		protected boolean readField(BasicPaymentProducts value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "paymentProducts":
+					value.basicPaymentProducts = readList(in, paymentProductAdapter);
+					return true;
+				case "accountsOnFile":
+					value.accountsOnFile = readList(in, accountOnFileAdapter);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
+}
@@ -1,9 +1,11 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.validation.Validator;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.validation.AbstractValidationRule;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.validation.ValidationRuleEmailAddress;
@@ -14,6 +16,9 @@ import com.globalcollect.gateway.sdk.client.android.sdk.model.validation.Validat
 import com.globalcollect.gateway.sdk.client.android.sdk.model.validation.ValidationRuleRange;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.validation.ValidationRuleRegex;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.validation.ValidationType;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
 
 
 /**
@@ -99,6 +104,37 @@ public class DataRestrictions implements Serializable {
 	public Boolean isRequired() {
 		return isRequired;
 	}
-	
-	
-}
\ No newline at end of file
+
+
+	/**
+	 * Reads DataRestrictions from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<DataRestrictions> {
+
+		private TypeAdapter<Validator> validatorAdapter;
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+			validatorAdapter = gson.getAdapter(Validator.class);
+		}
+
+		@Override
+		protected DataRestrictions create() {
+			return new DataRestrictions();
+		}
+
+		@Override
+		protected boolean readField(DataRestrictions value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "isRequired":
+					value.isRequired = readBoolean(in);
+					return true;
+				case "validators":
+					value.validators = validatorAdapter.read(in);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
+}
@@ -1,10 +1,15 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
 
 
 /**
@@ -47,4 +52,39 @@ public class FormElement implements Serializable {
 	public List<ValueMap> getValueMapping(){
 		return valueMapping;
 	}
-}
\ No newline at end of file
+
+
+	/**
+	 * Reads a FormElement from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<FormElement> {
+
+		private TypeAdapter<ListType> typeAdapter;
+		private TypeAdapter<ValueMap> valueMapAdapter;
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+			typeAdapter = gson.getAdapter(ListType.class);
+			valueMapAdapter = gson.getAdapter(ValueMap.class);
+		}
+
+		@Override
+		protected FormElement create() {
+			return new FormElement();
+		}
+
+		@Override
+		protected boolean readField(FormElement value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "type":
+					value.type = typeAdapter.read(in);
+					return true;
+				case "valueMapping":
+					value.valueMapping = readList(in, valueMapAdapter);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
+}
@@ -1,7 +1,13 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
 /**
  * POJO that represents an KeyValuePair object
  * This class is filled by deserialising a JSON string from the GC gateway
@@ -78,4 +84,43 @@ public class KeyValuePair implements Serializable {
 	public boolean isEditingAllowed() {
 		return status != null && status.isEditingAllowed();
 	}
+
+
+	/**
+	 * Reads a KeyValuePair from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<KeyValuePair> {
+
+		private TypeAdapter<Status> statusAdapter;
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+			statusAdapter = gson.getAdapter(Status.class);
+		}
+
+		@Override
+		protected KeyValuePair create() {
+			return new KeyValuePair();
+		}
+
+		@Override
+		protected boolean readField(KeyValuePair value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "key":
+					value.key = readString(in);
+					return true;
+				case "value":
+					value.value = readString(in);
+					return true;
+				case "status":
+					value.status = statusAdapter.read(in);
+					return true;
+				case "mustWriteReason":
+					value.mustWriteReason = readString(in);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
 }
@@ -1,11 +1,16 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
 /**
  * Pojo which holds the BasicPaymentProduct data and it's PaymentProductFields
  * This class is filled by deserialising a JSON string from the GC gateway
@@ -59,4 +64,32 @@ public class PaymentProduct extends BasicPaymentProduct implements PaymentItem,
 			hasBeenSorted = true;
 		}
 	}
+
+
+	/**
+	 * Reads a PaymentProduct from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends AbstractJsonTypeAdapter<PaymentProduct> {
+
+		private TypeAdapter<PaymentProductField> fieldAdapter;
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+			fieldAdapter = gson.getAdapter(PaymentProductField.class);
+		}
+
+		@Override
+		protected PaymentProduct create() {
+			return new PaymentProduct();
+		}
+
+		@Override
+		protected boolean readField(PaymentProduct value, String name, JsonReader in) throws IOException {
+			if (name.equals("fields")) {
+				value.fields = readList(in, fieldAdapter);
+				return true;
+			}
+			return super.readField(value, name, in);
+		}
+	}
 }
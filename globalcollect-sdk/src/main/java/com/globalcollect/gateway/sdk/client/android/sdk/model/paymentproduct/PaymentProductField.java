@@ -1,15 +1,20 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 import com.globalcollect.gateway.sdk.client.android.sdk.formatter.StringFormatter;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.FormatResult;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.displayhints.DisplayHintsProductFields;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.validation.AbstractValidationRule;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.validation.ValidationErrorMessage;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
 
 /**
  * Represents a PaymentProductField object
@@ -156,6 +161,48 @@ public class PaymentProductField implements Serializable {
 	 */
 	public String removeMask(String value){
 		return formatter.removeMask(displayHints.getMask(), value);
-	}	
-		
-}
\ No newline at end of file
+	}
+
+
+	/**
+	 * Reads a PaymentProductField from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<PaymentProductField> {
+
+		private TypeAdapter<Type> typeAdapter;
+		private TypeAdapter<DisplayHintsProductFields> displayHintsAdapter;
+		private TypeAdapter<DataRestrictions> dataRestrictionsAdapter;
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+			typeAdapter = gson.getAdapter(Type.class);
+			displayHintsAdapter = gson.getAdapter(DisplayHintsProductFields.class);
+			dataRestrictionsAdapter = gson.getAdapter(DataRestrictions.class);
+		}
+
+		@Override
+		protected PaymentProductField create() {
+			return new PaymentProductField();
+		}
+
+		@Override
+		protected boolean readField(PaymentProductField value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "id":
+					value.id = readString(in);
+					return true;
+				case "type":
+					value.type = typeAdapter.read(in);
+					return true;
+				case "displayHints":
+					value.displayHints = displayHintsAdapter.read(in);
+					return true;
+				case "dataRestrictions":
+					value.dataRestrictions = dataRestrictionsAdapter.read(in);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
+}
@@ -1,7 +1,12 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
 /**
  * Pojo that represents a Tooltip object
  * This class is filled by deserialising a JSON string from the GC gateway
@@ -27,4 +32,34 @@ public class Tooltip implements Serializable {
 	public String getLabel(){
 		return label;
 	}
+
+
+	/**
+	 * Reads a Tooltip from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<Tooltip> {
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+		}
+
+		@Override
+		protected Tooltip create() {
+			return new Tooltip();
+		}
+
+		@Override
+		protected boolean readField(Tooltip value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "image":
+					value.image = readString(in);
+					return true;
+				case "label":
+					value.label = readString(in);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
 }
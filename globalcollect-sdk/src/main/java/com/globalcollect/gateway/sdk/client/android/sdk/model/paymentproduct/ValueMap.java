@@ -1,7 +1,12 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
 /**
  * Pojo which holds the ValueMap data and it's PaymentProductFields
  * This class is filled by deserialising a JSON string from the GC gateway
@@ -28,4 +33,34 @@ public class ValueMap implements Serializable{
 	public String getDisplayName() {
 		return displayName;
 	}
+
+
+	/**
+	 * Reads a ValueMap from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<ValueMap> {
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+		}
+
+		@Override
+		protected ValueMap create() {
+			return new ValueMap();
+		}
+
+		@Override
+		protected boolean readField(ValueMap value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "value":
+					value.value = readString(in);
+					return true;
+				case "displayName":
+					value.displayName = readString(in);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
 }
@@ -1,10 +1,15 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.displayhints;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.AccountOnFileDisplay;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
 
 /**
  * POJO that represents an DisplayHintsAccountOnFile object
@@ -24,4 +29,34 @@ public class DisplayHintsAccountOnFile implements Serializable {
 	public List<AccountOnFileDisplay> getLabelTemplate(){
 		return labelTemplate;
 	}
-}
\ No newline at end of file
+
+
+	/**
+	 * Reads DisplayHintsAccountOnFile from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<DisplayHintsAccountOnFile> {
+
+		private TypeAdapter<AccountOnFileDisplay> accountOnFileDisplayAdapter;
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+			accountOnFileDisplayAdapter = gson.getAdapter(AccountOnFileDisplay.class);
+		}
+
+		@Override
+		protected DisplayHintsAccountOnFile create() {
+			return new DisplayHintsAccountOnFile();
+		}
+
+		@Override
+		protected boolean readField(DisplayHintsAccountOnFile value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "labelTemplate":
+					value.labelTemplate = readList(in, accountOnFileDisplayAdapter);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
+}
@@ -1,10 +1,14 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.displayhints;
 
+import java.io.IOException;
 import java.io.Serializable;
 
 import android.graphics.drawable.Drawable;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
+import com.google.gson.Gson;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
 
 /**
  * POJO that represents an DisplayHintsPaymentItem object
@@ -54,4 +58,37 @@ public class DisplayHintsPaymentItem implements Serializable{
 	public void setLogoUrl(String logoUrl) {
 		this.logoUrl = logoUrl;
 	}
+
+
+	/**
+	 * Reads DisplayHintsPaymentItem from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<DisplayHintsPaymentItem> {
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+		}
+
+		@Override
+		protected DisplayHintsPaymentItem create() {
+			return new DisplayHintsPaymentItem();
+		}
+
+		@Override
+		protected boolean readField(DisplayHintsPaymentItem value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "displayOrder":
+					value.displayOrder = readInteger(in);
+					return true;
+				case "label":
+					value.label = readString(in);
+					return true;
+				case "logo":
+					value.logoUrl = readString(in);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
 }
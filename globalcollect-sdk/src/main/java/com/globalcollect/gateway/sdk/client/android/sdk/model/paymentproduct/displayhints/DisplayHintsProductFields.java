@@ -1,10 +1,15 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.displayhints;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.FormElement;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.Tooltip;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
 
 /**
  * POJO that represents an DisplayHintsProductFields object
@@ -94,7 +99,61 @@ public class DisplayHintsProductFields implements Serializable {
 		return serialVersionUID;
 	}
 
-	
-	
-	
-}
\ No newline at end of file
+
+	/**
+	 * Reads DisplayHintsProductFields from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<DisplayHintsProductFields> {
+
+		private TypeAdapter<PreferredInputType> preferredInputTypeAdapter;
+		private TypeAdapter<Tooltip> tooltipAdapter;
+		private TypeAdapter<FormElement> formElementAdapter;
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+			preferredInputTypeAdapter = gson.getAdapter(PreferredInputType.class);
+			tooltipAdapter = gson.getAdapter(Tooltip.class);
+			formElementAdapter = gson.getAdapter(FormElement.class);
+		}
+
+		@Override
+		protected DisplayHintsProductFields create() {
+			return new DisplayHintsProductFields();
+		}
+
+		@Override
+		protected boolean readField(DisplayHintsProductFields value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "alwaysShow":
+					value.alwaysShow = readBoolean(in);
+					return true;
+				case "obfuscate":
+					value.obfuscate = readBoolean(in);
+					return true;
+				case "displayOrder":
+					value.displayOrder = readInteger(in);
+					return true;
+				case "label":
+					value.label = readString(in);
+					return true;
+				case "placeholderLabel":
+					value.placeholderLabel = readString(in);
+					return true;
+				case "mask":
+					value.mask = readString(in);
+					return true;
+				case "preferredInputType":
+					value.preferredInputType = preferredInputTypeAdapter.read(in);
+					return true;
+				case "tooltip":
+					value.tooltip = tooltipAdapter.read(in);
+					return true;
+				case "formElement":
+					value.formElement = formElementAdapter.read(in);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
+}
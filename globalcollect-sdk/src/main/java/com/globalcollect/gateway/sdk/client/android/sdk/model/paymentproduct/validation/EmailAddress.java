@@ -1,7 +1,12 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.validation;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
 /**
  * Pojo which holds the EmailAddress data
  * This class is filled by deserialising a JSON string from the GC gateway
@@ -17,5 +22,26 @@ public class EmailAddress implements Serializable {
 	 */
 	private static final long serialVersionUID = -2599214976694861251L;
 
-	
+
+	/**
+	 * Reads an EmailAddress from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<EmailAddress> {
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+		}
+
+		@Override
+		protected EmailAddress create() {
+			return new EmailAddress();
+		}
+
+		@Override
+		protected boolean readField(EmailAddress value, String name, JsonReader in) throws IOException {
+
+			// EmailAddress has no fields, its presence is all that matters
+			return false;
+		}
+	}
 }
@@ -1,7 +1,12 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.validation;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
 /**
  * Pojo which holds the ExpirationDate data
  * This class is filled by deserialising a JSON string from the GC gateway
@@ -17,4 +22,26 @@ public class ExpirationDate implements Serializable {
 	 */
 	private static final long serialVersionUID = -4759119724035738836L;
 
+
+	/**
+	 * Reads an ExpirationDate from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<ExpirationDate> {
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+		}
+
+		@Override
+		protected ExpirationDate create() {
+			return new ExpirationDate();
+		}
+
+		@Override
+		protected boolean readField(ExpirationDate value, String name, JsonReader in) throws IOException {
+
+			// ExpirationDate has no fields, its presence is all that matters
+			return false;
+		}
+	}
 }
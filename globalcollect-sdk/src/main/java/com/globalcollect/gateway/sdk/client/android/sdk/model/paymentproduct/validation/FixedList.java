@@ -1,9 +1,14 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.validation;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
 /**
  * Pojo which holds the FixedList data
  * This class is filled by deserialising a JSON string from the GC gateway
@@ -24,4 +29,31 @@ public class FixedList implements Serializable {
 	public List<String> getAllowedValues(){
 		return allowedValues;
 	}
+
+
+	/**
+	 * Reads a FixedList from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<FixedList> {
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+		}
+
+		@Override
+		protected FixedList create() {
+			return new FixedList();
+		}
+
+		@Override
+		protected boolean readField(FixedList value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "allowedValues":
+					value.allowedValues = readStringList(in);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
 }
@@ -1,7 +1,12 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.validation;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
 /**
  * Pojo which holds the Length data
  * This class is filled by deserialising a JSON string from the GC gateway
@@ -27,4 +32,34 @@ public class Length implements Serializable {
 	public Integer getMaxLength(){
 		return maxLength;
 	}
+
+
+	/**
+	 * Reads a Length from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<Length> {
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+		}
+
+		@Override
+		protected Length create() {
+			return new Length();
+		}
+
+		@Override
+		protected boolean readField(Length value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "minLength":
+					value.minLength = readInteger(in);
+					return true;
+				case "maxLength":
+					value.maxLength = readInteger(in);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
 }
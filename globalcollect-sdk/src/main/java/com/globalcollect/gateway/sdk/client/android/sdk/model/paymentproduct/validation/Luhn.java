@@ -1,7 +1,12 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.validation;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
 /**
  * Pojo which holds the Luhn data
  * This class is filled by deserialising a JSON string from the GC gateway
@@ -17,4 +22,26 @@ public class Luhn implements Serializable {
 	 */
 	private static final long serialVersionUID = -1145093943834460166L;
 
+
+	/**
+	 * Reads a Luhn from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<Luhn> {
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+		}
+
+		@Override
+		protected Luhn create() {
+			return new Luhn();
+		}
+
+		@Override
+		protected boolean readField(Luhn value, String name, JsonReader in) throws IOException {
+
+			// Luhn has no fields, its presence is all that matters
+			return false;
+		}
+	}
 }
@@ -1,7 +1,12 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.validation;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
 /**
  * Pojo which holds the Range data
  * This class is filled by deserialising a JSON string from the GC gateway
@@ -27,4 +32,34 @@ public class Range implements Serializable {
 	public Integer getMaxValue(){
 		return maxValue;
 	}
+
+
+	/**
+	 * Reads a Range from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<Range> {
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+		}
+
+		@Override
+		protected Range create() {
+			return new Range();
+		}
+
+		@Override
+		protected boolean readField(Range value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "minValue":
+					value.minValue = readInteger(in);
+					return true;
+				case "maxValue":
+					value.maxValue = readInteger(in);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
 }
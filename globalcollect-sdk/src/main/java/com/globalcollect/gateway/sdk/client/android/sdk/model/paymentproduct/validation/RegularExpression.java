@@ -1,7 +1,12 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.validation;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
 /**
  * Pojo which holds the RegularExpression data
  * This class is filled by deserialising a JSON string from the GC gateway
@@ -22,4 +27,31 @@ public class RegularExpression implements Serializable {
 	public String getRegularExpression(){
 		return regularExpression;
 	}
+
+
+	/**
+	 * Reads a RegularExpression from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<RegularExpression> {
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+		}
+
+		@Override
+		protected RegularExpression create() {
+			return new RegularExpression();
+		}
+
+		@Override
+		protected boolean readField(RegularExpression value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "regularExpression":
+					value.regularExpression = readString(in);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
 }
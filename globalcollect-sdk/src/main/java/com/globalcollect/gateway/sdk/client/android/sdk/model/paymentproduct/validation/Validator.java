@@ -1,7 +1,13 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.validation;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import com.globalcollect.gateway.sdk.client.android.sdk.model.ModelTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
 /**
  * Pojo which holds the Validator data
  * This class is filled by deserialising a JSON string from the GC gateway
@@ -53,5 +59,64 @@ public class Validator implements Serializable {
 	public RegularExpression getRegularExpression(){
 		return regularExpression;
 	}
-	
+
+
+	/**
+	 * Reads a Validator from the JSON of the GC gateway, see ModelTypeAdapter
+	 */
+	public static class JsonTypeAdapter extends ModelTypeAdapter<Validator> {
+
+		private TypeAdapter<ExpirationDate> expirationDateAdapter;
+		private TypeAdapter<EmailAddress> emailAddressAdapter;
+		private TypeAdapter<FixedList> fixedListAdapter;
+		private TypeAdapter<Length> lengthAdapter;
+		private TypeAdapter<Luhn> luhnAdapter;
+		private TypeAdapter<Range> rangeAdapter;
+		private TypeAdapter<RegularExpression> regularExpressionAdapter;
+
+		public JsonTypeAdapter(Gson gson) {
+			super(gson);
+			expirationDateAdapter = gson.getAdapter(ExpirationDate.class);
+			emailAddressAdapter = gson.getAdapter(EmailAddress.class);
+			fixedListAdapter = gson.getAdapter(FixedList.class);
+			lengthAdapter = gson.getAdapter(Length.class);
+			luhnAdapter = gson.getAdapter(Luhn.class);
+			rangeAdapter = gson.getAdapter(Range.class);
+			regularExpressionAdapter = gson.getAdapter(RegularExpression.class);
+		}
+
+		@Override
+		protected Validator create() {
+			return new Validator();
+		}
+
+		@Override
+		protected boolean readField(Validator value, String name, JsonReader in) throws IOException {
+			switch (name) {
+				case "expirationDate":
+					value.expirationDate = expirationDateAdapter.read(in);
+					return true;
+				case "emailAddress":
+					value.emailAddress = emailAddressAdapter.read(in);
+					return true;
+				case "fixedList":
+					value.fixedList = fixedListAdapter.read(in);
+					return true;
+				case "length":
+					value.length = lengthAdapter.read(in);
+					return true;
+				case "luhn":
+					value.luhn = luhnAdapter.read(in);
+					return true;
+				case "range":
+					value.range = rangeAdapter.read(in);
+					return true;
+				case "regularExpression":
+					value.regularExpression = regularExpressionAdapter.read(in);
+					return true;
+				default:
+					return false;
+			}
+		}
+	}
 }
@@ -0,0 +1,88 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.session;
+
+import java.util.List;
+
+/**
+ * Handle which is returned by the operations of the GcSession, and which cancels the operation
+ *
+ * After cancel() the listener of the operation is no longer called. When no other caller waits for the same call
+ * to the GC gateway, that call is aborted as well, including its connection, so its worker thread is freed right away.
+ * Cancelling an operation that has already completed has no effect.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class CancellationHandle {
+
+	// The call which is executed for the operation, null when the operation completed right away
+	private GcCall call;
+
+	// The listener of the operation, and the listeners of the call it is removed from
+	private List<?> listeners;
+	private Object listener;
+
+	// Handles of the calls of an operation that consists of more than one call
+	private CancellationHandle[] parts;
+
+	private boolean cancelled = false;
+
+
+	/**
+	 * Creates a handle for an operation that completed right away, for instance from the cache of the GcSession
+	 */
+	CancellationHandle() {
+	}
+
+
+	/**
+	 * Creates a handle for a caller of the given call
+	 *
+	 * @param call, the call which is executed for the operation
+	 * @param listeners, the listeners of the call, or null when the call has only the listener of this caller
+	 * @param listener, the listener of this caller
+	 */
+	CancellationHandle(GcCall call, List<?> listeners, Object listener) {
+		this.call = call;
+		this.listeners = listeners;
+		this.listener = listener;
+		call.retain();
+	}
+
+
+	/**
+	 * Creates a handle for an operation that consists of the given parts
+	 */
+	CancellationHandle(CancellationHandle... parts) {
+		this.parts = parts;
+	}
+
+
+	/**
+	 * Cancels the operation, its listener will not be called anymore
+	 */
+	public void cancel() {
+
+		synchronized (this) {
+			if (cancelled) {
+				return;
+			}
+			cancelled = true;
+		}
+
+		if (listeners != null) {
+			listeners.remove(listener);
+		}
+		if (call != null) {
+			call.release();
+		}
+		if (parts != null) {
+			for (CancellationHandle part : parts) {
+				part.cancel();
+			}
+		}
+	}
+
+	public synchronized boolean isCancelled() {
+		return cancelled;
+	}
+}
@@ -0,0 +1,60 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.session;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the CancellationHandles of the operations that belong to one lifecycle, for instance those of an Activity,
+ * so they can all be cancelled at once when that lifecycle ends
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class CancellationScope {
+
+	private List<CancellationHandle> handles = new ArrayList<CancellationHandle>();
+	private boolean cancelled = false;
+
+
+	/**
+	 * Adds the handle to this scope; when the scope is already cancelled, the handle is cancelled right away
+	 *
+	 * @param handle, the handle of the operation
+	 *
+	 * @return the given handle
+	 */
+	public CancellationHandle add(CancellationHandle handle) {
+
+		boolean cancelHandle;
+		synchronized (this) {
+			cancelHandle = cancelled;
+			if (!cancelled) {
+				handles.add(handle);
+			}
+		}
+
+		if (cancelHandle) {
+			handle.cancel();
+		}
+		return handle;
+	}
+
+
+	/**
+	 * Cancels all operations of this scope, and every operation that is added to it afterwards
+	 * Call this when the lifecycle ends, for instance from Activity.onDestroy()
+	 */
+	public void cancelAll() {
+
+		List<CancellationHandle> handlesToCancel;
+		synchronized (this) {
+			cancelled = true;
+			handlesToCancel = handles;
+			handles = new ArrayList<CancellationHandle>();
+		}
+
+		for (CancellationHandle handle : handlesToCancel) {
+			handle.cancel();
+		}
+	}
+}
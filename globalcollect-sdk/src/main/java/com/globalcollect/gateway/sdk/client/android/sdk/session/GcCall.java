@@ -0,0 +1,219 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import android.os.AsyncTask;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.PriorityExecutor;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.SdkExecutor;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.SdkExecutor.Priority;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.CancellationToken;
+
+/**
+ * A single AsyncTask that is executed by the GcSession, together with the CancellationHandles of the callers that wait for it
+ *
+ * The task is aborted when every handle is cancelled before it has finished. Aborting cancels the AsyncTask, so its listeners
+ * are not called, and cancels its CancellationToken, which aborts the connection to the GC gateway and frees the worker thread.
+ * A caller with a higher priority that joins the call while it is still queued raises its priority, so it does not wait
+ * behind background work.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+class GcCall {
+
+	private CancellationToken cancellationToken = new CancellationToken();
+	private AsyncTask<String, ?, ?> task;
+
+	// The priority of the task, the SdkExecutor that executes it and its runnable once it is queued
+	private Priority priority;
+	private SdkExecutor sdkExecutor;
+	private RunOnce queuedRunnable;
+
+	// Called when the call is aborted, so the GcSession can forget about it
+	private List<Runnable> onAbort = new ArrayList<Runnable>();
+
+	private int handleCount = 0;
+	private boolean finished = false;
+	private boolean aborted = false;
+
+
+	synchronized void addOnAbort(Runnable runnable) {
+		onAbort.add(runnable);
+	}
+
+
+	/**
+	 * Executes the task on the I/O executor, with the CancellationToken of this call bound to the thread that executes it
+	 *
+	 * @param task, the task which is executed
+	 * @param sdkExecutor, the SdkExecutor which executes the task
+	 * @param priority, the priority of the task; a higher priority that was asked for with raisePriority is kept
+	 */
+	void execute(AsyncTask<String, ?, ?> task, SdkExecutor sdkExecutor, Priority priority) {
+
+		synchronized (this) {
+			this.task = task;
+			this.sdkExecutor = sdkExecutor;
+			if (this.priority == null || priority.compareTo(this.priority) < 0) {
+				this.priority = priority;
+			}
+			priority = this.priority;
+			if (aborted) {
+				return;
+			}
+		}
+
+		// Before Honeycomb tasks can not be given an executor, then the task is only cancelled and its connection is not aborted
+		SdkExecutor.execute(task, new CancellableExecutor(sdkExecutor.getIoExecutor(priority)));
+	}
+
+
+	/**
+	 * Raises the priority of this call, for a caller with a higher priority that waits for it
+	 * When the task is still queued, a copy is queued with the given priority and the earlier copy is revoked, so the
+	 * PriorityExecutor drops it; should both be picked, only the first runs the task. A call that is already running,
+	 * or has a higher priority, is left alone.
+	 *
+	 * @param priority, the priority of the caller
+	 */
+	void raisePriority(Priority priority) {
+
+		RunOnce staleRunnable;
+		RunOnce runnable;
+		Executor executor;
+		synchronized (this) {
+			if (this.priority != null && priority.compareTo(this.priority) >= 0) {
+				return;
+			}
+			this.priority = priority;
+
+			// Before the task is queued, execute queues it with the raised priority
+			if (queuedRunnable == null || finished || aborted || queuedRunnable.isStarted()) {
+				return;
+			}
+			staleRunnable = queuedRunnable;
+			runnable = staleRunnable.copy();
+			queuedRunnable = runnable;
+			executor = sdkExecutor.getIoExecutor(priority);
+		}
+
+		// The earlier copy is revoked once the new one is queued, so the task is queued at all times
+		executor.execute(runnable);
+		staleRunnable.revoke();
+	}
+
+
+	/**
+	 * Registers a handle of a caller that waits for this call
+	 */
+	synchronized void retain() {
+		handleCount++;
+	}
+
+
+	/**
+	 * Releases the handle of a caller that is no longer interested in this call, the call is aborted when it was the last handle
+	 */
+	void release() {
+
+		synchronized (this) {
+			handleCount--;
+			if (handleCount > 0 || finished || aborted) {
+				return;
+			}
+			aborted = true;
+		}
+
+		if (task != null) {
+			task.cancel(true);
+		}
+		cancellationToken.cancel();
+		for (Runnable runnable : onAbort) {
+			runnable.run();
+		}
+	}
+
+
+	/**
+	 * Marks this call as finished, after which it is no longer aborted
+	 */
+	synchronized void finish() {
+		finished = true;
+	}
+
+	synchronized boolean isAborted() {
+		return aborted;
+	}
+
+
+	/**
+	 * Executor which binds the CancellationToken to the thread that executes the task, and keeps the queued runnable
+	 * so raisePriority can queue it again
+	 */
+	private class CancellableExecutor implements Executor {
+
+		private Executor executor;
+
+		CancellableExecutor(Executor executor) {
+			this.executor = executor;
+		}
+
+		@Override
+		public void execute(Runnable runnable) {
+			RunOnce runOnce = new RunOnce(cancellationToken.bind(runnable));
+			synchronized (GcCall.this) {
+				queuedRunnable = runOnce;
+			}
+			executor.execute(runOnce);
+		}
+	}
+
+
+	/**
+	 * Runnable which may be queued more than once as copies, of which only the first one that is picked runs
+	 * A copy is revoked once it has been replaced by another copy, or when another copy has started.
+	 */
+	private static class RunOnce implements PriorityExecutor.Revocable {
+
+		private final Runnable runnable;
+		private final AtomicBoolean started;
+		private volatile boolean revoked = false;
+
+		RunOnce(Runnable runnable) {
+			this(runnable, new AtomicBoolean(false));
+		}
+
+		private RunOnce(Runnable runnable, AtomicBoolean started) {
+			this.runnable = runnable;
+			this.started = started;
+		}
+
+		RunOnce copy() {
+			return new RunOnce(runnable, started);
+		}
+
+		void revoke() {
+			revoked = true;
+		}
+
+		boolean isStarted() {
+			return started.get();
+		}
+
+		@Override
+		public boolean isRevoked() {
+			return revoked || started.get();
+		}
+
+		@Override
+		public void run() {
+			if (!revoked && started.compareAndSet(false, true)) {
+				runnable.run();
+			}
+		}
+	}
+}
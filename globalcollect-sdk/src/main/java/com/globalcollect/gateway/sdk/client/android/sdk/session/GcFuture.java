@@ -0,0 +1,512 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.session;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.exception.CommunicationException;
+
+/**
+ * Result of an operation of the GcSession which completes later, as an alternative to the listener of the operation
+ *
+ * Futures can be chained with then() and thenCompose(), and independent operations, which run in parallel, can be joined
+ * with allOf(), so a flow like "get the product, then its directory" needs no nested listeners. Callbacks and the functions
+ * of then() and thenCompose() are called on the thread that completes the future, which is the main thread for the
+ * futures of the GcSession, or right away when the future is already completed.
+ *
+ * A future fails with a CommunicationException when the operation has no result, where its listener would get null.
+ * Cancelling a future cancels its operation; cancelling a future that was derived with then(), thenCompose() or allOf()
+ * also cancels the futures it was derived from. get() blocks and may not be called on the main thread.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class GcFuture<T> {
+
+	// The outcome of the operation; guarded by this
+	private boolean done = false;
+	private T result;
+	private Throwable failure;
+	private List<Callback<? super T>> callbacks = new ArrayList<Callback<? super T>>();
+
+	// What is cancelled together with this future; guarded by this
+	private CancellationHandle cancellationHandle;
+	private List<GcFuture<?>> cancelTargets = new ArrayList<GcFuture<?>>();
+
+
+	/**
+	 * Creates a future which is completed later with complete() or fail()
+	 */
+	public GcFuture() {
+	}
+
+
+	/**
+	 * Returns a future which is already completed with the given result
+	 */
+	public static <T> GcFuture<T> completed(T result) {
+		GcFuture<T> future = new GcFuture<T>();
+		future.complete(result);
+		return future;
+	}
+
+
+	/**
+	 * Returns a future which has already failed with the given failure
+	 */
+	public static <T> GcFuture<T> failed(Throwable failure) {
+		GcFuture<T> future = new GcFuture<T>();
+		future.fail(failure);
+		return future;
+	}
+
+
+	/**
+	 * Returns a future which completes with the results of all given futures, in the same order,
+	 * or fails with the failure of the first of them that fails
+	 *
+	 * @param futures, the futures which are joined
+	 */
+	public static GcFuture<List<Object>> allOf(GcFuture<?>... futures) {
+
+		if (futures == null) {
+			throw new InvalidParameterException("Error joining futures, futures may not be null");
+		}
+		return allAsList(Arrays.<GcFuture<?>>asList(futures));
+	}
+
+
+	/**
+	 * Returns a future which completes with the results of all given futures, in the same order,
+	 * or fails with the failure of the first of them that fails
+	 *
+	 * @param futures, the futures which are joined
+	 */
+	public static <T> GcFuture<List<T>> allAsList(List<? extends GcFuture<? extends T>> futures) {
+
+		if (futures == null) {
+			throw new InvalidParameterException("Error joining futures, futures may not be null");
+		}
+
+		final GcFuture<List<T>> joined = new GcFuture<List<T>>();
+		final List<T> results = new ArrayList<T>(futures.size());
+		final int[] remaining = { futures.size() };
+		for (int i = 0; i < futures.size(); i++) {
+			results.add(null);
+		}
+
+		for (int i = 0; i < futures.size(); i++) {
+			final int index = i;
+			GcFuture<? extends T> future = futures.get(i);
+			joined.addCancelTarget(future);
+			future.addCallback(new Callback<T>() {
+
+				@Override
+				public void onSuccess(T result) {
+					boolean complete;
+					synchronized (results) {
+						results.set(index, result);
+						complete = --remaining[0] == 0;
+					}
+					if (complete) {
+						joined.complete(results);
+					}
+				}
+
+				@Override
+				public void onFailure(Throwable failure) {
+					joined.fail(failure);
+				}
+			});
+		}
+
+		if (futures.isEmpty()) {
+			joined.complete(results);
+		}
+		return joined;
+	}
+
+
+	/**
+	 * Completes this future with the given result, unless it is already completed
+	 *
+	 * @return true when this call completed the future
+	 */
+	public boolean complete(T result) {
+		return finish(result, null);
+	}
+
+
+	/**
+	 * Fails this future with the given failure, unless it is already completed
+	 *
+	 * @return true when this call completed the future
+	 */
+	public boolean fail(Throwable failure) {
+
+		if (failure == null) {
+			throw new InvalidParameterException("Error failing future, failure may not be null");
+		}
+		return finish(null, failure);
+	}
+
+
+	/**
+	 * Cancels the operation of this future, which then fails with a CancellationException
+	 * Has no effect when the future is already completed
+	 *
+	 * @return true when this call cancelled the future
+	 */
+	public boolean cancel() {
+
+		if (!finish(null, new CancellationException("The operation has been cancelled"))) {
+			return false;
+		}
+
+		CancellationHandle handle;
+		List<GcFuture<?>> targets;
+		synchronized (this) {
+			handle = cancellationHandle;
+			targets = cancelTargets;
+			cancellationHandle = null;
+			cancelTargets = null;
+		}
+		if (handle != null) {
+			handle.cancel();
+		}
+		for (GcFuture<?> target : targets) {
+			target.cancel();
+		}
+		return true;
+	}
+
+
+	public synchronized boolean isDone() {
+		return done;
+	}
+
+	public synchronized boolean isFailed() {
+		return failure != null;
+	}
+
+	public synchronized boolean isCancelled() {
+		return failure instanceof CancellationException;
+	}
+
+
+	/**
+	 * Waits until this future is completed and returns its result
+	 *
+	 * @throws ExecutionException, with the failure of the operation as its cause
+	 * @throws CancellationException, when the operation has been cancelled
+	 */
+	public synchronized T get() throws InterruptedException, ExecutionException {
+		while (!done) {
+			wait();
+		}
+		return getOutcome();
+	}
+
+
+	/**
+	 * Waits at most the given time until this future is completed and returns its result
+	 *
+	 * @throws ExecutionException, with the failure of the operation as its cause
+	 * @throws CancellationException, when the operation has been cancelled
+	 * @throws TimeoutException, when the future is not completed in time
+	 */
+	public synchronized T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (!done) {
+			long remainingMillis = (deadline - System.nanoTime()) / 1000000L;
+			if (remainingMillis <= 0) {
+				throw new TimeoutException("The operation has not completed within " + timeout + " " + unit);
+			}
+			wait(remainingMillis);
+		}
+		return getOutcome();
+	}
+
+
+	/**
+	 * Adds a callback which is called when this future is completed, or right away when it is already completed
+	 *
+	 * @return this future
+	 */
+	public GcFuture<T> addCallback(Callback<? super T> callback) {
+
+		if (callback == null) {
+			throw new InvalidParameterException("Error adding callback, callback may not be null");
+		}
+		synchronized (this) {
+			if (!done) {
+				callbacks.add(callback);
+				return this;
+			}
+		}
+		call(callback);
+		return this;
+	}
+
+
+	/**
+	 * Returns a future which completes with the result of the given function applied to the result of this future
+	 * When this future fails or the function throws an exception, the returned future fails
+	 *
+	 * @param function, the function which is applied to the result
+	 */
+	public <R> GcFuture<R> then(final Function<? super T, ? extends R> function) {
+
+		if (function == null) {
+			throw new InvalidParameterException("Error chaining future, function may not be null");
+		}
+
+		final GcFuture<R> next = new GcFuture<R>();
+		next.addCancelTarget(this);
+		addCallback(new Callback<T>() {
+
+			@Override
+			public void onSuccess(T result) {
+				try {
+					next.complete(function.apply(result));
+				} catch (Exception e) {
+					next.fail(e);
+				}
+			}
+
+			@Override
+			public void onFailure(Throwable failure) {
+				next.fail(failure);
+			}
+		});
+		return next;
+	}
+
+
+	/**
+	 * Returns a future which completes with the result of the future that the given function starts with the result of this future
+	 * Used for operations that depend on the result of this one, like getting the directory of a product that is loaded
+	 *
+	 * @param function, the function which starts the next operation
+	 */
+	public <R> GcFuture<R> thenCompose(final AsyncFunction<? super T, R> function) {
+
+		if (function == null) {
+			throw new InvalidParameterException("Error chaining future, function may not be null");
+		}
+
+		final GcFuture<R> next = new GcFuture<R>();
+		next.addCancelTarget(this);
+		addCallback(new Callback<T>() {
+
+			@Override
+			public void onSuccess(T result) {
+				GcFuture<R> started;
+				try {
+					started = function.apply(result);
+				} catch (Exception e) {
+					next.fail(e);
+					return;
+				}
+				if (started == null) {
+					next.fail(new IllegalStateException("The function of thenCompose returned null"));
+					return;
+				}
+
+				next.addCancelTarget(started);
+				started.addCallback(new Callback<R>() {
+
+					@Override
+					public void onSuccess(R result) {
+						next.complete(result);
+					}
+
+					@Override
+					public void onFailure(Throwable failure) {
+						next.fail(failure);
+					}
+				});
+			}
+
+			@Override
+			public void onFailure(Throwable failure) {
+				next.fail(failure);
+			}
+		});
+		return next;
+	}
+
+
+	/**
+	 * Returns a future which completes with the result of this future, or with the given result when this future fails
+	 * A cancellation is not replaced; when this future is cancelled, the returned future is cancelled as well
+	 *
+	 * @param fallback, the result when this future fails
+	 */
+	public GcFuture<T> orElse(final T fallback) {
+
+		final GcFuture<T> next = new GcFuture<T>();
+		next.addCancelTarget(this);
+		addCallback(new Callback<T>() {
+
+			@Override
+			public void onSuccess(T result) {
+				next.complete(result);
+			}
+
+			@Override
+			public void onFailure(Throwable failure) {
+				if (failure instanceof CancellationException) {
+					next.cancel();
+				} else {
+					next.complete(fallback);
+				}
+			}
+		});
+		return next;
+	}
+
+
+	/**
+	 * Sets the handle which is cancelled together with this future
+	 */
+	void setCancellationHandle(CancellationHandle handle) {
+
+		synchronized (this) {
+			if (!done) {
+				cancellationHandle = handle;
+				return;
+			}
+		}
+		if (isCancelled()) {
+			handle.cancel();
+		}
+	}
+
+
+	/**
+	 * Completes this future with the given result of an operation, or fails it when the operation has no result
+	 *
+	 * @param result, the result which is given to the listener of the operation
+	 * @param errorMessage, the message of the CommunicationException when result is null
+	 */
+	void completeWithResult(T result, String errorMessage) {
+		if (result != null) {
+			complete(result);
+		} else {
+			fail(new CommunicationException(errorMessage));
+		}
+	}
+
+
+	/**
+	 * Adds a future which is cancelled together with this future
+	 */
+	private void addCancelTarget(GcFuture<?> target) {
+
+		synchronized (this) {
+			if (!done) {
+				cancelTargets.add(target);
+				return;
+			}
+		}
+		if (isCancelled()) {
+			target.cancel();
+		}
+	}
+
+
+	private boolean finish(T result, Throwable failure) {
+
+		List<Callback<? super T>> callbacksToCall;
+		synchronized (this) {
+			if (done) {
+				return false;
+			}
+			done = true;
+			this.result = result;
+			this.failure = failure;
+			callbacksToCall = callbacks;
+			callbacks = null;
+
+			// Only a cancellation is passed on to the handle and the targets
+			if (!(failure instanceof CancellationException)) {
+				cancellationHandle = null;
+				cancelTargets = new ArrayList<GcFuture<?>>();
+			}
+			notifyAll();
+		}
+
+		for (Callback<? super T> callback : callbacksToCall) {
+			call(callback);
+		}
+		return true;
+	}
+
+
+	private void call(Callback<? super T> callback) {
+
+		T outcomeResult;
+		Throwable outcomeFailure;
+		synchronized (this) {
+			outcomeResult = result;
+			outcomeFailure = failure;
+		}
+		if (outcomeFailure == null) {
+			callback.onSuccess(outcomeResult);
+		} else {
+			callback.onFailure(outcomeFailure);
+		}
+	}
+
+
+	private T getOutcome() throws ExecutionException {
+		if (failure instanceof CancellationException) {
+			throw (CancellationException) failure;
+		}
+		if (failure != null) {
+			throw new ExecutionException(failure);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Interface for the callback of a GcFuture
+	 * Is called when the future is completed
+	 *
+	 * Copyright 2014 Global Collect Services B.V
+	 *
+	 */
+	public interface Callback<T> {
+		public void onSuccess(T result);
+		public void onFailure(Throwable failure);
+	}
+
+
+	/**
+	 * Interface for the function of GcFuture.then()
+	 *
+	 * Copyright 2014 Global Collect Services B.V
+	 *
+	 */
+	public interface Function<T, R> {
+		public R apply(T value) throws Exception;
+	}
+
+
+	/**
+	 * Interface for the function of GcFuture.thenCompose(), which starts an operation and returns its future
+	 *
+	 * Copyright 2014 Global Collect Services B.V
+	 *
+	 */
+	public interface AsyncFunction<T, R> {
+		public GcFuture<R> apply(T value) throws Exception;
+	}
+}
@@ -1,14 +1,17 @@
 package com.globalcollect.gateway.sdk.client.android.sdk.session;
 
 import android.content.Context;
+import android.graphics.drawable.Drawable;
 
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.BasicPaymentItemsAsyncTask;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.BasicPaymentProductGroupsAsyncTask;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.BasicPaymentProductsAsyncTask;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.ConvertAmountAsyncTask;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.DefaultSdkExecutor;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.ConvertAmountAsyncTask.OnAmountConvertedListener;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.IinLookupAsyncTask;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.IinLookupAsyncTask.OnIinLookupCompleteListener;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.LoadLogosAsyncTask.OnLogoLoadedListener;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.PaymentProductAsyncTask;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.PaymentProductAsyncTask.OnPaymentProductCallCompleteListener;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.PaymentProductDirectoryAsyncTask;
@@ -20,61 +23,137 @@ import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.BasicPaymentIt
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.BasicPaymentProductsAsyncTask.OnBasicPaymentProductsCallCompleteListener;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.PublicKeyAsyncTask;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.PublicKeyAsyncTask.OnPublicKeyLoadedListener;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.SdkExecutor;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.SdkExecutor.Priority;
 import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCommunicator;
+import com.globalcollect.gateway.sdk.client.android.sdk.manager.AssetManager;
+import com.globalcollect.gateway.sdk.client.android.sdk.manager.BinRangeTable;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.CountryCode;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.CurrencyCode;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentContext;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentContextCacheKey;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentItemCacheKey;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentProductDirectoryResponse;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentRequest;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.PreparedPaymentRequest;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.PublicKeyResponse;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetail;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetailsResponse;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinStatus;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.ResolvedCard;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentItems;
-import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentProduct;
-import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentProductGroup;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentProductGroups;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.PaymentItem;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.PaymentProduct;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.PaymentProductGroup;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentItem;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentProducts;
+import com.globalcollect.gateway.sdk.client.android.sdk.session.GcFuture.AsyncFunction;
+import com.globalcollect.gateway.sdk.client.android.sdk.session.GcFuture.Function;
 import com.globalcollect.gateway.sdk.client.android.sdk.session.GcSessionEncryptionHelper.OnPaymentRequestPreparedListener;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * GcSession contains all methods needed for making a payment
  * 
+ * Every operation is available with a listener, and without one, returning a GcFuture that can be chained and joined
+ * 
  * Copyright 2014 Global Collect Services B.V
  *
  */
-public class GcSession implements OnBasicPaymentProductsCallCompleteListener, OnIinLookupCompleteListener, OnPaymentProductCallCompleteListener, OnBasicPaymentProductGroupsCallCompleteListener, OnPaymentProductGroupCallCompleteListener, OnBasicPaymentItemsCallCompleteListener, Serializable {
+public class GcSession implements OnIinLookupCompleteListener, Serializable {
 
 	private static final long serialVersionUID = 686891053207055508L;
 
 	// Cache which contains all paymentproducts that are loaded from the GC gateway
-	private Map<PaymentItemCacheKey, BasicPaymentItem> basicPaymentItemMapping = new HashMap<>();
-	private Map<PaymentItemCacheKey, PaymentItem> paymentItemMapping = new HashMap<>();
+	// The caches are concurrent maps, since they are filled by the tasks of the calls on their background threads
+	private Map<PaymentItemCacheKey, BasicPaymentItem> basicPaymentItemMapping = new ConcurrentHashMap<>();
+	private Map<PaymentItemCacheKey, PaymentItem> paymentItemMapping = new ConcurrentHashMap<>();
+
+	// Cache which contains the lists of paymentproducts and paymentproductgroups that are loaded for a paymentContext
+	private Map<PaymentContextCacheKey, BasicPaymentProducts> basicPaymentProductsMapping = new ConcurrentHashMap<>();
+	private Map<PaymentContextCacheKey, BasicPaymentProductGroups> basicPaymentProductGroupsMapping = new ConcurrentHashMap<>();
+
+	// The publickey of the GC gateway, once it is loaded
+	private volatile PublicKeyResponse publicKeyResponse;
+
+	// Key of the publickey call, there is only one publickey per session
+	private static final String PUBLIC_KEY_CALL = "publicKey";
+
+	// Calls to the GC gateway that are in flight; identical calls are attached to these instead of starting a new request.
+	// The GcSyncClient waits for the same calls, so blocking and asynchronous callers share them as well.
+	// Not serialised, since the listeners are activities
+	private transient SingleFlight<PaymentContextCacheKey, OnBasicPaymentProductsCallCompleteListener> basicPaymentProductsCalls;
+	private transient SingleFlight<PaymentContextCacheKey, OnBasicPaymentProductGroupsCallCompleteListener> basicPaymentProductGroupsCalls;
+	private transient SingleFlight<PaymentItemCacheKey, OnPaymentProductCallCompleteListener> paymentProductCalls;
+	private transient SingleFlight<PaymentItemCacheKey, OnPaymentProductGroupCallCompleteListener> paymentProductGroupCalls;
+	private transient SingleFlight<String, OnPublicKeyLoadedListener> publicKeyCalls;
 
 	// Communicator used for communicating with the GC gateway
 	private C2sCommunicator communicator;
 	
-	// C2sPaymentProductContext which contains all neccesary data for doing call to the GC gateway to retrieve paymentproducts
-	private PaymentContext paymentContext;
-	
 	// Flag to determine if the iinlookup is beeing executed,
-	// so it wont be fired everytime a character is typed in the edittext while there is another call beeing executed
-	private Boolean iinLookupPending = false;
+	// so it wont be fired everytime a character is typed in the edittext while there is another call beeing executed.
+	// Only the caller that sets it with compareAndSet starts a lookup; not serialised, a deserialised session has no pending lookup
+	private transient AtomicBoolean iinLookupPending = new AtomicBoolean(false);
+
+	// Whether completed IIN lookups do not prefetch the ResolvedCard; negated, so sessions serialised before it existed prefetch as well
+	private boolean iinPrefetchDisabled;
 	
 	// Used for identifying the customer on the GC gateway
 	private String clientSessionId;
+
+	// Executes the AsyncTasks of sessions that have no SdkExecutor of their own; null for the shared DefaultSdkExecutor
+	private static volatile SdkExecutor defaultSdkExecutor;
+
+	// Executes the AsyncTasks of this session; not serialised, deserialised sessions use the default SdkExecutor
+	private transient SdkExecutor sdkExecutor = getDefaultSdkExecutor();
 	
 	
 	private GcSession(C2sCommunicator communicator) {
 		this.communicator = communicator;
+		createInFlightCalls();
+	}
+
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		createInFlightCalls();
+		sdkExecutor = getDefaultSdkExecutor();
+		iinLookupPending = new AtomicBoolean(false);
+
+		// Sessions that were serialised before these caches existed do not contain them
+		if (basicPaymentProductsMapping == null) {
+			basicPaymentProductsMapping = new ConcurrentHashMap<>();
+		}
+		if (basicPaymentProductGroupsMapping == null) {
+			basicPaymentProductGroupsMapping = new ConcurrentHashMap<>();
+		}
+
+		// Sessions that were serialised before the caches were concurrent contain HashMaps
+		basicPaymentItemMapping = new ConcurrentHashMap<>(basicPaymentItemMapping);
+		paymentItemMapping = new ConcurrentHashMap<>(paymentItemMapping);
+		basicPaymentProductsMapping = new ConcurrentHashMap<>(basicPaymentProductsMapping);
+		basicPaymentProductGroupsMapping = new ConcurrentHashMap<>(basicPaymentProductGroupsMapping);
+	}
+
+
+	private void createInFlightCalls() {
+		basicPaymentProductsCalls = new SingleFlight<>();
+		basicPaymentProductGroupsCalls = new SingleFlight<>();
+		paymentProductCalls = new SingleFlight<>();
+		paymentProductGroupCalls = new SingleFlight<>();
+		publicKeyCalls = new SingleFlight<>();
 	}
 	
 	
@@ -93,6 +172,35 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 	}
 
 
+	/**
+	 * Loads the BasicPaymentProducts, the BasicPaymentProductGroups and the publickey for the given payment context in parallel,
+	 * so the calls for them that follow are served from the cache of this session, or wait for the warm up instead of starting a new call.
+	 * Call this right after the session is created, before the checkout is shown.
+	 * What is already loaded, or being loaded, is not loaded again. The three calls run in the background and each completes on
+	 * its own, so a call that waits for one of them does not wait for the others; a call with a higher priority that waits for
+	 * a call which is still queued raises its priority.
+	 *
+	 * @param context, used for reading device metadata which is send to the GC gateway
+	 * @param paymentContext, PaymentContext which contains all neccesary data for doing call to the GC gateway to retrieve paymentproducts
+	 *
+	 * @return CancellationHandle, which cancels the warm up; calls that wait for the warm up keep it running
+	 */
+	public CancellationHandle warmUp(Context context, PaymentContext paymentContext) {
+
+		if (context == null ) {
+			throw new InvalidParameterException("Error warming up, context may not be null");
+		}
+		if (paymentContext == null ) {
+			throw new InvalidParameterException("Error warming up, paymentContext may not be null");
+		}
+
+		// Start the calls without a listener; they are registered as in flight, so the calls that are done during the warm up wait for them
+		return new CancellationHandle(getBasicPaymentProducts(context, paymentContext, null, Priority.BACKGROUND),
+				getBasicPaymentProductGroups(context, paymentContext, null, Priority.BACKGROUND),
+				getPublicKey(context, null, Priority.BACKGROUND));
+	}
+
+
 	/**
 	 * Gets all basitPaymentItems for a given payment context
 	 *
@@ -100,8 +208,10 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 	 * @param paymentContext PaymentContext which contains all neccessary payment info to retrieve the allowed payment items
 	 * @param listener Listener that will be called when the lookup is done
 	 * @param groupPaymentProducts boolean that controls whether the basicPaymentItem call will group the retrieved payment items; true for grouping, false otherwise
+	 *
+	 * @return CancellationHandle, which cancels this call
      */
-	public void getBasicPaymentItems(Context context, PaymentContext paymentContext, OnBasicPaymentItemsCallCompleteListener listener, boolean groupPaymentProducts) {
+	public CancellationHandle getBasicPaymentItems(Context context, final PaymentContext paymentContext, OnBasicPaymentItemsCallCompleteListener listener, boolean groupPaymentProducts) {
 
 		if (context == null ) {
 			throw new InvalidParameterException("Error getting paymentproduct, context may not be null");
@@ -113,16 +223,18 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 			throw new InvalidParameterException("Error getting paymentproducts, listener may not be null");
 		}
 
-		this.paymentContext = paymentContext;
-
-		// Add OnBasicPaymentItemsCallCompleteListener and this class to list of listeners so we can store the paymentproducts here
-		List<OnBasicPaymentItemsCallCompleteListener> listeners = new ArrayList<>();
-		listeners.add(this);
-		listeners.add(listener);
-
-		// Start the task which gets paymentproducts
-		BasicPaymentItemsAsyncTask task = new BasicPaymentItemsAsyncTask(context, paymentContext, communicator, listeners, groupPaymentProducts);
-		task.execute();
+		// Combine the paymentproducts and, when they are grouped, the paymentproductgroups, which are loaded in parallel.
+		// Their calls are shared with getBasicPaymentProducts, getBasicPaymentProductGroups, warmUp and the GcSyncClient,
+		// so what is already loaded or being loaded is not loaded again
+		// The combiner of a DirectListener, like the GcSyncClient, is called on the completing threads as well
+		BasicPaymentItemsCombiner combiner = listener instanceof SingleFlight.DirectListener
+				? new DirectBasicPaymentItemsCombiner(paymentContext, listener, groupPaymentProducts)
+				: new BasicPaymentItemsCombiner(paymentContext, listener, groupPaymentProducts);
+		CancellationHandle basicPaymentProductsHandle = getBasicPaymentProducts(context, paymentContext, combiner);
+		if (!groupPaymentProducts) {
+			return basicPaymentProductsHandle;
+		}
+		return new CancellationHandle(basicPaymentProductsHandle, getBasicPaymentProductGroups(context, paymentContext, combiner));
 	}
 
 
@@ -133,8 +245,9 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 	 * @param paymentContext, PaymentContext which contains all neccesary data for doing call to the GC gateway to retrieve paymentproducts
 	 * @param listener, OnPaymentProductsCallComplete which will be called by the BasicPaymentProductsAsyncTask when the BasicPaymentProducts are loaded
 	 *
+	 * @return CancellationHandle, which cancels this call
 	 */
-	public void getBasicPaymentProducts(Context context, PaymentContext paymentContext, OnBasicPaymentProductsCallCompleteListener listener) {
+	public CancellationHandle getBasicPaymentProducts(Context context, PaymentContext paymentContext, OnBasicPaymentProductsCallCompleteListener listener) {
 
 		if (context == null ) {
 			throw new InvalidParameterException("Error getting paymentproduct, context may not be null");
@@ -145,17 +258,41 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 		if (listener == null ) {
 			throw new InvalidParameterException("Error getting paymentproducts, listener may not be null");
 		}
+		return getBasicPaymentProducts(context, paymentContext, listener, Priority.USER_VISIBLE);
+	}
 
-		this.paymentContext = paymentContext;
 
-		// Add OnBasicPaymentProductsCallCompleteListener and this class to list of listeners so we can store the paymentproducts here
-		List<OnBasicPaymentProductsCallCompleteListener> listeners = new ArrayList<OnBasicPaymentProductsCallCompleteListener>();
-		listeners.add(this);
-		listeners.add(listener);
+	/**
+	 * Gets BasicPaymentProducts with the given priority, the listener may be null for the warm up
+	 */
+	private CancellationHandle getBasicPaymentProducts(Context context, PaymentContext paymentContext, OnBasicPaymentProductsCallCompleteListener listener, Priority priority) {
+
+		// If the paymentproducts are already in the cache, call the listener with those paymentproducts
+		PaymentContextCacheKey key = createPaymentContextCacheKey(paymentContext);
+		if (basicPaymentProductsMapping.containsKey(key)) {
+			if (listener != null) {
+				listener.onBasicPaymentProductsCallComplete(basicPaymentProductsMapping.get(key));
+			}
+			return new CancellationHandle();
+		}
+
+		// If the same paymentproducts are already being retrieved, wait for that call instead of starting a new one
+		SingleFlight.Flight<OnBasicPaymentProductsCallCompleteListener> flight = createFlight(basicPaymentProductsCalls, key, priority);
+		CancellationHandle handle = basicPaymentProductsCalls.joinOrStart(key, flight, listener);
+		if (!flight.isStarted()) {
+			return handle;
+		}
+
+		// A call that completed since the cache was checked has already stored its paymentproducts
+		OnBasicPaymentProductsCallCompleteListener completeListener = completeBasicPaymentProductsCall(paymentContext, key, flight);
+		if (basicPaymentProductsMapping.containsKey(key)) {
+			completeListener.onBasicPaymentProductsCallComplete(basicPaymentProductsMapping.get(key));
+			return handle;
+		}
 
 		// Start the task which gets paymentproducts
-		BasicPaymentProductsAsyncTask task = new BasicPaymentProductsAsyncTask(context, paymentContext, communicator, listeners);
-		task.execute();
+		flight.getGcCall().execute(createBasicPaymentProductsTask(context, paymentContext, completeListener), sdkExecutor, priority);
+		return handle;
 	}
 	
 
@@ -167,8 +304,9 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 	 * @param paymentContext, PaymentContext which contains all neccesary data for doing call to the GC gateway to retrieve BasicPaymentProducts
 	 * @param listener, listener which will be called by the AsyncTask when the PaymentProduct with fields is retrieved
 	 *
+	 * @return CancellationHandle, which cancels this call
 	 */
-	public void getPaymentProduct(Context context, String productId, PaymentContext paymentContext, OnPaymentProductCallCompleteListener listener) {
+	public CancellationHandle getPaymentProduct(Context context, String productId, PaymentContext paymentContext, OnPaymentProductCallCompleteListener listener) {
 
 		if (context == null ) {
 			throw new InvalidParameterException("Error getting paymentproduct, context may not be null");
@@ -183,26 +321,46 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 			throw new InvalidParameterException("Error getting paymentproduct, listener may not be null");
 		}
 
-		this.paymentContext = paymentContext;
-
 		// Create the cache key for this paymentProduct
-		PaymentItemCacheKey key = createPaymentItemCacheKey(paymentContext, productId);
+		final PaymentItemCacheKey key = createPaymentItemCacheKey(paymentContext, productId);
 
 		// If the paymentProduct is already in the cache, call the listener with that paymentproduct
 		if (paymentItemMapping.containsKey(key)) {
 			PaymentProduct cachedPP = (PaymentProduct) paymentItemMapping.get(key);
 			listener.onPaymentProductCallComplete(cachedPP);
-		} else {
+			return new CancellationHandle();
+		}
+
+		// If the same paymentproduct is already being retrieved, wait for that call instead of starting a new one
+		final SingleFlight.Flight<OnPaymentProductCallCompleteListener> flight = createFlight(paymentProductCalls, key, Priority.USER_VISIBLE);
+		CancellationHandle handle = paymentProductCalls.joinOrStart(key, flight, listener);
+		if (!flight.isStarted()) {
+			return handle;
+		}
 
-			// Add OnPaymentProductsCallComplete listener and this class to list of listeners so we can store the paymentproduct here
-			List<OnPaymentProductCallCompleteListener> listeners = new ArrayList<OnPaymentProductCallCompleteListener>();
-			listeners.add(this);
-			listeners.add(listener);
+		// The task calls a single listener, which stores the paymentproduct here and then calls the listeners of the call
+		OnPaymentProductCallCompleteListener completeListener = new OnPaymentProductCallCompleteListener() {
+			@Override
+			public void onPaymentProductCallComplete(final PaymentProduct paymentProduct) {
+				cachePaymentItem(key, paymentProduct);
+				paymentProductCalls.complete(key, flight, new SingleFlight.Delivery<OnPaymentProductCallCompleteListener>() {
+					@Override
+					public void deliver(OnPaymentProductCallCompleteListener paymentProductListener) {
+						paymentProductListener.onPaymentProductCallComplete(paymentProduct);
+					}
+				});
+			}
+		};
 
-			// Do the call to the GC gateway
-			PaymentProductAsyncTask task = new PaymentProductAsyncTask(context, productId, paymentContext, communicator, listeners);
-			task.execute();
+		// A call that completed since the cache was checked has already stored its paymentproduct
+		if (paymentItemMapping.containsKey(key)) {
+			completeListener.onPaymentProductCallComplete((PaymentProduct) paymentItemMapping.get(key));
+			return handle;
 		}
+
+		// Do the call to the GC gateway
+		flight.getGcCall().execute(createPaymentProductTask(context, productId, paymentContext, completeListener), sdkExecutor, Priority.USER_VISIBLE);
+		return handle;
 	}
 
 
@@ -213,8 +371,9 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 	 * @param paymentContext, C2sPaymentProductContext which contains all neccesary data for doing call to the GC gateway to retrieve paymentproducts
 	 * @param listener, OnPaymentProductsCallComplete which will be called by the BasicPaymentProductsAsyncTask when the BasicPaymentProducts are loaded
 	 *
+	 * @return CancellationHandle, which cancels this call
 	 */
-	public void getBasicPaymentProductGroups(Context context, PaymentContext paymentContext, OnBasicPaymentProductGroupsCallCompleteListener listener) {
+	public CancellationHandle getBasicPaymentProductGroups(Context context, PaymentContext paymentContext, OnBasicPaymentProductGroupsCallCompleteListener listener) {
 
 		if (context == null ) {
 			throw new InvalidParameterException("Error getting paymentProductGroups, context may not be null");
@@ -225,17 +384,41 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 		if (listener == null ) {
 			throw new InvalidParameterException("Error getting paymentProductGroups, listener may not be null");
 		}
+		return getBasicPaymentProductGroups(context, paymentContext, listener, Priority.USER_VISIBLE);
+	}
 
-		this.paymentContext = paymentContext;
 
-		// Add OnBasicPaymentProductGroupsCallCompleteListener and this class to list of listeners so we can store the paymentProductGroups here
-		List<OnBasicPaymentProductGroupsCallCompleteListener> listeners = new ArrayList<>();
-		listeners.add(this);
-		listeners.add(listener);
+	/**
+	 * Gets BasicPaymentProductGroups with the given priority, the listener may be null for the warm up
+	 */
+	private CancellationHandle getBasicPaymentProductGroups(Context context, PaymentContext paymentContext, OnBasicPaymentProductGroupsCallCompleteListener listener, Priority priority) {
+
+		// If the paymentProductGroups are already in the cache, call the listener with those paymentProductGroups
+		PaymentContextCacheKey key = createPaymentContextCacheKey(paymentContext);
+		if (basicPaymentProductGroupsMapping.containsKey(key)) {
+			if (listener != null) {
+				listener.onBasicPaymentProductGroupsCallComplete(basicPaymentProductGroupsMapping.get(key));
+			}
+			return new CancellationHandle();
+		}
+
+		// If the same paymentProductGroups are already being retrieved, wait for that call instead of starting a new one
+		SingleFlight.Flight<OnBasicPaymentProductGroupsCallCompleteListener> flight = createFlight(basicPaymentProductGroupsCalls, key, priority);
+		CancellationHandle handle = basicPaymentProductGroupsCalls.joinOrStart(key, flight, listener);
+		if (!flight.isStarted()) {
+			return handle;
+		}
+
+		// A call that completed since the cache was checked has already stored its paymentProductGroups
+		OnBasicPaymentProductGroupsCallCompleteListener completeListener = completeBasicPaymentProductGroupsCall(paymentContext, key, flight);
+		if (basicPaymentProductGroupsMapping.containsKey(key)) {
+			completeListener.onBasicPaymentProductGroupsCallComplete(basicPaymentProductGroupsMapping.get(key));
+			return handle;
+		}
 
 		// Start the task which gets paymentproducts
-		BasicPaymentProductGroupsAsyncTask task = new BasicPaymentProductGroupsAsyncTask(context, paymentContext, communicator, listeners);
-		task.execute();
+		flight.getGcCall().execute(createBasicPaymentProductGroupsTask(context, paymentContext, completeListener), sdkExecutor, priority);
+		return handle;
 	}
 
 
@@ -247,8 +430,9 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 	 * @param paymentContext, PaymentContext which contains all necessary data for doing call to the GC gateway to retrieve PaymentProductGroup
 	 * @param listener, listener which will be called by the AsyncTask when the PaymentProductGroup with fields is retrieved
 	 *
+	 * @return CancellationHandle, which cancels this call
 	 */
-	public void getPaymentProductGroup(Context context, String groupId, PaymentContext paymentContext, OnPaymentProductGroupCallCompleteListener listener) {
+	public CancellationHandle getPaymentProductGroup(Context context, String groupId, PaymentContext paymentContext, OnPaymentProductGroupCallCompleteListener listener) {
 
 		if (context == null ) {
 			throw new InvalidParameterException("Error getting paymentproduct, context may not be null");
@@ -263,26 +447,46 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 			throw new InvalidParameterException("Error getting paymentproduct, listener may not be null");
 		}
 
-		this.paymentContext = paymentContext;
-
 		// Create the cache key for this paymentProductGroup
-		PaymentItemCacheKey key = createPaymentItemCacheKey(paymentContext, groupId);
+		final PaymentItemCacheKey key = createPaymentItemCacheKey(paymentContext, groupId);
 
 		// If the paymentProductGroup is already in the cache, call the listener with that paymentProductGroup
 		if (paymentItemMapping.containsKey(key)) {
 			PaymentProductGroup cachedPPG = (PaymentProductGroup) paymentItemMapping.get(key);
 			listener.onPaymentProductGroupCallComplete(cachedPPG);
-		} else {
+			return new CancellationHandle();
+		}
+
+		// If the same paymentProductGroup is already being retrieved, wait for that call instead of starting a new one
+		final SingleFlight.Flight<OnPaymentProductGroupCallCompleteListener> flight = createFlight(paymentProductGroupCalls, key, Priority.USER_VISIBLE);
+		CancellationHandle handle = paymentProductGroupCalls.joinOrStart(key, flight, listener);
+		if (!flight.isStarted()) {
+			return handle;
+		}
 
-			// Add OnPaymentProductsCallComplete listener and this class to list of listeners so we can store the paymentproduct here
-			List<OnPaymentProductGroupCallCompleteListener> listeners = new ArrayList<>();
-			listeners.add(this);
-			listeners.add(listener);
+		// The task calls a single listener, which stores the paymentProductGroup here and then calls the listeners of the call
+		OnPaymentProductGroupCallCompleteListener completeListener = new OnPaymentProductGroupCallCompleteListener() {
+			@Override
+			public void onPaymentProductGroupCallComplete(final PaymentProductGroup paymentProductGroup) {
+				cachePaymentItem(key, paymentProductGroup);
+				paymentProductGroupCalls.complete(key, flight, new SingleFlight.Delivery<OnPaymentProductGroupCallCompleteListener>() {
+					@Override
+					public void deliver(OnPaymentProductGroupCallCompleteListener paymentProductGroupListener) {
+						paymentProductGroupListener.onPaymentProductGroupCallComplete(paymentProductGroup);
+					}
+				});
+			}
+		};
 
-			// Do the call to the GC gateway
-			PaymentProductGroupAsyncTask task = new PaymentProductGroupAsyncTask(context, groupId, paymentContext, communicator, listeners);
-			task.execute();
+		// A call that completed since the cache was checked has already stored its paymentProductGroup
+		if (paymentItemMapping.containsKey(key)) {
+			completeListener.onPaymentProductGroupCallComplete((PaymentProductGroup) paymentItemMapping.get(key));
+			return handle;
 		}
+
+		// Do the call to the GC gateway
+		flight.getGcCall().execute(createPaymentProductGroupTask(context, groupId, paymentContext, completeListener), sdkExecutor, Priority.USER_VISIBLE);
+		return handle;
 	}
 
 
@@ -295,8 +499,9 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 	 * @param context, used for reading device metada which is send to the GC gateway 
 	 * @param listener, listener which will be called by the AsyncTask when the PaymentProductDirectory with fields is retrieved
  	 * 
+	 * @return CancellationHandle, which cancels this call
 	 */
-	public void getDirectoryForPaymentProductId(String productId, CurrencyCode currencyCode, CountryCode countryCode, Context context, OnPaymentProductDirectoryCallCompleteListener listener) {
+	public CancellationHandle getDirectoryForPaymentProductId(String productId, CurrencyCode currencyCode, CountryCode countryCode, Context context, OnPaymentProductDirectoryCallCompleteListener listener) {
 
     	if (productId == null) {
 			throw new InvalidParameterException("Error getting PaymentProductDirectory, productId may not be null");
@@ -314,21 +519,26 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 			throw new InvalidParameterException("Error getting PaymentProductDirectory, listener may not be null");
 		}
 		
-		PaymentProductDirectoryAsyncTask task = new PaymentProductDirectoryAsyncTask(productId, currencyCode, countryCode, context, communicator, listener);
-		task.execute();
+		GcCall gcCall = new GcCall();
+		CancellationHandle handle = new CancellationHandle(gcCall, null, listener);
+		gcCall.execute(new PaymentProductDirectoryAsyncTask(productId, currencyCode, countryCode, context, communicator, listener), sdkExecutor, Priority.USER_VISIBLE);
+		return handle;
 	}
 
 
 	/**
 	 * Gets the IinDetails for a given partialCreditCardNumber
+	 * A lookup is ignored while another lookup is pending; for a creditcardnumber that is being typed use an IinLookupPipeline,
+	 * which looks up the latest input instead
 	 *
 	 * @param context, used for reading device metada which is send to the GC gateway
 	 * @param partialCreditCardNumber, entered partial creditcardnumber for which the IinDetails will be retrieved
 	 * @param listener, listener which will be called by the AsyncTask when the IIN result is retrieved
 	 * @param paymentContext, payment information for which the IinDetails will be retrieved
 	 *
+	 * @return CancellationHandle, which cancels this call; cancel the pending lookup to start a lookup for a new partialCreditCardNumber right away
 	 */
-	public void getIinDetails(Context context, String partialCreditCardNumber, OnIinLookupCompleteListener listener, PaymentContext paymentContext) {
+	public CancellationHandle getIinDetails(Context context, String partialCreditCardNumber, OnIinLookupCompleteListener listener, PaymentContext paymentContext) {
 
 		if (context == null ) {
 			throw new InvalidParameterException("Error getting iinDetails, context may not be null");
@@ -340,18 +550,133 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 			throw new InvalidParameterException("Error getting iinDetails, listener may not be null");
 		}
 
-		// Add OnPaymentProductsCallComplete listener and this class to list of listeners so we can reset the iinLookupPending flag
+		CancellationHandle handle = startIinLookup(context, partialCreditCardNumber, listener, paymentContext);
+		return handle != null ? handle : new CancellationHandle();
+	}
+
+
+	/**
+	 * Starts the lookup of the IinDetails, unless another lookup is pending
+	 *
+	 * @return CancellationHandle, which cancels this call, or null when another lookup is pending
+	 */
+	private CancellationHandle startIinLookup(final Context context, String partialCreditCardNumber, OnIinLookupCompleteListener listener, final PaymentContext paymentContext) {
+
+		// Only one of the callers that race for the flag starts a lookup
+		if (!iinLookupPending.compareAndSet(false, true)) {
+			return null;
+		}
+
+		// Add OnPaymentProductsCallComplete listener and a listener of this class to list of listeners so we can reset the iinLookupPending flag
+		final GcCall gcCall = new GcCall();
 		List<OnIinLookupCompleteListener> listeners = new ArrayList<OnIinLookupCompleteListener>();
-		listeners.add(this);
+		listeners.add(new OnIinLookupCompleteListener() {
+			@Override
+			public void onIinLookupComplete(IinDetailsResponse response) {
+				gcCall.finish();
+				GcSession.this.onIinLookupComplete(response);
+				prefetchResolvedCard(context, response, paymentContext);
+			}
+		});
 		listeners.add(listener);
 
-		if (!iinLookupPending) {
+		// A lookup that is cancelled no longer blocks the next lookup
+		gcCall.addOnAbort(new Runnable() {
+			@Override
+			public void run() {
+				iinLookupPending.set(false);
+			}
+		});
+		CancellationHandle handle = new CancellationHandle(gcCall, null, listener);
+
+		try {
+			gcCall.execute(new IinLookupAsyncTask(context, partialCreditCardNumber, communicator, listeners, paymentContext), sdkExecutor, Priority.INTERACTIVE);
+		} catch (RuntimeException e) {
+			iinLookupPending.set(false);
+			throw e;
+		}
+		return handle;
+	}
 
-			IinLookupAsyncTask task = new IinLookupAsyncTask(context, partialCreditCardNumber, communicator, listeners, paymentContext);
-			task.execute();
 
-			iinLookupPending = true;
+	/**
+	 * Starts the lookup of the IinDetails for the IinLookupPipeline, which cancels the lookups it no longer needs itself
+	 * Unlike getIinDetails() the lookup is not blocked by another pending lookup
+	 *
+	 * @return CancellationHandle, which cancels this call
+	 */
+	CancellationHandle startIinLookupForPipeline(final Context context, String partialCreditCardNumber, OnIinLookupCompleteListener listener, final PaymentContext paymentContext) {
+
+		final GcCall gcCall = new GcCall();
+		List<OnIinLookupCompleteListener> listeners = new ArrayList<OnIinLookupCompleteListener>();
+		listeners.add(new OnIinLookupCompleteListener() {
+			@Override
+			public void onIinLookupComplete(IinDetailsResponse response) {
+				gcCall.finish();
+				prefetchResolvedCard(context, response, paymentContext);
+			}
+		});
+		listeners.add(listener);
+		CancellationHandle handle = new CancellationHandle(gcCall, null, listener);
+
+		gcCall.execute(new IinLookupAsyncTask(context, partialCreditCardNumber, communicator, listeners, paymentContext), sdkExecutor, Priority.INTERACTIVE);
+		return handle;
+	}
+
+
+	/**
+	 * Starts reading the IinResponseCache from internal storage in the background, for getLocalIinDetails()
+	 */
+	void loadIinResponseCache(final Context context) {
+
+		if (communicator.isIinResponseCacheLoaded()) {
+			return;
 		}
+		sdkExecutor.getIoExecutor(Priority.BACKGROUND).execute(new Runnable() {
+			@Override
+			public void run() {
+				communicator.loadIinResponseCache(context);
+			}
+		});
+	}
+
+
+	/**
+	 * Starts reading the ranges of the BinRangeTable in the background, for the provisional responses of the IinLookupPipeline
+	 */
+	void loadBinRangeTable(final BinRangeTable binRangeTable) {
+
+		if (binRangeTable.isLoaded()) {
+			return;
+		}
+		sdkExecutor.getIoExecutor(Priority.BACKGROUND).execute(new Runnable() {
+			@Override
+			public void run() {
+				binRangeTable.load();
+			}
+		});
+	}
+
+
+	/**
+	 * Gets the IinDetails for the IinLookupPipeline from the IinResponseCache, without blocking the main thread
+	 * A response with a status other than PROVISIONAL is the result of an earlier lookup, and needs no new lookup
+	 *
+	 * @return the result of the lookup of the longest prefix that was looked up before, a PROVISIONAL response,
+	 * or null when nothing is known about the input or the IinResponseCache has not been read yet
+	 */
+	IinDetailsResponse getLocalIinDetails(Context context, String partialCreditCardNumber, PaymentContext paymentContext) {
+
+		if (!communicator.isIinResponseCacheLoaded()) {
+			return null;
+		}
+		IinDetailsResponse response = communicator.getLocalIinDetails(partialCreditCardNumber, context, paymentContext);
+		if (response == null || response.getStatus() == IinStatus.PROVISIONAL) {
+			return response;
+		}
+		response = IinLookupAsyncTask.getLookupResult(response);
+		prefetchResolvedCard(context, response, paymentContext);
+		return response;
 	}
 
 
@@ -361,8 +686,9 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 	 * @param context, used for reading device metada which is send to the GC gateway 
 	 * @param listener, OnPublicKeyLoaded listener which is called when the publickey is retrieved
 	 * 
+	 * @return CancellationHandle, which cancels this call
 	 */
-	public void getPublicKey(Context context, OnPublicKeyLoadedListener listener) {
+	public CancellationHandle getPublicKey(Context context, OnPublicKeyLoadedListener listener) {
 		
 		if (context == null ) {
 			throw new InvalidParameterException("Error getting public key, context may not be null");
@@ -370,8 +696,41 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 		if (listener == null ) {
 			throw new InvalidParameterException("Error getting public key, listener may not be null");
 		}
-		PublicKeyAsyncTask task = new PublicKeyAsyncTask(context, communicator, listener);
-		task.execute();
+		return getPublicKey(context, listener, Priority.USER_VISIBLE);
+	}
+
+
+	/**
+	 * Retrieves the publickey from the GC gateway with the given priority, the listener may be null for the warm up
+	 * A call that is already being executed keeps its priority, a call that is still queued gets the higher of both
+	 */
+	private CancellationHandle getPublicKey(Context context, OnPublicKeyLoadedListener listener, Priority priority) {
+
+		// If the publickey is already loaded, call the listener with it
+		if (publicKeyResponse != null) {
+			if (listener != null) {
+				listener.onPublicKeyLoaded(publicKeyResponse);
+			}
+			return new CancellationHandle();
+		}
+
+		// If the publickey is already being retrieved, wait for that call instead of starting a new one
+		SingleFlight.Flight<OnPublicKeyLoadedListener> flight = createFlight(publicKeyCalls, PUBLIC_KEY_CALL, priority);
+		CancellationHandle handle = publicKeyCalls.joinOrStart(PUBLIC_KEY_CALL, flight, listener);
+		if (!flight.isStarted()) {
+			return handle;
+		}
+
+		// A call that completed since the publickey was checked has already stored it
+		OnPublicKeyLoadedListener completeListener = completePublicKeyCall(flight);
+		if (publicKeyResponse != null) {
+			completeListener.onPublicKeyLoaded(publicKeyResponse);
+			return handle;
+		}
+
+		// The task calls a single listener, which calls all listeners of the call
+		flight.getGcCall().execute(createPublicKeyTask(context, completeListener), sdkExecutor, priority);
+		return handle;
 	}
 
 	
@@ -382,8 +741,9 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 	 * @param context, used for reading device metada which is send to the GC gateway
 	 * @param listener, OnPaymentRequestPrepared which is called when the PreparedPaymentRequest is created
 	 * 
+	 * @return CancellationHandle, which cancels this call
 	 */
-	public void preparePaymentRequest(PaymentRequest paymentRequest, Context context, OnPaymentRequestPreparedListener listener) {
+	public CancellationHandle preparePaymentRequest(PaymentRequest paymentRequest, Context context, OnPaymentRequestPreparedListener listener) {
 		
 		if (paymentRequest == null ) {
 			throw new InvalidParameterException("Error preparing pamyentrequest, paymentRequest may not be null");
@@ -395,10 +755,14 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 			throw new InvalidParameterException("Error preparing pamyentrequest, listener may not be null");
 		}
 		
-		GcSessionEncryptionHelper gcSessionEncryptionHelper = new GcSessionEncryptionHelper(context, paymentRequest, clientSessionId, listener);
+		GcSessionEncryptionHelper gcSessionEncryptionHelper = new GcSessionEncryptionHelper(context, paymentRequest, clientSessionId, communicator, listener);
+		gcSessionEncryptionHelper.setSdkExecutor(sdkExecutor);
 		
 		// Execute the getPublicKey, which will trigger the listener in the GcSessionEncryptionHelper
-		getPublicKey(context, gcSessionEncryptionHelper);
+		// The user is waiting after pressing Pay, so the publickey is retrieved with interactive priority
+		CancellationHandle handle = getPublicKey(context, gcSessionEncryptionHelper, Priority.INTERACTIVE);
+		gcSessionEncryptionHelper.setCancellationHandle(handle);
+		return handle;
 	}
 	
 	
@@ -411,8 +775,9 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 	 * @param context,  needed for reading metadata
 	 * @param listener, listener which will be called by the AsyncTask
 	 * 
+	 * @return CancellationHandle, which cancels this call
 	 */
-	public void convertAmount (Long amount, String source, String target, Context context, OnAmountConvertedListener listener) {
+	public CancellationHandle convertAmount (Long amount, String source, String target, Context context, OnAmountConvertedListener listener) {
 		
 		if (amount == null ) {
 			throw new InvalidParameterException("Error converting amount, amount may not be null");
@@ -430,11 +795,362 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 			throw new InvalidParameterException("Error converting amount, listener may not be null");
 		}
 		
-		ConvertAmountAsyncTask task = new ConvertAmountAsyncTask(amount, source, target, context, communicator, listener);
-		task.execute();
+		GcCall gcCall = new GcCall();
+		CancellationHandle handle = new CancellationHandle(gcCall, null, listener);
+		gcCall.execute(new ConvertAmountAsyncTask(amount, source, target, context, communicator, listener), sdkExecutor, Priority.USER_VISIBLE);
+		return handle;
 	}
 	
 	
+	/**
+	 * Gets the BasicPaymentItems, see getBasicPaymentItems(Context, PaymentContext, OnBasicPaymentItemsCallCompleteListener, boolean)
+	 *
+	 * @return GcFuture with the BasicPaymentItems, which cancels this call
+	 */
+	public GcFuture<BasicPaymentItems> getBasicPaymentItems(Context context, PaymentContext paymentContext, boolean groupPaymentProducts) {
+
+		final GcFuture<BasicPaymentItems> future = new GcFuture<BasicPaymentItems>();
+		future.setCancellationHandle(getBasicPaymentItems(context, paymentContext, new OnBasicPaymentItemsCallCompleteListener() {
+			@Override
+			public void onBasicPaymentItemsCallComplete(BasicPaymentItems basicPaymentItems) {
+				future.completeWithResult(basicPaymentItems, "Error getting BasicPaymentItems");
+			}
+		}, groupPaymentProducts));
+		return future;
+	}
+
+
+	/**
+	 * Gets the BasicPaymentProducts, see getBasicPaymentProducts(Context, PaymentContext, OnBasicPaymentProductsCallCompleteListener)
+	 *
+	 * @return GcFuture with the BasicPaymentProducts, which cancels this call
+	 */
+	public GcFuture<BasicPaymentProducts> getBasicPaymentProducts(Context context, PaymentContext paymentContext) {
+
+		final GcFuture<BasicPaymentProducts> future = new GcFuture<BasicPaymentProducts>();
+		future.setCancellationHandle(getBasicPaymentProducts(context, paymentContext, new OnBasicPaymentProductsCallCompleteListener() {
+			@Override
+			public void onBasicPaymentProductsCallComplete(BasicPaymentProducts basicPaymentProducts) {
+				future.completeWithResult(basicPaymentProducts, "Error getting BasicPaymentProducts");
+			}
+		}));
+		return future;
+	}
+
+
+	/**
+	 * Gets the PaymentProduct, see getPaymentProduct(Context, String, PaymentContext, OnPaymentProductCallCompleteListener)
+	 *
+	 * @return GcFuture with the PaymentProduct, which cancels this call
+	 */
+	public GcFuture<PaymentProduct> getPaymentProduct(Context context, final String productId, PaymentContext paymentContext) {
+
+		final GcFuture<PaymentProduct> future = new GcFuture<PaymentProduct>();
+		future.setCancellationHandle(getPaymentProduct(context, productId, paymentContext, new OnPaymentProductCallCompleteListener() {
+			@Override
+			public void onPaymentProductCallComplete(PaymentProduct paymentProduct) {
+				future.completeWithResult(paymentProduct, "Error getting PaymentProduct " + productId);
+			}
+		}));
+		return future;
+	}
+
+
+	/**
+	 * Gets the BasicPaymentProductGroups, see getBasicPaymentProductGroups(Context, PaymentContext, OnBasicPaymentProductGroupsCallCompleteListener)
+	 *
+	 * @return GcFuture with the BasicPaymentProductGroups, which cancels this call
+	 */
+	public GcFuture<BasicPaymentProductGroups> getBasicPaymentProductGroups(Context context, PaymentContext paymentContext) {
+
+		final GcFuture<BasicPaymentProductGroups> future = new GcFuture<BasicPaymentProductGroups>();
+		future.setCancellationHandle(getBasicPaymentProductGroups(context, paymentContext, new OnBasicPaymentProductGroupsCallCompleteListener() {
+			@Override
+			public void onBasicPaymentProductGroupsCallComplete(BasicPaymentProductGroups basicPaymentProductGroups) {
+				future.completeWithResult(basicPaymentProductGroups, "Error getting BasicPaymentProductGroups");
+			}
+		}));
+		return future;
+	}
+
+
+	/**
+	 * Gets the PaymentProductGroup, see getPaymentProductGroup(Context, String, PaymentContext, OnPaymentProductGroupCallCompleteListener)
+	 *
+	 * @return GcFuture with the PaymentProductGroup, which cancels this call
+	 */
+	public GcFuture<PaymentProductGroup> getPaymentProductGroup(Context context, final String groupId, PaymentContext paymentContext) {
+
+		final GcFuture<PaymentProductGroup> future = new GcFuture<PaymentProductGroup>();
+		future.setCancellationHandle(getPaymentProductGroup(context, groupId, paymentContext, new OnPaymentProductGroupCallCompleteListener() {
+			@Override
+			public void onPaymentProductGroupCallComplete(PaymentProductGroup paymentProductGroup) {
+				future.completeWithResult(paymentProductGroup, "Error getting PaymentProductGroup " + groupId);
+			}
+		}));
+		return future;
+	}
+
+
+	/**
+	 * Gets the directory of a PaymentProduct, see getDirectoryForPaymentProductId(String, CurrencyCode, CountryCode, Context, OnPaymentProductDirectoryCallCompleteListener)
+	 *
+	 * @return GcFuture with the PaymentProductDirectoryResponse, which cancels this call
+	 */
+	public GcFuture<PaymentProductDirectoryResponse> getDirectoryForPaymentProductId(final String productId, CurrencyCode currencyCode, CountryCode countryCode, Context context) {
+
+		final GcFuture<PaymentProductDirectoryResponse> future = new GcFuture<PaymentProductDirectoryResponse>();
+		future.setCancellationHandle(getDirectoryForPaymentProductId(productId, currencyCode, countryCode, context, new OnPaymentProductDirectoryCallCompleteListener() {
+			@Override
+			public void onPaymentProductDirectoryCallComplete(PaymentProductDirectoryResponse paymentProductDirectoryResponse) {
+				future.completeWithResult(paymentProductDirectoryResponse, "Error getting directory of PaymentProduct " + productId);
+			}
+		}));
+		return future;
+	}
+
+
+	/**
+	 * Gets the IinDetails, see getIinDetails(Context, String, OnIinLookupCompleteListener, PaymentContext)
+	 * The future fails with an IllegalStateException when another lookup is still pending
+	 *
+	 * @return GcFuture with the IinDetailsResponse, which cancels this call
+	 */
+	public GcFuture<IinDetailsResponse> getIinDetails(Context context, String partialCreditCardNumber, PaymentContext paymentContext) {
+
+		if (context == null ) {
+			throw new InvalidParameterException("Error getting iinDetails, context may not be null");
+		}
+		if (partialCreditCardNumber == null ) {
+			throw new InvalidParameterException("Error getting iinDetails, productId may not be null");
+		}
+
+		final GcFuture<IinDetailsResponse> future = new GcFuture<IinDetailsResponse>();
+		CancellationHandle handle = startIinLookup(context, partialCreditCardNumber, new OnIinLookupCompleteListener() {
+			@Override
+			public void onIinLookupComplete(IinDetailsResponse response) {
+				future.completeWithResult(response, "Error getting iinDetails");
+			}
+		}, paymentContext);
+		if (handle == null) {
+			return GcFuture.failed(new IllegalStateException("Error getting iinDetails, another lookup is pending"));
+		}
+		future.setCancellationHandle(handle);
+		return future;
+	}
+
+
+	/**
+	 * Gets the PaymentProducts of the brand and of the co-brands of an IIN lookup in parallel, with their logos set,
+	 * so the form can be switched to the brand of the card, and its co-brands offered, without further calls.
+	 * PaymentProducts that are cached or being loaded, for instance by the prefetch that a completed lookup of this session
+	 * starts, are not loaded again. A PaymentProduct that can not be loaded is left out of the ResolvedCard.
+	 *
+	 * @param context, used for reading device metada which is send to the GC gateway
+	 * @param iinResponse, the response of the IIN lookup
+	 * @param paymentContext, PaymentContext which contains all neccesary data for doing call to the GC gateway to retrieve the paymentproducts
+	 *
+	 * @return GcFuture with the ResolvedCard, which cancels the calls
+	 */
+	public GcFuture<ResolvedCard> resolveCard(final Context context, final IinDetailsResponse iinResponse, PaymentContext paymentContext) {
+
+		if (context == null ) {
+			throw new InvalidParameterException("Error resolving card, context may not be null");
+		}
+		if (iinResponse == null ) {
+			throw new InvalidParameterException("Error resolving card, iinResponse may not be null");
+		}
+		if (paymentContext == null) {
+			throw new InvalidParameterException("Error resolving card, paymentContext may not be null");
+		}
+
+		// Only the brand of a card that can be paid with is loaded, and only the co-brands that are allowed in context
+		GcFuture<PaymentProduct> paymentProductFuture = GcFuture.completed(null);
+		if (iinResponse.getPaymentProductId() != null && (iinResponse.getStatus() == IinStatus.SUPPORTED || iinResponse.getStatus() == IinStatus.PROVISIONAL)) {
+			paymentProductFuture = loadPaymentProductWithLogo(context, iinResponse.getPaymentProductId(), paymentContext);
+		}
+		List<GcFuture<PaymentProduct>> coBrandFutures = new ArrayList<GcFuture<PaymentProduct>>();
+		if (iinResponse.getCoBrands() != null) {
+			for (IinDetail coBrand : iinResponse.getCoBrands()) {
+				if (coBrand.isAllowedInContext()) {
+					coBrandFutures.add(loadPaymentProductWithLogo(context, coBrand.getPaymentProductId(), paymentContext));
+				}
+			}
+		}
+
+		return GcFuture.allOf(paymentProductFuture, GcFuture.allAsList(coBrandFutures)).then(new Function<List<Object>, ResolvedCard>() {
+			@Override
+			@SuppressWarnings("unchecked")
+			public ResolvedCard apply(List<Object> results) {
+				List<PaymentProduct> coBrands = new ArrayList<PaymentProduct>();
+				for (PaymentProduct coBrand : (List<PaymentProduct>) results.get(1)) {
+					if (coBrand != null) {
+						coBrands.add(coBrand);
+					}
+				}
+				return new ResolvedCard(iinResponse, (PaymentProduct) results.get(0), coBrands);
+			}
+		});
+	}
+
+
+	/**
+	 * Loads the PaymentProduct and then its logo; the future completes with null when the PaymentProduct can not be loaded
+	 */
+	private GcFuture<PaymentProduct> loadPaymentProductWithLogo(final Context context, String productId, PaymentContext paymentContext) {
+
+		return getPaymentProduct(context, productId, paymentContext).thenCompose(new AsyncFunction<PaymentProduct, PaymentProduct>() {
+			@Override
+			public GcFuture<PaymentProduct> apply(final PaymentProduct paymentProduct) {
+
+				if (paymentProduct.getDisplayHints() == null || paymentProduct.getDisplayHints().getLogo() != null) {
+					return GcFuture.completed(paymentProduct);
+				}
+
+				final GcFuture<PaymentProduct> withLogo = new GcFuture<PaymentProduct>();
+				AssetManager.getInstance(context).loadLogo(paymentProduct.getId(), new OnLogoLoadedListener() {
+					@Override
+					public void onLogoLoaded(String paymentItemId, Drawable logo) {
+						if (logo != null) {
+							paymentProduct.getDisplayHints().setLogo(logo);
+						}
+						withLogo.complete(paymentProduct);
+					}
+				});
+				return withLogo;
+			}
+		}).orElse(null);
+	}
+
+
+	/**
+	 * Starts loading the ResolvedCard of a completed IIN lookup, before its listener is called, so the calls the listener
+	 * does to switch the form to the brand of the card are served from the cache, or wait for these calls
+	 */
+	private void prefetchResolvedCard(Context context, IinDetailsResponse response, PaymentContext paymentContext) {
+
+		if (iinPrefetchDisabled || response == null || paymentContext == null || response.getStatus() != IinStatus.SUPPORTED) {
+			return;
+		}
+		resolveCard(context, response, paymentContext);
+	}
+
+
+	/**
+	 * Gets the publickey, see getPublicKey(Context, OnPublicKeyLoadedListener)
+	 *
+	 * @return GcFuture with the PublicKeyResponse, which cancels this call
+	 */
+	public GcFuture<PublicKeyResponse> getPublicKey(Context context) {
+
+		final GcFuture<PublicKeyResponse> future = new GcFuture<PublicKeyResponse>();
+		future.setCancellationHandle(getPublicKey(context, new OnPublicKeyLoadedListener() {
+			@Override
+			public void onPublicKeyLoaded(PublicKeyResponse response) {
+				future.completeWithResult(response, "Error getting publickey");
+			}
+		}));
+		return future;
+	}
+
+
+	/**
+	 * Prepares a PreparedPaymentRequest, see preparePaymentRequest(PaymentRequest, Context, OnPaymentRequestPreparedListener)
+	 *
+	 * @return GcFuture with the PreparedPaymentRequest, which cancels this call
+	 */
+	public GcFuture<PreparedPaymentRequest> preparePaymentRequest(PaymentRequest paymentRequest, Context context) {
+
+		final GcFuture<PreparedPaymentRequest> future = new GcFuture<PreparedPaymentRequest>();
+		future.setCancellationHandle(preparePaymentRequest(paymentRequest, context, new OnPaymentRequestPreparedListener() {
+			@Override
+			public void onPaymentRequestPrepared(PreparedPaymentRequest preparedPaymentRequest) {
+				future.completeWithResult(preparedPaymentRequest, "Error preparing paymentrequest");
+			}
+		}));
+		return future;
+	}
+
+
+	/**
+	 * Converts an amount, see convertAmount(Long, String, String, Context, OnAmountConvertedListener)
+	 *
+	 * @return GcFuture with the converted amount in cents, which cancels this call
+	 */
+	public GcFuture<Long> convertAmount(Long amount, String source, String target, Context context) {
+
+		final GcFuture<Long> future = new GcFuture<Long>();
+		future.setCancellationHandle(convertAmount(amount, source, target, context, new OnAmountConvertedListener() {
+			@Override
+			public void OnAmountConverted(Long convertedAmount) {
+				future.completeWithResult(convertedAmount, "Error converting amount");
+			}
+		}));
+		return future;
+	}
+
+
+	/**
+	 * Discards the device metadata which is sent to the GC gateway, so it is computed again for the next call
+	 * Call this when the configuration of the device changes, for instance from Activity.onConfigurationChanged()
+	 */
+	public void invalidateMetadata() {
+		communicator.invalidateMetadata();
+	}
+
+
+	/**
+	 * Sets the SdkExecutor which executes the calls of all sessions that have no SdkExecutor of their own
+	 * By default the process wide DefaultSdkExecutor.getSharedInstance() is used. Sessions that are deserialised, for instance
+	 * when the app is restored after its process was killed, use this executor as well, so set it in Application.onCreate()
+	 *
+	 * @param sdkExecutor, the SdkExecutor which will be used for the calls of those sessions
+	 */
+	public static void setDefaultSdkExecutor(SdkExecutor sdkExecutor) {
+
+		if (sdkExecutor == null) {
+			throw new InvalidParameterException("Error setting defaultSdkExecutor, sdkExecutor may not be null");
+		}
+		defaultSdkExecutor = sdkExecutor;
+	}
+
+	private static SdkExecutor getDefaultSdkExecutor() {
+		SdkExecutor sdkExecutor = defaultSdkExecutor;
+		return sdkExecutor != null ? sdkExecutor : DefaultSdkExecutor.getSharedInstance();
+	}
+
+
+	/**
+	 * Sets the SdkExecutor which executes the calls of this session
+	 * By default the executor of setDefaultSdkExecutor() is used. The executor is not serialised, a deserialised session
+	 * uses the default executor again, so set it after deserialisation, or use setDefaultSdkExecutor() instead
+	 *
+	 * @param sdkExecutor, the SdkExecutor which will be used for all calls
+	 */
+	public void setSdkExecutor(SdkExecutor sdkExecutor) {
+
+		if (sdkExecutor == null) {
+			throw new InvalidParameterException("Error setting sdkExecutor, sdkExecutor may not be null");
+		}
+		this.sdkExecutor = sdkExecutor;
+	}
+
+	public SdkExecutor getSdkExecutor() {
+		return sdkExecutor;
+	}
+
+
+	/**
+	 * Sets whether a completed IIN lookup with status SUPPORTED starts loading the PaymentProducts and logos of the card right away,
+	 * see resolveCard(). This is enabled by default; disable it when the brand of the card never changes the form
+	 *
+	 * @param prefetchOnIinLookup, true to prefetch the ResolvedCard of every supported card
+	 */
+	public void setPrefetchOnIinLookup(boolean prefetchOnIinLookup) {
+		iinPrefetchDisabled = !prefetchOnIinLookup;
+	}
+
+
 	/**
 	 * Utility methods for setting clientSessionId
 	 * @param clientSessionId
@@ -456,6 +1172,14 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 	}
 
 
+	/**
+	 * Accessor of the communicator for the GcSyncClient, which shares it with this session
+	 */
+	C2sCommunicator getCommunicator() {
+		return communicator;
+	}
+
+
 	private PaymentItemCacheKey createPaymentItemCacheKey(PaymentContext paymentContext, String paymentItemId) {
 
 		// Create the cache key for this retrieved BasicPaymentitem
@@ -466,94 +1190,249 @@ public class GcSession implements OnBasicPaymentProductsCallCompleteListener, On
 				paymentItemId);
 	}
 
-	private void cacheBasicPaymentItem(BasicPaymentItem basicPaymentItem) {
-		// Add basicPaymentItem to the basicPaymentItemMapping cache
-		if (basicPaymentItem != null) {
+	private PaymentContextCacheKey createPaymentContextCacheKey(PaymentContext paymentContext) {
 
-			// Create the cache key for and put it in the cache
-			PaymentItemCacheKey key = createPaymentItemCacheKey(paymentContext, basicPaymentItem.getId());
-			basicPaymentItemMapping.put(key, basicPaymentItem);
-		}
+		// Create the cache key for the paymentitems which are retrieved for this paymentContext
+		return new PaymentContextCacheKey(paymentContext.getAmountOfMoney().getAmount(),
+				paymentContext.getCountryCode(),
+				paymentContext.getAmountOfMoney().getCurrencyCode(),
+				paymentContext.isRecurring());
 	}
 
-	private void cachePaymentItem(PaymentItem paymentItem) {
-		// Add paymentItem to the paymentItemMapping cache
-		if (paymentItem != null) {
+	private <K, L> SingleFlight.Flight<L> createFlight(final SingleFlight<K, L> calls, final K key, Priority priority) {
 
-			// Create the cache key for this retrieved PaymentItem
-			PaymentItemCacheKey key = createPaymentItemCacheKey(paymentContext, paymentItem.getId());
-			paymentItemMapping.put(key, paymentItem);
-		}
+		// Forget the call when it is aborted, so the next caller starts a new one
+		final SingleFlight.Flight<L> flight = new SingleFlight.Flight<>(new GcCall(), priority);
+		flight.getGcCall().addOnAbort(new Runnable() {
+			@Override
+			public void run() {
+				calls.abort(key, flight);
+			}
+		});
+		return flight;
 	}
 
-	/**
-	 * Listener for retrieved basicpaymentproducts from the GC gateway
-	 */
-	@Override
-	public void onBasicPaymentProductsCallComplete(BasicPaymentProducts basicPaymentProducts) {
+	private OnBasicPaymentProductsCallCompleteListener completeBasicPaymentProductsCall(final PaymentContext paymentContext, final PaymentContextCacheKey key,
+			final SingleFlight.Flight<OnBasicPaymentProductsCallCompleteListener> flight) {
+
+		// Listener for the task of the call, which stores the paymentproducts here and then calls the listeners of the call
+		return new OnBasicPaymentProductsCallCompleteListener() {
+			@Override
+			public void onBasicPaymentProductsCallComplete(final BasicPaymentProducts basicPaymentProducts) {
+				if (basicPaymentProducts != null) {
+					basicPaymentProductsMapping.put(key, basicPaymentProducts);
+					cacheBasicPaymentItems(paymentContext, basicPaymentProducts.getBasicPaymentProducts());
+				}
+				basicPaymentProductsCalls.complete(key, flight, new SingleFlight.Delivery<OnBasicPaymentProductsCallCompleteListener>() {
+					@Override
+					public void deliver(OnBasicPaymentProductsCallCompleteListener listener) {
+						listener.onBasicPaymentProductsCallComplete(basicPaymentProducts);
+					}
+				});
+			}
+		};
+	}
 
-		// Store the loaded basicPaymentProducts in the cache
-		for (BasicPaymentProduct paymentProduct: basicPaymentProducts.getBasicPaymentProducts()) {
-			cacheBasicPaymentItem(paymentProduct);
-		}
+	private OnBasicPaymentProductGroupsCallCompleteListener completeBasicPaymentProductGroupsCall(final PaymentContext paymentContext, final PaymentContextCacheKey key,
+			final SingleFlight.Flight<OnBasicPaymentProductGroupsCallCompleteListener> flight) {
+
+		// Listener for the task of the call, which stores the paymentProductGroups here and then calls the listeners of the call
+		return new OnBasicPaymentProductGroupsCallCompleteListener() {
+			@Override
+			public void onBasicPaymentProductGroupsCallComplete(final BasicPaymentProductGroups basicPaymentProductGroups) {
+				if (basicPaymentProductGroups != null) {
+					basicPaymentProductGroupsMapping.put(key, basicPaymentProductGroups);
+					cacheBasicPaymentItems(paymentContext, basicPaymentProductGroups.getBasicPaymentProductGroups());
+				}
+				basicPaymentProductGroupsCalls.complete(key, flight, new SingleFlight.Delivery<OnBasicPaymentProductGroupsCallCompleteListener>() {
+					@Override
+					public void deliver(OnBasicPaymentProductGroupsCallCompleteListener listener) {
+						listener.onBasicPaymentProductGroupsCallComplete(basicPaymentProductGroups);
+					}
+				});
+			}
+		};
 	}
-	
-	
-	/**
-	 * Listener for retrieved paymentproduct from the GC gateway
-	 */
-	@Override
-	public void onPaymentProductCallComplete(PaymentProduct paymentProduct) {
-		
-		// Store the loaded paymentProduct in the cache
-		cachePaymentItem(paymentProduct);
+
+	private OnPublicKeyLoadedListener completePublicKeyCall(final SingleFlight.Flight<OnPublicKeyLoadedListener> flight) {
+
+		// Listener for the task of the call, which stores the publickey here and then calls the listeners of the call
+		return new OnPublicKeyLoadedListener() {
+			@Override
+			public void onPublicKeyLoaded(final PublicKeyResponse response) {
+				if (response != null) {
+					publicKeyResponse = response;
+				}
+				publicKeyCalls.complete(PUBLIC_KEY_CALL, flight, new SingleFlight.Delivery<OnPublicKeyLoadedListener>() {
+					@Override
+					public void deliver(OnPublicKeyLoadedListener listener) {
+						listener.onPublicKeyLoaded(response);
+					}
+				});
+			}
+		};
 	}
 
+	// The tasks of the calls complete them on their background thread, instead of in onPostExecute on the main thread,
+	// so the GcSyncClient, which waits for the same calls, gets its result while the main thread is busy
 
-	/**
-	 * Listener for retrieved basicpaymentproductgroups from the GC gateway
-     */
-	@Override
-	public void onBasicPaymentProductGroupsCallComplete(BasicPaymentProductGroups basicPaymentProductGroups) {
+	private BasicPaymentProductsAsyncTask createBasicPaymentProductsTask(Context context, PaymentContext paymentContext, final OnBasicPaymentProductsCallCompleteListener completeListener) {
 
-		// Store the loaded basicPaymentProductGroups in the cache
-		for (BasicPaymentProductGroup paymentProductGroup: basicPaymentProductGroups.getBasicPaymentProductGroups()) {
-			cacheBasicPaymentItem(paymentProductGroup);
-		}
+		// Without listeners the task only binds the logos on the main thread
+		return new BasicPaymentProductsAsyncTask(context, paymentContext, communicator, Collections.<OnBasicPaymentProductsCallCompleteListener>emptyList()) {
+			@Override
+			protected BasicPaymentProducts doInBackground(String... params) {
+				BasicPaymentProducts basicPaymentProducts = super.doInBackground(params);
+				if (!isCancelled()) {
+					completeListener.onBasicPaymentProductsCallComplete(basicPaymentProducts);
+				}
+				return basicPaymentProducts;
+			}
+		};
 	}
 
+	private BasicPaymentProductGroupsAsyncTask createBasicPaymentProductGroupsTask(Context context, PaymentContext paymentContext, final OnBasicPaymentProductGroupsCallCompleteListener completeListener) {
+
+		// Without listeners the task only binds the logos on the main thread
+		return new BasicPaymentProductGroupsAsyncTask(context, paymentContext, communicator, Collections.<OnBasicPaymentProductGroupsCallCompleteListener>emptyList()) {
+			@Override
+			protected BasicPaymentProductGroups doInBackground(String... params) {
+				BasicPaymentProductGroups basicPaymentProductGroups = super.doInBackground(params);
+				if (!isCancelled()) {
+					completeListener.onBasicPaymentProductGroupsCallComplete(basicPaymentProductGroups);
+				}
+				return basicPaymentProductGroups;
+			}
+		};
+	}
 
-	/**
-	 * Listener for retrieved paymentproductgroup from the GC gateway
-     */
-	@Override
-	public void onPaymentProductGroupCallComplete(PaymentProductGroup paymentProductGroup) {
+	private PaymentProductAsyncTask createPaymentProductTask(Context context, String productId, PaymentContext paymentContext, final OnPaymentProductCallCompleteListener completeListener) {
 
-		// Store the loaded paymentProductGroup in the cache
-		cachePaymentItem(paymentProductGroup);
+		return new PaymentProductAsyncTask(context, productId, paymentContext, communicator, Collections.<OnPaymentProductCallCompleteListener>emptyList()) {
+			@Override
+			protected PaymentProduct doInBackground(String... params) {
+				PaymentProduct paymentProduct = super.doInBackground(params);
+				if (!isCancelled()) {
+					completeListener.onPaymentProductCallComplete(paymentProduct);
+				}
+				return paymentProduct;
+			}
+		};
 	}
 
+	private PaymentProductGroupAsyncTask createPaymentProductGroupTask(Context context, String groupId, PaymentContext paymentContext, final OnPaymentProductGroupCallCompleteListener completeListener) {
 
-	/**
-	 * Listener for retrieved paymentitems from the GC gateway
-     */
-	@Override
-	public void onBasicPaymentItemsCallComplete(BasicPaymentItems basicPaymentItems) {
+		return new PaymentProductGroupAsyncTask(context, groupId, paymentContext, communicator, Collections.<OnPaymentProductGroupCallCompleteListener>emptyList()) {
+			@Override
+			protected PaymentProductGroup doInBackground(String... params) {
+				PaymentProductGroup paymentProductGroup = super.doInBackground(params);
+				if (!isCancelled()) {
+					completeListener.onPaymentProductGroupCallComplete(paymentProductGroup);
+				}
+				return paymentProductGroup;
+			}
+		};
+	}
+
+	private PublicKeyAsyncTask createPublicKeyTask(Context context, final OnPublicKeyLoadedListener completeListener) {
+
+		// The listener is called in doInBackground, so it is not called again in onPostExecute
+		return new PublicKeyAsyncTask(context, communicator, completeListener) {
+			@Override
+			protected PublicKeyResponse doInBackground(String... params) {
+				PublicKeyResponse response = super.doInBackground(params);
+				if (!isCancelled()) {
+					completeListener.onPublicKeyLoaded(response);
+				}
+				return response;
+			}
 
-		if (basicPaymentItems != null) {
-			// Store the loaded basicPaymentItems in the cache
-			for (BasicPaymentItem basicPaymentItem : basicPaymentItems.getBasicPaymentItems()) {
-				cacheBasicPaymentItem(basicPaymentItem);
+			@Override
+			protected void onPostExecute(PublicKeyResponse response) {
+			}
+		};
+	}
+
+	private void cacheBasicPaymentItems(PaymentContext paymentContext, List<? extends BasicPaymentItem> basicPaymentItems) {
+		// Add the basicPaymentItems to the basicPaymentItemMapping cache, under the paymentContext of the call that loaded them
+		for (BasicPaymentItem basicPaymentItem : basicPaymentItems) {
+			if (basicPaymentItem != null) {
+
+				// Create the cache key for and put it in the cache
+				PaymentItemCacheKey key = createPaymentItemCacheKey(paymentContext, basicPaymentItem.getId());
+				basicPaymentItemMapping.put(key, basicPaymentItem);
 			}
 		}
 	}
 
+	private void cachePaymentItem(PaymentItemCacheKey key, PaymentItem paymentItem) {
+		// Add paymentItem to the paymentItemMapping cache, under the key of the call that loaded it
+		if (paymentItem != null) {
+			paymentItemMapping.put(key, paymentItem);
+		}
+	}
 
 	/**
 	 * Listener for retrieved iindetails from the GC gateway
 	 */
 	@Override
 	public void onIinLookupComplete(IinDetailsResponse response) {
-		iinLookupPending = false;
+		iinLookupPending.set(false);
+	}
+
+
+	/**
+	 * Combines the BasicPaymentProducts and BasicPaymentProductGroups of this session into BasicPaymentItems, once both are loaded
+	 * One of them may be delivered from the cache on the thread of the caller while the other is delivered on the main thread
+	 */
+	private class BasicPaymentItemsCombiner implements OnBasicPaymentProductsCallCompleteListener, OnBasicPaymentProductGroupsCallCompleteListener {
+
+		private PaymentContext paymentContext;
+		private OnBasicPaymentItemsCallCompleteListener listener;
+
+		private BasicPaymentProducts basicPaymentProducts;
+		private BasicPaymentProductGroups basicPaymentProductGroups;
+		private boolean basicPaymentProductsLoaded = false;
+		private boolean basicPaymentProductGroupsLoaded;
+
+		private BasicPaymentItemsCombiner(PaymentContext paymentContext, OnBasicPaymentItemsCallCompleteListener listener, boolean groupPaymentProducts) {
+			this.paymentContext = paymentContext;
+			this.listener = listener;
+
+			// Without grouping there are no paymentProductGroups to wait for
+			this.basicPaymentProductGroupsLoaded = !groupPaymentProducts;
+		}
+
+		@Override
+		public synchronized void onBasicPaymentProductsCallComplete(BasicPaymentProducts basicPaymentProducts) {
+			this.basicPaymentProducts = basicPaymentProducts;
+			basicPaymentProductsLoaded = true;
+			combine();
+		}
+
+		@Override
+		public synchronized void onBasicPaymentProductGroupsCallComplete(BasicPaymentProductGroups basicPaymentProductGroups) {
+			this.basicPaymentProductGroups = basicPaymentProductGroups;
+			basicPaymentProductGroupsLoaded = true;
+			combine();
+		}
+
+		private void combine() {
+			if (basicPaymentProductsLoaded && basicPaymentProductGroupsLoaded) {
+				BasicPaymentItems basicPaymentItems = BasicPaymentItemsAsyncTask.createBasicPaymentItems(basicPaymentProducts, basicPaymentProductGroups);
+				if (basicPaymentItems != null) {
+					cacheBasicPaymentItems(paymentContext, basicPaymentItems.getBasicPaymentItems());
+				}
+				listener.onBasicPaymentItemsCallComplete(basicPaymentItems);
+			}
+		}
+	}
+
+
+	private class DirectBasicPaymentItemsCombiner extends BasicPaymentItemsCombiner implements SingleFlight.DirectListener {
+
+		private DirectBasicPaymentItemsCombiner(PaymentContext paymentContext, OnBasicPaymentItemsCallCompleteListener listener, boolean groupPaymentProducts) {
+			super(paymentContext, listener, groupPaymentProducts);
+		}
 	}
 }
\ No newline at end of file
@@ -5,9 +5,13 @@ import java.security.InvalidParameterException;
 import android.content.Context;
 
 import com.globalcollect.gateway.sdk.client.android.sdk.GcUtil;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.DefaultSdkExecutor;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.EncryptDataAsyncTask;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.EncryptDataAsyncTask.OnEncryptDataCompleteListener;
 import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.PublicKeyAsyncTask.OnPublicKeyLoadedListener;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.SdkExecutor;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.SdkExecutor.Priority;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCommunicator;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentRequest;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.PreparedPaymentRequest;
 import com.globalcollect.gateway.sdk.client.android.sdk.model.PublicKeyResponse;
@@ -25,9 +29,23 @@ public class GcSessionEncryptionHelper implements  OnEncryptDataCompleteListener
 	private OnPaymentRequestPreparedListener listener;
 	private PaymentRequest paymentRequest;
 	private String clientSessionId;
+
+	// Communicator whose computed metadata is added to the PreparedPaymentRequest, may be null
+	private C2sCommunicator communicator;
+
+	// Handle of the preparePaymentRequest call, the listener is not called when it is cancelled
+	private CancellationHandle cancellationHandle;
+
+	// Executes the encryption, which is CPU work
+	private SdkExecutor sdkExecutor = DefaultSdkExecutor.getSharedInstance();
 	
 	
 	public GcSessionEncryptionHelper(Context context, PaymentRequest paymentRequest, String clientSessionId, OnPaymentRequestPreparedListener listener) {
+		this(context, paymentRequest, clientSessionId, null, listener);
+	}
+
+
+	public GcSessionEncryptionHelper(Context context, PaymentRequest paymentRequest, String clientSessionId, C2sCommunicator communicator, OnPaymentRequestPreparedListener listener) {
 		
 		if (paymentRequest == null ) {
 			throw new InvalidParameterException("Error creating GcSessionEncryptionHelper, paymentRequest may not be null");
@@ -44,18 +62,28 @@ public class GcSessionEncryptionHelper implements  OnEncryptDataCompleteListener
 		
 		this.context = context;
 		this.clientSessionId = clientSessionId;
+		this.communicator = communicator;
 		this.listener = listener;
 		this.paymentRequest = paymentRequest;
 	}
 	
 	
+	public void setCancellationHandle(CancellationHandle cancellationHandle) {
+		this.cancellationHandle = cancellationHandle;
+	}
+
+	public void setSdkExecutor(SdkExecutor sdkExecutor) {
+		this.sdkExecutor = sdkExecutor;
+	}
+	
+	
 	/**
 	 * Listener for loaded publickey from the GC gateway
 	 */
 	@Override
 	public void onPublicKeyLoaded(PublicKeyResponse response) {
 	     EncryptDataAsyncTask task = new EncryptDataAsyncTask(response, paymentRequest, clientSessionId, this);
-	     task.execute();
+	     sdkExecutor.executeCpu(task, Priority.INTERACTIVE);
 	}
 	
 	
@@ -64,9 +92,17 @@ public class GcSessionEncryptionHelper implements  OnEncryptDataCompleteListener
 	 */
 	@Override
 	public void onEncryptDataComplete(String encryptedData) {
+		
+		// The payment request is no longer needed when the call is cancelled while the data was encrypted
+		if (cancellationHandle != null && cancellationHandle.isCancelled()) {
+			return;
+		}
 				
+		// Use the metadata that was already computed for the requests of the communicator
+		String metadata = communicator != null ? communicator.getBase64EncodedMetadata(context) : GcUtil.getBase64EncodedMetadata(context);
+
 		// Call the OnPaymentRequestPrepared listener with the new PreparedPaymentRequest()
-		listener.onPaymentRequestPrepared(new PreparedPaymentRequest(encryptedData, GcUtil.getBase64EncodedMetadata(context)));
+		listener.onPaymentRequestPrepared(new PreparedPaymentRequest(encryptedData, metadata));
 	}
 	
 	
@@ -0,0 +1,266 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.session;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+import android.content.Context;
+import android.os.Looper;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.BasicPaymentItemsAsyncTask.OnBasicPaymentItemsCallCompleteListener;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.EncryptDataAsyncTask;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.IinLookupAsyncTask;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.IinLookupAsyncTask.OnIinLookupCompleteListener;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.PaymentProductAsyncTask.OnPaymentProductCallCompleteListener;
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.PublicKeyAsyncTask.OnPublicKeyLoadedListener;
+import com.globalcollect.gateway.sdk.client.android.sdk.exception.CommunicationException;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentContext;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentRequest;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.PreparedPaymentRequest;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.PublicKeyResponse;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetailsResponse;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.BasicPaymentItems;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.paymentproduct.PaymentProduct;
+
+/**
+ * Blocking client for the operations of a GcSession, for background workers and server-side code which have a thread to wait on
+ *
+ * The client waits for the calls of the session, so a paymentProduct that is loaded by the client is also cached for the
+ * listener and GcFuture operations of the session, and the other way around. Callers that need a value which is being
+ * loaded, by another thread or by a listener of the session, wait for that call instead of starting a request of their own.
+ * The calls complete on their background thread, where the client is called back, so it does not wait for the main thread,
+ * which may be busy. The client is thread-safe and may be used from any thread except the main thread; every method
+ * blocks until the call to the GC gateway is done and throws a CommunicationException when it has no result, where the
+ * listener of the session would get null.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class GcSyncClient {
+
+	private final GcSession session;
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param session, the session whose operations are used
+	 */
+	public GcSyncClient(GcSession session) {
+
+		if (session == null) {
+			throw new InvalidParameterException("Error creating GcSyncClient, session may not be null");
+		}
+		this.session = session;
+	}
+
+
+	/**
+	 * Gets the BasicPaymentItems for the given paymentContext
+	 * When grouping is enabled the paymentProducts and paymentProductGroups which are not cached yet are loaded in parallel
+	 *
+	 * @param context, used for reading device metadata which is sent to the GC gateway
+	 * @param paymentContext, PaymentContext which contains all necessary data for doing call to the GC gateway to get paymentProducts
+	 * @param groupPaymentItems, true if the paymentItems should be grouped
+	 *
+	 * @throws CommunicationException, when the paymentItems could not be loaded
+	 */
+	public BasicPaymentItems getBasicPaymentItems(Context context, PaymentContext paymentContext, boolean groupPaymentItems) throws CommunicationException {
+
+		if (context == null) {
+			throw new InvalidParameterException("Error getting BasicPaymentItems, context may not be null");
+		}
+		if (paymentContext == null) {
+			throw new InvalidParameterException("Error getting BasicPaymentItems, paymentContext may not be null");
+		}
+		checkNotOnMainThread();
+
+		BasicPaymentItemsFuture future = new BasicPaymentItemsFuture();
+		future.setCancellationHandle(session.getBasicPaymentItems(context, paymentContext, future, groupPaymentItems));
+		return await(future);
+	}
+
+
+	/**
+	 * Gets the PaymentProduct with the given productId, from the cache of the session when it has been loaded before
+	 *
+	 * @param context, used for reading device metadata which is sent to the GC gateway
+	 * @param productId, the productId of the product which needs to be retrieved from the GC gateway
+	 * @param paymentContext, PaymentContext which contains all necessary data for doing call to the GC gateway to retrieve a paymentProduct
+	 *
+	 * @throws CommunicationException, when the paymentProduct could not be loaded
+	 */
+	public PaymentProduct getPaymentProduct(Context context, String productId, PaymentContext paymentContext) throws CommunicationException {
+
+		if (context == null) {
+			throw new InvalidParameterException("Error getting PaymentProduct, context may not be null");
+		}
+		if (productId == null) {
+			throw new InvalidParameterException("Error getting PaymentProduct, productId may not be null");
+		}
+		if (paymentContext == null) {
+			throw new InvalidParameterException("Error getting PaymentProduct, paymentContext may not be null");
+		}
+		checkNotOnMainThread();
+
+		PaymentProductFuture future = new PaymentProductFuture(productId);
+		future.setCancellationHandle(session.getPaymentProduct(context, productId, paymentContext, future));
+		return await(future);
+	}
+
+
+	/**
+	 * Gets the IinDetails for the given partial creditcard number
+	 *
+	 * @param context, used for reading device metadata which is sent to the GC gateway
+	 * @param partialCreditCardNumber, entered partial creditcardnumber
+	 * @param paymentContext, payment data that is sent to the gc Gateway; May be null, but this will yield a limited response from the gateway
+	 *
+	 * @throws CommunicationException, when the IinDetails could not be loaded
+	 */
+	public IinDetailsResponse getIinDetails(Context context, String partialCreditCardNumber, PaymentContext paymentContext) throws CommunicationException {
+
+		if (context == null) {
+			throw new InvalidParameterException("Error getting IinDetails, context may not be null");
+		}
+		if (partialCreditCardNumber == null) {
+			throw new InvalidParameterException("Error getting IinDetails, partialCreditCardNumber may not be null");
+		}
+		checkNotOnMainThread();
+
+		IinLookupAsyncTask task = new IinLookupAsyncTask(context, partialCreditCardNumber, session.getCommunicator(), new ArrayList<OnIinLookupCompleteListener>(), paymentContext);
+		IinDetailsResponse response = load(task);
+		if (response == null) {
+			throw new CommunicationException("Error getting IinDetails");
+		}
+		return response;
+	}
+
+
+	/**
+	 * Gets the PublicKey of the GC gateway, from the cache of the session when it has been loaded before
+	 *
+	 * @param context, used for reading device metadata which is sent to the GC gateway
+	 *
+	 * @throws CommunicationException, when the publickey could not be loaded
+	 */
+	public PublicKeyResponse getPublicKey(Context context) throws CommunicationException {
+
+		if (context == null) {
+			throw new InvalidParameterException("Error getting PublicKey, context may not be null");
+		}
+		checkNotOnMainThread();
+
+		PublicKeyFuture future = new PublicKeyFuture();
+		future.setCancellationHandle(session.getPublicKey(context, future));
+		return await(future);
+	}
+
+
+	/**
+	 * Prepares a PreparedPaymentRequest from the current paymentRequest
+	 * The values of the paymentRequest are encrypted with the publickey of the GC gateway on the calling thread
+	 *
+	 * @param paymentRequest, the paymentRequest which contains all values for all fields
+	 * @param context, used for reading device metadata which is sent to the GC gateway
+	 *
+	 * @throws CommunicationException, when the publickey could not be loaded or the paymentRequest could not be encrypted
+	 */
+	public PreparedPaymentRequest prepare(PaymentRequest paymentRequest, Context context) throws CommunicationException {
+
+		if (paymentRequest == null) {
+			throw new InvalidParameterException("Error preparing paymentrequest, paymentRequest may not be null");
+		}
+		if (context == null) {
+			throw new InvalidParameterException("Error preparing paymentrequest, context may not be null");
+		}
+
+		PublicKeyResponse publicKeyResponse = getPublicKey(context);
+		EncryptDataAsyncTask task = new EncryptDataAsyncTask(publicKeyResponse, paymentRequest, session.getClientSessionId(), null);
+		String encryptedData = load(task);
+		if (encryptedData == null) {
+			throw new CommunicationException("Error encrypting paymentrequest");
+		}
+		return new PreparedPaymentRequest(encryptedData, session.getCommunicator().getBase64EncodedMetadata(context));
+	}
+
+
+	private <T> T await(GcFuture<T> future) throws CommunicationException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			// Leave the call to the other callers that wait for it, it is only aborted when none are left
+			future.cancel();
+			Thread.currentThread().interrupt();
+			throw new CommunicationException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof CommunicationException) {
+				throw (CommunicationException) e.getCause();
+			}
+			throw new CommunicationException(e.getCause());
+		} catch (CancellationException e) {
+			throw new CommunicationException(e);
+		}
+	}
+
+
+	private <T> T load(Callable<T> callable) throws CommunicationException {
+		try {
+			return callable.call();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CommunicationException(e);
+		} catch (ExecutionException e) {
+			throw new CommunicationException(e.getCause());
+		} catch (CommunicationException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new CommunicationException(e);
+		}
+	}
+
+
+	private void checkNotOnMainThread() {
+
+		// Blocking the main thread would freeze the UI, the GcSession has listener and GcFuture operations for it
+		Looper mainLooper = Looper.getMainLooper();
+		if (mainLooper != null && mainLooper.getThread() == Thread.currentThread()) {
+			throw new IllegalStateException("GcSyncClient may not be used on the main thread");
+		}
+	}
+
+
+	// Futures which are completed on the thread that completes the call of the session, instead of on the main thread
+
+	private static class BasicPaymentItemsFuture extends GcFuture<BasicPaymentItems> implements OnBasicPaymentItemsCallCompleteListener, SingleFlight.DirectListener {
+
+		@Override
+		public void onBasicPaymentItemsCallComplete(BasicPaymentItems basicPaymentItems) {
+			completeWithResult(basicPaymentItems, "Error getting BasicPaymentItems");
+		}
+	}
+
+	private static class PaymentProductFuture extends GcFuture<PaymentProduct> implements OnPaymentProductCallCompleteListener, SingleFlight.DirectListener {
+
+		private final String productId;
+
+		private PaymentProductFuture(String productId) {
+			this.productId = productId;
+		}
+
+		@Override
+		public void onPaymentProductCallComplete(PaymentProduct paymentProduct) {
+			completeWithResult(paymentProduct, "Error getting PaymentProduct " + productId);
+		}
+	}
+
+	private static class PublicKeyFuture extends GcFuture<PublicKeyResponse> implements OnPublicKeyLoadedListener, SingleFlight.DirectListener {
+
+		@Override
+		public void onPublicKeyLoaded(PublicKeyResponse response) {
+			completeWithResult(response, "Error getting publickey");
+		}
+	}
+}
@@ -0,0 +1,214 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.session;
+
+import java.security.InvalidParameterException;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.IinLookupAsyncTask.OnIinLookupCompleteListener;
+import com.globalcollect.gateway.sdk.client.android.sdk.communicate.C2sCommunicator;
+import com.globalcollect.gateway.sdk.client.android.sdk.manager.BinRangeTable;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.PaymentContext;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinDetailsResponse;
+import com.globalcollect.gateway.sdk.client.android.sdk.model.iin.IinStatus;
+
+/**
+ * Looks up the IinDetails of a creditcardnumber while it is being typed, and always reports the result for the latest input
+ *
+ * Only the first MAX_CHARS_PAYMENT_PRODUCT_ID_LOOKUP digits of the number are sent to the GC gateway, so the pipeline looks up
+ * every prefix once: typing more digits of the same prefix reuses the lookup that is in flight, or its result. A new prefix
+ * is looked up when the input has not changed for the quiet period, and cancels the lookup of the prefix it replaces, so
+ * a slow answer for an old prefix is never reported after the answer for the new one.
+ *
+ * A prefix that was looked up before, in this or an earlier run of the app, is answered from the IinResponseCache right
+ * away, by the result of its longest cached prefix, and the GC gateway is not asked at all. Otherwise, when the cached
+ * results of longer prefixes or the BinRangeTable recognise the brand of new input, a PROVISIONAL response with its
+ * paymentProductId is reported right away, so its logo can be shown while the GC gateway is asked; the answer of the
+ * GC gateway follows and confirms or corrects it. Input that is too short to look up, and whose brand is not recognised,
+ * is reported as NOT_ENOUGH_DIGITS.
+ *
+ * The pipeline must be used on the main thread, where the listener is called as well. Call cancel() when the input is gone.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+public class IinLookupPipeline {
+
+	// Default time the input must be unchanged before its prefix is looked up
+	public static final long DEFAULT_QUIET_PERIOD_MILLIS = 150L;
+
+	private GcSession session;
+	private Context context;
+	private PaymentContext paymentContext;
+	private OnIinLookupCompleteListener listener;
+	private long quietPeriodMillis = DEFAULT_QUIET_PERIOD_MILLIS;
+	private BinRangeTable binRangeTable;
+
+	// Runs the lookup when the quiet period has passed
+	private Handler handler = new Handler(Looper.getMainLooper());
+	private Runnable startLookup = new Runnable() {
+		@Override
+		public void run() {
+			startLookup();
+		}
+	};
+
+	// The prefix of the latest input, and the lookup for it; the result is null while the lookup is in flight
+	private String prefix;
+	private OnIinLookupCompleteListener lookupListener;
+	private CancellationHandle lookupHandle;
+	private IinDetailsResponse result;
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param context, used for reading device metadata which is sent to the GC gateway
+	 * @param session, the session which does the lookups
+	 * @param listener, listener which is called with the IinDetails of the latest input
+	 * @param paymentContext, payment information for which the IinDetails are retrieved
+	 */
+	public IinLookupPipeline(Context context, GcSession session, OnIinLookupCompleteListener listener, PaymentContext paymentContext) {
+
+		if (context == null) {
+			throw new InvalidParameterException("Error creating IinLookupPipeline, context may not be null");
+		}
+		if (session == null) {
+			throw new InvalidParameterException("Error creating IinLookupPipeline, session may not be null");
+		}
+		if (listener == null) {
+			throw new InvalidParameterException("Error creating IinLookupPipeline, listener may not be null");
+		}
+
+		this.context = context;
+		this.session = session;
+		this.listener = listener;
+		this.paymentContext = paymentContext;
+		binRangeTable = BinRangeTable.getInstance(context);
+
+		// The IinResponseCache and the BinRangeTable are only used once they are read, so reading them never blocks the input
+		session.loadIinResponseCache(context);
+		session.loadBinRangeTable(binRangeTable);
+	}
+
+
+	/**
+	 * Sets the time the input must be unchanged before its prefix is looked up
+	 *
+	 * @param quietPeriodMillis, the quiet period in milliseconds; 0 looks up every new prefix right away
+	 */
+	public void setQuietPeriod(long quietPeriodMillis) {
+
+		if (quietPeriodMillis < 0) {
+			throw new InvalidParameterException("Error setting quietPeriod, quietPeriodMillis may not be negative");
+		}
+		this.quietPeriodMillis = quietPeriodMillis;
+	}
+
+
+	/**
+	 * Sets the BinRangeTable which recognises the brand before the GC gateway is asked
+	 * By default BinRangeTable.getInstance() is used
+	 *
+	 * @param binRangeTable, the BinRangeTable for the provisional responses
+	 */
+	public void setBinRangeTable(BinRangeTable binRangeTable) {
+
+		if (binRangeTable == null) {
+			throw new InvalidParameterException("Error setting binRangeTable, binRangeTable may not be null");
+		}
+		this.binRangeTable = binRangeTable;
+		session.loadBinRangeTable(binRangeTable);
+	}
+
+
+	/**
+	 * Handles the changed input of the creditcardnumber field
+	 *
+	 * @param partialCreditCardNumber, the entered partial creditcardnumber; spaces are ignored
+	 */
+	public void onInput(String partialCreditCardNumber) {
+
+		if (partialCreditCardNumber == null) {
+			throw new InvalidParameterException("Error handling input, partialCreditCardNumber may not be null");
+		}
+
+		String digits = partialCreditCardNumber.replace(" ", "");
+		String newPrefix = digits.length() >= C2sCommunicator.MAX_CHARS_PAYMENT_PRODUCT_ID_LOOKUP ? digits.substring(0, C2sCommunicator.MAX_CHARS_PAYMENT_PRODUCT_ID_LOOKUP) : null;
+
+		// The same prefix is already looked up; its result is the result for this input too
+		if (newPrefix != null && newPrefix.equals(prefix)) {
+			if (result != null) {
+				listener.onIinLookupComplete(result);
+			}
+			return;
+		}
+
+		// The lookup of the previous prefix is superseded by this input
+		cancel();
+		prefix = newPrefix;
+
+		// A prefix that was looked up before needs no new lookup
+		IinDetailsResponse provisionalResponse = session.getLocalIinDetails(context, digits, paymentContext);
+		if (provisionalResponse != null && provisionalResponse.getStatus() != IinStatus.PROVISIONAL) {
+			result = provisionalResponse;
+			listener.onIinLookupComplete(result);
+			return;
+		}
+
+		// The cached results of longer prefixes are more specific than the BinRangeTable
+		if (provisionalResponse == null) {
+			provisionalResponse = binRangeTable.getProvisionalIinDetails(digits);
+		}
+		if (prefix == null) {
+			// A new response for every call, the listener may change it
+			listener.onIinLookupComplete(provisionalResponse != null ? provisionalResponse : new IinDetailsResponse(IinStatus.NOT_ENOUGH_DIGITS));
+			return;
+		}
+
+		if (provisionalResponse != null) {
+			listener.onIinLookupComplete(provisionalResponse);
+		}
+		if (quietPeriodMillis == 0) {
+			startLookup();
+		} else {
+			handler.postDelayed(startLookup, quietPeriodMillis);
+		}
+	}
+
+
+	/**
+	 * Cancels the lookup that is scheduled or in flight; its result is not reported
+	 */
+	public void cancel() {
+
+		handler.removeCallbacks(startLookup);
+		if (lookupHandle != null) {
+			lookupHandle.cancel();
+		}
+		prefix = null;
+		lookupListener = null;
+		lookupHandle = null;
+		result = null;
+	}
+
+
+	private void startLookup() {
+
+		lookupListener = new OnIinLookupCompleteListener() {
+			@Override
+			public void onIinLookupComplete(IinDetailsResponse response) {
+
+				// Only the lookup of the latest prefix is reported; a lookup that was cancelled may still complete
+				if (this != lookupListener) {
+					return;
+				}
+				lookupHandle = null;
+				result = response;
+				listener.onIinLookupComplete(response);
+			}
+		};
+		lookupHandle = session.startIinLookupForPipeline(context, prefix, lookupListener, paymentContext);
+	}
+}
@@ -0,0 +1,168 @@
+package com.globalcollect.gateway.sdk.client.android.sdk.session;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.globalcollect.gateway.sdk.client.android.sdk.asynctask.SdkExecutor.Priority;
+
+/**
+ * Keeps track of the calls to the GC gateway that are in flight, so identical calls can share one request
+ *
+ * Callers that ask for the same key while a call is in flight are added to the listeners of that call, and are called back
+ * with the same result as the first caller. Joining an in-flight call and starting a new one happen under one lock, so
+ * concurrent callers, on the main thread or on the threads of the GcSyncClient, never start the same call twice.
+ * When the call completes, its listeners are taken out under the same lock, so a caller either joined in time and is
+ * called back, or finds no call in flight and is served from the cache that the completed call has filled.
+ * Every caller gets its own CancellationHandle for the GcCall that executes the call. A caller with a higher priority than
+ * the call it joins raises the priority of that call, so it does not wait behind background work like the warm up.
+ * A call completes on the thread that executed it. Its listeners are called on the main thread, except DirectListeners,
+ * which are called on the completing thread, so the GcSyncClient does not wait for a main thread that is busy or absent.
+ *
+ * Copyright 2014 Global Collect Services B.V
+ *
+ */
+class SingleFlight<K, L> {
+
+	private Map<K, Flight<L>> flights = new HashMap<>();
+
+	// Calls the listeners that are not DirectListeners on the main thread
+	private Handler mainHandler = new Handler(Looper.getMainLooper());
+
+
+	/**
+	 * Adds the listener to the call for the given key when that call is in flight, or else registers the given flight as the
+	 * call for that key. The caller must execute the flight when isStarted() returns true afterwards.
+	 *
+	 * @param key, identifies the call
+	 * @param flight, the new call, with the priority of the caller, which is registered when no call for the key is in flight
+	 * @param listener, listener which will be called when the call completes; null for a call without a listener, like the warm up.
+	 *                  It is called on the main thread, or on the thread that completes the call when it is a DirectListener
+	 *
+	 * @return the handle of the listener
+	 */
+	CancellationHandle joinOrStart(K key, Flight<L> flight, L listener) {
+
+		Flight<L> inFlight;
+		CancellationHandle handle;
+		synchronized (this) {
+			inFlight = flights.get(key);
+			if (inFlight == null || inFlight.gcCall.isAborted()) {
+				flights.put(key, flight);
+				flight.started = true;
+				inFlight = flight;
+			}
+			List<L> listeners = listener instanceof DirectListener ? inFlight.directListeners : inFlight.listeners;
+			if (listener != null) {
+				listeners.add(listener);
+			}
+			handle = new CancellationHandle(inFlight.gcCall, listeners, listener);
+		}
+
+		if (inFlight != flight) {
+			inFlight.gcCall.raisePriority(flight.priority);
+		}
+		return handle;
+	}
+
+
+	/**
+	 * Completes the given flight, so the next caller starts a new call, and calls its listeners with the result of the call
+	 * Store the result of the call before, so callers that no longer find the call in flight find its result instead.
+	 *
+	 * @param key, identifies the call
+	 * @param flight, the call which has completed
+	 * @param delivery, calls a listener of the call with its result
+	 */
+	void complete(K key, Flight<L> flight, final Delivery<L> delivery) {
+
+		synchronized (this) {
+			flight.gcCall.finish();
+			if (flights.get(key) == flight) {
+				flights.remove(key);
+			}
+		}
+
+		for (L listener : flight.directListeners) {
+			delivery.deliver(listener);
+		}
+
+		// The list is read on the main thread, so a listener that is cancelled before then is not called
+		final List<L> listeners = flight.listeners;
+		if (!listeners.isEmpty()) {
+			mainHandler.post(new Runnable() {
+				@Override
+				public void run() {
+					for (L listener : listeners) {
+						delivery.deliver(listener);
+					}
+				}
+			});
+		}
+	}
+
+
+	/**
+	 * Removes the given flight, which has been aborted, so the next caller starts a new call
+	 *
+	 * @param key, identifies the call
+	 * @param flight, the call which has been aborted
+	 */
+	synchronized void abort(K key, Flight<L> flight) {
+		if (flights.get(key) == flight) {
+			flights.remove(key);
+		}
+	}
+
+
+	/**
+	 * A call to the GC gateway, with the GcCall that executes it and the listeners that wait for it
+	 */
+	static class Flight<L> {
+
+		private final GcCall gcCall;
+		private final Priority priority;
+		private final List<L> listeners = new CopyOnWriteArrayList<>();
+		private final List<L> directListeners = new CopyOnWriteArrayList<>();
+
+		// Whether joinOrStart registered this flight, instead of joining a call that was already in flight
+		private boolean started = false;
+
+		Flight(GcCall gcCall, Priority priority) {
+			this.gcCall = gcCall;
+			this.priority = priority;
+		}
+
+		GcCall getGcCall() {
+			return gcCall;
+		}
+
+		/**
+		 * Returns whether this flight is the call for its key, which the caller of joinOrStart must execute
+		 * Only read by the thread that called joinOrStart, after it returned.
+		 */
+		boolean isStarted() {
+			return started;
+		}
+	}
+
+
+	/**
+	 * Marks a listener that is called on the thread which completes the call, instead of on the main thread
+	 * Only for listeners that do no UI work, like the ones with which the GcSyncClient waits.
+	 */
+	interface DirectListener {
+	}
+
+
+	/**
+	 * Calls a listener of a completed call with the result of that call
+	 */
+	interface Delivery<L> {
+		void deliver(L listener);
+	}
+}